@@ -0,0 +1,11 @@
+package plugin.annotations;
+
+/**
+ * Direct call to a {@link Listener}, {@link Trigger} or {@link Schedule}
+ * method, generated at compile time. {@code event} is ignored by methods
+ * without a parameter.
+ */
+@FunctionalInterface
+public interface Invoker {
+    void invoke(Object instance, Object event) throws Exception;
+}
@@ -8,18 +8,34 @@ import javax.annotation.processing.RoundEnvironment;
 import javax.lang.model.SourceVersion;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
 import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
 import javax.tools.JavaFileObject;
 import java.io.IOException;
 import java.io.Writer;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.TreeSet;
 
 public class ComponentRegistryProcessor extends AbstractProcessor {
 
+    private static final List<String> INVOKED_ANNOTATIONS = List.of(
+            "plugin.annotations.Listener",
+            "plugin.annotations.Trigger",
+            "plugin.annotations.Schedule");
+
     private final Set<String> components = new TreeSet<>();
+    /** Generated invoker class name to its method keys and call expressions. */
+    private final Map<String, InvokerClass> invokers = new TreeMap<>();
     private boolean generated;
 
     @Override
@@ -46,14 +62,143 @@ public class ComponentRegistryProcessor extends AbstractProcessor {
             }
         }
 
+        for (String annotation : INVOKED_ANNOTATIONS) {
+            TypeElement type = processingEnv.getElementUtils().getTypeElement(annotation);
+            if (type == null) {
+                continue;
+            }
+            for (Element element : roundEnv.getElementsAnnotatedWith(type)) {
+                if (element instanceof ExecutableElement method) {
+                    found |= collectInvoker(method, type.getSimpleName().toString());
+                }
+            }
+        }
+
         if (found) {
             writeRegistry();
+            writeInvokers();
             generated = true;
         }
 
         return false;
     }
 
+    private boolean collectInvoker(ExecutableElement method, String annotation) {
+        if (method.getModifiers().contains(Modifier.PRIVATE)) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "@" + annotation + " method must not be private so a direct invoker can call it", method);
+            return false;
+        }
+
+        if (method.getParameters().size() > 1) {
+            // Rejected with a clear message by EventRegistrar at runtime.
+            return false;
+        }
+
+        TypeElement owner = (TypeElement) method.getEnclosingElement();
+
+        for (Element type = owner; type instanceof TypeElement; type = type.getEnclosingElement()) {
+            if (type.getModifiers().contains(Modifier.PRIVATE)) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        "@" + annotation + " method must not be declared in a private class", method);
+                return false;
+            }
+        }
+        String packageName = packageOf(owner);
+        String binaryName = processingEnv.getElementUtils().getBinaryName(owner).toString();
+        String flatName = packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1);
+        String className = (packageName.isEmpty() ? "" : packageName + ".") + flatName.replace('$', '_') + "_Invokers";
+
+        StringBuilder key = new StringBuilder(binaryName).append('#').append(method.getSimpleName()).append('(');
+        String argument = "";
+
+        if (method.getParameters().size() == 1) {
+            TypeMirror parameter = processingEnv.getTypeUtils().erasure(method.getParameters().get(0).asType());
+            key.append(runtimeName(parameter));
+            argument = "(" + parameter + ") event";
+        }
+        key.append(')');
+
+        String target = method.getModifiers().contains(Modifier.STATIC)
+                ? owner.getQualifiedName().toString()
+                : "((" + owner.getQualifiedName() + ") instance)";
+
+        invokers.computeIfAbsent(className, name -> new InvokerClass(packageName, name))
+                .calls.put(key.toString(), target + "." + method.getSimpleName() + "(" + argument + ")");
+        return true;
+    }
+
+    private String packageOf(TypeElement type) {
+        PackageElement pkg = processingEnv.getElementUtils().getPackageOf(type);
+        return pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
+    }
+
+    /** Matches {@code Class.getName()} so keys can be rebuilt from a {@code Method}. */
+    private String runtimeName(TypeMirror type) {
+        if (type.getKind() == TypeKind.DECLARED) {
+            TypeElement element = (TypeElement) ((DeclaredType) type).asElement();
+            return processingEnv.getElementUtils().getBinaryName(element).toString();
+        }
+        return type.toString();
+    }
+
+    private void writeInvokers() {
+        Filer filer = processingEnv.getFiler();
+
+        try {
+            for (InvokerClass invoker : invokers.values()) {
+                JavaFileObject file = filer.createSourceFile(invoker.name);
+                String simpleName = invoker.name.substring(invoker.name.lastIndexOf('.') + 1);
+
+                try (Writer writer = file.openWriter()) {
+                    if (!invoker.packageName.isEmpty()) {
+                        writer.write("package " + invoker.packageName + ";\n\n");
+                    }
+                    writer.write("public final class " + simpleName + " {\n\n");
+                    writer.write("    public static void register(java.util.Map<String, plugin.annotations.Invoker> invokers) {\n");
+                    for (Map.Entry<String, String> call : invoker.calls.entrySet()) {
+                        writer.write("        invokers.put(\"" + call.getKey() + "\",\n");
+                        writer.write("                (instance, event) -> " + call.getValue() + ");\n");
+                    }
+                    writer.write("    }\n\n");
+                    writer.write("    private " + simpleName + "() {\n");
+                    writer.write("    }\n");
+                    writer.write("}\n");
+                }
+            }
+
+            JavaFileObject file = filer.createSourceFile("plugin.core.InvokerRegistry");
+            try (Writer writer = file.openWriter()) {
+                writer.write("package plugin.core;\n\n");
+                writer.write("public final class InvokerRegistry {\n\n");
+                writer.write("    public static final java.util.Map<String, plugin.annotations.Invoker> INVOKERS;\n\n");
+                writer.write("    static {\n");
+                writer.write("        java.util.Map<String, plugin.annotations.Invoker> invokers = new java.util.HashMap<>();\n");
+                for (InvokerClass invoker : invokers.values()) {
+                    writer.write("        " + invoker.name + ".register(invokers);\n");
+                }
+                writer.write("        INVOKERS = java.util.Collections.unmodifiableMap(invokers);\n");
+                writer.write("    }\n\n");
+                writer.write("    private InvokerRegistry() {\n");
+                writer.write("    }\n");
+                writer.write("}\n");
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to generate invokers", e);
+        }
+    }
+
+    private static final class InvokerClass {
+        private final String packageName;
+        private final String name;
+        private final Map<String, String> calls = new TreeMap<>();
+
+        private InvokerClass(String packageName, String name) {
+            this.packageName = packageName;
+            this.name = name;
+        }
+    }
+
     private void writeRegistry() {
         Filer filer = processingEnv.getFiler();
 
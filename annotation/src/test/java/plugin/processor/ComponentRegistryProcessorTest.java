@@ -88,4 +88,55 @@ class ComponentRegistryProcessorTest {
         assertTrue(compilation.errors().isEmpty(), () -> compilation.errors().toString());
         assertTrue(compilation.generatedSourceFile("plugin.core.ComponentRegistry").isPresent());
     }
-}
\ No newline at end of file
+
+    @Test
+    void generatesDirectInvokersForHandlerMethods() throws Exception {
+        var compilation = javac()
+                .withProcessors(new ComponentRegistryProcessor())
+                .compile(
+                        forSourceLines("sample.Handlers",
+                                "package sample;",
+                                "import plugin.annotations.Component;",
+                                "import plugin.annotations.Listener;",
+                                "import plugin.annotations.Schedule;",
+                                "@Component public class Handlers {",
+                                "    public static class Event {}",
+                                "    @Listener void onEvent(Event event) {}",
+                                "    @Listener(Event.class) void onAny() {}",
+                                "    @Schedule(fixedDelay = 1) public void tick() {}",
+                                "}"));
+
+        assertTrue(compilation.errors().isEmpty(), () -> compilation.errors().toString());
+
+        String invokers = compilation.generatedSourceFile("sample.Handlers_Invokers")
+                .get().getCharContent(true).toString();
+
+        assertTrue(invokers.contains("\"sample.Handlers#onEvent(sample.Handlers$Event)\""));
+        assertTrue(invokers.contains("((sample.Handlers) instance).onEvent((sample.Handlers.Event) event)"));
+        assertTrue(invokers.contains("((sample.Handlers) instance).onAny()"));
+        assertTrue(invokers.contains("((sample.Handlers) instance).tick()"));
+        assertFalse(invokers.contains("java.lang.reflect"));
+
+        String registry = compilation.generatedSourceFile("plugin.core.InvokerRegistry")
+                .get().getCharContent(true).toString();
+
+        assertTrue(registry.contains("sample.Handlers_Invokers.register(invokers);"));
+    }
+
+    @Test
+    void rejectsPrivateHandlerMethods() {
+        var compilation = javac()
+                .withProcessors(new ComponentRegistryProcessor())
+                .compile(
+                        forSourceLines("sample.Hidden",
+                                "package sample;",
+                                "import plugin.annotations.Component;",
+                                "import plugin.annotations.Listener;",
+                                "@Component public class Hidden {",
+                                "    @Listener private void onEvent(String event) {}",
+                                "}"));
+
+        assertFalse(compilation.errors().isEmpty());
+        assertTrue(compilation.errors().get(0).getMessage(null).contains("must not be private"));
+    }
+}
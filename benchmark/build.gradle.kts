@@ -0,0 +1,63 @@
+import org.gradle.jvm.toolchain.JavaLanguageVersion
+
+java {
+    toolchain {
+        languageVersion = JavaLanguageVersion.of(17)
+    }
+}
+
+evaluationDependsOn(":server")
+
+val serverMain = project(":server").extensions.getByType<SourceSetContainer>()["main"]
+val jmhVersion = "1.37"
+
+dependencies {
+    implementation(project(":dto"))
+    implementation(project(":plugin"))
+    implementation(project(":annotation"))
+    // The server module is an application with its jar disabled; use its classes and runtime classpath directly.
+    implementation(serverMain.runtimeClasspath)
+
+    implementation("Anuken:Mindustry:${property("mindustryVersion")}")
+    implementation("com.fasterxml.jackson.core:jackson-databind:2.16.2")
+    implementation("org.xerial:sqlite-jdbc:3.43.2.0")
+
+    implementation("org.openjdk.jmh:jmh-core:$jmhVersion")
+    annotationProcessor("org.openjdk.jmh:jmh-generator-annprocess:$jmhVersion")
+}
+
+val resultsDir = layout.buildDirectory.dir("results/jmh")
+
+// ./gradlew :benchmark:jmh [-Pjmh.include=Regex] [-Pjmh.forks=1] [-Pjmh.profile=quick]
+tasks.register<JavaExec>("jmh") {
+    group = "benchmark"
+    description = "Runs the JMH benchmarks and writes results.json and results.txt"
+    dependsOn(tasks.named("classes"))
+
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("benchmark.report.BenchmarkMain")
+
+    val props = project.properties
+    args = listOfNotNull(
+        "--results", resultsDir.get().asFile.absolutePath,
+        (props["jmh.include"] as String?)?.let { "--include=$it" },
+        (props["jmh.forks"] as String?)?.let { "--forks=$it" },
+        (props["jmh.profile"] as String?)?.let { "--profile=$it" },
+    )
+}
+
+// ./gradlew :benchmark:jmhDiff -Pbaseline=old/results.txt [-Pcurrent=build/results/jmh/results.txt]
+tasks.register<JavaExec>("jmhDiff") {
+    group = "benchmark"
+    description = "Compares two results.txt files produced by the jmh task"
+    dependsOn(tasks.named("classes"))
+
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("benchmark.report.ResultsDiff")
+
+    val props = project.properties
+    args = listOf(
+        props["baseline"] as String? ?: "",
+        props["current"] as String? ?: resultsDir.get().file("results.txt").asFile.absolutePath,
+    )
+}
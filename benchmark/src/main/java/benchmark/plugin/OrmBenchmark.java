@@ -0,0 +1,119 @@
+package benchmark.plugin;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import plugin.orm.Row;
+import plugin.orm.SQLiteDatabase;
+import plugin.orm.query.InsertQuery;
+import plugin.orm.table.Column;
+import plugin.orm.table.Table;
+
+/**
+ * Query path of the plugin ORM against a temp-file database, the same shape
+ * the session repository uses: primary key reads, single upserts and a
+ * chunked multi-row upsert inside one transaction.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OrmBenchmark {
+
+    private static final Table<Object> SESSIONS = Table.of("sessions");
+    private static final Column<String> SESSION_UUID = SESSIONS.column("uuid", String.class);
+    private static final Column<String> DATA = SESSIONS.column("data", String.class);
+    private static final Column<Long> TOTAL_EXP = SESSIONS.column("totalExp", Long.class);
+
+    private static final int ROWS = 1_000;
+    private static final int BATCH = 100;
+
+    private Path dir;
+    private SQLiteDatabase db;
+    private long counter;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("orm-benchmark");
+        db = SQLiteDatabase.builder().path(dir.resolve("bench.db").toString()).build();
+        db.raw("CREATE TABLE IF NOT EXISTS sessions (uuid TEXT PRIMARY KEY, data TEXT NOT NULL, totalExp INTEGER DEFAULT 0)");
+
+        db.transaction(tx -> {
+            InsertQuery insert = tx.insert(SESSIONS);
+            for (int i = 0; i < ROWS; i++) {
+                if (i > 0) {
+                    insert.nextRow();
+                }
+                insert.set(SESSION_UUID, uuid(i)).set(DATA, "{}").set(TOTAL_EXP, (long) i);
+            }
+            insert.execute();
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        db.close();
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public Optional<Row> selectByKey() {
+        return db.select(SESSION_UUID, DATA, TOTAL_EXP)
+                .from(SESSIONS)
+                .where(SESSION_UUID.eq(uuid((int) (counter++ % ROWS))))
+                .fetchOne();
+    }
+
+    @Benchmark
+    public int upsert() {
+        long value = counter++;
+        return db.insert(SESSIONS)
+                .set(SESSION_UUID, uuid((int) (value % ROWS)))
+                .set(DATA, "{\"exp\":" + value + "}")
+                .set(TOTAL_EXP, value)
+                .onConflictDoUpdate(SESSION_UUID, DATA, TOTAL_EXP)
+                .execute();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void upsertBatch() {
+        long value = counter++;
+        db.transaction(tx -> {
+            InsertQuery insert = tx.insert(SESSIONS);
+            for (int i = 0; i < BATCH; i++) {
+                if (i > 0) {
+                    insert.nextRow();
+                }
+                insert.set(SESSION_UUID, uuid((int) ((value * BATCH + i) % ROWS)))
+                        .set(DATA, "{\"exp\":" + value + "}")
+                        .set(TOTAL_EXP, value);
+            }
+            insert.onConflictDoUpdate(SESSION_UUID, DATA, TOTAL_EXP).execute();
+        });
+    }
+
+    private static String uuid(int index) {
+        return UUID.nameUUIDFromBytes(("session-" + index).getBytes()).toString();
+    }
+}
@@ -0,0 +1,111 @@
+package benchmark.plugin;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import plugin.PluginEvents;
+import plugin.annotations.Invoker;
+
+/**
+ * Dispatch cost of {@link PluginEvents#fire(Object)} for the three ways a
+ * {@code @Listener} can end up registered: a plain lambda, a generated
+ * {@link Invoker} (written out by hand here, since running the processor in
+ * this module would emit a second {@code InvokerRegistry}) and reflective
+ * {@link Method#invoke}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PluginEventsBenchmark {
+
+    public record DirectEvent(int value) {
+    }
+
+    public record InvokerEvent(int value) {
+    }
+
+    public record ReflectionEvent(int value) {
+    }
+
+    public static class Handlers {
+        Blackhole blackhole;
+
+        void onInvoker(InvokerEvent event) {
+            blackhole.consume(event.value());
+        }
+
+        void onReflection(ReflectionEvent event) {
+            blackhole.consume(event.value());
+        }
+    }
+
+    @Param({ "1", "8" })
+    public int listeners;
+
+    private final DirectEvent direct = new DirectEvent(1);
+    private final InvokerEvent invoker = new InvokerEvent(2);
+    private final ReflectionEvent reflection = new ReflectionEvent(3);
+
+    @Setup(Level.Trial)
+    public void setup(Blackhole blackhole) throws NoSuchMethodException {
+        PluginEvents.unregister();
+
+        Handlers handlers = new Handlers();
+        handlers.blackhole = blackhole;
+
+        Invoker generated = (instance, event) -> ((Handlers) instance).onInvoker((InvokerEvent) event);
+
+        Method method = Handlers.class.getDeclaredMethod("onReflection", ReflectionEvent.class);
+        method.setAccessible(true);
+
+        for (int i = 0; i < listeners; i++) {
+            PluginEvents.on(DirectEvent.class, event -> blackhole.consume(event.value()));
+            PluginEvents.on(InvokerEvent.class, event -> {
+                try {
+                    generated.invoke(handlers, event);
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            PluginEvents.on(ReflectionEvent.class, event -> {
+                try {
+                    method.invoke(handlers, event);
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            });
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        PluginEvents.unregister();
+    }
+
+    @Benchmark
+    public void direct() {
+        PluginEvents.fire(direct);
+    }
+
+    @Benchmark
+    public void invoker() {
+        PluginEvents.fire(invoker);
+    }
+
+    @Benchmark
+    public void reflection() {
+        PluginEvents.fire(reflection);
+    }
+}
@@ -0,0 +1,32 @@
+package benchmark.plugin;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import plugin.utils.TextWidth;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TextWidthBenchmark {
+
+    private final String shortText = "[accent]Player";
+    private final String longText = "[scarlet]Server[] is restarting in [accent]30[] seconds, "
+            + "your progress has been saved. Type /hub to go back to the lobby.";
+
+    @Benchmark
+    public int measureShort() {
+        return TextWidth.measure(shortText);
+    }
+
+    @Benchmark
+    public int measureLong() {
+        return TextWidth.measure(longText);
+    }
+}
@@ -0,0 +1,68 @@
+package benchmark.plugin;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import plugin.utils.TrCatalog;
+
+/**
+ * Message lookups on the chat path. Catalogs are loaded from inline json so
+ * the bundled i18n resources do not affect the numbers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TrCatalogBenchmark {
+
+    private static final String EN = """
+            {
+              "server": {
+                "welcome": "Welcome {name} to {server}",
+                "restart": "Server is restarting in {seconds} seconds"
+              },
+              "vote": { "kick": { "started": "{player} started a vote to kick {target}" } }
+            }
+            """;
+
+    private static final String VI = """
+            {
+              "server": { "welcome": "Chao mung {name} den {server}" }
+            }
+            """;
+
+    private final Locale english = Locale.ENGLISH;
+    private final Locale regional = Locale.forLanguageTag("vi-VN");
+
+    private TrCatalog catalog;
+
+    @Setup
+    public void setup() {
+        catalog = new TrCatalog();
+        catalog.load("en", EN, null);
+        catalog.load("vi", VI, null);
+    }
+
+    @Benchmark
+    public String lookup() {
+        return catalog.lookup(english, "server.welcome");
+    }
+
+    @Benchmark
+    public String lookupWithFallback() {
+        return catalog.lookup(regional, "server.restart");
+    }
+
+    @Benchmark
+    public String resolveAndInterpolate() {
+        return catalog.interpolate(catalog.resolve(regional, "vote.kick.started"),
+                "player", "Alice", "target", "Bob");
+    }
+}
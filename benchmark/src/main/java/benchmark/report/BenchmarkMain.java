@@ -0,0 +1,75 @@
+package benchmark.report;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Runs the benchmarks with the repository defaults and writes both the raw
+ * JMH JSON and a sorted, one-line-per-benchmark {@code results.txt} meant to
+ * be committed or diffed with {@link ResultsDiff}.
+ */
+public class BenchmarkMain {
+
+    public static void main(String[] args) throws Exception {
+        String results = "build/results/jmh";
+        String include = "benchmark\\..*";
+        int forks = 1;
+        boolean quick = false;
+
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+
+            if (arg.equals("--results")) {
+                results = args[++i];
+            } else if (arg.startsWith("--include=")) {
+                include = arg.substring("--include=".length());
+            } else if (arg.startsWith("--forks=")) {
+                forks = Integer.parseInt(arg.substring("--forks=".length()));
+            } else if (arg.equals("--profile=quick")) {
+                quick = true;
+            } else {
+                throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+        }
+
+        File dir = new File(results);
+        if (!dir.exists() && !dir.mkdirs()) {
+            throw new IllegalStateException("Can not create " + dir);
+        }
+
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .include(include)
+                .forks(forks)
+                .timeUnit(TimeUnit.NANOSECONDS)
+                .resultFormat(ResultFormatType.JSON)
+                .result(new File(dir, "results.json").getAbsolutePath());
+
+        if (quick) {
+            options.warmupIterations(1)
+                    .warmupTime(TimeValue.milliseconds(500))
+                    .measurementIterations(3)
+                    .measurementTime(TimeValue.milliseconds(500));
+        } else {
+            options.warmupIterations(3)
+                    .warmupTime(TimeValue.seconds(1))
+                    .measurementIterations(5)
+                    .measurementTime(TimeValue.seconds(1));
+        }
+
+        Collection<RunResult> runResults = new Runner(options.build()).run();
+
+        Path text = new File(dir, "results.txt").toPath();
+        ResultsFile.write(text, ResultsFile.from(runResults));
+
+        System.out.println("Wrote " + text.toAbsolutePath());
+    }
+}
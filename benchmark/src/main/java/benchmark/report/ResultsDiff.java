@@ -0,0 +1,61 @@
+package benchmark.report;
+
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Prints the relative change of every benchmark between two results.txt
+ * files. A change is only flagged when the score moved further than the
+ * combined error of both runs.
+ */
+public class ResultsDiff {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 2 || args[0].isBlank()) {
+            System.err.println("Usage: ResultsDiff <baseline results.txt> <current results.txt>");
+            System.exit(2);
+            return;
+        }
+
+        Map<String, ResultsFile.Line> baseline = index(Path.of(args[0]));
+        Map<String, ResultsFile.Line> current = index(Path.of(args[1]));
+
+        TreeSet<String> keys = new TreeSet<>(baseline.keySet());
+        keys.addAll(current.keySet());
+
+        for (String key : keys) {
+            ResultsFile.Line before = baseline.get(key);
+            ResultsFile.Line after = current.get(key);
+
+            if (before == null) {
+                System.out.printf(Locale.ROOT, "%-70s %12s -> %12.3f %s  (new)%n", key.replace('\t', ' '), "-",
+                        after.score(), after.unit());
+                continue;
+            }
+            if (after == null) {
+                System.out.printf(Locale.ROOT, "%-70s %12.3f -> %12s %s  (removed)%n", key.replace('\t', ' '),
+                        before.score(), "-", before.unit());
+                continue;
+            }
+
+            double change = before.score() == 0 ? 0 : (after.score() - before.score()) / before.score() * 100;
+            boolean significant = Math.abs(after.score() - before.score()) > before.error() + after.error();
+            boolean better = after.higherIsBetter() ? change > 0 : change < 0;
+            String verdict = !significant ? "~" : better ? "better" : "worse";
+
+            System.out.printf(Locale.ROOT, "%-70s %12.3f -> %12.3f %s  %+7.1f%% %s%n", key.replace('\t', ' '),
+                    before.score(), after.score(), after.unit(), change, verdict);
+        }
+    }
+
+    private static Map<String, ResultsFile.Line> index(Path path) throws Exception {
+        Map<String, ResultsFile.Line> lines = new LinkedHashMap<>();
+        for (ResultsFile.Line line : ResultsFile.read(path)) {
+            lines.put(line.key(), line);
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,101 @@
+package benchmark.report;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+
+/**
+ * Stable text form of benchmark results: a header line, then one
+ * tab-separated line per benchmark sorted by name. Machine details and dates
+ * are deliberately left out so two runs only differ where scores differ.
+ */
+public final class ResultsFile {
+
+    static final String HEADER = "# benchmark\tmode\tscore\terror\tunit";
+
+    public record Line(String benchmark, String mode, double score, double error, String unit) {
+
+        public String key() {
+            return benchmark + "\t" + mode;
+        }
+
+        public boolean higherIsBetter() {
+            return mode.equals("thrpt");
+        }
+
+        String format() {
+            return String.format(Locale.ROOT, "%s\t%s\t%.3f\t%.3f\t%s", benchmark, mode, score, error, unit);
+        }
+
+        static Line parse(String text) {
+            String[] parts = text.split("\t");
+            if (parts.length != 5) {
+                throw new IllegalArgumentException("Malformed results line: " + text);
+            }
+            return new Line(parts[0], parts[1], Double.parseDouble(parts[2]), Double.parseDouble(parts[3]), parts[4]);
+        }
+    }
+
+    private ResultsFile() {
+    }
+
+    public static List<Line> from(Collection<RunResult> runResults) {
+        List<Line> lines = new ArrayList<>();
+
+        for (RunResult run : runResults) {
+            BenchmarkParams params = run.getParams();
+            Result<?> primary = run.getPrimaryResult();
+
+            String name = params.getBenchmark();
+            Map<String, String> values = new TreeMap<>();
+            for (String key : params.getParamsKeys()) {
+                values.put(key, params.getParam(key));
+            }
+            if (!values.isEmpty()) {
+                StringBuilder suffix = new StringBuilder(":");
+                values.forEach((key, value) -> suffix.append(suffix.length() > 1 ? "," : "")
+                        .append(key).append('=').append(value));
+                name += suffix;
+            }
+
+            double error = Double.isNaN(primary.getScoreError()) ? 0 : primary.getScoreError();
+            lines.add(new Line(name, params.getMode().shortLabel(), primary.getScore(), error,
+                    primary.getScoreUnit()));
+        }
+
+        lines.sort(Comparator.comparing(Line::key));
+        return lines;
+    }
+
+    public static void write(Path path, List<Line> lines) throws IOException {
+        List<String> text = new ArrayList<>();
+        text.add(HEADER);
+        for (Line line : lines) {
+            text.add(line.format());
+        }
+        Files.write(path, text, StandardCharsets.UTF_8);
+    }
+
+    public static List<Line> read(Path path) throws IOException {
+        List<Line> lines = new ArrayList<>();
+        for (String text : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+            if (text.isBlank() || text.startsWith("#")) {
+                continue;
+            }
+            lines.add(Line.parse(text));
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,58 @@
+package benchmark.server;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import dto.PlayerDto;
+import dto.ServerStateDto;
+import dto.ServerStatus;
+import server.utils.Utils;
+
+/**
+ * Serialization of the state snapshot the manager pushes to every SSE client.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JsonBenchmark {
+
+    private ServerStateDto state;
+
+    @Setup
+    public void setup() {
+        List<PlayerDto> players = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            // PlayerDto is only constructed from a live Player, so go through the mapper.
+            players.add(Utils.objectMapper.convertValue(Map.of(
+                    "uuid", UUID.nameUUIDFromBytes(("player-" + i).getBytes()).toString(),
+                    "name", "[accent]Player " + i,
+                    "ip", "10.0.0." + i,
+                    "locale", "en",
+                    "joinedAt", 1_700_000_000_000L + i,
+                    "team", Map.of("name", "sharded", "color", "ffd37fff")), PlayerDto.class));
+        }
+
+        state = new ServerStateDto()
+                .setServerId(UUID.nameUUIDFromBytes("server".getBytes()))
+                .setPlayers(players)
+                .setMapName("Frozen Forest")
+                .setStatus(ServerStatus.ONLINE)
+                .setStartedAt(1_700_000_000_000L);
+    }
+
+    @Benchmark
+    public String toJsonString() {
+        return Utils.toJsonString(state);
+    }
+}
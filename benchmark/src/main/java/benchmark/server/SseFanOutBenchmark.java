@@ -0,0 +1,75 @@
+package benchmark.server;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import events.ServerEvents.LogEvent;
+import server.service.EventHistory;
+import server.utils.Utils;
+
+/**
+ * Cost of delivering one event to every connected SSE client.
+ * {@code perSubscriber} serializes the event for each client as the route
+ * used to; {@code serializeOnce} writes the shared frame of a fresh history
+ * entry, so its cost should not grow with {@code subscribers} beyond the
+ * byte copy.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SseFanOutBenchmark {
+
+    @Param({ "1", "20" })
+    public int subscribers;
+
+    private final UUID serverId = UUID.nameUUIDFromBytes("server".getBytes());
+
+    private EventHistory history;
+    private OutputStream[] clients;
+
+    @Setup
+    public void setup() {
+        history = new EventHistory(1000);
+        clients = new OutputStream[subscribers];
+
+        for (int i = 0; i < subscribers; i++) {
+            clients[i] = OutputStream.nullOutputStream();
+        }
+    }
+
+    private LogEvent event() {
+        return LogEvent.info(serverId, "[Orchestrator] Player joined: [accent]Someone[] (12/30)");
+    }
+
+    @Benchmark
+    public void perSubscriber() throws IOException {
+        LogEvent event = event();
+        long id = history.lastSequence() + 1;
+
+        for (OutputStream client : clients) {
+            String frame = "id: " + id + "\nevent: message\ndata: " + Utils.toJsonString(event) + "\n\n";
+            client.write(frame.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Benchmark
+    public void serializeOnce() throws IOException {
+        EventHistory.Entry entry = history.append(event());
+
+        for (OutputStream client : clients) {
+            client.write(entry.frame());
+        }
+    }
+}
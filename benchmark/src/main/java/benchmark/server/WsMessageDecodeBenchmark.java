@@ -0,0 +1,87 @@
+package benchmark.server;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import dto.ServerStateDto;
+import dto.ServerStatus;
+import dto.WsMessage;
+import io.javalin.json.JavalinJackson;
+import server.utils.Utils;
+
+/**
+ * Decoding a gateway frame and binding its payload. {@code twoPass} is the
+ * previous path, copied from the old {@code GatewayClient.onMessage} and
+ * {@code Server.sendRequest}: the frame is read into a tree and again into a
+ * {@link WsMessage} through Javalin's mapper, then the payload tree is bound.
+ * {@code codec} is the streaming {@link dto.WsMessageCodec} used by the
+ * gateway now.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class WsMessageDecodeBenchmark {
+
+    private String frame;
+
+    /** Configured as in ServerMain; {@code WsMessageContext.messageAsClass} delegates to it. */
+    private final JavalinJackson javalinMapper = new JavalinJackson().updateMapper(mapper -> {
+        mapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    });
+
+    @Setup
+    public void setup() {
+        List<Map<String, Object>> players = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            players.add(Map.of(
+                    "uuid", UUID.nameUUIDFromBytes(("player-" + i).getBytes()).toString(),
+                    "name", "[accent]Player " + i,
+                    "ip", "10.0.0." + i,
+                    "locale", "en"));
+        }
+
+        Map<String, Object> payload = Map.of(
+                "serverId", UUID.nameUUIDFromBytes("server".getBytes()).toString(),
+                "players", players,
+                "mapName", "Frozen Forest",
+                "status", ServerStatus.ONLINE.name(),
+                "startedAt", 1_700_000_000_000L);
+
+        WsMessage<Object> message = WsMessage.create("SERVER_STATE");
+        message.setResponseOf(UUID.nameUUIDFromBytes("request".getBytes())).setPayload(payload);
+
+        frame = Utils.toJsonString(message);
+    }
+
+    @Benchmark
+    public ServerStateDto twoPass() {
+        JsonNode json = javalinMapper.fromJsonString(frame, JsonNode.class);
+        JsonNode payload = json.get("payload");
+        WsMessage<?> wsMessage = javalinMapper.fromJsonString(frame, WsMessage.class);
+
+        if (wsMessage.getResponseOf() == null || wsMessage.isError()) {
+            throw new IllegalStateException("Expected a response frame");
+        }
+
+        return Utils.readJsonAsClass(payload, ServerStateDto.class);
+    }
+
+    @Benchmark
+    public ServerStateDto codec() {
+        return Utils.readWsMessage(frame).payloadAs(ServerStateDto.class);
+    }
+}
@@ -1,11 +1,14 @@
 package dto;
 
+import java.util.UUID;
+
 import lombok.Data;
 import lombok.experimental.Accessors;
 
 @Data
 @Accessors(chain = true)
 public class ServerConfigDto {
+    UUID serverId;
     String jwt;
     StartServerDto startServer;
 }
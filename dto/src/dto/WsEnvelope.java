@@ -0,0 +1,110 @@
+package dto;
+
+import java.io.IOException;
+import java.util.UUID;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * A decoded {@link WsMessage} whose payload is kept as buffered tokens until a
+ * handler knows which class it should be bound to.
+ */
+@Getter
+@ToString
+public class WsEnvelope {
+    private final UUID id;
+    private final String type;
+    private final UUID responseOf;
+    private final boolean isError;
+
+    @ToString.Exclude
+    @Getter(AccessLevel.NONE)
+    private final TokenBuffer payload;
+
+    /** Raw payload of a binary frame, sent as is instead of as json. */
+    @ToString.Exclude
+    @Getter(AccessLevel.NONE)
+    private final byte[] binary;
+
+    @ToString.Exclude
+    @Getter(AccessLevel.NONE)
+    private final ObjectMapper mapper;
+
+    WsEnvelope(ObjectMapper mapper, UUID id, String type, UUID responseOf, boolean isError, TokenBuffer payload) {
+        this(mapper, id, type, responseOf, isError, payload, null);
+    }
+
+    WsEnvelope(ObjectMapper mapper, UUID id, String type, UUID responseOf, boolean isError, TokenBuffer payload,
+            byte[] binary) {
+        this.mapper = mapper;
+        this.id = id;
+        this.type = type;
+        this.responseOf = responseOf;
+        this.isError = isError;
+        this.payload = payload;
+        this.binary = binary;
+    }
+
+    public boolean hasPayload() {
+        return payload != null || binary != null;
+    }
+
+    public boolean isBinary() {
+        return binary != null;
+    }
+
+    public byte[] payloadAsBytes() {
+        if (binary == null) {
+            throw new IllegalStateException("Expected a binary frame for " + (type != null ? type : responseOf));
+        }
+
+        return binary;
+    }
+
+    public <T> T payloadAs(Class<T> clazz) {
+        return payloadAs(mapper.getTypeFactory().constructType(clazz));
+    }
+
+    public <T> T payloadAs(JavaType type) {
+        if (payload == null) {
+            return null;
+        }
+
+        try (JsonParser parser = payload.asParser(mapper)) {
+            return mapper.readValue(parser, type);
+        } catch (IOException e) {
+            throw new RuntimeException("Can not parse to json: " + e.getMessage(), e);
+        }
+    }
+
+    public String payloadAsString() {
+        return String.valueOf(payloadAs(JsonNode.class));
+    }
+
+    public <TT> WsMessage<TT> response(TT payload) {
+        WsMessage<TT> response = new WsMessage<>();
+        response.setId(UUID.randomUUID())
+                .setType(type)
+                .setResponseOf(id)
+                .setPayload(payload);
+        return response;
+    }
+
+    public WsMessage<?> error(Object payload) {
+        WsMessage<Object> error = new WsMessage<>();
+        error.setId(UUID.randomUUID())
+                .setType(type)
+                .setResponseOf(id)
+                .setPayload(payload)
+                .setError(true);
+        return error;
+    }
+}
@@ -0,0 +1,118 @@
+package dto;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+/**
+ * Decodes gateway frames in a single streaming pass. Envelope fields are read
+ * directly from the parser and the payload is copied into a {@link TokenBuffer},
+ * so it is never materialized as a tree or parsed from text twice.
+ * <p>
+ * Bulk responses such as images go as binary frames instead: the 16 bytes of
+ * the request id they answer, followed by the raw payload.
+ */
+public class WsMessageCodec {
+    private static final int BINARY_HEADER_SIZE = 16;
+
+    private final ObjectMapper mapper;
+
+    public WsMessageCodec(ObjectMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    public WsEnvelope decode(String text) throws IOException {
+        try (JsonParser parser = mapper.getFactory().createParser(text)) {
+            return decode(parser);
+        }
+    }
+
+    public WsEnvelope decode(byte[] data) throws IOException {
+        try (JsonParser parser = mapper.getFactory().createParser(data)) {
+            return decode(parser);
+        }
+    }
+
+    public WsEnvelope decodeBinary(byte[] frame) throws IOException {
+        return decodeBinary(frame, 0, frame.length);
+    }
+
+    public WsEnvelope decodeBinary(byte[] frame, int offset, int length) throws IOException {
+        if (length < BINARY_HEADER_SIZE) {
+            throw new IOException("Binary websocket frame too short: " + length + " bytes");
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(frame, offset, length);
+        UUID responseOf = new UUID(buffer.getLong(), buffer.getLong());
+
+        byte[] payload = new byte[length - BINARY_HEADER_SIZE];
+        buffer.get(payload);
+
+        return new WsEnvelope(mapper, null, null, responseOf, false, null, payload);
+    }
+
+    public static byte[] encodeBinary(UUID responseOf, byte[] payload) {
+        return ByteBuffer.allocate(BINARY_HEADER_SIZE + payload.length)
+                .putLong(responseOf.getMostSignificantBits())
+                .putLong(responseOf.getLeastSignificantBits())
+                .put(payload)
+                .array();
+    }
+
+    private WsEnvelope decode(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IOException("Expected a json object for websocket message");
+        }
+
+        UUID id = null;
+        String type = null;
+        UUID responseOf = null;
+        boolean isError = false;
+        TokenBuffer payload = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+
+            switch (field) {
+                case "id":
+                    id = readUuid(parser, token);
+                    break;
+                case "type":
+                    type = token == JsonToken.VALUE_NULL ? null : parser.getText();
+                    break;
+                case "responseOf":
+                    responseOf = readUuid(parser, token);
+                    break;
+                case "error":
+                case "isError":
+                    isError = token == JsonToken.VALUE_TRUE;
+                    break;
+                case "payload":
+                    if (token != JsonToken.VALUE_NULL) {
+                        payload = new TokenBuffer(parser);
+                        payload.copyCurrentStructure(parser);
+                    }
+                    break;
+                default:
+                    parser.skipChildren();
+                    break;
+            }
+        }
+
+        return new WsEnvelope(mapper, id, type, responseOf, isError, payload);
+    }
+
+    private static UUID readUuid(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+
+        return UUID.fromString(parser.getText());
+    }
+}
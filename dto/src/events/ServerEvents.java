@@ -92,6 +92,35 @@ public class ServerEvents {
         }
     }
 
+    /** The server's container was frozen; it keeps its memory but uses no cpu. */
+    @Accessors(chain = true)
+    @Data
+    @EqualsAndHashCode(callSuper = false)
+    @NoArgsConstructor
+    public static class PauseEvent extends BaseEvent {
+
+        private String reason;
+
+        public PauseEvent(UUID serverId, String reason) {
+            super(serverId, "pause");
+            this.reason = reason;
+        }
+    }
+
+    @Accessors(chain = true)
+    @Data
+    @EqualsAndHashCode(callSuper = false)
+    @NoArgsConstructor
+    public static class ResumeEvent extends BaseEvent {
+
+        private String reason;
+
+        public ResumeEvent(UUID serverId, String reason) {
+            super(serverId, "resume");
+            this.reason = reason;
+        }
+    }
+
     @Accessors(chain = true)
     @Data
     @EqualsAndHashCode(callSuper = false)
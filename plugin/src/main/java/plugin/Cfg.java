@@ -39,6 +39,9 @@ public class Cfg {
 
     public static final boolean IS_DEVELOPMENT = ENV != null && ENV.equals("DEV");
 
+    public static final String STANDBY = System.getenv("STANDBY");
+    public static final boolean IS_STANDBY = STANDBY != null && STANDBY.equals("true");
+
     public static final String SERVER_IP = "103.20.96.24";
     public static final String DISCORD_INVITE_URL = "https://mindustry-tool.com/links/mindustry-tool";
     public static final String MINDUSTRY_TOOL_URL = "https://mindustry-tool.com";
@@ -50,6 +53,8 @@ public class Cfg {
     public static final int COLOR_NAME_LEVEL = 10;
     public static final int GRIEF_REPORT_COOLDOWN = 60;
 
+    public static final int SESSION_FLUSH_BATCH_SIZE = intEnv("SESSION_FLUSH_BATCH_SIZE", 200);
+
     public static ServerConfigDto serverConfig() {
         try {
             Fi file = Vars.dataDirectory.child("server.json");
@@ -68,7 +73,36 @@ public class Cfg {
         return serverConfig != null ? serverConfig.getJwt() : null;
     }
 
+    /**
+     * A standby container starts without a server; the manager binds it by
+     * writing server.json with the server id, so that file wins over the env.
+     */
     public static String serverId() {
+        ServerConfigDto serverConfig = serverConfig();
+
+        if (serverConfig != null && serverConfig.getServerId() != null) {
+            return serverConfig.getServerId().toString();
+        }
+
         return System.getenv("SERVER_ID");
     }
+
+    public static boolean awaitingClaim() {
+        return IS_STANDBY && !Vars.dataDirectory.child("server.json").exists();
+    }
+
+    private static int intEnv(String name, int fallback) {
+        String value = System.getenv(name);
+
+        if (value == null || value.isBlank()) {
+            return fallback;
+        }
+
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            Log.warn("Invalid @ value: @, using @", name, value, fallback);
+            return fallback;
+        }
+    }
 }
@@ -24,7 +24,8 @@ import plugin.event.KickEvent;
 public class Control extends mindustry.mod.Plugin {
 
     public static final Instant start = Instant.now();
-    public static final UUID SERVER_ID = UUID.fromString(System.getenv("SERVER_ID"));
+    /** Replaced once when a standby container is claimed, see {@link Cfg#serverId()}. */
+    public static volatile UUID SERVER_ID = UUID.fromString(System.getenv("SERVER_ID"));
 
     public static PluginState state = PluginState.LOADING;
 
@@ -74,7 +75,7 @@ public class Control extends mindustry.mod.Plugin {
     }
 
     @Schedule(delay = 10, fixedDelay = 3, unit = TimeUnit.MINUTES)
-    private void checkInvalidState() {
+    void checkInvalidState() {
         if (Vars.state.isGame() && !Vars.net.server() && state == PluginState.LOADED) {
             Log.err("[scarlet]Server in invalid state, auto exit: state=@, server=@, plugin-state=@",
                     Vars.state.getState().name(),
@@ -129,7 +130,7 @@ public class Control extends mindustry.mod.Plugin {
     }
 
     @Schedule(delay = 2, fixedDelay = 2, unit = TimeUnit.SECONDS)
-    private void autoPause() {
+    void autoPause() {
         if (Vars.state.isPlaying() && Groups.player.size() == 0) {
             Vars.state.set(State.paused);
             Log.info("No player: paused");
@@ -3,6 +3,7 @@ package plugin.core;
 import arc.func.Cons;
 import arc.util.Log;
 import plugin.PluginEvents;
+import plugin.annotations.Invoker;
 import plugin.annotations.Listener;
 import plugin.annotations.Trigger;
 
@@ -12,9 +13,10 @@ public class EventRegistrar {
 
     public void register(Trigger trigger, Object instance, Method method) {
         if (method.getParameterCount() == 0) {
+            Invoker invoker = Invokers.of(method);
             PluginEvents.run(trigger.value(), () -> {
                 try {
-                    method.invoke(instance);
+                    invoker.invoke(instance, null);
                 } catch (Exception e) {
                     Log.err("Failed to invoke trigger @ in @", method.getName(), instance.getClass().getName());
                     Log.err(e);
@@ -33,9 +35,10 @@ public class EventRegistrar {
 
         if (paramCount == 1) {
             Class<?> eventType = method.getParameterTypes()[0];
+            Invoker invoker = Invokers.of(method);
             PluginEvents.on(eventType, (Cons) event -> {
                 try {
-                    method.invoke(instance, event);
+                    invoker.invoke(instance, event);
                 } catch (Exception e) {
                     Log.err("Failed to invoke listener @ in @", method.getName(), clazz.getName());
                     Log.err(e);
@@ -52,9 +55,10 @@ public class EventRegistrar {
                 return;
             }
 
+            Invoker invoker = Invokers.of(method);
             PluginEvents.run(eventType, () -> {
                 try {
-                    method.invoke(instance);
+                    invoker.invoke(instance, null);
                 } catch (Exception e) {
                     Log.err("Failed to invoke listener @ in @", method.getName(), clazz.getName());
                     Log.err(e);
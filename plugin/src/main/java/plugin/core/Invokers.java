@@ -0,0 +1,63 @@
+package plugin.core;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+import arc.util.Log;
+import plugin.annotations.Invoker;
+
+/**
+ * Resolves the compile-time generated {@link Invoker} for a handler method.
+ * Only classes compiled without the annotation processor, such as test
+ * fixtures, fall back to reflection.
+ */
+public final class Invokers {
+
+    private Invokers() {
+    }
+
+    public static String key(Method method) {
+        StringBuilder key = new StringBuilder(method.getDeclaringClass().getName())
+                .append('#')
+                .append(method.getName())
+                .append('(');
+
+        Class<?>[] parameters = method.getParameterTypes();
+        for (int i = 0; i < parameters.length; i++) {
+            if (i > 0) {
+                key.append(',');
+            }
+            key.append(parameters[i].getName());
+        }
+
+        return key.append(')').toString();
+    }
+
+    public static Invoker of(Method method) {
+        Invoker invoker = InvokerRegistry.INVOKERS.get(key(method));
+
+        if (invoker != null) {
+            return invoker;
+        }
+
+        Log.debug("[gray]No generated invoker for @, using reflection", method);
+        method.setAccessible(true);
+
+        if (method.getParameterCount() == 0) {
+            return (instance, event) -> reflect(method, instance);
+        }
+
+        return (instance, event) -> reflect(method, instance, event);
+    }
+
+    private static void reflect(Method method, Object instance, Object... args) throws Exception {
+        try {
+            method.invoke(instance, args);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
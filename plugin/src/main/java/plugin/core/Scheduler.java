@@ -2,6 +2,7 @@ package plugin.core;
 
 import plugin.annotations.Component;
 import plugin.annotations.Destroy;
+import plugin.annotations.Invoker;
 import plugin.annotations.MainThread;
 import plugin.annotations.Schedule;
 
@@ -106,10 +107,12 @@ public class Scheduler {
     }
 
     private Runnable createInvocationTask(Object instance, Method method, boolean isMainThread) {
+        Invoker invoker = Invokers.of(method);
+
         return () -> {
             try {
                 long start = Time.millis();
-                method.invoke(instance);
+                invoker.invoke(instance, null);
                 long elapsed = Time.millis() - start;
                 if (isMainThread && elapsed > 1000) {
                     Log.warn("Task @" + method + " took " + elapsed + "ms");
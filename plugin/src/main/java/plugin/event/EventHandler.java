@@ -46,7 +46,7 @@ public class EventHandler {
     }
 
     @Listener
-    private void onPlayerBan(PlayerBanEvent event) {
+    void onPlayerBan(PlayerBanEvent event) {
         String message = Strings.format("[scarlet]Player @ has been banned", event.player.name);
 
         apiGateway.fire(ServerEvents.LogEvent.info(Control.SERVER_ID, message));
@@ -54,7 +54,7 @@ public class EventHandler {
     }
 
     @Listener
-    private void onPlayerLeave(PlayerLeave event) {
+    void onPlayerLeave(PlayerLeave event) {
         if (event.player.con != null && event.player.con.kicked) {
             String message = Strings.format("[scarlet]Player @ has been kicked", event.player.name);
 
@@ -64,7 +64,7 @@ public class EventHandler {
     }
 
     @Listener
-    private void onGameOver(GameOverEvent event) {
+    void onGameOver(GameOverEvent event) {
         var rateMap = Vars.state.map;
 
         if (rateMap != null) {
@@ -73,7 +73,7 @@ public class EventHandler {
     }
 
     @Listener
-    private void onWorldLoadEnd(WorldLoadEndEvent event) {
+    void onWorldLoadEnd(WorldLoadEndEvent event) {
         var currentMap = Vars.state.map;
 
         if (currentMap != null) {
@@ -91,7 +91,7 @@ public class EventHandler {
     }
 
     @Listener
-    private void onPlayerConnect(PlayerConnect event) {
+    void onPlayerConnect(PlayerConnect event) {
         try {
             var player = event.player;
 
@@ -108,7 +108,7 @@ public class EventHandler {
     }
 
     @Listener
-    private void onRemovedEvent(SessionRemovedEvent event) {
+    void onRemovedEvent(SessionRemovedEvent event) {
         try {
             var request = PlayerDto.from(event.session.player).setJoinedAt(event.session.joinedAt);
             apiGateway.fire(new ServerEvents.PlayerLeaveEvent(Control.SERVER_ID, request));
@@ -132,7 +132,7 @@ public class EventHandler {
     }
 
     @Listener
-    private void onSessionCreatedEvent(SessionCreatedEvent event) {
+    void onSessionCreatedEvent(SessionCreatedEvent event) {
         try {
             if (Vars.state.isPaused()) {
                 Vars.state.set(State.playing);
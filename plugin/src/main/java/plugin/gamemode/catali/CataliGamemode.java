@@ -192,7 +192,7 @@ public class CataliGamemode {
     }
 
     @Schedule(fixedRate = 1, unit = TimeUnit.SECONDS)
-    private void updateBossEffect() {
+    void updateBossEffect() {
         if (!bossSpawnPos.isZero()) {
             Call.effect(Fx.launchAccelerator, bossSpawnPos.x, bossSpawnPos.y, 0, Color.scarlet);
         }
@@ -268,7 +268,7 @@ public class CataliGamemode {
 
     @MainThread
     @Schedule(fixedRate = 1, unit = TimeUnit.SECONDS)
-    private void updateLogic() {
+    void updateLogic() {
         if (!shouldUpdate()) {
             return;
         }
@@ -338,7 +338,7 @@ public class CataliGamemode {
     }
 
     @Schedule(fixedRate = 1, unit = TimeUnit.SECONDS)
-    private void updateStatsHud() {
+    void updateStatsHud() {
         if (!shouldUpdate()) {
             return;
         }
@@ -813,7 +813,7 @@ Call.infoPopup(event.player.con, Tr.t(event.player, "catali.tile_not_safe"),
     }
 
     @Listener
-    private void onBlockDestroy(BlockDestroyEvent e) {
+    void onBlockDestroy(BlockDestroyEvent e) {
         var build = e.tile.build;
         if (build == null) {
             return;
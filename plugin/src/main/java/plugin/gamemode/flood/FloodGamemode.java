@@ -90,17 +90,17 @@ public class FloodGamemode {
     }
 
     @Listener
-    private void onPlayEvent(EventType.PlayEvent event) {
+    void onPlayEvent(EventType.PlayEvent event) {
         applyRules();
     }
 
     @Listener
-    private void onPlayerJoin(SessionCreatedEvent event) {
+    void onPlayerJoin(SessionCreatedEvent event) {
         event.session.player.sendMessage(Tr.t(event.session, "flood.objective"));
     }
 
     @Schedule(fixedRate = 30, unit = TimeUnit.SECONDS)
-    private void spawnNightUnit() {
+    void spawnNightUnit() {
         if (!isNight || !shouldUpdate()) {
             return;
         }
@@ -172,7 +172,7 @@ public class FloodGamemode {
     }
 
     @Trigger(EventType.Trigger.update)
-    private void update() {
+    void update() {
         if (!shouldUpdate()) {
             return;
         }
@@ -200,7 +200,7 @@ public class FloodGamemode {
 
     @MainThread
     @Schedule(fixedDelay = 100, unit = TimeUnit.MILLISECONDS)
-    private void updateUnitDamgeOnFlood() {
+    void updateUnitDamgeOnFlood() {
         if (!shouldUpdate()) {
             return;
         }
@@ -356,7 +356,7 @@ public class FloodGamemode {
     }
 
     @Listener
-    private void onBlockDestroyed(BlockDestroyEvent event) {
+    void onBlockDestroyed(BlockDestroyEvent event) {
         var tile = event.tile;
         var block = tile.build;
 
@@ -416,7 +416,7 @@ public class FloodGamemode {
 
     @MainThread
     @Schedule(fixedRate = 1, unit = TimeUnit.SECONDS)
-    private void updateSuppress() {
+    void updateSuppress() {
         if (!shouldUpdate()) {
             return;
         }
@@ -20,7 +20,7 @@ import plugin.annotations.Listener;
 public class SandboxGamemode {
 
     @Listener
-    private void onPlayEvent(EventType.PlayEvent event) {
+    void onPlayEvent(EventType.PlayEvent event) {
         List<Block> blocks = Arrays.asList(
                 Blocks.removeWall, Blocks.removeOre, Blocks.deepwater, Blocks.water,
                 Blocks.taintedWater, Blocks.deepTaintedWater, Blocks.tar, Blocks.slag,
@@ -44,7 +44,7 @@ public class ZigerGamemode {
     private Seq<Liquid> allLiquids;
 
     @Listener
-    private void onWorldLoad(WorldLoadEvent event) {
+    void onWorldLoad(WorldLoadEvent event) {
         clearCache();
         allItems = Vars.content.items();
         allLiquids = Vars.content.liquids();
@@ -52,7 +52,7 @@ public class ZigerGamemode {
     }
 
     @Listener
-    private void onBlockPlaced(BlockBuildEndEvent event) {
+    void onBlockPlaced(BlockBuildEndEvent event) {
         if (event.breaking) {
             fillableBuildings.remove(event.tile.pos());
         } else if (event.tile.build != null) {
@@ -61,17 +61,17 @@ public class ZigerGamemode {
     }
 
     @Listener
-    private void onBlockDestroyed(BlockDestroyEvent event) {
+    void onBlockDestroyed(BlockDestroyEvent event) {
         fillableBuildings.remove(event.tile.pos());
     }
 
     @Listener
-    private void onReset(ResetEvent event) {
+    void onReset(ResetEvent event) {
         clearCache();
     }
 
     @Trigger(EventType.Trigger.update)
-    private void tick() {
+    void tick() {
         for (var entry : fillableBuildings) {
             FillableBuilding fb = entry.value;
             fb.info.fill(fb.building);
@@ -44,7 +44,9 @@ import dto.LoginRequestDto;
 import dto.MessageHandler;
 import dto.ServerDto;
 import dto.ServerStateDto;
+import dto.WsEnvelope;
 import dto.WsMessage;
+import dto.WsMessageCodec;
 import events.BaseEvent;
 import events.ServerEvents.ServerStateEvent;
 import lombok.RequiredArgsConstructor;
@@ -95,9 +97,11 @@ public class ApiGateway {
     private static final ExecutorService executor = Executors.newCachedThreadPool();
 
     private final HostService hostService;
+    private final MapImageService mapImageService;
 
     private final Duration HEARTBEAT_DURATION = Duration.ofSeconds(10);
     private final HashMap<String, MessageHandler<Object, Object>> messageHandlers = new HashMap<>();
+    private final HashMap<String, Function<WsEnvelope, byte[]>> binaryHandlers = new HashMap<>();
     private final WsHandler wsHandler = new WsHandler();
 
     private Instant lastSendEventAt = Instant.now();
@@ -110,7 +114,7 @@ public class ApiGateway {
             .maximumSize(10)
             .build();
 
-    private final Map<UUID, CompletableFuture<JsonNode>> pendingRequests = new ConcurrentHashMap<>();
+    private final Map<UUID, CompletableFuture<WsEnvelope>> pendingRequests = new ConcurrentHashMap<>();
 
     private boolean shutdown = false;
     private boolean lastIsGame = true;
@@ -123,7 +127,6 @@ public class ApiGateway {
         this.registerMessageHandler("update-player", LoginDto.class, this::updatePlayer);
         this.registerMessageHandler("paused", Void.class, (request) -> tooglePause());
         this.registerMessageHandler("get-state", Void.class, (request) -> Utils.getState());
-        this.registerMessageHandler("generate-map-image", Void.class, (request) -> generateMapImage());
         this.registerMessageHandler("send-command", String[].class, (request) -> sendCommand(request));
         this.registerMessageHandler("say", String.class, (request) -> say(request));
         this.registerMessageHandler("host", StartServerDto.class, (request) -> host(request));
@@ -133,18 +136,16 @@ public class ApiGateway {
         this.registerMessageHandler("get-players-info", JsonNode.class, (request) -> getPlayersInfo(request));
         this.registerMessageHandler("get-kicked-ips", Void.class, (request) -> getKicks());
         this.registerMessageHandler("shutdown", Void.class, (request) -> shutdown());
+        this.registerBinaryHandler("get-map-image", (request) -> mapImageService.get());
 
     }
 
-    @Schedule(fixedDelay = 5, unit = TimeUnit.MINUTES)
-    private void autoGenerateMapImage() {
-        if (Vars.state.isPlaying()) {
-            generateMapImage();
+    @Schedule(fixedDelay = 10, unit = TimeUnit.SECONDS)
+    void autoHost() {
+        if (Cfg.awaitingClaim()) {
+            return;
         }
-    }
 
-    @Schedule(fixedDelay = 10, unit = TimeUnit.SECONDS)
-    private void autoHost() {
         try {
             boolean isGame = Vars.state.isGame();
 
@@ -167,7 +168,7 @@ public class ApiGateway {
     public <R> CompletableFuture<R> sendRequest(String type, Object payload, Class<R> clazz) {
         WsMessage<?> request = WsMessage.create(type).withPayload(payload);
 
-        CompletableFuture<JsonNode> future = new CompletableFuture<>();
+        CompletableFuture<WsEnvelope> future = new CompletableFuture<>();
         pendingRequests.put(request.getId(), future);
 
         future.whenComplete((_res, _err) -> pendingRequests.remove(request.getId()));
@@ -178,7 +179,7 @@ public class ApiGateway {
             future.completeExceptionally(e);
         }
 
-        return future.thenApply(r -> JsonUtils.readJsonAsClass(r, clazz));
+        return future.thenApply(r -> r.payloadAs(clazz));
     }
 
     public void fire(BaseEvent event) {
@@ -235,6 +236,19 @@ public class ApiGateway {
                 return;
             }
 
+            if (Cfg.awaitingClaim()) {
+                return;
+            }
+
+            if (Cfg.IS_STANDBY) {
+                UUID serverId = UUID.fromString(Cfg.serverId());
+
+                if (!serverId.equals(Control.SERVER_ID)) {
+                    Log.info("[sky]Standby claimed by server @", serverId);
+                    Control.SERVER_ID = serverId;
+                }
+            }
+
             Log.info("[sky]Connecting to server manager");
             webSocket = new WebSocketFactory()
                     .createSocket(GATEWAY_URL)
@@ -295,27 +309,36 @@ public class ApiGateway {
     }
 
     @Schedule(delay = 5, fixedDelay = 10, unit = TimeUnit.SECONDS)
-    private void keepAlive() {
+    void keepAlive() {
         if (lastSendEventAt.plus(HEARTBEAT_DURATION).isBefore(Instant.now()) && isConnected()) {
             sendStateUpdate();
         }
     }
 
     private void handleMessage(WebSocket ws, String message) {
-        JsonNode json = JsonUtils.readJson(message);
-        JsonNode payload = json.get("payload");
-        WsMessage<?> wsMessage = JsonUtils.readJsonAsClass(message, WsMessage.class);
+        WsEnvelope wsMessage = JsonUtils.readWsMessage(message);
 
         if (wsMessage.getResponseOf() != null) {
-            CompletableFuture<JsonNode> future = pendingRequests.remove(wsMessage.getResponseOf());
+            CompletableFuture<WsEnvelope> future = pendingRequests.remove(wsMessage.getResponseOf());
             if (future == null) {
                 Log.warn("No future found for responseOf: @", wsMessage.getResponseOf());
                 return;
             }
             if (wsMessage.isError()) {
-                future.completeExceptionally(new RuntimeException(payload.toString()));
+                future.completeExceptionally(new RuntimeException(wsMessage.payloadAsString()));
             } else {
-                future.complete(payload);
+                future.complete(wsMessage);
+            }
+            return;
+        }
+
+        Function<WsEnvelope, byte[]> binaryHandler = binaryHandlers.get(wsMessage.getType());
+
+        if (binaryHandler != null) {
+            try {
+                ws.sendBinary(WsMessageCodec.encodeBinary(wsMessage.getId(), binaryHandler.apply(wsMessage)));
+            } catch (Exception e) {
+                sendError(ws, wsMessage, e);
             }
             return;
         }
@@ -324,26 +347,35 @@ public class ApiGateway {
 
         if (handler != null) {
             try {
-                Object param = JsonUtils.readJsonAsClass(payload, handler.getClazz());
+                Object param = wsMessage.payloadAs(handler.getClazz());
                 Object result = handler.getFn().apply(param);
                 WsMessage<?> response = wsMessage.response(result);
                 ws.sendText(JsonUtils.toJsonString(response));
             } catch (Exception e) {
-                Log.err("Error handling message: " + wsMessage, e);
-                StringBuilder sb = new StringBuilder();
-                sb.append("Exception: ").append(e.getMessage());
-                for (StackTraceElement element : e.getStackTrace()) {
-                    sb.append("\n").append(element);
-                    if (sb.length() > 1024) {
-                        break;
-                    }
-                }
-                WsMessage<?> error = wsMessage.error(sb.toString());
-                ws.sendText(JsonUtils.toJsonString(error));
+                sendError(ws, wsMessage, e);
             }
         }
     }
 
+    private void sendError(WebSocket ws, WsEnvelope wsMessage, Exception e) {
+        Log.err("Error handling message: " + wsMessage, e);
+        StringBuilder sb = new StringBuilder();
+        sb.append("Exception: ").append(e.getMessage());
+        for (StackTraceElement element : e.getStackTrace()) {
+            sb.append("\n").append(element);
+            if (sb.length() > 1024) {
+                break;
+            }
+        }
+        WsMessage<?> error = wsMessage.error(sb.toString());
+        ws.sendText(JsonUtils.toJsonString(error));
+    }
+
+    /** Handlers answering with a binary frame, for bulk data like images that should not go through json. */
+    private void registerBinaryHandler(String type, Function<WsEnvelope, byte[]> handler) {
+        binaryHandlers.put(type, handler);
+    }
+
     @SuppressWarnings("unchecked")
     private <Req, Res> void registerMessageHandler(String type, Class<Req> clazz, Function<Req, Res> handler) {
         MessageHandler<Object, Object> mh = new MessageHandler<Object, Object>((Class<Object>) clazz,
@@ -352,7 +384,7 @@ public class ApiGateway {
     }
 
     @Schedule(delay = 5, fixedDelay = 5, unit = TimeUnit.SECONDS)
-    private void autoReconnect() {
+    void autoReconnect() {
         if (shutdown) {
             return;
         }
@@ -362,6 +394,20 @@ public class ApiGateway {
         }
     }
 
+    /**
+     * A standby has nothing to connect as until the manager claims it, and
+     * the server it is claimed for waits on this first connection, so it
+     * checks far more often than {@link #autoReconnect()}.
+     */
+    @Schedule(fixedDelay = 250, unit = TimeUnit.MILLISECONDS)
+    void awaitClaim() {
+        if (!Cfg.IS_STANDBY || shutdown || webSocket != null || Cfg.awaitingClaim()) {
+            return;
+        }
+
+        connectAsync();
+    }
+
     private boolean isConnected() {
         return webSocket != null && webSocket.isOpen();
     }
@@ -674,11 +720,6 @@ public class ApiGateway {
         return result;
     }
 
-    private Void generateMapImage() {
-        Utils.generateMapPreview();
-        return null;
-    }
-
     private Void sendChat(String message) {
         Call.sendChatMessage(message);
         return null;
@@ -726,27 +767,27 @@ public class ApiGateway {
     }
 
     @Listener(SessionCreatedEvent.class)
-    private void onSessionCreated() {
+    void onSessionCreated() {
         sendStateUpdate();
     }
 
     @Listener(SessionRemovedEvent.class)
-    private void onSessionRemoved() {
+    void onSessionRemoved() {
         sendStateUpdate();
     }
 
     @Listener(StateChangeEvent.class)
-    private void onStateChange() {
+    void onStateChange() {
         sendStateUpdate();
     }
 
     @Listener(WorldLoadEndEvent.class)
-    private void onWorldLoadEnd() {
+    void onWorldLoadEnd() {
         sendStateUpdate();
     }
 
     @Listener(PlayEvent.class)
-    private void onPlay() {
+    void onPlay() {
         sendStateUpdate();
         generateMapImage();
     }
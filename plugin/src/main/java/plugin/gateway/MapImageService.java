@@ -0,0 +1,83 @@
+package plugin.gateway;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import arc.graphics.Pixmap;
+import arc.graphics.PixmapIO.PngWriter;
+import mindustry.Vars;
+import mindustry.game.EventType.TileChangeEvent;
+import mindustry.game.EventType.WorldLoadEndEvent;
+import mindustry.io.MapIO;
+import plugin.annotations.Component;
+import plugin.annotations.Listener;
+import plugin.utils.Utils;
+
+/**
+ * PNG of the running map, rendered only when someone asks for it. The last
+ * image is kept until a tile changes or another map loads, so a static map
+ * is encoded once no matter how often it is requested.
+ */
+@Component
+public class MapImageService {
+
+    private volatile boolean dirty = true;
+    private byte[] image;
+
+    @Listener
+    void onWorldLoadEnd(WorldLoadEndEvent event) {
+        dirty = true;
+    }
+
+    @Listener
+    void onTileChange(TileChangeEvent event) {
+        dirty = true;
+    }
+
+    public synchronized byte[] get() {
+        if (!Vars.state.isGame()) {
+            return new byte[0];
+        }
+
+        if (!dirty && image != null) {
+            return image;
+        }
+
+        // Cleared before the snapshot, so a change made while encoding marks the next request dirty again.
+        dirty = false;
+
+        Pixmap pixmap = null;
+        boolean rendered = false;
+
+        try {
+            pixmap = Utils.appPostWithTimeout(() -> MapIO.generatePreview(Vars.world.tiles), 5000,
+                    "Render map image");
+            image = encode(pixmap);
+            rendered = true;
+            return image;
+        } catch (IOException e) {
+            throw new RuntimeException("Can not encode map image", e);
+        } finally {
+            if (!rendered) {
+                dirty = true;
+            }
+
+            if (pixmap != null) {
+                pixmap.dispose();
+            }
+        }
+    }
+
+    private static byte[] encode(Pixmap pixmap) throws IOException {
+        PngWriter writer = new PngWriter((int) (pixmap.width * pixmap.height * 1.5f));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        try {
+            writer.setFlipY(false);
+            writer.write(output, pixmap);
+            return output.toByteArray();
+        } finally {
+            writer.dispose();
+        }
+    }
+}
@@ -0,0 +1,329 @@
+package plugin.grief;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Compact in-memory tile log. Entries are fixed-width rows in parallel
+ * primitive arrays. Strings are interned into per-map dictionaries. Every
+ * entry is linked into its tile's chain and into one map-wide chain ordered by
+ * age, so once the memory budget is reached the oldest entry on the map is
+ * evicted first, and a tile that reaches its own cap reuses its oldest entry
+ * instead, so one busy tile can not push out the history of the others.
+ */
+public class TileLogStore {
+
+    public static final String PLACE = "place";
+    public static final String DESTROY = "destroy";
+
+    /** player + block + map/action + tile + tile links + age links, and time. */
+    static final int ENTRY_BYTES = Integer.BYTES * 8 + Long.BYTES;
+
+    /** Newest entry, oldest entry and entry count per tile. */
+    static final int TILE_BYTES = Integer.BYTES * 3;
+
+    private static final int INITIAL_CAPACITY = 4096;
+    private static final int NONE = -1;
+    private static final int PLACE_FLAG = 1 << 31;
+
+    public record Entry(String uuid, String name, String block, int x, int y, String map, String action,
+            long time) {
+    }
+
+    private final long budgetBytes;
+    private final int maxPerTile;
+
+    private int width;
+    private int height;
+    private int maxCapacity;
+
+    private int[] players = new int[0];
+    private int[] blocks = new int[0];
+    private int[] flags = new int[0];
+    private long[] times = new long[0];
+    private int[] tiles = new int[0];
+
+    /** Tile chain, toward older and newer entries of the same tile. */
+    private int[] older = new int[0];
+    private int[] newer = new int[0];
+
+    /** Map-wide chain, toward older and newer entries of any tile. */
+    private int[] ageOlder = new int[0];
+    private int[] ageNewer = new int[0];
+
+    private int[] heads = new int[0];
+    private int[] tails = new int[0];
+    private int[] counts = new int[0];
+
+    private int oldest = NONE;
+    private int newest = NONE;
+
+    /** Slots in use; they are filled in order and only reused after that. */
+    private int used;
+
+    private final Dictionary strings = new Dictionary();
+    private final Dictionary playerKeys = new Dictionary();
+
+    public TileLogStore(long budgetBytes, int maxPerTile) {
+        if (maxPerTile < 1) {
+            throw new IllegalArgumentException("maxPerTile must be positive: " + maxPerTile);
+        }
+
+        this.budgetBytes = budgetBytes;
+        this.maxPerTile = maxPerTile;
+    }
+
+    /**
+     * Drop every entry and size the tile index for a new map.
+     */
+    public synchronized void reset(int width, int height) {
+        this.width = Math.max(0, width);
+        this.height = Math.max(0, height);
+
+        int tileCount = this.width * this.height;
+        long entries = Math.max(1, (budgetBytes - (long) tileCount * TILE_BYTES) / ENTRY_BYTES);
+
+        maxCapacity = (int) Math.min(entries, Integer.MAX_VALUE - 8);
+        heads = new int[tileCount];
+        tails = new int[tileCount];
+        counts = new int[tileCount];
+        Arrays.fill(heads, NONE);
+        Arrays.fill(tails, NONE);
+
+        allocate(Math.min(INITIAL_CAPACITY, maxCapacity));
+
+        oldest = NONE;
+        newest = NONE;
+        used = 0;
+        strings.clear();
+        playerKeys.clear();
+    }
+
+    public synchronized void clear() {
+        reset(0, 0);
+    }
+
+    public synchronized boolean isSized(int width, int height) {
+        return this.width == width && this.height == height;
+    }
+
+    public synchronized void append(int x, int y, String uuid, String name, String block, String map, String action,
+            long time) {
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            return;
+        }
+
+        if (used >= capacity() && capacity() < maxCapacity) {
+            resize((int) Math.min((long) capacity() * 2, maxCapacity));
+        }
+
+        int tile = y * width + x;
+        int slot;
+
+        if (counts[tile] >= maxPerTile) {
+            slot = tails[tile];
+            unlink(slot);
+        } else if (used < capacity()) {
+            slot = used++;
+        } else {
+            slot = oldest;
+            unlink(slot);
+        }
+
+        players[slot] = uuid == null && name == null ? NONE : playerKeys.intern(playerKey(uuid, name));
+        blocks[slot] = strings.intern(block);
+        flags[slot] = strings.intern(map) | (PLACE.equals(action) ? PLACE_FLAG : 0);
+        times[slot] = time;
+
+        link(slot, tile);
+    }
+
+    /**
+     * Newest first, at most {@code limit} entries.
+     */
+    public synchronized List<Entry> recent(int x, int y, int limit) {
+        List<Entry> result = new ArrayList<>();
+
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            return result;
+        }
+
+        int slot = heads[y * width + x];
+
+        while (slot != NONE && result.size() < limit) {
+            result.add(read(slot, x, y));
+            slot = older[slot];
+        }
+
+        return result;
+    }
+
+    /**
+     * Number of retained entries for a tile, counting at most {@code limit}.
+     */
+    public synchronized int count(int x, int y, int limit) {
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            return 0;
+        }
+
+        return Math.min(counts[y * width + x], limit);
+    }
+
+    public synchronized int size() {
+        return used;
+    }
+
+    public synchronized int maxCapacity() {
+        return maxCapacity;
+    }
+
+    /**
+     * Bytes held by the entry arrays and tile index, excluding the string
+     * dictionaries.
+     */
+    public synchronized long allocatedBytes() {
+        return (long) capacity() * ENTRY_BYTES + (long) heads.length * TILE_BYTES;
+    }
+
+    private Entry read(int slot, int x, int y) {
+        int player = players[slot];
+        String uuid = null;
+        String name = null;
+
+        if (player != NONE) {
+            String key = playerKeys.get(player);
+            int split = key.indexOf('\n');
+            uuid = split == 0 ? null : key.substring(0, split);
+            name = split == key.length() - 1 ? null : key.substring(split + 1);
+        }
+
+        int flag = flags[slot];
+
+        return new Entry(uuid, name, strings.get(blocks[slot]), x, y, strings.get(flag & ~PLACE_FLAG),
+                (flag & PLACE_FLAG) != 0 ? PLACE : DESTROY, times[slot]);
+    }
+
+    /** Make the slot the newest entry of its tile and of the map. */
+    private void link(int slot, int tile) {
+        tiles[slot] = tile;
+
+        older[slot] = heads[tile];
+        newer[slot] = NONE;
+
+        if (heads[tile] != NONE) {
+            newer[heads[tile]] = slot;
+        } else {
+            tails[tile] = slot;
+        }
+
+        heads[tile] = slot;
+        counts[tile]++;
+
+        ageOlder[slot] = newest;
+        ageNewer[slot] = NONE;
+
+        if (newest != NONE) {
+            ageNewer[newest] = slot;
+        } else {
+            oldest = slot;
+        }
+
+        newest = slot;
+    }
+
+    private void unlink(int slot) {
+        int tile = tiles[slot];
+
+        if (older[slot] != NONE) {
+            newer[older[slot]] = newer[slot];
+        } else {
+            tails[tile] = newer[slot];
+        }
+
+        if (newer[slot] != NONE) {
+            older[newer[slot]] = older[slot];
+        } else {
+            heads[tile] = older[slot];
+        }
+
+        counts[tile]--;
+
+        if (ageOlder[slot] != NONE) {
+            ageNewer[ageOlder[slot]] = ageNewer[slot];
+        } else {
+            oldest = ageNewer[slot];
+        }
+
+        if (ageNewer[slot] != NONE) {
+            ageOlder[ageNewer[slot]] = ageOlder[slot];
+        } else {
+            newest = ageOlder[slot];
+        }
+    }
+
+    private int capacity() {
+        return times.length;
+    }
+
+    private void allocate(int capacity) {
+        players = new int[capacity];
+        blocks = new int[capacity];
+        flags = new int[capacity];
+        times = new long[capacity];
+        tiles = new int[capacity];
+        older = new int[capacity];
+        newer = new int[capacity];
+        ageOlder = new int[capacity];
+        ageNewer = new int[capacity];
+    }
+
+    private void resize(int capacity) {
+        // Only grows while slots are still filled in order, so they keep their index.
+        players = Arrays.copyOf(players, capacity);
+        blocks = Arrays.copyOf(blocks, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+        times = Arrays.copyOf(times, capacity);
+        tiles = Arrays.copyOf(tiles, capacity);
+        older = Arrays.copyOf(older, capacity);
+        newer = Arrays.copyOf(newer, capacity);
+        ageOlder = Arrays.copyOf(ageOlder, capacity);
+        ageNewer = Arrays.copyOf(ageNewer, capacity);
+    }
+
+    private static String playerKey(String uuid, String name) {
+        return (uuid == null ? "" : uuid) + '\n' + (name == null ? "" : name);
+    }
+
+    private static final class Dictionary {
+        private final HashMap<String, Integer> ids = new HashMap<>();
+        private final ArrayList<String> values = new ArrayList<>();
+
+        int intern(String value) {
+            if (value == null) {
+                value = "?";
+            }
+
+            Integer id = ids.get(value);
+
+            if (id != null) {
+                return id;
+            }
+
+            int next = values.size();
+            ids.put(value, next);
+            values.add(value);
+            return next;
+        }
+
+        String get(int id) {
+            return values.get(id);
+        }
+
+        void clear() {
+            ids.clear();
+            values.clear();
+        }
+    }
+}
@@ -4,8 +4,6 @@ import plugin.utils.Tr;
 
 import java.time.Duration;
 import java.time.Instant;
-import java.util.ArrayDeque;
-import java.util.Deque;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -30,16 +28,17 @@ public class TileLogger {
 
     private static final int MAX_ENTRIES_PER_TILE = 100;
     private static final int MAX_INSPECT_ENTRIES = 5;
+    private static final long MEMORY_BUDGET_BYTES = 32L * 1024 * 1024;
     private static final int ENTRY_PAD_LENGTH = 28;
     private static final String SEPARATOR = "[gray]" + "─".repeat(36) + "[]";
 
-    private final ConcurrentHashMap<Integer, Deque<TileLogEntry>> logsByPos = new ConcurrentHashMap<>();
+    private final TileLogStore store = new TileLogStore(MEMORY_BUDGET_BYTES, MAX_ENTRIES_PER_TILE);
     private final ConcurrentHashMap<Integer, Player> pendingBreaks = new ConcurrentHashMap<>();
     private final Set<String> inspectings = ConcurrentHashMap.newKeySet();
 
     @Destroy
     public void destroy() {
-        logsByPos.clear();
+        store.clear();
         pendingBreaks.clear();
         inspectings.clear();
     }
@@ -51,7 +50,7 @@ public class TileLogger {
         }
 
         var player = event.unit.getPlayer();
-        append(event.tile.pos(), TileLogEntry.place(player, event.tile, mapName()));
+        append(player, event.tile, TileLogStore.PLACE);
     }
 
     @Listener
@@ -65,14 +64,13 @@ public class TileLogger {
 
     @Listener
     public void onBlockDestroy(BlockDestroyEvent event) {
-        var pos = event.tile.pos();
-        var player = pendingBreaks.remove(pos);
-        append(pos, TileLogEntry.destroy(player, event.tile, mapName()));
+        var player = pendingBreaks.remove(event.tile.pos());
+        append(player, event.tile, TileLogStore.DESTROY);
     }
 
     @Listener
     public void onWorldLoad(WorldLoadEvent event) {
-        logsByPos.clear();
+        store.reset(Vars.world.width(), Vars.world.height());
         pendingBreaks.clear();
     }
 
@@ -96,9 +94,9 @@ public class TileLogger {
             return;
         }
 
-        var entries = logsByPos.get(event.tile.pos());
+        var entries = store.recent(event.tile.x, event.tile.y, MAX_INSPECT_ENTRIES);
 
-        if (entries == null || entries.isEmpty()) {
+        if (entries.isEmpty()) {
             player.sendMessage(Tr.t(player, "grief.no_records"));
             return;
         }
@@ -108,14 +106,9 @@ public class TileLogger {
                 "pos", "(" + event.tile.x + ", " + event.tile.y + ")"));
 
         var now = Instant.now().toEpochMilli();
-        int shown = 0;
-        var it = entries.descendingIterator();
 
-        while (it.hasNext() && shown < MAX_INSPECT_ENTRIES) {
-            var entry = it.next();
-            shown++;
-
-            var action = "place".equals(entry.action())
+        for (var entry : entries) {
+            var action = TileLogStore.PLACE.equals(entry.action())
                     ? "[green]placed[]"
                     : "[red]destroyed[]";
             var by = entry.name() != null
@@ -127,50 +120,35 @@ public class TileLogger {
                     + "by " + by + " [gray]" + ago + " ago[]");
         }
 
-        if (entries.size() > shown) {
+        var total = store.count(event.tile.x, event.tile.y, MAX_ENTRIES_PER_TILE);
+
+        if (total > entries.size()) {
             player.sendMessage(
-                    Tr.t(player, "grief.more_entries", "count", entries.size() - shown));
+                    Tr.t(player, "grief.more_entries", "count", total - entries.size()));
         }
 
         player.sendMessage(SEPARATOR);
     }
 
-    private void append(int pos, TileLogEntry entry) {
-        var deque = logsByPos.computeIfAbsent(pos, p -> new ArrayDeque<>());
-        deque.addLast(entry);
+    private void append(Player player, Tile tile, String action) {
+        var world = Vars.world;
 
-        while (deque.size() > MAX_ENTRIES_PER_TILE) {
-            deque.removeFirst();
+        if (!store.isSized(world.width(), world.height())) {
+            store.reset(world.width(), world.height());
         }
+
+        var block = tile.block() == null ? "?" : tile.block().localizedName;
+
+        store.append(tile.x, tile.y,
+                player != null ? player.uuid() : null,
+                player != null ? player.name : null,
+                block,
+                mapName(),
+                action,
+                Instant.now().toEpochMilli());
     }
 
     private String mapName() {
         return Vars.state.map == null ? "unknown" : Vars.state.map.name();
     }
-
-    public record TileLogEntry(String uuid, String name, String block, int x, int y, String map, String action,
-            long time) {
-
-        public static TileLogEntry place(Player player, Tile tile, String map) {
-            return of(player, tile, map, "place");
-        }
-
-        public static TileLogEntry destroy(Player player, Tile tile, String map) {
-            return of(player, tile, map, "destroy");
-        }
-
-        private static TileLogEntry of(Player player, Tile tile, String map, String action) {
-            var block = tile.block() == null ? "?" : tile.block().localizedName;
-
-            return new TileLogEntry(
-                    player != null ? player.uuid() : null,
-                    player != null ? player.name : null,
-                    block,
-                    tile.x,
-                    tile.y,
-                    map,
-                    action,
-                    Instant.now().toEpochMilli());
-        }
-    }
 }
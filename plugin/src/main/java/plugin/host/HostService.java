@@ -39,7 +39,7 @@ public class HostService {
 
     @MainThread
     @Schedule(delay = 5, fixedDelay = 5, unit = TimeUnit.MINUTES)
-    private void autoSave() {
+    void autoSave() {
         if (Vars.state.isPlaying()) {
             SaveIO.save(SAVE_FILE);
         }
@@ -78,7 +78,7 @@ public class HubService {
     }
 
     @Listener(WorldLoadEvent.class)
-    private void loadCores() {
+    void loadCores() {
         Tasks.io("Refresh server list", () -> {
             serverCores.clear();
 
@@ -98,7 +98,7 @@ public class HubService {
     }
 
     @Listener
-    private void onPlayerJoin(PlayerJoin event) {
+    void onPlayerJoin(PlayerJoin event) {
         refreshServerList();
         renderServerLabels();
     }
@@ -183,7 +183,7 @@ public class HubService {
     }
 
     @Listener
-    private void onTap(TapEvent event) {
+    void onTap(TapEvent event) {
         if (event.tile == null) {
             return;
         }
@@ -219,7 +219,7 @@ public class HubService {
     }
 
     @Schedule(fixedDelay = 5, unit = TimeUnit.SECONDS)
-    private void refreshServerList() {
+    void refreshServerList() {
         if (Groups.player.size() <= 0) {
             return;
         }
@@ -249,7 +249,7 @@ public class HubService {
     }
 
     @Schedule(delay = 5, fixedDelay = 5, unit = TimeUnit.SECONDS)
-    private void renderServerLabels() {
+    void renderServerLabels() {
         if (Groups.player.size() <= 0) {
             return;
         }
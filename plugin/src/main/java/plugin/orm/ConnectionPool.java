@@ -0,0 +1,325 @@
+package plugin.orm;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded pool of SQLite connections. Leased connections are proxies: closing
+ * one hands the underlying connection back to the pool, and
+ * {@code prepareStatement(String)} is served from a per-connection cache keyed
+ * by the SQL text, so {@code Transaction} and the static query helpers keep
+ * their try-with-resources shape.
+ */
+final class ConnectionPool implements AutoCloseable {
+
+    private final String url;
+    private final Properties properties;
+    private final int maxSize;
+    private final int statementCacheSize;
+    private final long acquireTimeoutMs;
+
+    private final Semaphore permits;
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+    private final Object openLock = new Object();
+    private final AtomicInteger opened = new AtomicInteger();
+    private final AtomicLong schemaVersion = new AtomicLong();
+
+    private volatile boolean closed;
+
+    ConnectionPool(String url, Properties properties, int maxSize, int statementCacheSize, long acquireTimeoutMs) {
+        this.url = url;
+        this.properties = properties;
+        this.maxSize = maxSize;
+        this.statementCacheSize = statementCacheSize;
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.permits = new Semaphore(maxSize, true);
+    }
+
+    Connection acquire() throws SQLException {
+        if (closed) {
+            throw new OrmException("Database is closed");
+        }
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new OrmException("Timed out waiting for a database connection after " + acquireTimeoutMs + "ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OrmException("Interrupted while waiting for a database connection", e);
+        }
+
+        try {
+            PooledConnection pooled;
+            synchronized (idle) {
+                pooled = idle.pollFirst();
+            }
+            if (pooled == null) {
+                pooled = open();
+            }
+            return pooled.lease();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    int openedCount() {
+        return opened.get();
+    }
+
+    int maxSize() {
+        return maxSize;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        synchronized (idle) {
+            for (PooledConnection pooled : idle) {
+                pooled.closeQuietly();
+            }
+            idle.clear();
+        }
+    }
+
+    private PooledConnection open() throws SQLException {
+        // Serialized so the first connections do not race each other switching the journal mode.
+        synchronized (openLock) {
+            Connection connection = DriverManager.getConnection(url, properties);
+            opened.incrementAndGet();
+            return new PooledConnection(connection);
+        }
+    }
+
+    private void release(PooledConnection pooled) {
+        try {
+            boolean reusable = !closed && pooled.reset();
+            if (reusable) {
+                synchronized (idle) {
+                    if (!closed) {
+                        idle.addFirst(pooled);
+                        return;
+                    }
+                }
+            }
+            pooled.closeQuietly();
+        } finally {
+            permits.release();
+        }
+    }
+
+    private static boolean isSchemaChange(String sql) {
+        String head = sql.stripLeading();
+        int end = 0;
+        while (end < head.length() && Character.isLetter(head.charAt(end))) {
+            end++;
+        }
+        switch (head.substring(0, end).toUpperCase(Locale.ROOT)) {
+            case "CREATE":
+            case "ALTER":
+            case "DROP":
+            case "PRAGMA":
+            case "VACUUM":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private final class PooledConnection {
+        private final Connection connection;
+        private final LinkedHashMap<String, CachedStatement> statements;
+        private long cachedSchemaVersion;
+
+        PooledConnection(Connection connection) {
+            this.connection = connection;
+            this.cachedSchemaVersion = schemaVersion.get();
+            this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                    if (size() > statementCacheSize) {
+                        eldest.getValue().evict();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        Connection lease() {
+            Lease lease = new Lease(this);
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[] { Connection.class }, lease);
+        }
+
+        PreparedStatement prepare(String sql) throws SQLException {
+            if (isSchemaChange(sql)) {
+                schemaVersion.incrementAndGet();
+                clearStatements();
+                return connection.prepareStatement(sql);
+            }
+
+            long current = schemaVersion.get();
+            if (cachedSchemaVersion != current) {
+                clearStatements();
+                cachedSchemaVersion = current;
+            }
+
+            if (statementCacheSize <= 0) {
+                return connection.prepareStatement(sql);
+            }
+
+            CachedStatement cached = statements.get(sql);
+            if (cached != null && cached.inUse) {
+                // Same SQL opened twice on one lease; hand out a throwaway statement.
+                return connection.prepareStatement(sql);
+            }
+            if (cached == null) {
+                cached = new CachedStatement(connection.prepareStatement(sql));
+                statements.put(sql, cached);
+            }
+            cached.inUse = true;
+            return cached.proxy;
+        }
+
+        boolean reset() {
+            try {
+                if (connection.isClosed()) {
+                    return false;
+                }
+                if (!connection.getAutoCommit()) {
+                    connection.rollback();
+                    connection.setAutoCommit(true);
+                }
+                return true;
+            } catch (SQLException e) {
+                closeQuietly();
+                return false;
+            }
+        }
+
+        void clearStatements() {
+            for (Iterator<CachedStatement> it = statements.values().iterator(); it.hasNext();) {
+                it.next().evict();
+                it.remove();
+            }
+        }
+
+        void closeQuietly() {
+            clearStatements();
+            try {
+                connection.close();
+            } catch (SQLException ignored) {
+            }
+        }
+    }
+
+    private static final class CachedStatement implements InvocationHandler {
+        private final PreparedStatement statement;
+        private final PreparedStatement proxy;
+        private boolean inUse;
+        private boolean evicted;
+
+        CachedStatement(PreparedStatement statement) {
+            this.statement = statement;
+            this.proxy = (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[] { PreparedStatement.class }, this);
+        }
+
+        void evict() {
+            evicted = true;
+            if (!inUse) {
+                closeStatement();
+            }
+        }
+
+        private void closeStatement() {
+            try {
+                statement.close();
+            } catch (SQLException ignored) {
+            }
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!inUse) {
+                        return null;
+                    }
+                    inUse = false;
+                    if (evicted) {
+                        closeStatement();
+                    } else {
+                        statement.clearParameters();
+                        statement.clearBatch();
+                    }
+                    return null;
+                case "isClosed":
+                    return !inUse || statement.isClosed();
+                default:
+                    return ConnectionPool.invoke(statement, method, args);
+            }
+        }
+    }
+
+    private final class Lease implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean released;
+
+        Lease(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!released) {
+                        released = true;
+                        release(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return released || pooled.connection.isClosed();
+                default:
+                    break;
+            }
+
+            if (released) {
+                throw new SQLException("Connection has been returned to the pool");
+            }
+
+            if (method.getName().equals("prepareStatement") && args != null && args.length == 1) {
+                return pooled.prepare((String) args[0]);
+            }
+
+            return ConnectionPool.invoke(pooled.connection, method, args);
+        }
+    }
+}
@@ -38,6 +38,12 @@ public final class SQLiteDatabase implements QuerySource, AutoCloseable {
     private final String path;
     private final ExecutorService externalExecutor;
     private final int busyTimeoutMs;
+    private final SQLiteConfig.JournalMode journalMode;
+    private final SQLiteConfig.SynchronousMode synchronous;
+    private final int cacheSize;
+    private final int poolSize;
+    private final int statementCacheSize;
+    private final long acquireTimeoutMs;
 
     private final Object initLock = new Object();
     private final ConcurrentHashMap<Class<?>, RowMapper<?>> mappers = new ConcurrentHashMap<>();
@@ -46,11 +52,18 @@ public final class SQLiteDatabase implements QuerySource, AutoCloseable {
     private volatile boolean closed;
     private int initializationCount;
     private ExecutorService ownedExecutor;
+    private volatile ConnectionPool pool;
 
     private SQLiteDatabase(Builder builder) {
         this.path = builder.path;
         this.externalExecutor = builder.executor;
         this.busyTimeoutMs = builder.busyTimeoutMs;
+        this.journalMode = builder.journalMode;
+        this.synchronous = builder.synchronous;
+        this.cacheSize = builder.cacheSize;
+        this.poolSize = builder.poolSize;
+        this.statementCacheSize = builder.statementCacheSize;
+        this.acquireTimeoutMs = builder.acquireTimeoutMs;
     }
 
     public static Builder builder() {
@@ -61,6 +74,12 @@ public final class SQLiteDatabase implements QuerySource, AutoCloseable {
         private String path;
         private ExecutorService executor;
         private int busyTimeoutMs = 3000;
+        private SQLiteConfig.JournalMode journalMode = SQLiteConfig.JournalMode.WAL;
+        private SQLiteConfig.SynchronousMode synchronous = SQLiteConfig.SynchronousMode.NORMAL;
+        private int cacheSize = -8000;
+        private int poolSize = 4;
+        private int statementCacheSize = 64;
+        private long acquireTimeoutMs = 30_000;
 
         private Builder() {
         }
@@ -80,10 +99,52 @@ public final class SQLiteDatabase implements QuerySource, AutoCloseable {
             return this;
         }
 
+        public Builder journalMode(SQLiteConfig.JournalMode journalMode) {
+            this.journalMode = journalMode;
+            return this;
+        }
+
+        public Builder synchronous(SQLiteConfig.SynchronousMode synchronous) {
+            this.synchronous = synchronous;
+            return this;
+        }
+
+        /**
+         * SQLite page cache size. Positive values are pages, negative values are KiB.
+         */
+        public Builder cacheSize(int cacheSize) {
+            this.cacheSize = cacheSize;
+            return this;
+        }
+
+        public Builder poolSize(int poolSize) {
+            this.poolSize = poolSize;
+            return this;
+        }
+
+        /**
+         * Prepared statements kept per pooled connection. Zero disables caching.
+         */
+        public Builder statementCacheSize(int statementCacheSize) {
+            this.statementCacheSize = statementCacheSize;
+            return this;
+        }
+
+        public Builder acquireTimeoutMs(long acquireTimeoutMs) {
+            this.acquireTimeoutMs = acquireTimeoutMs;
+            return this;
+        }
+
         public SQLiteDatabase build() {
             if (path == null || path.isBlank()) {
                 throw new OrmException("Database path is required");
             }
+            if (poolSize < 1) {
+                throw new OrmException("Pool size must be at least 1");
+            }
+            if (statementCacheSize < 0) {
+                throw new OrmException("Statement cache size must not be negative");
+            }
             return new SQLiteDatabase(this);
         }
     }
@@ -355,6 +416,10 @@ public final class SQLiteDatabase implements QuerySource, AutoCloseable {
                 ownedExecutor.shutdown();
                 ownedExecutor = null;
             }
+            if (pool != null) {
+                pool.close();
+                pool = null;
+            }
         }
     }
 
@@ -374,6 +439,10 @@ public final class SQLiteDatabase implements QuerySource, AutoCloseable {
         return ownedExecutor;
     }
 
+    ConnectionPool poolOrNull() {
+        return pool;
+    }
+
     private void ensureInitialized() {
         if (initialized) {
             return;
@@ -396,6 +465,13 @@ public final class SQLiteDatabase implements QuerySource, AutoCloseable {
                 if (externalExecutor == null && ownedExecutor == null) {
                     ownedExecutor = Executors.newFixedThreadPool(2, runnable -> new Thread(runnable, "orm-db"));
                 }
+                SQLiteConfig config = new SQLiteConfig();
+                config.setBusyTimeout(busyTimeoutMs);
+                config.setJournalMode(journalMode);
+                config.setSynchronous(synchronous);
+                config.setCacheSize(cacheSize);
+                pool = new ConnectionPool(JDBC_PREFIX + path, config.toProperties(), poolSize, statementCacheSize,
+                        acquireTimeoutMs);
                 initializationCount++;
                 initialized = true;
             }
@@ -434,10 +510,11 @@ public final class SQLiteDatabase implements QuerySource, AutoCloseable {
 
     private Connection acquireConnection() throws SQLException {
         ensureInitialized();
-        ensureOpen();
-        SQLiteConfig config = new SQLiteConfig();
-        config.setBusyTimeout(busyTimeoutMs);
-        return DriverManager.getConnection(JDBC_PREFIX + path, config.toProperties());
+        ConnectionPool current = pool;
+        if (closed || current == null) {
+            throw new OrmException("Database is closed");
+        }
+        return current.acquire();
     }
 
     public static <T> List<T> queryWith(Connection connection, SqlQuery sqlQuery, RowMapper<T> mapper) throws SQLException {
@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
+import plugin.orm.OrmException;
 import plugin.orm.QuerySource;
 import plugin.orm.sql.SqlQuery;
 import plugin.orm.sql.SqlRenderer;
@@ -11,21 +12,54 @@ import plugin.orm.table.Column;
 import plugin.orm.table.Table;
 
 public final class InsertQuery {
+    private static final Object MISSING = new Object();
+
     private final QuerySource source;
     private final Table<?> table;
     private final List<Column<?>> columns = new ArrayList<>();
-    private final List<Object> values = new ArrayList<>();
+    private final List<List<Object>> rows = new ArrayList<>();
     private Column<?> conflictTarget;
     private final List<Column<?>> conflictUpdates = new ArrayList<>();
 
 public InsertQuery(QuerySource source, Table<?> table) {
         this.source = source;
         this.table = table;
+        this.rows.add(new ArrayList<>());
     }
 
+    /**
+     * Sets a value in the current row. The first row defines the column list;
+     * later rows may set those columns in any order.
+     */
     public InsertQuery set(Column<?> column, Object value) {
-        columns.add(column);
-        values.add(value);
+        List<Object> row = rows.get(rows.size() - 1);
+
+        if (rows.size() == 1) {
+            columns.add(column);
+            row.add(value);
+            return this;
+        }
+
+        int index = columns.indexOf(column);
+        if (index < 0) {
+            throw new OrmException("Column " + column.name() + " is not part of the first inserted row");
+        }
+        row.set(index, value);
+        return this;
+    }
+
+    /**
+     * Starts another row of the same multi-row insert.
+     */
+    public InsertQuery nextRow() {
+        if (columns.isEmpty()) {
+            throw new OrmException("First row requires at least one column");
+        }
+        List<Object> row = new ArrayList<>(columns.size());
+        for (int i = 0; i < columns.size(); i++) {
+            row.add(MISSING);
+        }
+        rows.add(row);
         return this;
     }
 
@@ -55,8 +89,25 @@ public InsertQuery(QuerySource source, Table<?> table) {
         return List.copyOf(columns);
     }
 
+    /**
+     * Values of every row, flattened in row order.
+     */
     public List<Object> values() {
-        return List.copyOf(values);
+        List<Object> values = new ArrayList<>(columns.size() * rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            List<Object> row = rows.get(i);
+            for (int j = 0; j < row.size(); j++) {
+                if (row.get(j) == MISSING) {
+                    throw new OrmException("Row " + i + " is missing a value for " + columns.get(j).name());
+                }
+            }
+            values.addAll(row);
+        }
+        return values;
+    }
+
+    public int rowCount() {
+        return rows.size();
     }
 
     public Column<?> conflictTarget() {
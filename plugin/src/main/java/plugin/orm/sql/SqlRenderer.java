@@ -80,14 +80,20 @@ public final class SqlRenderer {
         List<Object> parameters = new ArrayList<>(query.values());
 
         appendList(sql, query.columns(), ", ", Column::name);
-        sql.append(") VALUES (");
-        for (int i = 0; i < query.columns().size(); i++) {
-            if (i > 0) {
+        sql.append(") VALUES ");
+        for (int row = 0; row < query.rowCount(); row++) {
+            if (row > 0) {
                 sql.append(", ");
             }
-            sql.append('?');
+            sql.append('(');
+            for (int i = 0; i < query.columns().size(); i++) {
+                if (i > 0) {
+                    sql.append(", ");
+                }
+                sql.append('?');
+            }
+            sql.append(')');
         }
-        sql.append(')');
 
         if (query.conflictTarget() != null) {
             if (query.conflictUpdates().isEmpty()) {
@@ -1,6 +1,10 @@
 package plugin.session;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
@@ -11,6 +15,7 @@ import arc.util.Log;
 import lombok.AllArgsConstructor;
 import lombok.RequiredArgsConstructor;
 import mindustry.gen.Player;
+import plugin.Cfg;
 import plugin.Tasks;
 import plugin.annotations.Component;
 import plugin.annotations.Destroy;
@@ -28,6 +33,18 @@ public class SessionRepository {
     private final ConcurrentHashMap<String, SessionData> cache = new ConcurrentHashMap<>();
 
     private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+    private final Object flushLock = new Object();
+
+    /**
+     * Rows per insert. Each row binds three parameters, and older SQLite
+     * builds allow at most 999 per statement.
+     */
+    static final int MAX_BATCH_SIZE = 999 / 3;
+
+    private int maxBatchSize = batchSize(Cfg.SESSION_FLUSH_BATCH_SIZE);
+
+    private record PendingWrite(String uuid, String json, long totalExp) {
+    }
 
     @Init
     public void init() {
@@ -48,9 +65,7 @@ public class SessionRepository {
     @Destroy
     public void destroy() {
         try {
-            for (var entry : cache.entrySet()) {
-                write(entry.getKey(), entry.getValue());
-            }
+            writeAll(Map.copyOf(cache));
         } catch (Exception e) {
             Log.err("Failed to flush session repository on unload: @", e.getMessage());
         } finally {
@@ -116,12 +131,36 @@ public class SessionRepository {
         dirty.remove(uuid);
     }
 
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public void setMaxBatchSize(int maxBatchSize) {
+        if (maxBatchSize < 1 || maxBatchSize > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Max batch size must be between 1 and " + MAX_BATCH_SIZE);
+        }
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /** The configured batch size, clamped to what a flush can use. */
+    static int batchSize(int configured) {
+        int size = Math.max(1, Math.min(MAX_BATCH_SIZE, configured));
+
+        if (size != configured) {
+            Log.warn("SESSION_FLUSH_BATCH_SIZE @ is out of range, using @", configured, size);
+        }
+
+        return size;
+    }
+
     @Schedule(delay = 10, fixedDelay = 10, unit = TimeUnit.SECONDS)
     public void flushBatch() {
         if (dirty.isEmpty()) {
             return;
         }
 
+        var batch = new HashMap<String, SessionData>();
+
         for (var uuid : dirty.toArray(new String[0])) {
             if (!dirty.remove(uuid)) {
                 continue;
@@ -129,9 +168,17 @@ public class SessionRepository {
 
             var data = cache.get(uuid);
             if (data != null) {
-                write(uuid, data);
+                batch.put(uuid, data);
             }
         }
+
+        try {
+            writeAll(batch);
+        } catch (Exception e) {
+            Log.err("Error while flushing @ sessions", batch.size(), e);
+            // Retry on the next flush unless the session was removed meanwhile.
+            batch.keySet().forEach(this::markDirty);
+        }
     }
 
     @AllArgsConstructor
@@ -209,27 +256,60 @@ public class SessionRepository {
 
     private void write(String uuid, SessionData pdata) {
         try {
-            String json;
-            long totalExp;
+            writeAll(Map.of(uuid, pdata));
+        } catch (Exception e) {
+            Log.err("Error while saving session", e);
+        }
+    }
 
-            synchronized (pdata) {
-                var now = Instant.now().toEpochMilli();
-                var playTime = Math.max(0, now - pdata.lastSaved);
-                pdata.playTime += playTime;
-                pdata.lastSaved = now;
+    /**
+     * Upserts every session in one transaction, as multi-row inserts of at
+     * most maxBatchSize rows each.
+     */
+    private void writeAll(Map<String, SessionData> sessions) {
+        if (sessions.isEmpty()) {
+            return;
+        }
 
-                json = JsonUtils.toJsonString(pdata);
-                totalExp = (long) pdata.exp;
-            }
+        List<PendingWrite> writes = new ArrayList<>(sessions.size());
 
-            database.db().insert(Sessions.TABLE)
-                    .set(Sessions.UUID, uuid)
-                    .set(Sessions.DATA, json)
-                    .set(Sessions.TOTAL_EXP, totalExp)
-                    .onConflictDoUpdate(Sessions.UUID, Sessions.DATA, Sessions.TOTAL_EXP)
-                    .execute();
-        } catch (Exception e) {
-            Log.err("Error while saving session", e);
+        for (var entry : sessions.entrySet()) {
+            writes.add(snapshot(entry.getKey(), entry.getValue()));
+        }
+
+        synchronized (flushLock) {
+            database.db().transaction(tx -> {
+                for (int from = 0; from < writes.size(); from += maxBatchSize) {
+                    var chunk = writes.subList(from, Math.min(from + maxBatchSize, writes.size()));
+                    var insert = tx.insert(Sessions.TABLE);
+
+                    for (int i = 0; i < chunk.size(); i++) {
+                        var write = chunk.get(i);
+
+                        if (i > 0) {
+                            insert.nextRow();
+                        }
+
+                        insert.set(Sessions.UUID, write.uuid())
+                                .set(Sessions.DATA, write.json())
+                                .set(Sessions.TOTAL_EXP, write.totalExp());
+                    }
+
+                    insert.onConflictDoUpdate(Sessions.UUID, Sessions.DATA, Sessions.TOTAL_EXP)
+                            .execute();
+                }
+            });
+        }
+    }
+
+    private PendingWrite snapshot(String uuid, SessionData pdata) {
+        synchronized (pdata) {
+            var now = Instant.now().toEpochMilli();
+            var playTime = Math.max(0, now - pdata.lastSaved);
+            pdata.playTime += playTime;
+            pdata.lastSaved = now;
+
+            return new PendingWrite(uuid, JsonUtils.toJsonString(pdata), (long) pdata.exp);
         }
     }
 
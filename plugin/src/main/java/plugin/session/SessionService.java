@@ -93,14 +93,14 @@ public class SessionService {
     }
 
     @Schedule(fixedDelay = 1, unit = TimeUnit.MINUTES)
-    private void updateLeaderboardData() {
+    void updateLeaderboardData() {
         if (Vars.state.isPlaying()) {
             leaderboard = sessionRepository.leaderBoard(3);
         }
     }
 
     @Schedule(fixedDelay = 1, unit = TimeUnit.SECONDS)
-    private void tick() {
+    void tick() {
         each(s -> PluginEvents.fire(new ExpGainEvent(s, 1)));
     }
 
@@ -48,7 +48,7 @@ public class TipService {
     }
 
     @Schedule(fixedDelay = 3, unit = TimeUnit.MINUTES)
-    private void sendTips() {
+    void sendTips() {
         if (Vars.state.isPlaying()) {
             var tip = tips.random();
 
@@ -38,7 +38,7 @@ public class TrailService {
     }
 
     @Schedule(fixedRate = 500)
-    private void render() {
+    void render() {
         sessionService.each(session -> {
             var userTrail = session.getData().trail;
             if (userTrail != null) {
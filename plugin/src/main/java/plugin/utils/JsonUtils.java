@@ -14,6 +14,8 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 
 import arc.struct.Seq;
+import dto.WsEnvelope;
+import dto.WsMessageCodec;
 import mindustry.ctype.MappableContent;
 import mindustry.game.Team;
 import mindustry.gen.Unit;
@@ -51,6 +53,8 @@ public class JsonUtils {
                     .addDeserializer(UnitType.class, new UnitTypeDeserializer()))
             .registerModule(new JavaTimeModule());
 
+    private static final WsMessageCodec wsMessageCodec = new WsMessageCodec(objectMapper);
+
     public static String toJsonString(Object data) {
         try {
             return objectMapper.writeValueAsString(data);
@@ -75,6 +79,14 @@ public class JsonUtils {
         }
     }
 
+    public static WsEnvelope readWsMessage(String data) {
+        try {
+            return wsMessageCodec.decode(data);
+        } catch (Exception e) {
+            throw new RuntimeException("Can not parse to json: " + e.getMessage(), e);
+        }
+    }
+
     public static ObjectNode createObjectNode() {
         return objectMapper.createObjectNode();
     }
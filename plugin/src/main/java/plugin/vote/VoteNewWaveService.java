@@ -31,7 +31,7 @@ public class VoteNewWaveService {
     private ScheduledFuture<?> voteCountDown;
 
     @Listener
-    private void onPlayEvent(PlayEvent event) {
+    void onPlayEvent(PlayEvent event) {
         if (voteCountDown != null) {
             voteCountDown.cancel(true);
         }
@@ -0,0 +1,132 @@
+package plugin.gateway;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import dto.ServerStateDto;
+import dto.WsEnvelope;
+import dto.WsMessage;
+import dto.WsMessageCodec;
+
+public class WsMessageCodecTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final WsMessageCodec codec = new WsMessageCodec(mapper);
+
+    @Test
+    void decodesEnvelopeFields() throws Exception {
+        WsMessage<Object> request = WsMessage.create("get-state");
+        WsMessage<?> response = request.response(Map.of("a", 1)).setError(true);
+
+        WsEnvelope envelope = codec.decode(mapper.writeValueAsString(response));
+
+        assertEquals(response.getId(), envelope.getId());
+        assertEquals("get-state", envelope.getType());
+        assertEquals(request.getId(), envelope.getResponseOf());
+        assertTrue(envelope.isError());
+    }
+
+    @Test
+    void bindsPayloadToRequestedClass() throws Exception {
+        UUID serverId = UUID.randomUUID();
+        WsMessage<ServerStateDto> message = WsMessage.<ServerStateDto>create("get-state")
+                .withPayload(new ServerStateDto().setServerId(serverId).setMapName("Ground Zero"));
+
+        WsEnvelope envelope = codec.decode(mapper.writeValueAsString(message));
+        ServerStateDto state = envelope.payloadAs(ServerStateDto.class);
+
+        assertEquals(serverId, state.getServerId());
+        assertEquals("Ground Zero", state.getMapName());
+        assertEquals("Ground Zero", envelope.payloadAs(JsonNode.class).get("mapName").asText());
+    }
+
+    @Test
+    void bindsPayloadToGenericType() throws Exception {
+        String json = "{\"type\":\"get-commands\",\"payload\":[\"a\",\"b\"]}";
+
+        List<String> payload = codec.decode(json)
+                .payloadAs(mapper.getTypeFactory().constructCollectionType(List.class, String.class));
+
+        assertEquals(List.of("a", "b"), payload);
+    }
+
+    @Test
+    void missingOrNullPayloadBindsToNull() throws Exception {
+        WsEnvelope missing = codec.decode("{\"type\":\"is-hosting\"}");
+        WsEnvelope explicitNull = codec.decode("{\"type\":\"is-hosting\",\"payload\":null}");
+
+        assertFalse(missing.hasPayload());
+        assertNull(missing.payloadAs(Void.class));
+        assertNull(explicitNull.payloadAs(String.class));
+        assertNull(missing.getId());
+    }
+
+    @Test
+    void ignoresUnknownFields() throws Exception {
+        WsEnvelope envelope = codec.decode("{\"extra\":{\"nested\":[1,2,{\"x\":1}]},\"type\":\"say\",\"payload\":\"hi\"}");
+
+        assertEquals("say", envelope.getType());
+        assertEquals("hi", envelope.payloadAs(String.class));
+    }
+
+    @Test
+    void rejectsNonObjectFrames() {
+        assertThrows(IOException.class, () -> codec.decode("[1,2,3]"));
+    }
+
+    @Test
+    void binaryFrameCarriesTheRequestIdAndRawPayload() throws Exception {
+        UUID requestId = UUID.randomUUID();
+        byte[] png = { (byte) 0x89, 'P', 'N', 'G', 0, (byte) 0xff };
+
+        byte[] frame = WsMessageCodec.encodeBinary(requestId, png);
+        WsEnvelope envelope = codec.decodeBinary(frame);
+
+        assertEquals(16 + png.length, frame.length);
+        assertEquals(requestId, envelope.getResponseOf());
+        assertTrue(envelope.isBinary());
+        assertTrue(envelope.hasPayload());
+        assertFalse(envelope.isError());
+        assertArrayEquals(png, envelope.payloadAsBytes());
+    }
+
+    @Test
+    void binaryFrameCanBeReadFromAnOffset() throws Exception {
+        UUID requestId = UUID.randomUUID();
+        byte[] frame = WsMessageCodec.encodeBinary(requestId, new byte[0]);
+        byte[] padded = new byte[frame.length + 8];
+        System.arraycopy(frame, 0, padded, 4, frame.length);
+
+        WsEnvelope envelope = codec.decodeBinary(padded, 4, frame.length);
+
+        assertEquals(requestId, envelope.getResponseOf());
+        assertArrayEquals(new byte[0], envelope.payloadAsBytes());
+    }
+
+    @Test
+    void rejectsTruncatedBinaryFrames() {
+        assertThrows(IOException.class, () -> codec.decodeBinary(new byte[15]));
+    }
+
+    @Test
+    void textFrameHasNoBinaryPayload() throws Exception {
+        WsEnvelope envelope = codec.decode("{\"type\":\"say\",\"payload\":\"hi\"}");
+
+        assertFalse(envelope.isBinary());
+        assertThrows(IllegalStateException.class, envelope::payloadAsBytes);
+    }
+}
@@ -0,0 +1,156 @@
+package plugin.grief;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class TileLogStoreTest {
+
+    private static final int MAP_SIZE = 500;
+
+    @Test
+    void recentReturnsNewestFirst() {
+        var store = new TileLogStore(1 << 20, 100);
+        store.reset(10, 10);
+
+        store.append(3, 4, "u1", "alice", "Copper Wall", "map", TileLogStore.PLACE, 1);
+        store.append(3, 4, null, null, "Copper Wall", "map", TileLogStore.DESTROY, 2);
+        store.append(5, 5, "u2", "bob", "Conveyor", "map", TileLogStore.PLACE, 3);
+
+        var entries = store.recent(3, 4, 5);
+
+        assertEquals(2, entries.size());
+        assertEquals(TileLogStore.DESTROY, entries.get(0).action());
+        assertNull(entries.get(0).uuid());
+        assertNull(entries.get(0).name());
+        assertEquals(new TileLogStore.Entry("u1", "alice", "Copper Wall", 3, 4, "map", TileLogStore.PLACE, 1),
+                entries.get(1));
+        assertEquals(2, store.count(3, 4, 100));
+    }
+
+    @Test
+    void outOfBoundsTilesAreIgnored() {
+        var store = new TileLogStore(1 << 20, 100);
+        store.reset(10, 10);
+
+        store.append(10, 0, "u1", "alice", "Wall", "map", TileLogStore.PLACE, 1);
+        store.append(-1, 0, "u1", "alice", "Wall", "map", TileLogStore.PLACE, 1);
+
+        assertEquals(0, store.size());
+        assertTrue(store.recent(10, 0, 5).isEmpty());
+    }
+
+    @Test
+    void budgetEvictsOldestEntriesFirst() {
+        int capacity = 5000;
+        var store = new TileLogStore(10L * 10 * TileLogStore.TILE_BYTES + (long) TileLogStore.ENTRY_BYTES * capacity,
+                100);
+        store.reset(10, 10);
+
+        assertEquals(capacity, store.maxCapacity());
+
+        for (int i = 0; i < 12_000; i++) {
+            store.append(i % 10, (i / 10) % 10, "u" + (i % 3), "p" + (i % 3), "Wall", "map", TileLogStore.PLACE, i);
+        }
+
+        assertEquals(capacity, store.size());
+        // The last 5000 appends cover every tile 50 times.
+        assertEquals(50, store.count(0, 0, 1000));
+        assertEquals(11_999, store.recent(9, 9, 1).get(0).time());
+        assertEquals(7_000, store.recent(0, 0, 50).get(49).time());
+    }
+
+    @Test
+    void resetClearsEntries() {
+        var store = new TileLogStore(1 << 20, 100);
+        store.reset(10, 10);
+        store.append(1, 1, "u1", "alice", "Wall", "map", TileLogStore.PLACE, 1);
+
+        store.reset(20, 20);
+
+        assertTrue(store.recent(1, 1, 5).isEmpty());
+        assertTrue(store.isSized(20, 20));
+    }
+
+    @Test
+    void busyTileReusesItsOwnOldestEntries() {
+        int capacity = 1000;
+        var store = new TileLogStore(10L * 10 * TileLogStore.TILE_BYTES + (long) TileLogStore.ENTRY_BYTES * capacity,
+                100);
+        store.reset(10, 10);
+
+        for (int x = 1; x < 10; x++) {
+            store.append(x, 0, "u1", "alice", "Wall", "map", TileLogStore.PLACE, x);
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            store.append(0, 0, "u2", "bob", "Conveyor", "map", TileLogStore.DESTROY, 100 + i);
+        }
+
+        assertEquals(109, store.size());
+        assertEquals(100, store.count(0, 0, 1000));
+        assertEquals(10_099, store.recent(0, 0, 1).get(0).time());
+        assertEquals(10_000, store.recent(0, 0, 100).get(99).time());
+
+        for (int x = 1; x < 10; x++) {
+            assertEquals(x, store.recent(x, 0, 5).get(0).time());
+        }
+    }
+
+    @Test
+    void evictionAfterTileCapKeepsChainsConsistent() {
+        int capacity = 50;
+        var store = new TileLogStore(4L * TileLogStore.TILE_BYTES + (long) TileLogStore.ENTRY_BYTES * capacity, 20);
+        store.reset(2, 2);
+
+        for (int i = 0; i < 1000; i++) {
+            store.append(i % 3 == 0 ? 0 : 1, (i / 7) % 2, "u1", "alice", "Wall", "map", TileLogStore.PLACE, i);
+        }
+
+        int total = 0;
+
+        for (int x = 0; x < 2; x++) {
+            for (int y = 0; y < 2; y++) {
+                var entries = store.recent(x, y, 1000);
+                assertEquals(store.count(x, y, 1000), entries.size());
+                assertTrue(entries.size() <= 20);
+
+                for (int i = 1; i < entries.size(); i++) {
+                    assertTrue(entries.get(i - 1).time() > entries.get(i).time());
+                }
+
+                total += entries.size();
+            }
+        }
+
+        assertEquals(store.size(), total);
+        assertTrue(store.size() <= capacity);
+    }
+
+    /**
+     * One million entries on a 500x500 map: the store never allocates past its
+     * budget and keeps as many of the newest entries as fit.
+     */
+    @Test
+    void largeMapStaysWithinBudget() {
+        long budget = 32L * 1024 * 1024;
+        var store = new TileLogStore(budget, 100);
+        store.reset(MAP_SIZE, MAP_SIZE);
+
+        var random = new Random(1);
+
+        for (int i = 0; i < 1_000_000; i++) {
+            store.append(random.nextInt(MAP_SIZE), random.nextInt(MAP_SIZE), "u" + (i % 60), "player" + (i % 60),
+                    "block" + (i % 40), "map", TileLogStore.PLACE, i);
+        }
+
+        assertTrue(store.allocatedBytes() <= budget, store.allocatedBytes() + " bytes");
+        assertEquals(store.maxCapacity(), store.size());
+        assertEquals((budget - (long) MAP_SIZE * MAP_SIZE * TileLogStore.TILE_BYTES) / TileLogStore.ENTRY_BYTES,
+                store.maxCapacity());
+    }
+}
@@ -0,0 +1,169 @@
+package plugin.orm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sqlite.SQLiteConfig;
+
+import plugin.orm.sql.SqlQuery;
+
+public class ConnectionPoolTest {
+
+    @TempDir
+    Path tempDir;
+
+    private SQLiteDatabase database(int poolSize) {
+        return SQLiteDatabase.builder()
+                .path(tempDir.resolve("pool.db").toString())
+                .poolSize(poolSize)
+                .build();
+    }
+
+    @Test
+    void connectionsAreReusedAcrossOperations() {
+        var db = database(2);
+        db.raw("CREATE TABLE t (id INTEGER)");
+
+        for (int i = 0; i < 50; i++) {
+            db.raw("INSERT INTO t (id) VALUES (?)", i);
+        }
+
+        assertEquals(1, db.poolOrNull().openedCount());
+        assertEquals(50, db.rawQuery("SELECT COUNT(*) AS c FROM t").get(0).getInt("c"));
+        db.close();
+    }
+
+    @Test
+    void concurrentOperationsNeverExceedPoolSize() throws Exception {
+        var db = database(3);
+        db.raw("CREATE TABLE users (id INTEGER PRIMARY KEY, name TEXT)");
+
+        ExecutorService pool = Executors.newFixedThreadPool(12);
+        try {
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for (int t = 0; t < 12; t++) {
+                final int threadId = t;
+                futures.add(CompletableFuture.runAsync(() -> {
+                    for (int i = 0; i < 20; i++) {
+                        db.insert(Fixtures.USERS).set(Fixtures.USERS_NAME, threadId + "-" + i).execute();
+                    }
+                }, pool));
+            }
+            for (var future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertTrue(db.poolOrNull().openedCount() <= 3);
+        assertEquals(240, db.rawQuery("SELECT COUNT(*) AS c FROM users").get(0).getInt("c"));
+        db.close();
+    }
+
+    @Test
+    void defaultPragmasEnableWal() {
+        var db = database(1);
+
+        var row = db.rawQuery("PRAGMA journal_mode").get(0);
+        assertEquals("wal", row.getString("journal_mode"));
+
+        db.close();
+    }
+
+    @Test
+    void journalModeIsConfigurable() {
+        var db = SQLiteDatabase.builder()
+                .path(tempDir.resolve("delete.db").toString())
+                .journalMode(SQLiteConfig.JournalMode.DELETE)
+                .build();
+
+        var row = db.rawQuery("PRAGMA journal_mode").get(0);
+        assertEquals("delete", row.getString("journal_mode"));
+
+        db.close();
+    }
+
+    @Test
+    void preparedStatementsAreCachedBySql() throws Exception {
+        var db = database(1);
+        db.raw("CREATE TABLE t (id INTEGER)");
+
+        try (Connection connection = db.poolOrNull().acquire()) {
+            PreparedStatement first = connection.prepareStatement("INSERT INTO t (id) VALUES (?)");
+            first.setInt(1, 1);
+            first.executeUpdate();
+            first.close();
+
+            PreparedStatement second = connection.prepareStatement("INSERT INTO t (id) VALUES (?)");
+            assertSame(first, second);
+
+            PreparedStatement nested = connection.prepareStatement("INSERT INTO t (id) VALUES (?)");
+            assertNotSame(second, nested);
+
+            nested.close();
+            second.close();
+        }
+
+        db.close();
+    }
+
+    @Test
+    void schemaChangeInvalidatesCachedStatements() {
+        var db = database(1);
+        db.raw("CREATE TABLE t (id INTEGER)");
+        db.raw("INSERT INTO t (id) VALUES (1)");
+
+        assertEquals(1, db.rawQuery("SELECT * FROM t").get(0).size());
+
+        db.raw("ALTER TABLE t ADD COLUMN name TEXT");
+
+        assertTrue(db.hasColumn("t", "name"));
+        assertEquals(2, db.rawQuery("SELECT * FROM t").get(0).size());
+        db.close();
+    }
+
+    @Test
+    void failedTransactionDoesNotLeakIntoNextLease() {
+        var db = database(1);
+        db.raw("CREATE TABLE t (id INTEGER)");
+
+        assertThrows(IllegalStateException.class, () -> db.transaction(tx -> {
+            tx.execute(new SqlQuery("INSERT INTO t (id) VALUES (1)", List.of()));
+            throw new IllegalStateException("boom");
+        }));
+
+        db.raw("INSERT INTO t (id) VALUES (2)");
+
+        assertEquals(1, db.rawQuery("SELECT COUNT(*) AS c FROM t").get(0).getInt("c"));
+        db.close();
+    }
+
+    @Test
+    void closeReleasesDatabaseFile() throws Exception {
+        Path path = tempDir.resolve("pool.db");
+        var db = database(2);
+        db.raw("CREATE TABLE t (id INTEGER)");
+        db.raw("INSERT INTO t (id) VALUES (1)");
+
+        db.close();
+
+        assertThrows(OrmException.class, () -> db.raw("INSERT INTO t (id) VALUES (2)"));
+        assertTrue(Files.deleteIfExists(path));
+    }
+}
@@ -169,6 +169,39 @@ public class SqlRendererTest {
         assertEquals(List.of("abc", "{}", 0L), q.parameters());
     }
 
+    @Test
+    void rendersMultiRowUpsert() {
+        var q = db.insert(Fixtures.SESSIONS)
+                .set(Fixtures.SESSIONS_UUID, "a")
+                .set(Fixtures.SESSIONS_DATA, "{}")
+                .nextRow()
+                .set(Fixtures.SESSIONS_DATA, "{\"x\":1}")
+                .set(Fixtures.SESSIONS_UUID, "b")
+                .onConflictDoUpdate(Fixtures.SESSIONS_UUID, Fixtures.SESSIONS_DATA)
+                .toSqlQuery();
+        assertEquals(
+                "INSERT INTO sessions (uuid, data) VALUES (?, ?), (?, ?) "
+                        + "ON CONFLICT(uuid) DO UPDATE SET data = excluded.data",
+                Render.normalize(q.sql()));
+        assertEquals(List.of("a", "{}", "b", "{\"x\":1}"), q.parameters());
+    }
+
+    @Test
+    void multiRowInsertRejectsIncompleteRow() {
+        var q = db.insert(Fixtures.USERS)
+                .set(Fixtures.USERS_NAME, "a")
+                .set(Fixtures.USERS_ACTIVE, true)
+                .nextRow()
+                .set(Fixtures.USERS_NAME, "b");
+        assertThrows(OrmException.class, q::toSqlQuery);
+    }
+
+    @Test
+    void multiRowInsertRejectsUnknownColumn() {
+        var q = db.insert(Fixtures.USERS).set(Fixtures.USERS_NAME, "a").nextRow();
+        assertThrows(OrmException.class, () -> q.set(Fixtures.USERS_ACTIVE, true));
+    }
+
     @Test
     void rendersUpdateWithWhere() {
         var q = db.update(Fixtures.USERS)
@@ -5,9 +5,9 @@ import java.nio.file.Path;
 /**
  * Test fixture: builds a SQLiteDatabase on a fresh temp-file path with the fixture schema.
  *
- * <p>In-memory SQLite (jdbc:sqlite::memory:) is intentionally NOT used: the ORM uses one
- * connection per operation, and SQLite drops in-memory databases when the last connection
- * closes. A temp file is isolated, deterministic, and exercises real connection-per-operation
+ * <p>In-memory SQLite (jdbc:sqlite::memory:) is intentionally NOT used: the ORM spreads work
+ * over a pool of connections, and each in-memory connection would see its own private
+ * database. A temp file is isolated, deterministic, and exercises real pooled-connection
  * semantics.</p>
  */
 public final class TestDatabase implements AutoCloseable {
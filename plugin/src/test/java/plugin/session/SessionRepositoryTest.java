@@ -93,6 +93,57 @@ public class SessionRepositoryTest {
         assertEquals(10f, fresh.exp);
     }
 
+    @Test
+    void flushBatchWritesEveryDirtySessionAcrossChunks() {
+        repository.setMaxBatchSize(7);
+
+        for (int i = 0; i < 64; i++) {
+            repository.put("u" + i, dataWithExp(i));
+        }
+        repository.flushBatch();
+
+        assertEquals(64, database.db().rawQuery("SELECT COUNT(*) AS c FROM sessions").get(0).getInt("c"));
+        assertEquals(63, database.db().rawQuery("SELECT totalExp FROM sessions WHERE uuid = 'u63'").get(0).getLong("totalExp"));
+    }
+
+    @Test
+    void destroyFlushesCachedSessionsSynchronously() {
+        repository.put("u1", dataWithExp(10));
+        repository.put("u2", dataWithExp(20));
+
+        repository.destroy();
+
+        assertEquals(2, database.db().rawQuery("SELECT COUNT(*) AS c FROM sessions").get(0).getInt("c"));
+        assertEquals(20, database.db().rawQuery("SELECT totalExp FROM sessions WHERE uuid = 'u2'").get(0).getLong("totalExp"));
+    }
+
+    @Test
+    void maxBatchSizeMustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> repository.setMaxBatchSize(0));
+        assertThrows(IllegalArgumentException.class,
+                () -> repository.setMaxBatchSize(SessionRepository.MAX_BATCH_SIZE + 1));
+    }
+
+    @Test
+    void configuredBatchSizeIsClamped() {
+        assertEquals(200, SessionRepository.batchSize(200));
+        assertEquals(1, SessionRepository.batchSize(0));
+        assertEquals(1, SessionRepository.batchSize(-5));
+        assertEquals(SessionRepository.MAX_BATCH_SIZE, SessionRepository.batchSize(100_000));
+    }
+
+    @Test
+    void fullBatchesStayWithinTheParameterLimit() {
+        repository.setMaxBatchSize(SessionRepository.MAX_BATCH_SIZE);
+
+        for (int i = 0; i < 400; i++) {
+            repository.put("u" + i, dataWithExp(i));
+        }
+        repository.flushBatch();
+
+        assertEquals(400, database.db().rawQuery("SELECT COUNT(*) AS c FROM sessions").get(0).getInt("c"));
+    }
+
     @Test
     void flushBatchIsNoOpWhenNothingDirty() {
         repository.flushBatch();
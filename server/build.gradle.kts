@@ -33,6 +33,13 @@ dependencies {
     compileOnly("org.projectlombok:lombok:1.18.30")
 
     annotationProcessor("org.projectlombok:lombok:1.18.30")
+
+    testImplementation("org.junit.jupiter:junit-jupiter:5.10.0")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+}
+
+tasks.test {
+    useJUnitPlatform()
 }
 
 configurations {
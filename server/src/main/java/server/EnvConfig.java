@@ -1,5 +1,7 @@
 package server;
 
+import java.time.Duration;
+
 public record EnvConfig(
     DockerEnv docker,
     ServerConfig serverConfig
@@ -8,7 +10,9 @@ public record EnvConfig(
         String mindustryServerImage,
         String serverDataFolder,
         String authToken,
-        String username
+        String username,
+        String standbyPorts,
+        int standbyMemory
     ) {}
 
     public record ServerConfig(
@@ -16,7 +20,11 @@ public record EnvConfig(
         String accessToken,
         String securityKey,
         String dataFolder,
-        String serverUrl
+        String serverUrl,
+        Duration stateMaxAge,
+        Duration idlePauseAfter,
+        Duration idleRemoveAfter,
+        Duration gatewayTimeout
     ) {}
 
     public static EnvConfig load() {
@@ -25,14 +33,20 @@ public record EnvConfig(
                 getEnv("MINDUSTRY_SERVER_IMAGE", "ghcr.io/mindustrytool/mindustry-server-v7b146:latest"),
                 getEnv("SERVER_DATA_FOLDER", null),
                 getEnv("DOCKER_AUTH_TOKEN", null),
-                getEnv("DOCKER_USERNAME", null)
+                getEnv("DOCKER_USERNAME", null),
+                getEnv("STANDBY_PORTS", ""),
+                Integer.parseInt(getEnv("STANDBY_MEMORY", "1024"))
             ),
             new ServerConfig(
                 Boolean.parseBoolean(getEnv("AUTO_PORT_ASSIGN", "true")),
                 getEnv("ACCESS_TOKEN_v2", null),
                 getEnv("SECURITY_KEY_V2", null),
                 getEnv("DATA_FOLDER", null),
-                getEnv("SERVER_URL", "http://api:8080")
+                getEnv("SERVER_URL", "http://api:8080"),
+                Duration.ofSeconds(Long.parseLong(getEnv("STATE_MAX_AGE_SECONDS", "30"))),
+                Duration.ofMinutes(Long.parseLong(getEnv("IDLE_PAUSE_MINUTES", "10"))),
+                Duration.ofMinutes(Long.parseLong(getEnv("IDLE_REMOVE_MINUTES", "360"))),
+                Duration.ofSeconds(Long.parseLong(getEnv("GATEWAY_TIMEOUT_SECONDS", "10")))
             )
         );
     }
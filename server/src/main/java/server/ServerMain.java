@@ -12,6 +12,7 @@ import server.manager.DockerNodeManager;
 import server.manager.NodeManager;
 import server.service.*;
 import server.utils.ApiError;
+import server.utils.FileDownload;
 import server.utils.Utils;
 import arc.files.Fi;
 import arc.util.Log;
@@ -20,7 +21,6 @@ import dto.ServerConfig;
 import enums.NodeRemoveReason;
 import server.types.data.ServerManagerJwt;
 import server.types.request.SendCommandBody;
-import events.BaseEvent;
 import com.auth0.jwt.JWT;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.fasterxml.jackson.databind.DeserializationFeature;
@@ -28,11 +28,15 @@ import com.fasterxml.jackson.databind.JsonNode;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.time.format.DateTimeParseException;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
-import java.util.function.Consumer;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
 
@@ -61,6 +65,8 @@ public class ServerMain {
         ServerService serverService = new ServerService(gatewayService, nodeManager, eventBus, apiService, wsHandler,
                 envConfig);
 
+        ScheduledExecutorService pingScheduler = Executors.newSingleThreadScheduledExecutor();
+
         Javalin app = Javalin.create(config -> {
             config.showJavalinBanner = false;
             config.router.contextPath = "/";
@@ -143,16 +149,27 @@ public class ServerMain {
 
         app.get("/", ctx -> ctx.result("pong"));
 
-        app.sse("/api/v2/events", client -> {
-            Consumer<BaseEvent> listener = event -> client.sendEvent(Utils.toJsonString(event));
-            serverService.addEventListener(listener);
-            client.keepAlive();
-            client.onClose(() -> {
-                serverService.removeEventListener(listener);
+        app.get("/api/v2/gateway/stats", ctx -> ctx.json(Map.of(
+                "timerEntries", gatewayService.timerEntries(),
+                "pendingRequests", gatewayService.pendingRequests())));
+
+        app.get("/api/v2/events", ctx -> {
+            EventStream stream = EventStream.open(ctx);
+            ScheduledFuture<?> ping = pingScheduler.scheduleAtFixedRate(stream::ping, 15, 15, TimeUnit.SECONDS);
+
+            stream.onClose(() -> {
+                ping.cancel(false);
+                serverService.removeEventListener(stream);
                 Log.info("Backend event stream disconnected");
             });
 
-            Log.info("Backend event stream connected");
+            serverService.addEventListener(stream, parseLastEventId(ctx.header("Last-Event-ID")), () -> {
+                Log.warn("Backend event stream is too slow, disconnecting");
+                stream.close();
+            });
+
+            Log.info("Backend event stream connected@", stream.isGzip() ? " (gzip)" : "");
+            ctx.future(stream::closed);
         });
 
         app.get("/api/v2/servers/{id}/files", ctx -> {
@@ -174,71 +191,95 @@ public class ServerMain {
 
         app.get("/api/v2/servers/{id}/files/download", ctx -> {
             UUID id = UUID.fromString(ctx.pathParam("id"));
-            String path = URLDecoder.decode(ctx.pathParam("path"), StandardCharsets.UTF_8);
+            String path = URLDecoder.decode(ctx.queryParam("path"), StandardCharsets.UTF_8);
             Fi file = nodeManager.getFile(id, path);
 
-            ctx.header("Content-Type", "application/octet-stream");
-            ctx.header("Content-Disposition", "attachment; filename=\"" + file.name() + "\"");
-            ctx.header("Content-Length", String.valueOf(file.length()));
-
-            ctx.result(file.readBytes());
+            FileDownload.send(ctx, file);
         });
 
         app.post("/api/v2/servers/{id}/files", ctx -> {
             UUID id = UUID.fromString(ctx.pathParam("id"));
             String path = ctx.formParam("path");
             UploadedFile file = ctx.uploadedFile("file");
-            byte[] data = file != null ? file.content().readAllBytes() : new byte[0];
-            serverService.writeFile(id, path, data, file != null ? file.filename() : null);
+
+            try (InputStream data = file != null ? file.content() : InputStream.nullInputStream()) {
+                serverService.writeFile(id, path, data, file != null ? file.filename() : null);
+            }
         });
 
-        app.post("/api/v2/servers/{id}/folders", ctx -> {
+        // Resumable uploads: query the offset, send the rest in chunks, then complete to replace the file.
+        app.get("/api/v2/servers/{id}/files/upload", ctx -> {
             UUID id = UUID.fromString(ctx.pathParam("id"));
             String path = URLDecoder.decode(ctx.queryParam("path"), StandardCharsets.UTF_8);
-            ctx.json(serverService.createFolder(id, path));
+            ctx.json(Map.of("offset", serverService.getUploadOffset(id, path)));
         });
 
-        app.delete("/api/v2/servers/{id}/files", ctx -> {
+        app.put("/api/v2/servers/{id}/files/upload", ctx -> {
             UUID id = UUID.fromString(ctx.pathParam("id"));
             String path = URLDecoder.decode(ctx.queryParam("path"), StandardCharsets.UTF_8);
-            ctx.json(serverService.deleteFile(id, path));
+            Long offset = ctx.queryParamAsClass("offset", Long.class)
+                    .check(v -> v >= 0, "Offset must be non-negative").get();
+
+            try (InputStream data = ctx.bodyInputStream()) {
+                ctx.json(Map.of("offset", serverService.appendUpload(id, path, offset, data)));
+            }
         });
 
-        app.get("/api/v2/servers/{id}/commands", ctx -> {
+        app.post("/api/v2/servers/{id}/files/upload/complete", ctx -> {
             UUID id = UUID.fromString(ctx.pathParam("id"));
-            var commands = gatewayService.of(id).server().getCommands().get(10, TimeUnit.SECONDS);
-            ctx.json(commands);
+            String path = URLDecoder.decode(ctx.queryParam("path"), StandardCharsets.UTF_8);
+            Long size = ctx.queryParamAsClass("size", Long.class)
+                    .check(v -> v >= 0, "Size must be non-negative").get();
+
+            serverService.completeUpload(id, path, size);
+            ctx.status(204);
         });
 
-        app.post("/api/v2/servers/{id}/commands", ctx -> {
+        app.delete("/api/v2/servers/{id}/files/upload", ctx -> {
             UUID id = UUID.fromString(ctx.pathParam("id"));
-            SendCommandBody body = ctx.bodyAsClass(SendCommandBody.class);
-            gatewayService.of(id).server().sendCommand(body.getCommand()).get(10, TimeUnit.SECONDS);
-            ctx.result();
+            String path = URLDecoder.decode(ctx.queryParam("path"), StandardCharsets.UTF_8);
+            ctx.json(serverService.abortUpload(id, path));
+        });
+
+        app.post("/api/v2/servers/{id}/folders", ctx -> {
+            UUID id = UUID.fromString(ctx.pathParam("id"));
+            String path = URLDecoder.decode(ctx.queryParam("path"), StandardCharsets.UTF_8);
+            ctx.json(serverService.createFolder(id, path));
         });
 
+        app.delete("/api/v2/servers/{id}/files", ctx -> {
+            UUID id = UUID.fromString(ctx.pathParam("id"));
+            String path = URLDecoder.decode(ctx.queryParam("path"), StandardCharsets.UTF_8);
+            ctx.json(serverService.deleteFile(id, path));
+        });
+
+        registerGatewayRoutes(app, gatewayService);
+
         app.post("/api/v2/servers/{id}/host", ctx -> {
             ServerConfig request = ctx.bodyAsClass(ServerConfig.class);
-            serverService.host(request);
-            ctx.result();
+            ctx.future(() -> gatewayService.withTimeout(serverService.host(request), ServerService.HOST_TIMEOUT)
+                    .thenAccept(res -> ctx.result()));
         });
 
         app.get("/api/v2/servers/{id}/players", ctx -> {
             UUID id = UUID.fromString(ctx.pathParam("id"));
-            ctx.json(serverService.getPlayers(id));
+            ctx.future(() -> serverService.getPlayers(id).thenAccept(ctx::json));
         });
 
         app.put("/api/v2/servers/{id}/players/{uuid}", ctx -> {
             UUID id = UUID.fromString(ctx.pathParam("id"));
             String uuid = ctx.pathParam("uuid");
             LoginDto payload = ctx.bodyAsClass(LoginDto.class);
-            serverService.updatePlayer(id, uuid, payload);
-            ctx.result();
+            ctx.future(() -> serverService.updatePlayer(id, uuid, payload).thenAccept(res -> ctx.result()));
         });
 
+        app.get("/api/v2/servers/states", ctx -> ctx.json(serverService.states()));
+
+        app.get("/api/v2/servers/host-timings", ctx -> ctx.json(serverService.hostTimings()));
+
         app.get("/api/v2/servers/{id}/state", ctx -> {
             UUID id = UUID.fromString(ctx.pathParam("id"));
-            ctx.json(serverService.state(id));
+            ctx.future(() -> serverService.stateAsync(id).thenAccept(ctx::json));
         });
 
         app.sse("/api/v2/servers/{id}/usage", client -> {
@@ -270,6 +311,13 @@ public class ServerMain {
             }
         });
 
+        app.get("/api/v2/servers/{id}/usage/history", ctx -> {
+            UUID id = UUID.fromString(ctx.pathParam("id"));
+            Instant to = parseInstant(ctx.queryParam("to"), Instant.now());
+            Instant from = parseInstant(ctx.queryParam("from"), to.minus(Duration.ofMinutes(10)));
+            ctx.json(serverService.getUsageHistory(id, from, to));
+        });
+
         app.delete("/api/v2/servers/{id}/remove", ctx -> {
             UUID id = UUID.fromString(ctx.pathParam("id"));
             serverService.remove(id, NodeRemoveReason.USER_REQUEST);
@@ -278,13 +326,15 @@ public class ServerMain {
 
         app.post("/api/v2/servers/{id}/pause", ctx -> {
             UUID id = UUID.fromString(ctx.pathParam("id"));
-            ctx.json(serverService.pause(id));
+            ctx.future(() -> serverService.pause(id).thenAccept(ctx::json));
         });
 
         app.get("/api/v2/servers/{id}/image", ctx -> {
             UUID id = UUID.fromString(ctx.pathParam("id"));
-            ctx.contentType(ContentType.IMAGE_PNG);
-            ctx.result(serverService.getImage(id));
+            ctx.future(() -> serverService.getImage(id).thenAccept(image -> {
+                ctx.contentType(ContentType.IMAGE_PNG);
+                ctx.result(image);
+            }));
         });
 
         app.get("/api/v2/mods", ctx -> ctx.json(serverService.getManagerMods()));
@@ -299,14 +349,55 @@ public class ServerMain {
             ctx.json(serverService.getMaps(id));
         });
 
+        app.post("/api/v2/servers/{id}/mismatch", ctx -> {
+            UUID id = UUID.fromString(ctx.pathParam("id"));
+            ServerConfig config = ctx.bodyAsClass(ServerConfig.class);
+            ctx.json(serverService.getMismatch(id, config));
+        });
+
+        app.ws("/gateway", ws -> {
+            wsHandler.configure(ws);
+        });
+
+        app.wsException(Exception.class, (e, ctx) -> {
+            Log.err("Error on WebSocket", e);
+        });
+
+        app.start(8088);
+        Log.info("Server Manager started on port 8088");
+
+        apiService.requestBackendConnection();
+    }
+
+    /**
+     * Routes answered by the game server itself. They wait on the gateway
+     * through {@code ctx.future}, so a server that does not answer holds no
+     * request thread and fails with 504 after the gateway timeout.
+     */
+    static void registerGatewayRoutes(Javalin app, GatewayService gatewayService) {
+        app.get("/api/v2/servers/{id}/commands", ctx -> {
+            UUID id = UUID.fromString(ctx.pathParam("id"));
+            ctx.future(() -> gatewayService.withTimeout(gatewayService.of(id).server().getCommands())
+                    .thenAccept(ctx::json));
+        });
+
+        app.post("/api/v2/servers/{id}/commands", ctx -> {
+            UUID id = UUID.fromString(ctx.pathParam("id"));
+            SendCommandBody body = ctx.bodyAsClass(SendCommandBody.class);
+            ctx.future(() -> gatewayService.withTimeout(gatewayService.of(id).server().sendCommand(body.getCommand()))
+                    .thenAccept(res -> ctx.result()));
+        });
+
         app.get("/api/v2/servers/{id}/kicks", ctx -> {
             UUID id = UUID.fromString(ctx.pathParam("id"));
-            ctx.json(gatewayService.of(id).server().getKickedIps().get(10, TimeUnit.SECONDS));
+            ctx.future(() -> gatewayService.withTimeout(gatewayService.of(id).server().getKickedIps())
+                    .thenAccept(ctx::json));
         });
 
         app.get("/api/v2/servers/{id}/json", ctx -> {
             UUID id = UUID.fromString(ctx.pathParam("id"));
-            ctx.json(gatewayService.of(id).server().getJson().get(10, TimeUnit.SECONDS));
+            ctx.future(() -> gatewayService.withTimeout(gatewayService.of(id).server().getJson())
+                    .thenAccept(ctx::json));
         });
 
         app.get("/api/v2/servers/{id}/player-infos", ctx -> {
@@ -318,8 +409,9 @@ public class ServerMain {
             Boolean banned = ctx.queryParamAsClass("banned", Boolean.class).getOrDefault(null);
             String filter = ctx.queryParam("filter");
 
-            ctx.json(gatewayService.of(id).server().getPlayersInfo(page, size, banned, filter).get(10,
-                    TimeUnit.SECONDS));
+            ctx.future(() -> gatewayService
+                    .withTimeout(gatewayService.of(id).server().getPlayersInfo(page, size, banned, filter))
+                    .thenAccept(ctx::json));
         });
 
         app.post("/api/v2/servers/{id}/chat", ctx -> {
@@ -327,24 +419,29 @@ public class ServerMain {
             gatewayService.of(id).server().sendChat(ctx.bodyAsClass(JsonNode.class));
             ctx.result();
         });
+    }
 
-        app.post("/api/v2/servers/{id}/mismatch", ctx -> {
-            UUID id = UUID.fromString(ctx.pathParam("id"));
-            ServerConfig config = ctx.bodyAsClass(ServerConfig.class);
-            ctx.json(serverService.getMismatch(id, config));
-        });
-
-        app.ws("/gateway", ws -> {
-            wsHandler.configure(ws);
-        });
+    private static Long parseLastEventId(String header) {
+        if (header == null || header.isBlank()) {
+            return null;
+        }
 
-        app.wsException(Exception.class, (e, ctx) -> {
-            Log.err("Error on WebSocket", e);
-        });
+        try {
+            return Long.parseLong(header.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
 
-        app.start(8088);
-        Log.info("Server Manager started on port 8088");
+    private static Instant parseInstant(String value, Instant fallback) {
+        if (value == null || value.isBlank()) {
+            return fallback;
+        }
 
-        apiService.requestBackendConnection();
+        try {
+            return Instant.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            throw new ApiError(400, "Invalid time: " + value);
+        }
     }
 }
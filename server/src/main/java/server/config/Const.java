@@ -30,12 +30,14 @@ public class Const {
     public static final String volumeFolderPath = getVolumeFolderPath();
     public static final String serverLabelName = "com.mindustry-tool.server.v2";
     public static final String serverIdLabel = "com.mindustry-tool.server.id.v2";
+    public static final String standbyLabel = "com.mindustry-tool.standby.v2";
     public static final String API_URL = "https://api.mindustry-tool.com/api/v4/";
     public static final File volumeFolder = new File(volumeFolderPath);
     public static final Fi serverFolder = new Fi(volumeFolderPath).child("servers");
 
     public static final String MANAGER_VERSION = "0.0.1";
     public static final Long MAX_FILE_SIZE = 5000000l;
+    public static final long MAX_UPLOAD_SIZE = 500_000_000L;
 
     public static final ExecutorService executorService = Executors.newCachedThreadPool();
 
@@ -0,0 +1,241 @@
+package server.manager;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.model.Container;
+import com.github.dockerjava.api.model.Event;
+import com.github.dockerjava.api.model.EventType;
+
+import arc.util.Log;
+import server.config.Const;
+
+/**
+ * In-memory view of the manager's containers. Seeded with one list call, kept
+ * current from the docker event stream and periodically reconciled against a
+ * full listing in case an event was missed.
+ * <p>
+ * Writes are serialized on the index so a reconcile listing taken before an
+ * event can not overwrite the state that event applied.
+ */
+public class ContainerIndex {
+
+    public record Entry(String id, String name, String state, Map<String, String> labels) {
+
+        public static Entry of(Container container) {
+            String[] names = container.getNames();
+            String name = names == null || names.length == 0 ? container.getId() : names[0];
+            Map<String, String> labels = container.getLabels() == null ? Map.of() : Map.copyOf(container.getLabels());
+
+            return new Entry(container.getId(), name, container.getState(), labels);
+        }
+
+        public boolean running() {
+            return "running".equalsIgnoreCase(state);
+        }
+
+        public boolean paused() {
+            return "paused".equalsIgnoreCase(state);
+        }
+
+        /**
+         * The server this container runs. A standby container has no server
+         * until it is claimed and renamed to the server id, which is the only
+         * place the id can go since labels are fixed at creation.
+         */
+        public Optional<UUID> serverId() {
+            String value = labels.get(Const.serverIdLabel);
+
+            if (value == null) {
+                return Optional.empty();
+            }
+
+            if (standby()) {
+                value = name.startsWith("/") ? name.substring(1) : name;
+            }
+
+            try {
+                return Optional.of(UUID.fromString(value));
+            } catch (IllegalArgumentException e) {
+                return Optional.empty();
+            }
+        }
+
+        public boolean standby() {
+            return labels.containsKey(Const.standbyLabel);
+        }
+
+        public Optional<Integer> standbyPort() {
+            try {
+                return Optional.ofNullable(labels.get(Const.standbyLabel)).map(Integer::valueOf);
+            } catch (NumberFormatException e) {
+                return Optional.empty();
+            }
+        }
+
+        public Entry withState(String state) {
+            return new Entry(id, name, state, labels);
+        }
+    }
+
+    private final DockerClient dockerClient;
+    private final ConcurrentHashMap<String, Entry> containers = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<UUID, String> containerByServer = new ConcurrentHashMap<>();
+
+    public ContainerIndex(DockerClient dockerClient) {
+        this.dockerClient = dockerClient;
+    }
+
+    public void seed() {
+        reconcile();
+        Log.info("Container index seeded with @ containers", containers.size());
+    }
+
+    /**
+     * Replace the index content with a full listing. Containers that vanished
+     * without a destroy event are dropped.
+     */
+    public synchronized void reconcile() {
+        List<Container> listed = dockerClient.listContainersCmd()
+                .withShowAll(true)
+                .withLabelFilter(List.of(Const.serverIdLabel))
+                .exec();
+
+        Set<String> seen = new HashSet<>();
+
+        for (Container container : listed) {
+            seen.add(container.getId());
+            put(Entry.of(container));
+        }
+
+        for (String id : new HashSet<>(containers.keySet())) {
+            if (!seen.contains(id)) {
+                remove(id);
+            }
+        }
+    }
+
+    /**
+     * Apply a docker event to the index and return the affected entry, if the
+     * container belongs to the manager.
+     */
+    public synchronized Optional<Entry> apply(Event event) {
+        String containerId = event.getId();
+        String action = event.getAction();
+
+        if (containerId == null || action == null) {
+            return Optional.empty();
+        }
+
+        if (event.getType() != null && event.getType() != EventType.CONTAINER) {
+            return Optional.empty();
+        }
+
+        String normalized = action.toLowerCase();
+
+        switch (normalized) {
+            case "destroy":
+                return Optional.ofNullable(remove(containerId));
+            case "start":
+            case "restart":
+            case "unpause":
+                return updateState(containerId, "running");
+            case "die":
+            case "stop":
+                return updateState(containerId, "exited");
+            case "pause":
+                return updateState(containerId, "paused");
+            case "create":
+            case "rename":
+            case "update":
+                return refresh(containerId);
+            default:
+                return Optional.ofNullable(containers.get(containerId));
+        }
+    }
+
+    public Optional<Entry> get(String containerId) {
+        return Optional.ofNullable(containers.get(containerId));
+    }
+
+    public Optional<Entry> findByServerId(UUID serverId) {
+        String containerId = containerByServer.get(serverId);
+
+        if (containerId == null) {
+            return Optional.empty();
+        }
+
+        return Optional.ofNullable(containers.get(containerId));
+    }
+
+    public Collection<Entry> all() {
+        return List.copyOf(containers.values());
+    }
+
+    public int size() {
+        return containers.size();
+    }
+
+    /**
+     * Load a single container into the index. Used for containers the index has
+     * not seen yet, which is rare compared to state transitions.
+     */
+    public synchronized Optional<Entry> refresh(String containerId) {
+        List<Container> listed = dockerClient.listContainersCmd()
+                .withShowAll(true)
+                .withIdFilter(List.of(containerId))
+                .exec();
+
+        if (listed.isEmpty()) {
+            return Optional.ofNullable(remove(containerId));
+        }
+
+        Entry entry = Entry.of(listed.get(0));
+
+        if (entry.serverId().isEmpty() && !entry.standby()) {
+            return Optional.empty();
+        }
+
+        // A rename moves a claimed standby to its server id.
+        Entry previous = containers.get(containerId);
+        if (previous != null) {
+            previous.serverId().ifPresent(serverId -> containerByServer.remove(serverId, containerId));
+        }
+
+        put(entry);
+
+        return Optional.of(entry);
+    }
+
+    public synchronized Entry remove(String containerId) {
+        Entry removed = containers.remove(containerId);
+
+        if (removed != null) {
+            removed.serverId().ifPresent(serverId -> containerByServer.remove(serverId, containerId));
+        }
+
+        return removed;
+    }
+
+    private Optional<Entry> updateState(String containerId, String state) {
+        Entry updated = containers.computeIfPresent(containerId, (id, entry) -> entry.withState(state));
+
+        if (updated == null) {
+            return refresh(containerId);
+        }
+
+        return Optional.of(updated);
+    }
+
+    private void put(Entry entry) {
+        containers.put(entry.id(), entry);
+        entry.serverId().ifPresent(serverId -> containerByServer.put(serverId, entry.id()));
+    }
+}
@@ -1,12 +1,16 @@
 package server.manager;
 
 import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -16,6 +20,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 
 import arc.files.Fi;
@@ -34,8 +39,11 @@ import dto.ServerConfig;
 import dto.ServerMetadata;
 import dto.ServerStateDto;
 import events.ServerEvents.LogEvent;
+import events.ServerEvents.PauseEvent;
+import events.ServerEvents.ResumeEvent;
 import enums.NodeRemoveReason;
 import server.utils.ApiError;
+import server.utils.FileUpload;
 import server.utils.FileUtils;
 import server.utils.Utils;
 
@@ -45,7 +53,6 @@ import com.github.dockerjava.api.DockerClient;
 import com.github.dockerjava.api.async.ResultCallback;
 import com.github.dockerjava.api.exception.NotFoundException;
 import com.github.dockerjava.api.model.Bind;
-import com.github.dockerjava.api.model.Container;
 import com.github.dockerjava.api.model.Event;
 import com.github.dockerjava.api.model.ExposedPort;
 import com.github.dockerjava.api.model.Frame;
@@ -61,14 +68,44 @@ public class DockerNodeManager implements NodeManager {
     private final DockerClient dockerClient;
     private final EnvConfig envConfig;
     private final EventBus eventBus;
-    private final Cache<String, Instant> lastLogTimeCache = Caffeine.newBuilder()
-            .expireAfterWrite(Duration.ofMinutes(5))
+    private final Cache<String, LogLineAssembler.Cursor> logCursors = Caffeine.newBuilder()
+            .expireAfterAccess(Duration.ofMinutes(5))
             .build();
 
     private final Map<UUID, ResultCallback.Adapter<Frame>> logCallbacks = new ConcurrentHashMap<>();
+    private final Map<UUID, ResultCallback.Adapter<Statistics>> statsCallbacks = new ConcurrentHashMap<>();
+    private final Map<UUID, UsageMonitor> usageMonitors = new ConcurrentHashMap<>();
+    private final ContainerIndex containerIndex;
+    private final StandbyPool standbyPool;
+
+    /** Pool ports a server container is being created on; the refill leaves them alone. */
+    private final Set<Integer> reservedPorts = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean refilling = new AtomicBoolean();
+
+    /** Why the pending pause or unpause of a server was asked for, until docker reports it. */
+    private final Map<UUID, String> transitionReasons = new ConcurrentHashMap<>();
+    private final Map<UUID, TrafficWatch> trafficWatches = new ConcurrentHashMap<>();
+
+    private final MetadataCatalog<MapDto> mapCatalog = new MetadataCatalog<>(CATALOG_FOLDER.child("maps.json"),
+            MapDto.class, Utils.objectMapper, file -> Utils.loadMap(file.parent().parent(), file));
+    private final MetadataCatalog<ModDto> modCatalog = new MetadataCatalog<>(CATALOG_FOLDER.child("mods.json"),
+            ModDto.class, Utils.objectMapper, Utils::loadMod);
 
     private static final Fi SERVER_FOLDER = new Fi(Const.volumeFolderPath).child("servers");
+    private static final Fi CATALOG_FOLDER = new Fi(Const.volumeFolderPath).child("catalog");
+    private static final Fi STANDBY_FOLDER = new Fi(Const.volumeFolderPath).child("standby");
+    private static final String STANDBY_METADATA_FILE = "metadata.json";
+    private static final Duration STANDBY_REFILL_INTERVAL = Duration.ofSeconds(30);
+    private static final float STANDBY_CPU = 1f;
+    private static final long WAKE_RX_PACKETS = 3;
+    private static final long WAKE_RX_PAYLOAD_BYTES = 64;
     private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private static final Duration RECONCILE_INTERVAL = Duration.ofMinutes(5);
+    private static final Duration UPLOAD_SWEEP_INTERVAL = Duration.ofHours(1);
+    private static final Duration STALE_UPLOAD_AGE = Duration.ofDays(1);
+    private static final int LOG_BATCH_LINES = 100;
+    private static final int LOG_BATCH_CHARS = 16 * 1024;
+    private static final Duration LOG_BATCH_WINDOW = Duration.ofMillis(100);
 
     private Optional<Consumer<UUID>> onKilled;
 
@@ -76,16 +113,42 @@ public class DockerNodeManager implements NodeManager {
         this.dockerClient = dockerClient;
         this.envConfig = envConfig;
         this.eventBus = eventBus;
+        this.containerIndex = new ContainerIndex(dockerClient);
+        this.standbyPool = new StandbyPool(envConfig.docker().standbyPorts(), envConfig.docker().standbyMemory(),
+                envConfig.docker().mindustryServerImage());
 
         init();
     }
 
     @Override
-    public void create(ServerConfig request) {
+    public boolean create(ServerConfig request) {
         UUID serverId = request.getId();
 
         eventBus.emit(LogEvent.info(serverId, "Checking container status"));
 
+        try {
+            // A standby claim that failed half way leaves the server's files set aside.
+            StandbyPool.recover(SERVER_FOLDER.child(serverId.toString()).child("config").file().toPath().toAbsolutePath());
+        } catch (IOException e) {
+            Log.err("Can not restore server files of " + serverId, e);
+            eventBus.emit(LogEvent.error(serverId, "Can not restore server files: " + e.getMessage()));
+        }
+
+        var claimed = containerIndex.findByServerId(serverId).filter(ContainerIndex.Entry::standby);
+
+        if (claimed.isPresent()) {
+            var container = claimed.get();
+
+            eventBus.emit(LogEvent.info(serverId, "Standby container exists, skip creation"));
+
+            if (!container.running()) {
+                eventBus.emit(LogEvent.info(serverId, "Container not running, current state: " + container.state()));
+                dockerClient.startContainerCmd(container.id()).exec();
+                eventBus.emit(LogEvent.info(serverId, "Container started"));
+            }
+            return false;
+        }
+
         var containers = dockerClient.listContainersCmd()
                 .withShowAll(true)
                 .withLabelFilter(Map.of(Const.serverIdLabel, request.getId().toString()))
@@ -103,7 +166,7 @@ public class DockerNodeManager implements NodeManager {
             } else {
                 eventBus.emit(LogEvent.info(serverId, "Container already running"));
             }
-            return;
+            return false;
         }
 
         for (var container : containers) {
@@ -112,6 +175,31 @@ public class DockerNodeManager implements NodeManager {
             eventBus.emit(LogEvent.info(serverId, "Container removed"));
         }
 
+        int port = request.getPort();
+
+        if (standbyPool.covers(port)) {
+            synchronized (standbyPool) {
+                reservedPorts.add(port);
+
+                if (claimStandby(request)) {
+                    reservedPorts.remove(port);
+                    return true;
+                }
+            }
+        }
+
+        try {
+            createServerContainer(request);
+        } finally {
+            reservedPorts.remove(port);
+        }
+
+        return false;
+    }
+
+    private void createServerContainer(ServerConfig request) {
+        UUID serverId = request.getId();
+
         eventBus.emit(LogEvent.info(serverId, "Pulling image: " + request.getImage()));
 
         try {
@@ -138,12 +226,7 @@ public class DockerNodeManager implements NodeManager {
             eventBus.emit(LogEvent.error(serverId, "Error: " + e.getMessage()));
         }
 
-        var servers = dockerClient.listContainersCmd()
-                .withShowAll(true)
-                .withLabelFilter(List.of(Const.serverLabelName))
-                .exec();
-
-        for (var server : servers) {
+        for (var server : containerIndex.all()) {
             var optional = readMetadataFromContainer(server);
             if (optional.isEmpty())
                 continue;
@@ -154,24 +237,13 @@ public class DockerNodeManager implements NodeManager {
 
             if (isSamePort && !isSameId) {
                 eventBus.emit(LogEvent.error(serverId,
-                        "Port exists at container " + server.getNames()[0] + " port: " + config.getPort()));
+                        "Port exists at container " + server.name() + " port: " + config.getPort()));
                 return;
             }
         }
 
         eventBus.emit(LogEvent.info(serverId, "Creating new container on port " + request.getPort()));
 
-        Volume volume = new Volume("/config");
-        Bind bind = new Bind(serverPath.toString(), volume);
-
-        ExposedPort tcp = ExposedPort.tcp(Const.DEFAULT_MINDUSTRY_SERVER_PORT);
-        ExposedPort udp = ExposedPort.udp(Const.DEFAULT_MINDUSTRY_SERVER_PORT);
-
-        Ports portBindings = new Ports();
-        portBindings.bind(tcp, Ports.Binding.bindPort(request.getPort()));
-        portBindings.bind(udp, Ports.Binding.bindPort(request.getPort()));
-
-
         var image = request.getImage() == null || request.getImage().isEmpty()
                 ? envConfig.docker().mindustryServerImage()
                 : request.getImage();
@@ -182,11 +254,35 @@ public class DockerNodeManager implements NodeManager {
                 .setConfig(request)
                 .setServerImageHash(serverImage.getId());
 
+        var containerId = createContainer(request.getId().toString(), request, image, serverPath, Map.of(
+                Const.serverLabelName, Utils.toJsonString(currentMetadata),
+                Const.serverIdLabel, request.getId().toString()), List.of());
+
+        eventBus.emit(LogEvent.info(serverId, "Container created"));
+
+        dockerClient.startContainerCmd(containerId).exec();
+        containerIndex.refresh(containerId);
+        attachLogCallback(containerId, serverId);
+
+        eventBus.emit(LogEvent.info(serverId, "Container started"));
+
+    }
+
+    private String createContainer(String name, ServerConfig request, String image, Path configPath,
+            Map<String, String> labels, List<String> extraEnv) {
+        Volume volume = new Volume("/config");
+        Bind bind = new Bind(configPath.toString(), volume);
+
+        ExposedPort tcp = ExposedPort.tcp(Const.DEFAULT_MINDUSTRY_SERVER_PORT);
+        ExposedPort udp = ExposedPort.udp(Const.DEFAULT_MINDUSTRY_SERVER_PORT);
+
+        Ports portBindings = new Ports();
+        portBindings.bind(tcp, Ports.Binding.bindPort(request.getPort()));
+        portBindings.bind(udp, Ports.Binding.bindPort(request.getPort()));
+
         var command = dockerClient.createContainerCmd(image)
-                .withName(request.getId().toString())
-                .withLabels(Map.of(
-                        Const.serverLabelName, Utils.toJsonString(currentMetadata),
-                        Const.serverIdLabel, request.getId().toString()));
+                .withName(name)
+                .withLabels(labels);
 
         var env = new ArrayList<String>();
         var exposedPorts = new ArrayList<ExposedPort>();
@@ -205,8 +301,9 @@ public class DockerNodeManager implements NodeManager {
 
         env.add("IS_HUB=" + request.getIsHub());
         env.add("IS_OFFICIAL=" + request.getIsOfficial());
-        env.add("SERVER_ID=" + serverId);
+        env.add("SERVER_ID=" + request.getId());
         env.add("JAVA_TOOL_OPTIONS=" + String.join(" ", args));
+        env.addAll(extraEnv);
         env.addAll(request.getEnv().entrySet().stream()
                 .map(v -> (v.getKey() + "=" + v.getValue()).replaceAll("JAVA_TOOL_OPTIONS", "")).toList());
 
@@ -236,37 +333,202 @@ public class DockerNodeManager implements NodeManager {
                         .withRuntime("io.containerd.kata.v2")
                         .withBinds(bind));
 
-        var result = command.exec();
-        var containerId = result.getId();
+        return command.exec().getId();
+    }
 
-        eventBus.emit(LogEvent.info(serverId, "Container created"));
+    /**
+     * Hands the running standby on the request's port to the server: its
+     * config folder becomes the server's, the container takes the server id
+     * as its name and the server's cpu limit. A standby the request can not
+     * use is removed so the port is free for a new container. Called with the
+     * pool locked.
+     *
+     * @return whether the server now runs on the standby
+     */
+    private boolean claimStandby(ServerConfig request) {
+        UUID serverId = request.getId();
+        int port = request.getPort();
+
+        var optional = containerIndex.all().stream()
+                .filter(container -> container.standby() && container.serverId().isEmpty())
+                .filter(container -> container.standbyPort().orElse(-1) == port)
+                .findFirst();
+
+        if (optional.isEmpty()) {
+            return false;
+        }
+
+        var standby = optional.get();
+        var standbyConfig = STANDBY_FOLDER.child(String.valueOf(port)).child("config").file().toPath().toAbsolutePath();
+        var serverConfig = SERVER_FOLDER.child(serverId.toString()).child("config").file().toPath().toAbsolutePath();
+
+        try {
+            if (!standby.running() || !standbyPool.canClaim(request, serverConfig)) {
+                eventBus.emit(LogEvent.info(serverId, "Standby container on port " + port + " not usable, removing it"));
+                removeStandby(standby);
+                return false;
+            }
+
+            eventBus.emit(LogEvent.info(serverId, "Claiming standby container on port " + port));
+
+            var metadata = new ServerMetadata()
+                    .setConfig(request)
+                    .setServerImageHash(dockerClient.inspectContainerCmd(standby.id()).exec().getImageId());
+
+            // Read back by the container index once the rename below names the container after the server.
+            metadataFile(serverId).writeString(Utils.toJsonString(metadata));
+
+            StandbyPool.handOver(standbyConfig, serverConfig);
+
+            // The memory limit already matches, the pool only hands out standbys of the requested size.
+            dockerClient.updateContainerCmd(standby.id())
+                    .withCpuPeriod(100000)
+                    .withCpuQuota((int) (request.getCpu() * 100000))
+                    .exec();
+
+            dockerClient.renameContainerCmd(standby.id())
+                    .withName(serverId.toString())
+                    .exec();
+        } catch (Exception e) {
+            Log.err("Can not claim standby container on port " + port, e);
+            eventBus.emit(LogEvent.error(serverId, "Can not claim standby container: " + e.getMessage()));
+            // Only the standby's own files or its link are in its folder, the server's stay in theirs.
+            removeStandby(standby);
+            metadataFile(serverId).delete();
+            return false;
+        }
+
+        containerIndex.refresh(standby.id());
+        attachLogCallback(standby.id(), serverId);
+        attachStatsCallback(standby.id(), serverId);
+
+        eventBus.emit(LogEvent.info(serverId, "Standby container claimed"));
+
+        Const.executorService.execute(this::refillStandby);
+
+        return true;
+    }
+
+    /**
+     * Starts a standby container on every pool port that has none and is not
+     * used by a server. Standby containers that stopped are replaced.
+     */
+    private void refillStandby() {
+        if (!standbyPool.enabled() || !refilling.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            var usedPorts = new HashSet<Integer>();
+
+            for (var container : containerIndex.all()) {
+                if (container.standby() && container.serverId().isEmpty()) {
+                    if (!container.running() && !container.paused()) {
+                        Log.warn("Standby container @ is @, replacing it", container.name(), container.state());
+                        removeStandby(container);
+                        continue;
+                    }
+
+                    container.standbyPort().ifPresent(usedPorts::add);
+                } else {
+                    readMetadataFromContainer(container).ifPresent(meta -> usedPorts.add(meta.getConfig().getPort()));
+                }
+            }
+
+            var missing = standbyPool.missing(usedPorts);
+
+            if (missing.isEmpty()) {
+                return;
+            }
+
+            dockerClient.pullImageCmd(standbyPool.image())
+                    .exec(new ResultCallback.Adapter<PullResponseItem>())
+                    .awaitCompletion();
+
+            for (int port : missing) {
+                synchronized (standbyPool) {
+                    if (reservedPorts.contains(port)) {
+                        continue;
+                    }
+
+                    createStandby(port);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            Log.err("Error refilling standby containers", e);
+        } finally {
+            refilling.set(false);
+        }
+    }
+
+    private void createStandby(int port) throws IOException {
+        var configPath = STANDBY_FOLDER.child(String.valueOf(port)).child("config").file().toPath().toAbsolutePath();
+
+        // Left over from a standby that was removed, or the link of one that was claimed.
+        StandbyPool.delete(configPath);
+        Files.createDirectories(configPath);
+
+        var config = new ServerConfig()
+                .setId(UUID.randomUUID())
+                .setPort(port)
+                .setEnv(Map.of())
+                .setCpu(STANDBY_CPU)
+                .setMemory(standbyPool.memory());
+
+        var containerId = createContainer("standby-" + port, config, standbyPool.image(), configPath, Map.of(
+                Const.serverIdLabel, "standby",
+                Const.standbyLabel, String.valueOf(port)), List.of("STANDBY=true"));
 
         dockerClient.startContainerCmd(containerId).exec();
-        attachLogCallback(containerId, serverId);
+        containerIndex.refresh(containerId);
 
-        eventBus.emit(LogEvent.info(serverId, "Container started"));
+        Log.info("Standby container started on port @", port);
+    }
 
+    private void removeStandby(ContainerIndex.Entry standby) {
+        if (removeContainer(standby.id())) {
+            standby.standbyPort().ifPresent(port -> {
+                try {
+                    StandbyPool.delete(STANDBY_FOLDER.child(String.valueOf(port)).file().toPath());
+                } catch (IOException e) {
+                    Log.err("Can not delete standby folder of port " + port, e);
+                }
+            });
+        }
+    }
+
+    private Fi metadataFile(UUID serverId) {
+        return SERVER_FOLDER.child(serverId.toString()).child(STANDBY_METADATA_FILE);
     }
 
     @Override
     public List<ServerState> list() {
-        var containers = dockerClient.listContainersCmd()
-                .withShowAll(true)
-                .withLabelFilter(List.of(Const.serverLabelName))
-                .exec();
-
-        return containers.stream().map(container -> new ServerState()
-                .running(container.getState().equalsIgnoreCase("running"))
-                .meta(readMetadataFromContainer(container)))
+        return containerIndex.all().stream()
+                .filter(container -> container.standby()
+                        ? container.serverId().isPresent()
+                        : container.labels().containsKey(Const.serverLabelName))
+                .map(container -> new ServerState()
+                        .running(container.running())
+                        .paused(container.paused())
+                        .meta(readMetadataFromContainer(container)))
                 .toList();
     }
 
     @Override
     public boolean remove(UUID id, NodeRemoveReason reason) {
         return findContainerByServerId(id).map(container -> {
-            eventBus.emit(LogEvent.error(id, "Removed: " + container.getNames()[0] + " for reason: " + reason));
+            eventBus.emit(LogEvent.error(id, "Removed: " + container.name() + " for reason: " + reason));
+
+            boolean removed = removeContainer(container.id());
 
-            return removeContainer(container.getId());
+            if (removed) {
+                usageMonitors.remove(id);
+                metadataFile(id).delete();
+            }
+
+            return removed;
         }).orElse(false);
     }
 
@@ -275,6 +537,7 @@ public class DockerNodeManager implements NodeManager {
             dockerClient.removeContainerCmd(id)
                     .withForce(true)
                     .exec();
+            containerIndex.remove(id);
             return true;
         } catch (Exception e) {
             Log.err("Failed to remove container " + id, e);
@@ -282,11 +545,11 @@ public class DockerNodeManager implements NodeManager {
         }
     }
 
-    private Optional<ServerMetadata> readMetadataFromContainer(Container container) {
+    private Optional<ServerMetadata> readMetadataFromContainer(ContainerIndex.Entry container) {
         try {
-            var label = container.getLabels().get(Const.serverLabelName);
+            var label = container.labels().get(Const.serverLabelName);
             if (label == null)
-                return Optional.empty();
+                return container.standby() ? container.serverId().flatMap(this::readStandbyMetadata) : Optional.empty();
 
             var metadata = Utils.readJsonAsClass(label, ServerMetadata.class);
             if (metadata == null || metadata.getConfig() == null) {
@@ -295,21 +558,30 @@ public class DockerNodeManager implements NodeManager {
 
             return Optional.of(metadata);
         } catch (Exception e) {
-            removeContainer(container.getId());
+            removeContainer(container.id());
             Log.err(e);
             return Optional.empty();
         }
     }
 
-    private Optional<Container> findContainerByServerId(UUID serverId) {
-        var containers = dockerClient.listContainersCmd()
-                .withLabelFilter(Map.of(Const.serverIdLabel, serverId.toString()))
-                .withShowAll(true)
-                .exec();
+    /** Metadata of a claimed standby, which can not carry it as a label. */
+    private Optional<ServerMetadata> readStandbyMetadata(UUID serverId) {
+        var file = metadataFile(serverId);
+
+        if (!file.exists()) {
+            return Optional.empty();
+        }
 
-        if (containers.isEmpty())
+        try {
+            return Optional.ofNullable(Utils.readJsonAsClass(file.readString(), ServerMetadata.class));
+        } catch (Exception e) {
+            Log.err("Invalid standby metadata: " + file.absolutePath(), e);
             return Optional.empty();
-        return Optional.of(containers.get(0));
+        }
+    }
+
+    private Optional<ContainerIndex.Entry> findContainerByServerId(UUID serverId) {
+        return containerIndex.findByServerId(serverId);
     }
 
     @Override
@@ -343,93 +615,40 @@ public class DockerNodeManager implements NodeManager {
             throw new ApiError(404, "Server not found");
         }
 
-        var containerId = optional.get().getId();
-
-        var result = dockerClient.statsCmd(containerId).exec(new ResultCallback.Adapter<Statistics>() {
-            Statistics lastStats = null;
-
-            @Override
-            public void onNext(Statistics currentStats) {
-                double cpuPercent = calculateCpuPercent(lastStats, currentStats);
-                long ram = Optional.ofNullable(currentStats.getMemoryStats()).map(stats -> stats.getUsage()).orElse(0L);
-                lastStats = currentStats;
-
-                onUsage.accept(new NodeUsage(cpuPercent, ram, Instant.now()));
-            }
-
-            @Override
-            public void onError(Throwable throwable) {
-                onError.accept(throwable);
-            }
-        });
-
-        return result;
-    }
+        var container = optional.get();
 
-    private double calculateCpuPercent(Statistics lastStats, Statistics currentStats) {
-        if (lastStats == null) {
-            return 0;
+        if (container.running()) {
+            attachStatsCallback(container.id(), serverId);
         }
 
-        double cpuPercent = 0.0;
-
-        Long prevTotal = Optional.ofNullable(lastStats.getCpuStats())
-                .map(s -> s.getCpuUsage())
-                .map(u -> u.getTotalUsage())
-                .orElse(0L);
-
-        Long currTotal = Optional.ofNullable(currentStats.getCpuStats())
-                .map(s -> s.getCpuUsage())
-                .map(u -> u.getTotalUsage())
-                .orElse(0L);
-
-        Long prevSystem = Optional.ofNullable(lastStats.getCpuStats())
-                .map(s -> s.getSystemCpuUsage())
-                .orElse(0L);
-
-        Long currSystem = Optional.ofNullable(currentStats.getCpuStats())
-                .map(s -> s.getSystemCpuUsage())
-                .orElse(0L);
-
-        long cpuDelta = currTotal - prevTotal;
-        long systemDelta = currSystem - prevSystem;
-
-        Long onlineCpus = Optional.ofNullable(currentStats.getCpuStats())
-                .map(s -> s.getOnlineCpus())
-                .orElse(null);
+        return usageMonitor(serverId).subscribe(onUsage, onError);
+    }
 
-        long cpuCount = 0;
+    @Override
+    public List<NodeUsage> getUsageHistory(UUID serverId, Instant from, Instant to) {
+        var monitor = usageMonitors.get(serverId);
 
-        if (onlineCpus != null && onlineCpus > 0) {
-            cpuCount = onlineCpus;
-        } else {
-            List<Long> perCpu = Optional.ofNullable(currentStats.getCpuStats())
-                    .map(s -> s.getCpuUsage())
-                    .map(u -> u.getPercpuUsage())
-                    .orElse(null);
-            if (perCpu != null && !perCpu.isEmpty()) {
-                cpuCount = perCpu.size();
-            } else {
-                cpuCount = Runtime.getRuntime().availableProcessors();
+        if (monitor == null) {
+            if (findContainerByServerId(serverId).isEmpty()) {
+                throw new ApiError(404, "Server not found");
             }
-        }
 
-        if (systemDelta > 0 && cpuDelta >= 0 && cpuCount > 0) {
-            cpuPercent = ((double) cpuDelta / (double) systemDelta) * cpuCount * 100.0;
-            if (cpuPercent < 0)
-                cpuPercent = 0;
-            if (cpuPercent > cpuCount * 100.0)
-                cpuPercent = cpuCount * 100.0;
-        } else {
-            cpuPercent = 0.0;
+            return List.of();
         }
 
-        return cpuPercent;
+        return monitor.history(from, to);
+    }
+
+    private UsageMonitor usageMonitor(UUID serverId) {
+        return usageMonitors.computeIfAbsent(serverId, id -> UsageMonitor.withDefaultHistory());
     }
 
     @Override
     public List<ManagerMapDto> getManagerMaps() {
         var result = new HashMap<String, List<UUID>>();
+        var firstFile = new HashMap<String, Fi>();
+        var seen = new ArrayList<Fi>();
+
         for (var serverFolder : SERVER_FOLDER.list()) {
             var mapFolder = serverFolder.child("config").child("maps");
             if (!mapFolder.exists())
@@ -438,21 +657,29 @@ public class DockerNodeManager implements NodeManager {
             for (var mapFile : mapFolder.findAll(Utils::isMapFile)) {
                 result.computeIfAbsent(mapFile.name(), k -> new ArrayList<>())
                         .add(UUID.fromString(serverFolder.name()));
+                firstFile.putIfAbsent(mapFile.name(), mapFile);
+                seen.add(mapFile);
             }
         }
 
         List<ManagerMapDto> maps = new ArrayList<>();
         for (var entry : result.entrySet()) {
-            var map = Utils.loadMap(getBaseFile(entry.getValue().get(0)), SERVER_FOLDER
-                    .child(entry.getValue().get(0).toString()).child("config").child("maps").child(entry.getKey()));
+            var map = mapCatalog.get(firstFile.get(entry.getKey()));
             maps.add(new ManagerMapDto().setServers(entry.getValue()).setMetadata(map));
         }
+
+        mapCatalog.retain(MetadataCatalog.paths(seen));
+        mapCatalog.save();
+
         return maps;
     }
 
     @Override
     public List<ManagerModDto> getManagerMods() {
         var result = new HashMap<String, List<UUID>>();
+        var firstFile = new HashMap<String, Fi>();
+        var seen = new ArrayList<Fi>();
+
         for (var serverFolder : SERVER_FOLDER.list()) {
             var modFolder = serverFolder.child("config").child("mods");
             if (!modFolder.exists())
@@ -461,15 +688,20 @@ public class DockerNodeManager implements NodeManager {
             for (var modFile : modFolder.findAll(Utils::isModFile)) {
                 result.computeIfAbsent(modFile.name(), k -> new ArrayList<>())
                         .add(UUID.fromString(serverFolder.name()));
+                firstFile.putIfAbsent(modFile.name(), modFile);
+                seen.add(modFile);
             }
         }
 
         List<ManagerModDto> mods = new ArrayList<>();
         for (var entry : result.entrySet()) {
-            var meta = Utils.loadMod(SERVER_FOLDER.child(entry.getValue().get(0).toString()).child("config")
-                    .child("mods").child(entry.getKey()));
+            var meta = modCatalog.get(firstFile.get(entry.getKey()));
             mods.add(new ManagerModDto().setData(meta).setServers(entry.getValue()));
         }
+
+        modCatalog.retain(MetadataCatalog.paths(seen));
+        modCatalog.save();
+
         return mods;
     }
 
@@ -480,8 +712,9 @@ public class DockerNodeManager implements NodeManager {
             return List.of();
         List<MapDto> maps = new ArrayList<>();
         for (Fi file : folder.findAll(Utils::isMapFile)) {
-            maps.add(Utils.loadMap(getBaseFile(serverId), file));
+            maps.add(mapCatalog.get(file));
         }
+        mapCatalog.save();
         return maps;
     }
 
@@ -492,8 +725,9 @@ public class DockerNodeManager implements NodeManager {
             return List.of();
         List<ModDto> mods = new ArrayList<>();
         for (Fi file : folder.findAll(Utils::isModFile)) {
-            mods.add(Utils.loadMod(file));
+            mods.add(modCatalog.get(file));
         }
+        modCatalog.save();
         return mods;
     }
 
@@ -530,6 +764,61 @@ public class DockerNodeManager implements NodeManager {
         FileUtils.writeFile(file.absolutePath(), data);
     }
 
+    @Override
+    public void writeFile(UUID serverId, String path, InputStream data) {
+        Fi file = getFile(serverId, path);
+
+        try {
+            FileUpload.write(file.file().toPath(), data, Const.MAX_UPLOAD_SIZE);
+        } catch (IOException e) {
+            throw new ApiError(500, "Error writing file: " + file.absolutePath(), e);
+        }
+    }
+
+    @Override
+    public long getUploadOffset(UUID serverId, String path) {
+        Fi file = getFile(serverId, path);
+
+        try {
+            return FileUpload.offset(file.file().toPath());
+        } catch (IOException e) {
+            throw new ApiError(500, "Error reading upload: " + file.absolutePath(), e);
+        }
+    }
+
+    @Override
+    public long appendUpload(UUID serverId, String path, long offset, InputStream data) {
+        Fi file = getFile(serverId, path);
+
+        try {
+            return FileUpload.append(file.file().toPath(), offset, data, Const.MAX_UPLOAD_SIZE);
+        } catch (IOException e) {
+            throw new ApiError(500, "Error writing file: " + file.absolutePath(), e);
+        }
+    }
+
+    @Override
+    public void completeUpload(UUID serverId, String path, long size) {
+        Fi file = getFile(serverId, path);
+
+        try {
+            FileUpload.complete(file.file().toPath(), size);
+        } catch (IOException e) {
+            throw new ApiError(500, "Error writing file: " + file.absolutePath(), e);
+        }
+    }
+
+    @Override
+    public boolean abortUpload(UUID serverId, String path) {
+        Fi file = getFile(serverId, path);
+
+        try {
+            return FileUpload.abort(file.file().toPath());
+        } catch (IOException e) {
+            throw new ApiError(500, "Error deleting upload: " + file.absolutePath(), e);
+        }
+    }
+
     @Override
     public boolean createFolder(UUID serverId, String path) {
         return getFile(serverId, path).mkdirs();
@@ -542,6 +831,7 @@ public class DockerNodeManager implements NodeManager {
 
     private void init() {
         SERVER_FOLDER.mkdirs();
+        STANDBY_FOLDER.mkdirs();
 
         final Set<String> ignoredEvents = Set.of("exec_create", "exec_start", "exec_die", "exec_detach");
 
@@ -566,16 +856,13 @@ public class DockerNodeManager implements NodeManager {
                     return;
                 }
 
-                var containers = dockerClient.listContainersCmd()
-                        .withIdFilter(List.of(containerId))
-                        .exec();
+                var indexed = containerIndex.apply(event);
 
-                if (containers.size() != 1) {
-                    Log.warn("Docker event with multiple containers: @", event);
+                if (indexed.isEmpty()) {
                     return;
                 }
 
-                var container = containers.get(0);
+                var container = indexed.get();
 
                 var optional = readMetadataFromContainer(container);
 
@@ -584,12 +871,20 @@ public class DockerNodeManager implements NodeManager {
 
                     if (action.equalsIgnoreCase("start")) {
                         attachLogCallback(containerId, serverId);
+                        attachStatsCallback(containerId, serverId);
                     } else if (action.equalsIgnoreCase("die") || action.equalsIgnoreCase("stop")
                             || action.equalsIgnoreCase("kill")) {
+                        trafficWatches.remove(serverId);
                         onKilled.ifPresent(consumer -> consumer.accept(serverId));
+                    } else if (action.equalsIgnoreCase("pause")) {
+                        trafficWatches.put(serverId, new TrafficWatch(WAKE_RX_PACKETS, WAKE_RX_PAYLOAD_BYTES));
+                        eventBus.emit(new PauseEvent(serverId, transitionReason(serverId)));
+                    } else if (action.equalsIgnoreCase("unpause")) {
+                        trafficWatches.remove(serverId);
+                        eventBus.emit(new ResumeEvent(serverId, transitionReason(serverId)));
                     }
                 }, () -> {
-                    var serverIdString = container.getLabels().get(Const.serverIdLabel);
+                    var serverIdString = container.labels().get(Const.serverIdLabel);
                     if (serverIdString == null) {
                         return;
                     }
@@ -608,23 +903,67 @@ public class DockerNodeManager implements NodeManager {
             }
         });
 
+        containerIndex.seed();
+
         scheduler.scheduleWithFixedDelay(() -> {
-            var containers = dockerClient.listContainersCmd()
-                    .exec();
+            try {
+                for (var container : containerIndex.all()) {
+                    if (!container.running() && !container.paused()) {
+                        continue;
+                    }
 
-            for (var container : containers) {
-                var optional = readMetadataFromContainer(container);
-                if (optional.isPresent()) {
-                    var serverId = optional.get().getConfig().getId();
-                    attachLogCallback(container.getId(), serverId);
+                    var optional = readMetadataFromContainer(container);
+                    if (optional.isPresent()) {
+                        var serverId = optional.get().getConfig().getId();
+                        attachLogCallback(container.id(), serverId);
+                        attachStatsCallback(container.id(), serverId);
+
+                        // Paused before this manager started, so no pause event was seen.
+                        if (container.paused()) {
+                            trafficWatches.putIfAbsent(serverId, new TrafficWatch(WAKE_RX_PACKETS, WAKE_RX_PAYLOAD_BYTES));
+                        }
+                    }
                 }
+            } catch (Exception e) {
+                Log.err("Error reattaching log callbacks", e);
             }
-
         }, 0, 1, TimeUnit.MINUTES);
+
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                containerIndex.reconcile();
+            } catch (Exception e) {
+                Log.err("Error reconciling container index", e);
+            }
+        }, RECONCILE_INTERVAL.toSeconds(), RECONCILE_INTERVAL.toSeconds(), TimeUnit.SECONDS);
+
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                int deleted = FileUpload.sweep(SERVER_FOLDER.file().toPath(), STALE_UPLOAD_AGE);
+
+                if (deleted > 0) {
+                    Log.info("Deleted @ abandoned uploads", deleted);
+                }
+            } catch (Exception e) {
+                Log.err("Error deleting abandoned uploads", e);
+            }
+        }, UPLOAD_SWEEP_INTERVAL.toSeconds(), UPLOAD_SWEEP_INTERVAL.toSeconds(), TimeUnit.SECONDS);
+
+        if (standbyPool.enabled()) {
+            Log.info("Keeping standby containers on ports @", standbyPool.ports());
+
+            // Creating containers blocks, so the shared scheduler only hands the refill off.
+            scheduler.scheduleWithFixedDelay(() -> Const.executorService.execute(this::refillStandby),
+                    0, STANDBY_REFILL_INTERVAL.toSeconds(), TimeUnit.SECONDS);
+        }
     }
 
     private synchronized void attachLogCallback(String containerId, UUID serverId) {
         logCallbacks.computeIfAbsent(serverId, k -> {
+            LogLineAssembler.Cursor cursor = logCursors.get(containerId, id -> new LogLineAssembler.Cursor());
+            LogLineAssembler assembler = new LogLineAssembler(cursor, LOG_BATCH_LINES, LOG_BATCH_CHARS,
+                    LOG_BATCH_WINDOW, scheduler, lines -> eventBus.emit(LogEvent.info(serverId, lines)));
+
             var callback = new ResultCallback.Adapter<Frame>() {
                 @Override
                 public void onStart(Closeable closeable) {
@@ -633,29 +972,24 @@ public class DockerNodeManager implements NodeManager {
 
                 @Override
                 public void onNext(Frame frame) {
-                    var message = new String(frame.getPayload());
-                    if (!message.isBlank()) {
-                        eventBus.emit(LogEvent.info(serverId, message));
-                    }
+                    assembler.accept(frame.getStreamType(), frame.getPayload());
                 }
 
                 @Override
                 public void onComplete() {
+                    assembler.flush(true);
                     logCallbacks.remove(serverId);
-                    lastLogTimeCache.put(containerId, Instant.now());
                     Log.info("Log callback removed for server @", serverId);
                 }
             };
 
             Const.executorService.execute(() -> {
-                Instant lastTime = lastLogTimeCache.getIfPresent(containerId);
-                int since = lastTime == null ? 0 : (int) lastTime.getEpochSecond();
-
                 dockerClient.logContainerCmd(containerId)
                         .withStdOut(true)
                         .withStdErr(true)
                         .withFollowStream(true)
-                        .withSince(since)
+                        .withTimestamps(true)
+                        .withSince(cursor.since())
                         .exec(callback);
             });
 
@@ -663,17 +997,129 @@ public class DockerNodeManager implements NodeManager {
         });
     }
 
+    /**
+     * Opens the one stats stream of a running container. Samples feed the
+     * server's {@link UsageMonitor}, which fans them out to every usage
+     * subscriber and keeps the history.
+     */
+    private void attachStatsCallback(String containerId, UUID serverId) {
+        statsCallbacks.computeIfAbsent(serverId, k -> {
+            UsageMonitor monitor = usageMonitor(serverId);
+
+            var callback = new ResultCallback.Adapter<Statistics>() {
+                @Override
+                public void onNext(Statistics stats) {
+                    monitor.accept(stats);
+                    wakeOnTraffic(serverId, stats);
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                    statsCallbacks.remove(serverId, this);
+                    monitor.fail(throwable);
+                }
+
+                @Override
+                public void onComplete() {
+                    // Subscribers stay; the next start attaches a fresh stream for them.
+                    statsCallbacks.remove(serverId, this);
+                    monitor.reset();
+                }
+            };
+
+            Const.executorService.execute(() -> dockerClient.statsCmd(containerId).exec(callback));
+
+            return callback;
+        });
+    }
+
     @Override
     public boolean isRunning(UUID serverId) {
-        return dockerClient.listContainersCmd()
-                .withLabelFilter(Map.of(Const.serverIdLabel, serverId.toString()))
-                .exec()
-                .stream()
-                .filter(container -> container.getState().equalsIgnoreCase("running"))
-                .map(container -> readMetadataFromContainer(container))
-                .filter(meta -> meta.isPresent())
-                .map(meta -> meta.get())
-                .anyMatch(meta -> meta.getConfig().getId().equals(serverId));
+        return findContainerByServerId(serverId)
+                .filter(container -> container.running())
+                .flatMap(container -> readMetadataFromContainer(container))
+                .map(meta -> meta.getConfig().getId().equals(serverId))
+                .orElse(false);
+    }
+
+    @Override
+    public boolean pauseContainer(UUID serverId, String reason) {
+        var optional = findContainerByServerId(serverId).filter(ContainerIndex.Entry::running);
+
+        if (optional.isEmpty()) {
+            return false;
+        }
+
+        var container = optional.get();
+        transitionReasons.put(serverId, reason);
+
+        try {
+            dockerClient.pauseContainerCmd(container.id()).exec();
+        } catch (Exception e) {
+            transitionReasons.remove(serverId);
+            Log.err("Failed to pause container " + container.name(), e);
+            return false;
+        }
+
+        containerIndex.refresh(container.id());
+        return true;
+    }
+
+    @Override
+    public boolean unpauseContainer(UUID serverId, String reason) {
+        var optional = findContainerByServerId(serverId).filter(ContainerIndex.Entry::paused);
+
+        if (optional.isEmpty()) {
+            return false;
+        }
+
+        var container = optional.get();
+        transitionReasons.put(serverId, reason);
+
+        try {
+            dockerClient.unpauseContainerCmd(container.id()).exec();
+        } catch (Exception e) {
+            transitionReasons.remove(serverId);
+            Log.err("Failed to unpause container " + container.name(), e);
+            return false;
+        }
+
+        containerIndex.refresh(container.id());
+        return true;
+    }
+
+    @Override
+    public boolean isPaused(UUID serverId) {
+        return findContainerByServerId(serverId).map(ContainerIndex.Entry::paused).orElse(false);
+    }
+
+    private String transitionReason(UUID serverId) {
+        String reason = transitionReasons.remove(serverId);
+        return reason == null ? "EXTERNAL" : reason;
+    }
+
+    /**
+     * A paused container's stats stream keeps reporting received packets, so
+     * a player trying to connect resumes the container before the client
+     * gives up. Pings from server browsers stay below the payload threshold.
+     */
+    private void wakeOnTraffic(UUID serverId, Statistics stats) {
+        var watch = trafficWatches.get(serverId);
+
+        if (watch == null || stats.getNetworks() == null) {
+            return;
+        }
+
+        long rxPackets = stats.getNetworks().values().stream()
+                .mapToLong(network -> network.getRxPackets() == null ? 0 : network.getRxPackets())
+                .sum();
+        long rxBytes = stats.getNetworks().values().stream()
+                .mapToLong(network -> network.getRxBytes() == null ? 0 : network.getRxBytes())
+                .sum();
+
+        if (watch.accept(rxPackets, rxBytes) && trafficWatches.remove(serverId, watch)) {
+            Const.executorService.execute(() -> unpauseContainer(serverId, "NETWORK"));
+        }
     }
 
     @Override
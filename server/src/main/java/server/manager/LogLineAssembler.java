@@ -0,0 +1,257 @@
+package server.manager;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import com.github.dockerjava.api.model.StreamType;
+
+/**
+ * Turns docker log frames into whole lines and hands them on in batches.
+ * Frames may split or merge lines, so each stream keeps its unfinished tail
+ * until the newline arrives. A tail that reaches {@code maxChars} bytes is
+ * emitted as a line of its own, so output without newlines can not grow it
+ * without bound. Lines are expected to carry docker's timestamp
+ * prefix ({@code withTimestamps(true)}); the {@link Cursor} remembers the
+ * newest one so lines replayed after a reattach with a second-resolution
+ * {@code since} are dropped.
+ */
+public class LogLineAssembler {
+
+    /**
+     * Position in a container's log, kept across reattaches. Tracked per
+     * stream, because a stdout line can finish after a newer stderr line.
+     */
+    public static final class Cursor {
+        private final Map<StreamType, Instant> last = new EnumMap<>(StreamType.class);
+        private final Map<StreamType, Set<String>> linesAtLast = new EnumMap<>(StreamType.class);
+
+        public synchronized Instant last(StreamType type) {
+            return last.get(type);
+        }
+
+        /**
+         * Seconds for docker's {@code since}, which replays that whole second.
+         * The oldest stream position wins so no stream misses lines.
+         */
+        public synchronized int since() {
+            return last.values().stream()
+                    .mapToInt(time -> (int) time.getEpochSecond())
+                    .min()
+                    .orElse(0);
+        }
+
+        synchronized boolean advance(StreamType type, Instant time, String line) {
+            Instant previous = last.get(type);
+            Set<String> lines = linesAtLast.computeIfAbsent(type, t -> new HashSet<>());
+
+            if (previous != null) {
+                int order = time.compareTo(previous);
+
+                if (order < 0) {
+                    return false;
+                }
+
+                if (order == 0) {
+                    return lines.add(line);
+                }
+            }
+
+            last.put(type, time);
+            lines.clear();
+            lines.add(line);
+            return true;
+        }
+    }
+
+    private final Cursor cursor;
+    private final int maxLines;
+    private final int maxChars;
+    private final Duration window;
+    private final ScheduledExecutorService scheduler;
+    private final Consumer<String> sink;
+
+    private final Map<StreamType, ByteArrayOutputStream> tails = new EnumMap<>(StreamType.class);
+    private final List<String> batch = new ArrayList<>();
+    private int batchChars;
+    private ScheduledFuture<?> scheduledFlush;
+
+    /**
+     * @param scheduler flushes a batch {@code window} after its first line;
+     *                  {@code null} leaves flushing to size limits and
+     *                  {@link #flush()}
+     * @param sink      receives each batch as lines joined by {@code \n}
+     */
+    public LogLineAssembler(Cursor cursor, int maxLines, int maxChars, Duration window,
+            ScheduledExecutorService scheduler, Consumer<String> sink) {
+        this.cursor = cursor;
+        this.maxLines = maxLines;
+        this.maxChars = maxChars;
+        this.window = window;
+        this.scheduler = scheduler;
+        this.sink = sink;
+    }
+
+    public synchronized void accept(StreamType type, byte[] payload) {
+        if (payload == null || payload.length == 0) {
+            return;
+        }
+
+        ByteArrayOutputStream tail = tails.get(type);
+        int start = 0;
+
+        if (tail != null) {
+            // Only an unfinished line is ever copied; complete lines are decoded straight from the frame.
+            int newline = indexOf(payload, 0);
+
+            appendTail(type, tail, payload, 0, newline < 0 ? payload.length : newline);
+
+            if (newline < 0) {
+                return;
+            }
+
+            tails.remove(type);
+            addLine(type, tail.toByteArray(), 0, tail.size());
+            start = newline + 1;
+        }
+
+        int newline;
+        while ((newline = indexOf(payload, start)) >= 0) {
+            addLine(type, payload, start, newline - start);
+            start = newline + 1;
+        }
+
+        if (start < payload.length) {
+            tail = new ByteArrayOutputStream();
+            tails.put(type, tail);
+            appendTail(type, tail, payload, start, payload.length);
+        }
+    }
+
+    /**
+     * Adds {@code data[from, to)} to the tail, emitting the tail as a line
+     * each time it fills up. The cut backs off to a character boundary so a
+     * multi-byte character stays whole.
+     */
+    private void appendTail(StreamType type, ByteArrayOutputStream tail, byte[] data, int from, int to) {
+        while (from < to) {
+            int length = Math.min(maxChars - tail.size(), to - from);
+            tail.write(data, from, length);
+            from += length;
+
+            if (tail.size() >= maxChars) {
+                byte[] full = tail.toByteArray();
+                int cut = charBoundary(full);
+
+                addLine(type, full, 0, cut);
+                tail.reset();
+                tail.write(full, cut, full.length - cut);
+            }
+        }
+    }
+
+    /**
+     * Emits the pending batch. With {@code includeTails} unfinished lines are
+     * emitted too, for when the stream ends.
+     */
+    public synchronized void flush(boolean includeTails) {
+        if (includeTails) {
+            for (Map.Entry<StreamType, ByteArrayOutputStream> tail : tails.entrySet()) {
+                addLine(tail.getKey(), tail.getValue().toByteArray(), 0, tail.getValue().size());
+            }
+            tails.clear();
+        }
+
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        String text = String.join("\n", batch);
+        batch.clear();
+        batchChars = 0;
+
+        sink.accept(text);
+    }
+
+    public void flush() {
+        flush(false);
+    }
+
+    private void addLine(StreamType type, byte[] data, int offset, int length) {
+        if (length > 0 && data[offset + length - 1] == '\r') {
+            length--;
+        }
+
+        String line = new String(data, offset, length, StandardCharsets.UTF_8);
+        int space = line.indexOf(' ');
+
+        if (space > 0 && Character.isDigit(line.charAt(0))) {
+            try {
+                Instant time = Instant.parse(line.substring(0, space));
+                line = line.substring(space + 1);
+
+                if (!cursor.advance(type, time, line)) {
+                    return;
+                }
+            } catch (DateTimeParseException ignored) {
+                // Not a docker timestamp, keep the line as it is.
+            }
+        }
+
+        if (line.isBlank()) {
+            return;
+        }
+
+        batch.add(line);
+        batchChars += line.length() + 1;
+
+        if (batch.size() >= maxLines || batchChars >= maxChars) {
+            flush(false);
+        } else if (batch.size() == 1 && scheduler != null) {
+            scheduledFlush = scheduler.schedule(() -> flush(false), window.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static int indexOf(byte[] data, int from) {
+        for (int i = from; i < data.length; i++) {
+            if (data[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Length of {@code data} without a trailing multi-byte character that is
+     * still missing bytes.
+     */
+    private static int charBoundary(byte[] data) {
+        int lead = data.length - 1;
+
+        while (lead > 0 && data.length - lead < 4 && (data[lead] & 0xC0) == 0x80) {
+            lead--;
+        }
+
+        int first = data[lead] & 0xFF;
+        int length = first >= 0xF0 ? 4 : first >= 0xE0 ? 3 : first >= 0xC0 ? 2 : 1;
+
+        return lead > 0 && lead + length > data.length ? lead : data.length;
+    }
+}
@@ -0,0 +1,190 @@
+package server.manager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import arc.files.Fi;
+import arc.util.Log;
+
+/**
+ * Parsed metadata of map and mod files, kept in memory and persisted to a
+ * json index so a restart does not re-read every file. An entry is reused
+ * while the file keeps its size and modification time. When those change the
+ * file is hashed, and only content that was never parsed under the same name
+ * goes through the parser again.
+ */
+public class MetadataCatalog<T> {
+
+    public record Entry<T>(long size, long modified, String hash, T metadata) {
+    }
+
+    private final Fi indexFile;
+    private final Function<Fi, T> parser;
+    private final ObjectMapper mapper;
+    private final JavaType indexType;
+
+    private final Map<String, Entry<T>> entries = new HashMap<>();
+    private final Map<String, T> byContent = new HashMap<>();
+    private final AtomicInteger parseCount = new AtomicInteger();
+
+    private boolean dirty;
+
+    public MetadataCatalog(Fi indexFile, Class<T> type, ObjectMapper mapper, Function<Fi, T> parser) {
+        this.indexFile = indexFile;
+        this.parser = parser;
+        this.mapper = mapper;
+
+        JavaType entryType = mapper.getTypeFactory().constructParametricType(Entry.class, type);
+        this.indexType = mapper.getTypeFactory().constructMapType(HashMap.class,
+                mapper.getTypeFactory().constructType(String.class), entryType);
+
+        load();
+    }
+
+    public synchronized T get(Fi file) {
+        String key = file.absolutePath();
+        long size = file.length();
+        long modified = file.lastModified();
+
+        Entry<T> entry = entries.get(key);
+
+        if (entry != null && entry.size() == size && entry.modified() == modified) {
+            return entry.metadata();
+        }
+
+        String hash = hash(file);
+        String contentKey = contentKey(hash, file.name());
+        T metadata = hash == null ? null : byContent.get(contentKey);
+
+        if (metadata == null) {
+            metadata = parser.apply(file);
+            parseCount.incrementAndGet();
+        }
+
+        entries.put(key, new Entry<>(size, modified, hash, metadata));
+
+        if (hash != null) {
+            byContent.put(contentKey, metadata);
+        }
+
+        dirty = true;
+        return metadata;
+    }
+
+    /**
+     * Forget every file that is not in {@code paths}, e.g. after a listing
+     * no longer returned it.
+     */
+    public synchronized void retain(Set<String> paths) {
+        if (entries.keySet().retainAll(paths)) {
+            rebuildContentIndex();
+            dirty = true;
+        }
+    }
+
+    public synchronized void save() {
+        if (!dirty) {
+            return;
+        }
+
+        try {
+            Path target = indexFile.file().toPath();
+            Files.createDirectories(target.getParent());
+
+            Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+            mapper.writeValue(temp.toFile(), entries);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            dirty = false;
+        } catch (IOException e) {
+            Log.err("Can not save metadata index @: @", indexFile.absolutePath(), e.getMessage());
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int parseCount() {
+        return parseCount.get();
+    }
+
+    private void load() {
+        if (!indexFile.exists()) {
+            return;
+        }
+
+        try {
+            Map<String, Entry<T>> loaded = mapper.readValue(indexFile.file(), indexType);
+            loaded.forEach((path, entry) -> {
+                if (entry != null && entry.metadata() != null) {
+                    entries.put(path, entry);
+                }
+            });
+            rebuildContentIndex();
+        } catch (IOException e) {
+            Log.warn("Can not read metadata index @, rebuilding: @", indexFile.absolutePath(), e.getMessage());
+        }
+    }
+
+    private void rebuildContentIndex() {
+        byContent.clear();
+        entries.forEach((path, entry) -> {
+            if (entry.hash() != null) {
+                byContent.put(contentKey(entry.hash(), new Fi(path).name()), entry.metadata());
+            }
+        });
+    }
+
+    private static String contentKey(String hash, String name) {
+        // The name is part of the key because the parsed metadata carries the file name.
+        return hash + "/" + name;
+    }
+
+    private static String hash(Fi file) {
+        if (file.isDirectory()) {
+            return null;
+        }
+
+        try (InputStream input = file.read()) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+
+            while ((read = input.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest()) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (IOException | RuntimeException | NoSuchAlgorithmException e) {
+            Log.warn("Can not hash @: @", file.absolutePath(), e.getMessage());
+            return null;
+        }
+    }
+
+    static Set<String> paths(Iterable<Fi> files) {
+        Set<String> paths = new HashSet<>();
+        for (Fi file : files) {
+            paths.add(file.absolutePath());
+        }
+        return paths;
+    }
+}
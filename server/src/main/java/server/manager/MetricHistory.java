@@ -0,0 +1,149 @@
+package server.manager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import server.types.data.NodeUsage;
+
+/**
+ * In-memory CPU and memory history at several resolutions, for example one
+ * second for ten minutes and one minute for a day. Every tier is a fixed ring
+ * of primitive buckets, so memory use is set up front and recording a sample
+ * never allocates. A bucket holds the average of the samples that fell in it.
+ */
+public class MetricHistory {
+
+    public static final class Tier {
+        private final long resolution;
+        private final int capacity;
+
+        private final long[] buckets;
+        private final double[] cpu;
+        private final double[] ram;
+        private final int[] samples;
+
+        /** Newest bucket number written, -1 before the first sample. */
+        private long newest = -1;
+
+        public Tier(Duration resolution, Duration span) {
+            this.resolution = resolution.toMillis();
+
+            if (this.resolution <= 0) {
+                throw new IllegalArgumentException("resolution must be positive: " + resolution);
+            }
+
+            this.capacity = (int) (span.toMillis() / this.resolution);
+
+            if (capacity <= 0) {
+                throw new IllegalArgumentException("span must cover at least one bucket: " + span);
+            }
+
+            this.buckets = new long[capacity];
+            this.cpu = new double[capacity];
+            this.ram = new double[capacity];
+            this.samples = new int[capacity];
+        }
+
+        public Duration resolution() {
+            return Duration.ofMillis(resolution);
+        }
+
+        public int capacity() {
+            return capacity;
+        }
+
+        private void record(long time, double cpuPercent, long ramBytes) {
+            long bucket = time / resolution;
+
+            if (bucket <= newest - capacity) {
+                return;
+            }
+
+            int slot = slot(bucket);
+
+            if (samples[slot] == 0 || buckets[slot] != bucket) {
+                buckets[slot] = bucket;
+                cpu[slot] = 0;
+                ram[slot] = 0;
+                samples[slot] = 0;
+            }
+
+            cpu[slot] += cpuPercent;
+            ram[slot] += ramBytes;
+            samples[slot]++;
+            newest = Math.max(newest, bucket);
+        }
+
+        /** Time of the oldest bucket the ring can still hold. */
+        private long oldestRetained() {
+            return (newest - capacity + 1) * resolution;
+        }
+
+        private void collect(long from, long to, List<NodeUsage> result) {
+            if (newest < 0) {
+                return;
+            }
+
+            long first = Math.max(Math.floorDiv(from, resolution), newest - capacity + 1);
+            long last = Math.min(Math.floorDiv(to, resolution), newest);
+
+            for (long bucket = first; bucket <= last; bucket++) {
+                int slot = slot(bucket);
+                int count = samples[slot];
+
+                if (count == 0 || buckets[slot] != bucket) {
+                    continue;
+                }
+
+                result.add(new NodeUsage(cpu[slot] / count, Math.round(ram[slot] / count),
+                        Instant.ofEpochMilli(bucket * resolution)));
+            }
+        }
+
+        private int slot(long bucket) {
+            return (int) Math.floorMod(bucket, (long) capacity);
+        }
+    }
+
+    private final Tier[] tiers;
+
+    /** Tiers ordered from the finest to the coarsest resolution. */
+    public MetricHistory(Tier... tiers) {
+        if (tiers.length == 0) {
+            throw new IllegalArgumentException("at least one tier is required");
+        }
+
+        this.tiers = tiers;
+    }
+
+    public synchronized void record(NodeUsage usage) {
+        long time = usage.createdAt().toEpochMilli();
+
+        for (Tier tier : tiers) {
+            tier.record(time, usage.cpu(), usage.ram());
+        }
+    }
+
+    /**
+     * Buckets between {@code from} and {@code to}, oldest first, taken from
+     * the finest tier that still reaches back to {@code from}, or the coarsest
+     * tier when none does.
+     */
+    public synchronized List<NodeUsage> query(Instant from, Instant to) {
+        long start = from.toEpochMilli();
+        Tier tier = tiers[tiers.length - 1];
+
+        for (Tier candidate : tiers) {
+            if (candidate.newest >= 0 && candidate.oldestRetained() <= start) {
+                tier = candidate;
+                break;
+            }
+        }
+
+        List<NodeUsage> result = new ArrayList<>();
+        tier.collect(start, to.toEpochMilli(), result);
+        return result;
+    }
+}
@@ -1,6 +1,8 @@
 package server.manager;
 
 import java.io.Closeable;
+import java.io.InputStream;
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 import java.util.function.Consumer;
@@ -21,7 +23,13 @@ public interface NodeManager {
 
     List<ServerState> list();
 
-    void create(ServerConfig config);
+    /**
+     * Creates and starts the server's container, or starts the existing one.
+     *
+     * @return whether an already running standby container was claimed for
+     *         the server instead of starting one cold
+     */
+    boolean create(ServerConfig config);
 
     boolean remove(UUID id, NodeRemoveReason reason);
 
@@ -33,6 +41,8 @@ public interface NodeManager {
 
     Closeable getNodeUsage(UUID serverId, Consumer<NodeUsage> onUsage, Consumer<Throwable> onError);
 
+    List<NodeUsage> getUsageHistory(UUID serverId, Instant from, Instant to);
+
     List<ManagerMapDto> getManagerMaps();
 
     List<ManagerModDto> getManagerMods();
@@ -49,11 +59,38 @@ public interface NodeManager {
 
     void writeFile(UUID serverId, String path, byte[] data);
 
+    void writeFile(UUID serverId, String path, InputStream data);
+
+    long getUploadOffset(UUID serverId, String path);
+
+    long appendUpload(UUID serverId, String path, long offset, InputStream data);
+
+    void completeUpload(UUID serverId, String path, long size);
+
+    boolean abortUpload(UUID serverId, String path);
+
     boolean createFolder(UUID serverId, String path);
 
     boolean deleteFile(UUID serverId, String path);
 
     boolean isRunning(UUID serverId);
 
+    /**
+     * Freezes the server's running container with {@code docker pause}. It
+     * keeps its memory but gets no cpu until {@link #unpauseContainer}.
+     *
+     * @param reason carried by the pause server event
+     * @return whether the container was running and is now paused
+     */
+    boolean pauseContainer(UUID serverId, String reason);
+
+    /**
+     * @param reason carried by the resume server event
+     * @return whether the container was paused and is now running
+     */
+    boolean unpauseContainer(UUID serverId, String reason);
+
+    boolean isPaused(UUID serverId);
+
     void onKilled(Consumer<UUID> onKilled);
 }
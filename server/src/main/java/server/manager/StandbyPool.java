@@ -0,0 +1,297 @@
+package server.manager;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+import dto.ServerConfig;
+
+/**
+ * Ports kept warm with a started but unbound server container, and the rules
+ * for handing one of them to a new server.
+ * <p>
+ * Docker fixes a container's published port, image, environment and mounts
+ * when it is created, so a standby can only become a server that needs none
+ * of those to differ: the same port, the default image, no extra environment,
+ * no mods (they load at JVM start) and exactly the memory the standby JVM was
+ * sized for, since its heap cap is fixed at JVM start. Everything else falls
+ * back to creating a container as before.
+ */
+public class StandbyPool {
+
+    public static final String SERVER_JSON = "server.json";
+
+    private final List<Integer> ports;
+    private final int memory;
+    private final String image;
+
+    public StandbyPool(String ports, int memory, String image) {
+        this.ports = parsePorts(ports);
+        this.memory = memory;
+        this.image = image;
+    }
+
+    /**
+     * Parses a port list like {@code "6600-6603, 6610"}. An empty or missing
+     * list disables the pool.
+     */
+    public static List<Integer> parsePorts(String spec) {
+        var result = new TreeSet<Integer>();
+
+        if (spec == null || spec.isBlank()) {
+            return List.of();
+        }
+
+        for (String part : spec.split(",")) {
+            String value = part.trim();
+
+            if (value.isEmpty()) {
+                continue;
+            }
+
+            try {
+                int dash = value.indexOf('-');
+
+                int from = Integer.parseInt((dash < 0 ? value : value.substring(0, dash)).trim());
+                int to = dash < 0 ? from : Integer.parseInt(value.substring(dash + 1).trim());
+
+                if (from <= 0 || to > 65535 || from > to) {
+                    throw new IllegalArgumentException("Invalid standby port range: " + value);
+                }
+
+                for (int port = from; port <= to; port++) {
+                    result.add(port);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid standby port: " + value, e);
+            }
+        }
+
+        return List.copyOf(result);
+    }
+
+    public boolean enabled() {
+        return !ports.isEmpty();
+    }
+
+    public List<Integer> ports() {
+        return ports;
+    }
+
+    public int memory() {
+        return memory;
+    }
+
+    public String image() {
+        return image;
+    }
+
+    public boolean covers(int port) {
+        return ports.contains(port);
+    }
+
+    /** Pool ports without a container, standby or server, on them. */
+    public List<Integer> missing(Collection<Integer> usedPorts) {
+        return ports.stream().filter(port -> !usedPorts.contains(port)).toList();
+    }
+
+    /**
+     * Whether a standby on the request's port can run this server.
+     *
+     * @param serverConfig the server's config folder as prepared before
+     *                     hosting, it may not exist yet
+     */
+    public boolean canClaim(ServerConfig request, Path serverConfig) throws IOException {
+        if (!covers(request.getPort())) {
+            return false;
+        }
+
+        if (Boolean.TRUE.equals(request.getIsHub()) || Boolean.TRUE.equals(request.getIsOfficial())) {
+            return false;
+        }
+
+        String requestImage = request.getImage();
+
+        if (requestImage != null && !requestImage.isEmpty() && !requestImage.equals(image)) {
+            return false;
+        }
+
+        Map<String, String> env = request.getEnv();
+
+        if (env != null && !env.isEmpty()) {
+            return false;
+        }
+
+        if (request.getMemory() != memory) {
+            return false;
+        }
+
+        return !hasMods(serverConfig);
+    }
+
+    static boolean hasMods(Path serverConfig) throws IOException {
+        Path mods = serverConfig.resolve("mods");
+
+        if (!Files.isDirectory(mods)) {
+            return false;
+        }
+
+        try (Stream<Path> files = Files.list(mods)) {
+            return files.findAny().isPresent();
+        }
+    }
+
+    /**
+     * Makes the standby's config folder the server's at {@code serverConfig},
+     * keeping what the server already has there. The folder itself is renamed
+     * rather than copied so the running container's mount, which follows the
+     * directory, keeps pointing at it; the server's previous folder is set
+     * aside and merged back in with {@link #recover(Path)}.
+     * <p>
+     * The container's bind still names {@code standbyConfig} and docker
+     * resolves it again on every start, so it is left as a link to the
+     * server's folder. The server's files never move into the standby folder,
+     * so removing a standby never touches them.
+     */
+    public static void handOver(Path standbyConfig, Path serverConfig) throws IOException {
+        if (Files.isSymbolicLink(standbyConfig) || !Files.isDirectory(standbyConfig)) {
+            throw new IOException("Standby config folder missing: " + standbyConfig);
+        }
+
+        Path previous = previous(serverConfig);
+
+        if (Files.exists(previous)) {
+            throw new IOException("Unfinished hand over in " + previous);
+        }
+
+        if (Files.isDirectory(serverConfig)) {
+            move(serverConfig, previous);
+        } else {
+            Files.createDirectories(serverConfig.getParent());
+        }
+
+        try {
+            move(standbyConfig, serverConfig);
+        } catch (IOException e) {
+            if (Files.isDirectory(previous)) {
+                move(previous, serverConfig);
+            }
+
+            throw e;
+        }
+
+        recover(serverConfig);
+
+        // Relative, so it resolves the same wherever the volume is mounted.
+        Files.createSymbolicLink(standbyConfig, standbyConfig.getParent().relativize(serverConfig));
+    }
+
+    /**
+     * Merges the server files set aside by {@link #handOver(Path, Path)} back
+     * into {@code serverConfig}, the server's own files winning. Does nothing
+     * unless a hand over stopped half way. {@value #SERVER_JSON} is moved in
+     * last: the standby plugin waits for it to learn its server id, so every
+     * other file is in place when it does.
+     */
+    public static void recover(Path serverConfig) throws IOException {
+        Path previous = previous(serverConfig);
+
+        if (!Files.isDirectory(previous)) {
+            return;
+        }
+
+        if (Files.isDirectory(serverConfig)) {
+            merge(previous, serverConfig);
+        } else {
+            move(previous, serverConfig);
+        }
+    }
+
+    /**
+     * Deletes a standby folder. Links are removed without following them, so
+     * a claimed standby's link never takes the server's files with it.
+     */
+    public static void delete(Path folder) throws IOException {
+        if (Files.isSymbolicLink(folder)) {
+            Files.delete(folder);
+            return;
+        }
+
+        if (!Files.exists(folder)) {
+            return;
+        }
+
+        Files.walkFileTree(folder, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException e) throws IOException {
+                if (e != null) {
+                    throw e;
+                }
+
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static Path previous(Path serverConfig) {
+        return serverConfig.resolveSibling(serverConfig.getFileName() + ".previous");
+    }
+
+    private static boolean isServerJson(Path path) {
+        return path.getFileName().toString().equals(SERVER_JSON);
+    }
+
+    private static void merge(Path source, Path target) throws IOException {
+        List<Path> children;
+
+        try (Stream<Path> files = Files.list(source)) {
+            children = new ArrayList<>(files.toList());
+        }
+
+        children.sort((a, b) -> Boolean.compare(isServerJson(a), isServerJson(b)));
+
+        for (Path child : children) {
+            Path destination = target.resolve(child.getFileName().toString());
+
+            if (Files.isDirectory(child) && Files.isDirectory(destination)) {
+                merge(child, destination);
+            } else {
+                move(child, destination);
+            }
+        }
+
+        Files.delete(source);
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        if (Files.isDirectory(target, LinkOption.NOFOLLOW_LINKS)) {
+            // Files.move only replaces empty directories; the server's own file wins.
+            delete(target);
+        }
+
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
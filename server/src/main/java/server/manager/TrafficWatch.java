@@ -0,0 +1,54 @@
+package server.manager;
+
+/**
+ * Spots someone trying to reach a paused container from its received
+ * counters, which keep counting while the container is frozen. Docker only
+ * reports totals, not ports or protocols, so a join is told apart by size: a
+ * player connecting completes the handshake and sends its connect packet with
+ * name, uuid and mods, while server browser pings and ARP or broadcast frames
+ * are all minimum sized, however many of them arrive.
+ */
+public class TrafficWatch {
+
+    /** Largest frame that is only a ping, an ARP or a bare TCP segment. */
+    static final long PING_PACKET_BYTES = 64;
+
+    private final long packetThreshold;
+    private final long payloadThreshold;
+
+    /** Counters of the previous sample, -1 before the first one. */
+    private long previousPackets = -1;
+    private long previousBytes = -1;
+
+    /**
+     * @param packetThreshold  packets that must arrive between two samples
+     * @param payloadThreshold bytes beyond {@link #PING_PACKET_BYTES} per
+     *                         packet that must arrive between two samples
+     */
+    public TrafficWatch(long packetThreshold, long payloadThreshold) {
+        this.packetThreshold = packetThreshold;
+        this.payloadThreshold = payloadThreshold;
+    }
+
+    /**
+     * @return whether at least {@code packetThreshold} packets carrying at
+     *         least {@code payloadThreshold} bytes more than pings would
+     *         arrived since the previous sample
+     */
+    public synchronized boolean accept(long rxPackets, long rxBytes) {
+        long lastPackets = previousPackets;
+        long lastBytes = previousBytes;
+        previousPackets = rxPackets;
+        previousBytes = rxBytes;
+
+        // A reset counter is a new baseline, not traffic.
+        if (lastPackets < 0 || rxPackets < lastPackets || rxBytes < lastBytes) {
+            return false;
+        }
+
+        long packets = rxPackets - lastPackets;
+        long payload = (rxBytes - lastBytes) - packets * PING_PACKET_BYTES;
+
+        return packets >= packetThreshold && payload >= payloadThreshold;
+    }
+}
@@ -0,0 +1,157 @@
+package server.manager;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import com.github.dockerjava.api.model.CpuStatsConfig;
+import com.github.dockerjava.api.model.CpuUsageConfig;
+import com.github.dockerjava.api.model.MemoryStatsConfig;
+import com.github.dockerjava.api.model.Statistics;
+
+import arc.util.Log;
+import server.types.data.NodeUsage;
+
+/**
+ * Usage of one server, fed by a single docker stats stream no matter how many
+ * clients watch it. Every sample goes into the {@link MetricHistory} and is
+ * then handed to the current subscribers.
+ */
+public class UsageMonitor {
+
+    private final class Subscriber implements Closeable {
+        private final Consumer<NodeUsage> onUsage;
+        private final Consumer<Throwable> onError;
+
+        private Subscriber(Consumer<NodeUsage> onUsage, Consumer<Throwable> onError) {
+            this.onUsage = onUsage;
+            this.onError = onError;
+        }
+
+        @Override
+        public void close() {
+            subscribers.remove(this);
+        }
+    }
+
+    private final MetricHistory history;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    /** Cumulative counters of the previous sample, -1 before the first one. */
+    private long previousTotal = -1;
+    private long previousSystem = -1;
+
+    public UsageMonitor(MetricHistory history) {
+        this.history = history;
+    }
+
+    /** One second for ten minutes, one minute for a day. */
+    public static UsageMonitor withDefaultHistory() {
+        return new UsageMonitor(new MetricHistory(
+                new MetricHistory.Tier(Duration.ofSeconds(1), Duration.ofMinutes(10)),
+                new MetricHistory.Tier(Duration.ofMinutes(1), Duration.ofHours(24))));
+    }
+
+    public Closeable subscribe(Consumer<NodeUsage> onUsage, Consumer<Throwable> onError) {
+        Subscriber subscriber = new Subscriber(onUsage, onError);
+        subscribers.add(subscriber);
+        return subscriber;
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    public List<NodeUsage> history(Instant from, Instant to) {
+        return history.query(from, to);
+    }
+
+    public void accept(Statistics stats) {
+        CpuStatsConfig cpu = stats.getCpuStats();
+        CpuUsageConfig cpuUsage = cpu == null ? null : cpu.getCpuUsage();
+        MemoryStatsConfig memory = stats.getMemoryStats();
+
+        long total = cpuUsage == null || cpuUsage.getTotalUsage() == null ? 0 : cpuUsage.getTotalUsage();
+        long system = cpu == null || cpu.getSystemCpuUsage() == null ? 0 : cpu.getSystemCpuUsage();
+        long cpus = cpuCount(cpu, cpuUsage);
+        long ram = memory == null || memory.getUsage() == null ? 0 : memory.getUsage();
+
+        double cpuPercent;
+
+        synchronized (this) {
+            cpuPercent = previousTotal < 0 ? 0 : cpuPercent(total - previousTotal, system - previousSystem, cpus);
+            previousTotal = total;
+            previousSystem = system;
+        }
+
+        record(new NodeUsage(cpuPercent, ram, Instant.now()));
+    }
+
+    void record(NodeUsage usage) {
+        history.record(usage);
+
+        for (Subscriber subscriber : subscribers) {
+            try {
+                subscriber.onUsage.accept(usage);
+            } catch (Exception e) {
+                Log.err("Error while handling usage", e);
+            }
+        }
+    }
+
+    /**
+     * The stats stream failed; current subscribers are told and dropped, the
+     * history is kept.
+     */
+    public void fail(Throwable error) {
+        for (Subscriber subscriber : subscribers) {
+            subscribers.remove(subscriber);
+
+            try {
+                subscriber.onError.accept(error);
+            } catch (Exception e) {
+                Log.err("Error while handling usage error", e);
+            }
+        }
+
+        reset();
+    }
+
+    /**
+     * Forgets the previous sample, for when the stats stream ends and a new
+     * one starts with counters of its own.
+     */
+    public synchronized void reset() {
+        previousTotal = -1;
+        previousSystem = -1;
+    }
+
+    /**
+     * Share of one CPU times the number of CPUs, so a container using two
+     * full cores reads 200.
+     */
+    static double cpuPercent(long cpuDelta, long systemDelta, long cpus) {
+        if (systemDelta <= 0 || cpuDelta < 0 || cpus <= 0) {
+            return 0;
+        }
+
+        double percent = (double) cpuDelta / systemDelta * cpus * 100.0;
+
+        return Math.min(percent, cpus * 100.0);
+    }
+
+    private static long cpuCount(CpuStatsConfig cpu, CpuUsageConfig cpuUsage) {
+        if (cpu != null && cpu.getOnlineCpus() != null && cpu.getOnlineCpus() > 0) {
+            return cpu.getOnlineCpus();
+        }
+
+        if (cpuUsage != null && cpuUsage.getPercpuUsage() != null && !cpuUsage.getPercpuUsage().isEmpty()) {
+            return cpuUsage.getPercpuUsage().size();
+        }
+
+        return Runtime.getRuntime().availableProcessors();
+    }
+}
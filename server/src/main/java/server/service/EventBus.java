@@ -1,23 +1,90 @@
 package server.service;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
+
 import arc.util.Log;
 import events.BaseEvent;
 
+/**
+ * Fans events out to subscribers without running them on the emitting
+ * thread. Every subscriber owns a bounded {@link EventQueue}, so its events
+ * stay in order and a slow subscriber only ever delays itself. What happens
+ * when a queue is full is decided per subscriber by its
+ * {@link OverflowPolicy}.
+ */
 public class EventBus {
 
-    private final List<Consumer<BaseEvent>> consumers = new ArrayList<>();
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    public enum OverflowPolicy {
+        /** Drop the oldest queued event to make room. */
+        DROP_OLDEST,
+        /**
+         * Replace the oldest queued event of the same type and server, falling
+         * back to dropping the oldest event when there is none.
+         */
+        COALESCE,
+        /** Close the subscription and notify its disconnect callback. */
+        DISCONNECT,
+        /**
+         * Refuse the new item and leave the queue as it is, so the producer can
+         * push back.
+         */
+        REJECT
+    }
+
+    private final CopyOnWriteArrayList<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final List<Consumer<BaseEvent>> inline = new CopyOnWriteArrayList<>();
+    private final Executor executor;
+
+    public EventBus() {
+        this(newExecutor());
+    }
+
+    public EventBus(Executor executor) {
+        this.executor = executor;
+    }
 
     public Runnable on(Consumer<BaseEvent> consumer) {
-        consumers.add(consumer);
+        Subscription subscription = subscribe(consumer, DEFAULT_CAPACITY, OverflowPolicy.DROP_OLDEST);
 
-        return () -> consumers.remove(consumer);
+        return subscription::close;
+    }
+
+    /**
+     * Runs {@code consumer} on the emitting thread. Only for constant-time,
+     * non-blocking work such as appending to an in-memory buffer.
+     */
+    public Runnable onInline(Consumer<BaseEvent> consumer) {
+        inline.add(consumer);
+
+        return () -> inline.remove(consumer);
+    }
+
+    public Subscription subscribe(Consumer<BaseEvent> consumer, int capacity, OverflowPolicy policy) {
+        Subscription subscription = prepare(consumer, capacity, policy);
+        subscription.start();
+        return subscription;
+    }
+
+    /**
+     * Creates a subscription that does not receive events until
+     * {@link Subscription#start()}, so a backlog can be queued ahead of live
+     * events.
+     */
+    public Subscription prepare(Consumer<BaseEvent> consumer, int capacity, OverflowPolicy policy) {
+        return new Subscription(consumer, capacity, policy);
     }
 
     public <T extends BaseEvent> T emit(T event) {
-        for (var consumer : consumers) {
+        for (var consumer : inline) {
             try {
                 consumer.accept(event);
             } catch (Exception e) {
@@ -25,6 +92,60 @@ public class EventBus {
             }
         }
 
+        for (var subscription : subscriptions) {
+            subscription.offer(event);
+        }
+
         return event;
     }
+
+    /**
+     * A queue on this bus's executor that is not subscribed to anything, for
+     * callers that feed it themselves.
+     */
+    public <T> EventQueue<T> newQueue(Consumer<T> consumer, int capacity, OverflowPolicy policy) {
+        return new EventQueue<>(executor, consumer, capacity, policy, null);
+    }
+
+    public int subscriberCount() {
+        return subscriptions.size();
+    }
+
+    private static boolean sameKind(BaseEvent queued, BaseEvent event) {
+        return queued.getClass() == event.getClass() && Objects.equals(queued.getServerId(), event.getServerId());
+    }
+
+    private static ExecutorService newExecutor() {
+        AtomicInteger counter = new AtomicInteger();
+
+        return Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "event-bus-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public final class Subscription extends EventQueue<BaseEvent> {
+
+        private Subscription(Consumer<BaseEvent> consumer, int capacity, OverflowPolicy policy) {
+            super(executor, consumer, capacity, policy, EventBus::sameKind);
+        }
+
+        @Override
+        public Subscription onDisconnect(Runnable onDisconnect) {
+            super.onDisconnect(onDisconnect);
+            return this;
+        }
+
+        public void start() {
+            if (!isClosed()) {
+                subscriptions.addIfAbsent(this);
+            }
+        }
+
+        @Override
+        protected void onClosed() {
+            subscriptions.remove(this);
+        }
+    }
 }
@@ -0,0 +1,113 @@
+package server.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import events.BaseEvent;
+import server.utils.Utils;
+
+/**
+ * Fixed-capacity ring of the most recent events, each tagged with a
+ * sequence number that only ever grows. Clients resume with the last number
+ * they saw and get back exactly the retained events after it.
+ */
+public class EventHistory {
+
+    /**
+     * A sequenced event. Its SSE frame is encoded on first use and shared by
+     * every stream that sends it.
+     */
+    public static final class Entry {
+        private final long sequence;
+        private final BaseEvent event;
+        private volatile byte[] frame;
+
+        public Entry(long sequence, BaseEvent event) {
+            this.sequence = sequence;
+            this.event = event;
+        }
+
+        public long sequence() {
+            return sequence;
+        }
+
+        public BaseEvent event() {
+            return event;
+        }
+
+        public byte[] frame() {
+            byte[] encoded = frame;
+
+            if (encoded == null) {
+                // Racing threads encode the same bytes, so the last write winning is harmless.
+                encoded = EventStream.frame(sequence, Utils.toJsonString(event));
+                frame = encoded;
+            }
+
+            return encoded;
+        }
+    }
+
+    private final Entry[] entries;
+
+    /** Sequence of the newest entry, 0 before the first append. */
+    private long lastSequence;
+
+    public EventHistory(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+
+        this.entries = new Entry[capacity];
+    }
+
+    public synchronized Entry append(BaseEvent event) {
+        Entry entry = new Entry(++lastSequence, event);
+        entries[slot(entry.sequence())] = entry;
+        return entry;
+    }
+
+    /**
+     * Retained entries with a sequence greater than {@code after}, oldest
+     * first. Entries that were already overwritten are silently missing; use
+     * {@link #isRetained(long)} to tell whether the caller missed some.
+     */
+    public synchronized List<Entry> since(long after) {
+        long from = Math.max(after + 1, firstSequence());
+        List<Entry> result = new ArrayList<>((int) Math.max(0, lastSequence - from + 1));
+
+        for (long sequence = from; sequence <= lastSequence; sequence++) {
+            result.add(entries[slot(sequence)]);
+        }
+
+        return result;
+    }
+
+    /**
+     * Whether everything after {@code after} is still in the ring, so
+     * resuming from it loses nothing.
+     */
+    public synchronized boolean isRetained(long after) {
+        return after >= firstSequence() - 1 && after <= lastSequence;
+    }
+
+    public synchronized long lastSequence() {
+        return lastSequence;
+    }
+
+    public synchronized int size() {
+        return (int) Math.min(lastSequence, entries.length);
+    }
+
+    public int capacity() {
+        return entries.length;
+    }
+
+    private long firstSequence() {
+        return Math.max(1, lastSequence - entries.length + 1);
+    }
+
+    private int slot(long sequence) {
+        return (int) ((sequence - 1) % entries.length);
+    }
+}
@@ -0,0 +1,196 @@
+package server.service;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+
+import arc.util.Log;
+import server.service.EventBus.OverflowPolicy;
+
+/**
+ * Bounded queue in front of one consumer. {@link #offer} never runs the
+ * consumer; items are drained in order by at most one task at a time on the
+ * shared executor, and a full queue is resolved by the {@link OverflowPolicy}.
+ */
+public class EventQueue<T> implements AutoCloseable {
+
+    private static final int DRAIN_BATCH = 256;
+
+    private final Executor executor;
+    private final Consumer<T> consumer;
+    private final int capacity;
+    private final OverflowPolicy policy;
+    private final BiPredicate<T, T> sameKind;
+
+    private final ArrayDeque<T> queue = new ArrayDeque<>();
+    private final AtomicLong dropped = new AtomicLong();
+
+    private boolean draining;
+    private volatile boolean closed;
+    private volatile Runnable onDisconnect = () -> {
+    };
+
+    EventQueue(Executor executor, Consumer<T> consumer, int capacity, OverflowPolicy policy,
+            BiPredicate<T, T> sameKind) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+
+        this.executor = executor;
+        this.consumer = Objects.requireNonNull(consumer);
+        this.capacity = capacity;
+        this.policy = Objects.requireNonNull(policy);
+        this.sameKind = sameKind;
+    }
+
+    public EventQueue<T> onDisconnect(Runnable onDisconnect) {
+        this.onDisconnect = Objects.requireNonNull(onDisconnect);
+        return this;
+    }
+
+    /**
+     * @return whether the item was queued; {@code false} when the queue is
+     *         closed or the {@link OverflowPolicy#REJECT} policy refused it
+     */
+    public boolean offer(T item) {
+        boolean disconnect = false;
+
+        synchronized (queue) {
+            if (closed) {
+                return false;
+            }
+
+            if (queue.size() >= capacity) {
+                switch (policy) {
+                    case DROP_OLDEST:
+                        queue.pollFirst();
+                        break;
+                    case COALESCE:
+                        if (!removeSameKind(item)) {
+                            queue.pollFirst();
+                        }
+                        break;
+                    case REJECT:
+                        if (dropped.getAndIncrement() == 0) {
+                            Log.warn("Queue is full (@ items), rejecting new items", capacity);
+                        }
+                        return false;
+                    case DISCONNECT:
+                        // Closed under the lock so concurrent producers disconnect only once.
+                        disconnect = true;
+                        closed = true;
+                        queue.clear();
+                        break;
+                }
+
+                if (dropped.getAndIncrement() == 0 && !disconnect) {
+                    Log.warn("Event subscriber is falling behind, dropping events (policy: @)", policy);
+                }
+            }
+
+            if (!disconnect) {
+                queue.addLast(item);
+                schedule();
+            }
+        }
+
+        if (disconnect) {
+            Log.warn("Event subscriber queue is full (@ events), disconnecting", capacity);
+            onClosed();
+            executor.execute(() -> {
+                try {
+                    onDisconnect.run();
+                } catch (Exception e) {
+                    Log.err("Error while disconnecting event subscriber", e);
+                }
+            });
+        }
+
+        return !disconnect;
+    }
+
+    @Override
+    public void close() {
+        synchronized (queue) {
+            closed = true;
+            queue.clear();
+        }
+        onClosed();
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    public long dropped() {
+        return dropped.get();
+    }
+
+    public int queued() {
+        synchronized (queue) {
+            return queue.size();
+        }
+    }
+
+    /**
+     * Called once the queue stopped accepting items, by {@link #close()} or
+     * by the {@link OverflowPolicy#DISCONNECT} policy.
+     */
+    protected void onClosed() {
+    }
+
+    private boolean removeSameKind(T item) {
+        if (sameKind == null) {
+            return false;
+        }
+
+        for (Iterator<T> it = queue.iterator(); it.hasNext();) {
+            if (sameKind.test(it.next(), item)) {
+                it.remove();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void schedule() {
+        // Caller holds the queue lock.
+        if (!draining) {
+            draining = true;
+            executor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        for (int i = 0; i < DRAIN_BATCH; i++) {
+            T item;
+
+            synchronized (queue) {
+                item = closed ? null : queue.pollFirst();
+
+                if (item == null) {
+                    draining = false;
+                    return;
+                }
+            }
+
+            try {
+                consumer.accept(item);
+            } catch (Exception e) {
+                Log.err("Error while handling event: " + item.getClass().getSimpleName(), e);
+            }
+        }
+
+        // Hand the thread back between batches so busy subscribers share the pool fairly.
+        synchronized (queue) {
+            draining = false;
+            if (!queue.isEmpty() && !closed) {
+                schedule();
+            }
+        }
+    }
+}
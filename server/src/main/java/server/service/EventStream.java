@@ -0,0 +1,159 @@
+package server.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
+
+import arc.util.Log;
+import io.javalin.http.Context;
+
+/**
+ * A server-sent event stream written straight to the response. Events are
+ * written as their pre-encoded {@link EventHistory.Entry#frame()}, so an event
+ * is serialized once no matter how many streams are open. Clients that accept
+ * gzip get a compressed stream that is sync-flushed after every write.
+ */
+public class EventStream implements Consumer<EventHistory.Entry> {
+
+    private static final byte[] PING = ": ping\n\n".getBytes(StandardCharsets.UTF_8);
+
+    private final OutputStream output;
+    private final boolean gzip;
+    private final CompletableFuture<Void> closed = new CompletableFuture<>();
+    private final List<Runnable> closeListeners = new CopyOnWriteArrayList<>();
+
+    EventStream(OutputStream output, boolean gzip) throws IOException {
+        this.output = gzip ? new GZIPOutputStream(output, 8192, true) : output;
+        this.gzip = gzip;
+    }
+
+    /**
+     * Writes the SSE response headers and returns the stream. The caller
+     * should hand {@link #closed()} to {@code ctx.future} so the request stays
+     * open until the stream is closed.
+     */
+    public static EventStream open(Context ctx) throws IOException {
+        boolean gzip = acceptsGzip(ctx.header("Accept-Encoding"));
+
+        var response = ctx.res();
+        response.setStatus(200);
+        response.setCharacterEncoding("UTF-8");
+        response.setContentType("text/event-stream");
+        response.setHeader("Cache-Control", "no-cache");
+        response.setHeader("X-Accel-Buffering", "no");
+
+        if (gzip) {
+            response.setHeader("Content-Encoding", "gzip");
+            response.setHeader("Vary", "Accept-Encoding");
+        }
+
+        EventStream stream = new EventStream(response.getOutputStream(), gzip);
+        stream.write(PING);
+        return stream;
+    }
+
+    public static byte[] frame(long id, String json) {
+        return ("id: " + id + "\nevent: message\ndata: " + json + "\n\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+
+        for (String part : acceptEncoding.split(",")) {
+            String[] coding = part.trim().split(";");
+
+            if (!coding[0].trim().equalsIgnoreCase("gzip")) {
+                continue;
+            }
+
+            for (int i = 1; i < coding.length; i++) {
+                String parameter = coding[i].trim().replace(" ", "");
+                if (parameter.equals("q=0") || parameter.matches("q=0\\.0*")) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        return false;
+    }
+
+    @Override
+    public void accept(EventHistory.Entry entry) {
+        write(entry.frame());
+    }
+
+    /** Keeps idle connections open and notices clients that went away. */
+    public void ping() {
+        write(PING);
+    }
+
+    public boolean isGzip() {
+        return gzip;
+    }
+
+    public boolean isClosed() {
+        return closed.isDone();
+    }
+
+    public CompletableFuture<Void> closed() {
+        return closed;
+    }
+
+    public void onClose(Runnable listener) {
+        closeListeners.add(listener);
+
+        if (closed.isDone()) {
+            listener.run();
+        }
+    }
+
+    public void close() {
+        synchronized (output) {
+            if (!closed.complete(null)) {
+                return;
+            }
+
+            try {
+                output.close();
+            } catch (IOException ignored) {
+            }
+        }
+
+        for (Runnable listener : closeListeners) {
+            try {
+                listener.run();
+            } catch (Exception e) {
+                Log.err("Error while closing event stream", e);
+            }
+        }
+    }
+
+    private void write(byte[] bytes) {
+        boolean failed = false;
+
+        synchronized (output) {
+            if (closed.isDone()) {
+                return;
+            }
+
+            try {
+                output.write(bytes);
+                output.flush();
+            } catch (IOException e) {
+                failed = true;
+            }
+        }
+
+        if (failed) {
+            close();
+        }
+    }
+}
@@ -4,27 +4,31 @@ import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.HashMap;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 
 import org.apache.hc.core5.net.URIBuilder;
 
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
-import arc.files.Fi;
 import arc.util.Log;
 import lombok.Getter;
 import lombok.experimental.Accessors;
@@ -34,23 +38,29 @@ import dto.PlayerInfoDto;
 import dto.ServerCommandDto;
 import dto.ServerStateDto;
 import dto.StartServerDto;
+import dto.WsEnvelope;
 import dto.WsMessage;
 import enums.NodeRemoveReason;
 import dto.MessageHandler;
 import events.BaseEvent;
 import events.ServerEvents;
 import events.ServerEvents.LogEvent;
+import events.ServerEvents.ResumeEvent;
 import events.ServerEvents.StartEvent;
 import events.ServerEvents.StopEvent;
 import io.javalin.websocket.WsCloseContext;
 import io.javalin.websocket.WsCloseStatus;
 import io.javalin.websocket.WsConnectContext;
 import io.javalin.websocket.WsContext;
+import io.javalin.websocket.WsBinaryMessageContext;
 import io.javalin.websocket.WsMessageContext;
 import server.EnvConfig;
 import server.config.Const;
 import server.manager.NodeManager;
+import server.service.EventBus.OverflowPolicy;
+import server.types.data.GatewaySession;
 import server.utils.ApiError;
+import server.utils.HashedWheelTimer;
 import server.utils.Utils;
 import com.fasterxml.jackson.core.type.TypeReference;
 
@@ -59,34 +69,118 @@ public class GatewayService {
     private final EventBus eventBus;
     private final EnvConfig envConfig;
     private final NodeManager nodeManager;
+    private final Clock clock;
     private final ConcurrentHashMap<UUID, GatewayClient> clients = new ConcurrentHashMap<>();
     private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final HashedWheelTimer timer = new HashedWheelTimer("gateway-timer", Duration.ofMillis(100), 1024);
+    private final ExecutorService messageExecutor = newMessageExecutor();
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofMinutes(1);
+    private static final int MESSAGE_THREADS = Math.max(4, Runtime.getRuntime().availableProcessors());
+    private static final int INBOUND_CAPACITY = 1024;
 
     public GatewayService(EventBus eventBus, EnvConfig envConfig, NodeManager nodeManager) {
+        this(eventBus, envConfig, nodeManager, Clock.systemUTC());
+    }
+
+    public GatewayService(EventBus eventBus, EnvConfig envConfig, NodeManager nodeManager, Clock clock) {
         this.eventBus = eventBus;
         this.envConfig = envConfig;
         this.nodeManager = nodeManager;
+        this.clock = clock;
 
         nodeManager.onKilled(serverId -> this.terminate(serverId, NodeRemoveReason.PROCESS_KILLED));
 
-        scheduler.scheduleWithFixedDelay(() -> {
-            try {
-                clients.values().removeIf(client -> {
-                    if (client.shouldTerminate()) {
-                        client.terminate(NodeRemoveReason.NOT_CONNECTED);
-                        return true;
-                    }
+        // A resumed server gets the full grace period to reconnect, its silence while frozen does not count.
+        eventBus.onInline(event -> {
+            if (event instanceof ResumeEvent) {
+                var client = clients.get(event.getServerId());
 
-                    return false;
-                });
+                if (client != null) {
+                    client.keepAlive();
+                }
+            }
+        });
 
-                clients.values().forEach(GatewayClient::checkHeartbeat);
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                sweep();
             } catch (Exception e) {
-                Log.err("Error checking heartbeat", e);
+                Log.err("Error checking gateway clients", e);
             }
         }, 15, 15, TimeUnit.SECONDS);
     }
 
+    /**
+     * Terminates clients that have been silent for too long. A paused server
+     * sends no heartbeat but is kept on purpose, and is counted as alive so
+     * it is not terminated right after it is unpaused.
+     */
+    void sweep() {
+        clients.values().removeIf(client -> {
+            if (nodeManager.isPaused(client.id())) {
+                client.keepAlive();
+                return false;
+            }
+
+            if (client.shouldTerminate()) {
+                client.terminate(NodeRemoveReason.NOT_CONNECTED);
+                return true;
+            }
+
+            return false;
+        });
+
+        clients.values().forEach(GatewayClient::checkSession);
+    }
+
+    /**
+     * Pending request timeouts and heartbeat deadlines of all clients, which
+     * share one timer.
+     */
+    public int timerEntries() {
+        return timer.pending();
+    }
+
+    public int pendingRequests() {
+        return clients.values().stream().mapToInt(client -> client.pendingRequests.size()).sum();
+    }
+
+    private static ExecutorService newMessageExecutor() {
+        AtomicInteger counter = new AtomicInteger();
+
+        return Executors.newFixedThreadPool(MESSAGE_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "gateway-message-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Runs {@code task} on the timer thread after {@code delay}. The task must
+     * only hand work off, never wait on it.
+     */
+    public HashedWheelTimer.Timeout schedule(Runnable task, Duration delay) {
+        return timer.schedule(task, delay);
+    }
+
+    /**
+     * {@code future}, failed with a 504 when the server has not answered
+     * within {@code timeout}. Meant for HTTP handlers that wait on a server
+     * without holding a request thread.
+     */
+    public <T> CompletableFuture<T> withTimeout(CompletableFuture<T> future, Duration timeout) {
+        return timer.withTimeout(future, timeout, () -> new ApiError(504, "Gateway timeout"));
+    }
+
+    /**
+     * {@link #withTimeout(CompletableFuture, Duration)} with the configured
+     * gateway timeout, which is how long a route waits for a server.
+     */
+    public <T> CompletableFuture<T> withTimeout(CompletableFuture<T> future) {
+        return withTimeout(future, envConfig.serverConfig().gatewayTimeout());
+    }
+
     public GatewayClient of(UUID serverId) {
         return clients.computeIfAbsent(serverId, _ignore -> new GatewayClient(serverId));
     }
@@ -128,6 +222,27 @@ public class GatewayService {
 
         private static final Duration HEARTBEAT_TIMEOUT_DURATION = Duration.ofSeconds(45);
         private static final Duration TERMINATE_CONNECTION_AFTER = Duration.ofMinutes(3);
+        private static final Duration HEARTBEAT_RECHECK_INTERVAL = Duration.ofSeconds(15);
+        private static final Duration LOGIN_TIMEOUT = Duration.ofSeconds(30);
+        private static final Duration HOST_TIMEOUT = Duration.ofMinutes(2);
+
+        /**
+         * Read-only request types whose identical concurrent calls share one
+         * round trip, with how long a result keeps being reused afterwards.
+         * Types not listed here are always sent.
+         */
+        private static final Map<String, Duration> COALESCED_REQUESTS = Map.of(
+                "get-state", Duration.ofSeconds(1),
+                "get-players-info", Duration.ofSeconds(2),
+                "get-map-image", Duration.ofSeconds(5),
+                "get-json", Duration.ofSeconds(1),
+                "get-commands", Duration.ofSeconds(10),
+                "get-kicked-ips", Duration.ofSeconds(2),
+                "get-plugin-version", Duration.ofSeconds(30),
+                "is-hosting", Duration.ZERO);
+
+        private record RequestKey(String type, String payload) {
+        }
 
         private final HashMap<String, MessageHandler<Object, Object>> messageHandlers = new HashMap<>();
 
@@ -135,15 +250,26 @@ public class GatewayService {
         private final UUID id;
         private CompletableFuture<WsContext> context = new CompletableFuture<>();
 
-        private volatile Instant lastHeartBeatAt = Instant.now();
+        private volatile Instant lastHeartBeatAt = clock.instant();
+        private volatile HashedWheelTimer.Timeout heartbeatTimeout;
+        private CompletableFuture<WsContext> timedContext;
+        private volatile GatewaySession session;
+
+        private final Map<UUID, CompletableFuture<WsEnvelope>> pendingRequests = new ConcurrentHashMap<>();
+        private final RequestCoalescer<RequestKey> coalescer = new RequestCoalescer<>();
 
-        private final Map<UUID, CompletableFuture<JsonNode>> pendingRequests = new ConcurrentHashMap<>();
+        /**
+         * Inbound messages of this server, handled one at a time in arrival
+         * order on the shared message pool.
+         */
+        private final EventQueue<Runnable> inbound = new EventQueue<>(messageExecutor, Runnable::run,
+                INBOUND_CAPACITY, OverflowPolicy.REJECT, null);
 
         @Getter
         private final Backend backend = new Backend();
         @Getter
         private final Server server = new Server();
-        public final Instant createdAt = Instant.now();
+        public final Instant createdAt = clock.instant();
 
         private volatile ClientState state = ClientState.CONNECTING;
         private volatile Instant terminatedAt = null;
@@ -151,6 +277,8 @@ public class GatewayService {
         public GatewayClient(UUID id) {
             this.id = id;
 
+            armHeartbeat(HEARTBEAT_TIMEOUT_DURATION);
+
             this.registerMessageHandler("get-total-player", Void.class, (_res) -> 0L);
             this.registerMessageHandler("login", LoginRequestDto.class, body -> backend.login(id, body));
             this.registerMessageHandler("host", UUID.class, serverId -> backend.host(serverId));
@@ -175,22 +303,28 @@ public class GatewayService {
             });
         }
 
-        public synchronized void onOpen(WsConnectContext context) {
+        public synchronized void onOpen(WsConnectContext context, GatewaySession session) {
             if (this.context.isDone()) {
                 this.context = CompletableFuture.completedFuture(context);
             }
 
+            this.session = session;
             state = ClientState.CONNECTED;
-            lastHeartBeatAt = Instant.now();
+            lastHeartBeatAt = clock.instant();
             eventBus.emit(new StartEvent(id));
             this.context.complete(context);
             Log.info("Gateway client connected: " + id);
         }
 
         public synchronized void onClose(WsCloseContext context) {
-            eventBus.emit(new StopEvent(id, NodeRemoveReason.SOCKET_DISCONNECT));
+            // The socket of a paused server times out, but the pause event already told the backend.
+            if (!nodeManager.isPaused(id)) {
+                eventBus.emit(new StopEvent(id, NodeRemoveReason.SOCKET_DISCONNECT));
+            }
+
             this.context.completeExceptionally(new RuntimeException("Disconnected"));
             this.context = new CompletableFuture<WsContext>();
+            this.session = null;
             state = ClientState.DISCONNECTED;
 
             Log.info("Gateway client disconnected: " + id);
@@ -200,15 +334,25 @@ public class GatewayService {
             return terminatedAt != null;
         }
 
+        /** Counts as a heartbeat, for a server that cannot send one itself. */
+        public void keepAlive() {
+            lastHeartBeatAt = clock.instant();
+        }
+
         public boolean shouldTerminate() {
-            return !isTerminated() && Instant.now().isAfter(lastHeartBeatAt.plus(TERMINATE_CONNECTION_AFTER));
+            return !isTerminated() && clock.instant().isAfter(lastHeartBeatAt.plus(TERMINATE_CONNECTION_AFTER));
         }
 
         public boolean terminate(NodeRemoveReason reason) {
             if (isTerminated()) {
                 return false;
             }
-            terminatedAt = Instant.now();
+            terminatedAt = clock.instant();
+
+            var heartbeat = heartbeatTimeout;
+            if (heartbeat != null) {
+                heartbeat.cancel();
+            }
 
             try {
                 WsContext socket = context.getNow(null);
@@ -244,48 +388,175 @@ public class GatewayService {
             return true;
         }
 
+        /**
+         * Messages only record when they arrived; the deadline re-arms itself
+         * for the remaining time instead of being rescheduled on every message.
+         */
+        private void armHeartbeat(Duration delay) {
+            if (!isTerminated()) {
+                heartbeatTimeout = timer.schedule(() -> scheduler.execute(this::onHeartbeatDeadline), delay);
+            }
+        }
+
+        private void onHeartbeatDeadline() {
+            Duration silent = Duration.between(lastHeartBeatAt, clock.instant());
+
+            if (silent.compareTo(HEARTBEAT_TIMEOUT_DURATION) < 0) {
+                armHeartbeat(HEARTBEAT_TIMEOUT_DURATION.minus(silent));
+                return;
+            }
+
+            try {
+                checkHeartbeat();
+            } catch (Exception e) {
+                Log.err("Error checking heartbeat", e);
+            }
+
+            armHeartbeat(HEARTBEAT_RECHECK_INTERVAL);
+        }
+
         public void checkHeartbeat() {
-            if (Instant.now().isAfter(lastHeartBeatAt.plus(HEARTBEAT_TIMEOUT_DURATION)) && nodeManager.isRunning(id)) {
+            if (clock.instant().isAfter(lastHeartBeatAt.plus(HEARTBEAT_TIMEOUT_DURATION)) && nodeManager.isRunning(id)) {
                 eventBus.emit(LogEvent.error(id, "Heartbeat timeout"));
                 Log.err("Client heartbeat timeout: " + id);
             }
         }
 
-        public void onMessage(WsMessageContext context) {
-            JsonNode json = context.messageAsClass(JsonNode.class);
-            JsonNode payload = json.get("payload");
-            WsMessage<?> wsMessage = context.messageAsClass(WsMessage.class);
+        /**
+         * The token is only verified when the socket opens, so an expired session is
+         * closed here instead. The plugin reconnects and gets a fresh token from the
+         * handshake.
+         */
+        public void checkSession() {
+            GatewaySession current = session;
+
+            if (current == null || !current.isExpired(clock.instant()) || context.isCompletedExceptionally()) {
+                return;
+            }
+
+            WsContext socket = context.getNow(null);
+
+            if (socket != null && socket.session.isOpen()) {
+                Log.warn("Gateway session expired, closing: " + id);
+                socket.closeSession(WsCloseStatus.POLICY_VIOLATION, "Token expired");
+            }
+        }
+
+        /**
+         * Handles a message from the socket. Replies to our own requests are
+         * completed right away, the socket already delivers them in order.
+         * Everything else is queued and handled in order; when the server has
+         * {@code INBOUND_CAPACITY} unhandled messages, new ones are rejected
+         * with an error instead of piling up.
+         */
+        public void receive(WsMessageContext context) {
+            lastHeartBeatAt = clock.instant();
+
+            WsEnvelope wsMessage;
 
-            lastHeartBeatAt = Instant.now();
+            try {
+                wsMessage = Utils.readWsMessage(context.message());
+            } catch (Exception e) {
+                Log.err("Invalid message from " + id, e);
+                return;
+            }
 
             if (wsMessage.getResponseOf() != null) {
-                CompletableFuture<JsonNode> future = pendingRequests.remove(wsMessage.getResponseOf());
-                if (future == null) {
-                    Log.warn("No future found for responseOf: @", wsMessage.getResponseOf());
-                    return;
-                }
-                if (wsMessage.isError()) {
-                    Log.err("Error message: " + wsMessage);
-                    future.completeExceptionally(new RuntimeException(String.valueOf(payload)));
-                } else {
-                    future.complete(payload);
+                complete(wsMessage);
+                return;
+            }
+
+            boolean queued = inbound.offer(() -> {
+                try {
+                    onMessage(context, wsMessage);
+                } catch (Exception e) {
+                    Log.err("Error on message", e);
                 }
+            });
+
+            if (!queued && messageHandlers.containsKey(wsMessage.getType())) {
+                context.send(wsMessage.error("Gateway is busy"));
+            }
+        }
+
+        /**
+         * Completes a binary frame, which is always the response to a request
+         * of ours.
+         */
+        public void receiveBinary(WsBinaryMessageContext context) {
+            lastHeartBeatAt = clock.instant();
+
+            WsEnvelope wsMessage;
+
+            try {
+                wsMessage = Utils.readWsBinaryMessage(context.data(), context.offset(), context.length());
+            } catch (Exception e) {
+                Log.err("Invalid binary message from " + id, e);
                 return;
             }
 
+            complete(wsMessage);
+        }
+
+        /**
+         * Runs the handler of a message on the server's queue. A handler that
+         * waits on something, like the backend, returns a future instead, and
+         * is answered when that completes so the queue moves on.
+         */
+        private void onMessage(WsMessageContext context, WsEnvelope wsMessage) {
             MessageHandler<Object, Object> handler = messageHandlers.get(wsMessage.getType());
 
-            if (handler != null) {
-                try {
-                    Object param = Utils.readJsonAsClass(payload, handler.getClazz());
-                    Object result = handler.getFn().apply(param);
-                    WsMessage<?> response = wsMessage.response(result);
-                    context.send(response);
-                } catch (Exception e) {
-                    Log.err("Error handling message: " + wsMessage, e);
-                    WsMessage<?> error = wsMessage.error(e.getMessage());
-                    context.send(error);
+            if (handler == null) {
+                return;
+            }
+
+            Object result;
+
+            try {
+                result = handler.getFn().apply(wsMessage.payloadAs(handler.getClazz()));
+            } catch (Exception e) {
+                reply(context, wsMessage, null, e);
+                return;
+            }
+
+            if (result instanceof CompletableFuture<?> future) {
+                future.whenComplete((value, error) -> reply(context, wsMessage, value, error));
+            } else {
+                reply(context, wsMessage, result, null);
+            }
+        }
+
+        private void reply(WsMessageContext context, WsEnvelope wsMessage, Object result, Throwable error) {
+            try {
+                if (error == null) {
+                    context.send(wsMessage.response(result));
+                    return;
                 }
+
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause()
+                        : error;
+
+                Log.err("Error handling message: " + wsMessage, cause);
+                context.send(wsMessage.error(cause.getMessage()));
+            } catch (Exception e) {
+                Log.err("Can not reply to message: " + wsMessage, e);
+            }
+        }
+
+        private void complete(WsEnvelope response) {
+            CompletableFuture<WsEnvelope> future = pendingRequests.remove(response.getResponseOf());
+
+            if (future == null) {
+                Log.warn("No future found for responseOf: @", response.getResponseOf());
+                return;
+            }
+
+            if (response.isError()) {
+                Log.err("Error message: " + response);
+                future.completeExceptionally(new RuntimeException(response.payloadAsString()));
+            } else {
+                future.complete(response);
             }
         }
 
@@ -318,64 +589,87 @@ public class GatewayService {
                 }
             }
 
-            public LoginDto login(UUID id, LoginRequestDto body) {
-                try {
-                    HttpRequest request = createRequest("servers", id, "login")
-                            .POST(HttpRequest.BodyPublishers.ofString(Utils.toJsonString(body)))
-                            .header("Content-Type", "application/json")
-                            .build();
+            public CompletableFuture<LoginDto> login(UUID id, LoginRequestDto body) {
+                HttpRequest request = createRequest("servers", id, "login")
+                        .POST(HttpRequest.BodyPublishers.ofString(Utils.toJsonString(body)))
+                        .header("Content-Type", "application/json")
+                        .timeout(LOGIN_TIMEOUT)
+                        .build();
 
-                    HttpResponse<String> result = httpClient.send(request, BodyHandlers.ofString());
+                return send(request, "Failed to login server")
+                        .thenApply(result -> Utils.readJsonAsClass(result, LoginDto.class));
+            }
 
-                    if (result.statusCode() >= 400) {
-                        throw new ApiError(result.statusCode(), "Failed to login server: " + result.body());
-                    }
+            public CompletableFuture<String> host(UUID id) {
+                HttpRequest request = createRequest("servers", id, "host-server")
+                        .POST(HttpRequest.BodyPublishers.noBody())
+                        .header("Content-Type", "application/json")
+                        .timeout(HOST_TIMEOUT)
+                        .build();
 
-                    return Utils.readJsonAsClass(result.body(), LoginDto.class);
-                } catch (Exception e) {
-                    if (e instanceof ApiError apiError) {
-                        throw apiError;
-                    }
-                    throw new ApiError(500, "Internal server error", e);
-                }
+                return send(request, "Failed to host server");
             }
 
-            public String host(UUID id) {
-                try {
-                    HttpRequest request = createRequest("servers", id, "host-server")
-                            .POST(HttpRequest.BodyPublishers.noBody())
-                            .header("Content-Type", "application/json")
-                            .timeout(Duration.ofMinutes(2))
-                            .build();
-
-                    HttpResponse<String> result = httpClient.send(request, BodyHandlers.ofString());
+            /** The body of a backend call, without holding a thread while it runs. */
+            private CompletableFuture<String> send(HttpRequest request, String failure) {
+                return httpClient.sendAsync(request, BodyHandlers.ofString())
+                        .handle((result, error) -> {
+                            if (error != null) {
+                                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                                        ? error.getCause()
+                                        : error;
+                                throw new ApiError(500, "Internal server error", cause);
+                            }
 
-                    if (result.statusCode() >= 400) {
-                        throw new ApiError(result.statusCode(), "Failed to host server: " + result.body());
-                    }
+                            if (result.statusCode() >= 400) {
+                                throw new ApiError(result.statusCode(), failure + ": " + result.body());
+                            }
 
-                    return result.body();
-                } catch (Exception e) {
-                    if (e instanceof ApiError apiError) {
-                        throw apiError;
-                    }
-                    throw new ApiError(500, "Internal server error", e);
-                }
+                            return result.body();
+                        });
             }
         }
 
         public class Server {
             private <R> CompletableFuture<R> sendRequest(String type, Object payload, Class<R> clazz) {
+                return sendRequest(type, payload, Utils.getObjectMapper().getTypeFactory().constructType(clazz));
+            }
+
+            private <R> CompletableFuture<R> sendRequest(String type, Object payload, JavaType responseType) {
+                // Each caller decodes its own copy, so shared responses are never mutated by another caller.
+                return request(type, payload).thenApply(r -> r.payloadAs(responseType));
+            }
+
+            /** A request the plugin answers with a binary frame instead of json. */
+            private CompletableFuture<byte[]> sendBinaryRequest(String type, Object payload) {
+                return request(type, payload).thenApply(WsEnvelope::payloadAsBytes);
+            }
+
+            private CompletableFuture<WsEnvelope> request(String type, Object payload) {
+                Duration ttl = COALESCED_REQUESTS.get(type);
+
+                return ttl == null
+                        ? send(type, payload)
+                        : coalescer.execute(new RequestKey(type, Utils.toJsonString(payload)), ttl,
+                                () -> send(type, payload));
+            }
+
+            private CompletableFuture<WsEnvelope> send(String type, Object payload) {
                 WsMessage<?> request = WsMessage.create(type).withPayload(payload);
 
-                CompletableFuture<JsonNode> future = new CompletableFuture<>();
+                CompletableFuture<WsEnvelope> future = new CompletableFuture<>();
                 pendingRequests.put(request.getId(), future);
 
-                future.orTimeout(1, TimeUnit.MINUTES);
-                future.whenComplete((_res, _err) -> pendingRequests.remove(request.getId()));
+                var timeout = timer.schedule(
+                        () -> future.completeExceptionally(new TimeoutException("Request timed out: " + type)),
+                        REQUEST_TIMEOUT);
 
-                context
-                        .orTimeout(1, TimeUnit.MINUTES)
+                future.whenComplete((_res, _err) -> {
+                    pendingRequests.remove(request.getId());
+                    timeout.cancel();
+                });
+
+                connectedContext()
                         .thenCompose(socket -> {
                             try {
                                 socket.send(request);
@@ -387,14 +681,40 @@ public class GatewayService {
                         .whenComplete((res, err) -> {
                             if (err != null) {
                                 pendingRequests.remove(request.getId());
-                                Throwable exception = err instanceof TimeoutException
-                                        ? new ApiError(503, "Gateway timeout", err)
+                                Throwable cause = err instanceof CompletionException && err.getCause() != null
+                                        ? err.getCause()
                                         : err;
+                                Throwable exception = cause instanceof TimeoutException
+                                        ? new ApiError(503, "Gateway timeout", cause)
+                                        : cause;
                                 future.completeExceptionally(exception);
                             }
                         });
 
-                return future.thenApply(r -> Utils.readJsonAsClass(r, clazz));
+                return future;
+            }
+
+            /**
+             * The socket future, failed after {@code REQUEST_TIMEOUT} if the
+             * server does not connect. One timeout per connection attempt
+             * instead of one per request.
+             */
+            private CompletableFuture<WsContext> connectedContext() {
+                synchronized (GatewayClient.this) {
+                    CompletableFuture<WsContext> current = context;
+
+                    if (!current.isDone() && timedContext != current) {
+                        timedContext = current;
+
+                        var timeout = timer.schedule(
+                                () -> current.completeExceptionally(new TimeoutException("Gateway not connected: " + id)),
+                                REQUEST_TIMEOUT);
+
+                        current.whenComplete((_socket, _err) -> timeout.cancel());
+                    }
+
+                    return current;
+                }
             }
 
             private CompletableFuture<Void> sendRequest(String type, Object payload) {
@@ -421,17 +741,12 @@ public class GatewayService {
                 return sendRequest("get-state", null, ServerStateDto.class);
             }
 
+            /**
+             * PNG of the running map, sent back over the socket. An empty
+             * array when no map is loaded.
+             */
             public CompletableFuture<byte[]> getImage() {
-                return sendRequest("generate-map-image", null)
-                        .thenApply(res -> {
-                            Fi file = nodeManager.getFile(id, "map-preview-image.png");
-
-                            if (!file.exists()) {
-                                return new byte[0];
-                            }
-
-                            return file.readBytes();
-                        });
+                return sendBinaryRequest("get-map-image", null);
             }
 
             public CompletableFuture<Void> sendCommand(String... command) {
@@ -459,13 +774,7 @@ public class GatewayService {
             }
 
             public CompletableFuture<List<ServerCommandDto>> getCommands() {
-                return sendRequest("get-commands", null, JsonNode.class).thenApply(n -> {
-                    try {
-                        return Utils.getObjectMapper().readerForListOf(ServerCommandDto.class).readValue(n);
-                    } catch (Exception e) {
-                        throw new RuntimeException(e);
-                    }
-                });
+                return sendRequest("get-commands", null, listOf(ServerCommandDto.class));
             }
 
             public CompletableFuture<List<PlayerInfoDto>> getPlayersInfo(int page, int size,
@@ -485,20 +794,18 @@ public class GatewayService {
                     payload.put("filter", filter);
                 }
 
-                return sendRequest("get-players-info", payload, JsonNode.class).thenApply(n -> {
-                    try {
-                        return Utils.getObjectMapper().readerForListOf(PlayerInfoDto.class).readValue(n);
-                    } catch (Exception e) {
-                        throw new RuntimeException(e);
-                    }
-                });
+                return sendRequest("get-players-info", payload, listOf(PlayerInfoDto.class));
             }
 
             public CompletableFuture<Map<String, Long>> getKickedIps() {
-                return sendRequest("get-kicked-ips", null)
-                        .thenApply(n -> Utils.getObjectMapper().convertValue(n, new TypeReference<>() {
+                return sendRequest("get-kicked-ips", null, Utils.getObjectMapper().getTypeFactory()
+                        .constructType(new TypeReference<Map<String, Long>>() {
                         }));
             }
+
+            private JavaType listOf(Class<?> clazz) {
+                return Utils.getObjectMapper().getTypeFactory().constructCollectionType(List.class, clazz);
+            }
         }
     }
 }
@@ -0,0 +1,61 @@
+package server.service;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Time to playable: from a host request to the server reporting it is
+ * hosting. Servers started on a standby container and servers started cold
+ * are kept apart, each over its last {@value #WINDOW} starts.
+ */
+public class HostTimings {
+
+    public record Summary(long count, long lastMillis, long p50Millis, long p95Millis, long maxMillis) {
+    }
+
+    private static final int WINDOW = 100;
+
+    private final Window warm = new Window();
+    private final Window cold = new Window();
+
+    public void record(Duration timeToPlayable, boolean standby) {
+        (standby ? warm : cold).record(timeToPlayable.toMillis());
+    }
+
+    public Map<String, Summary> summary() {
+        var result = new LinkedHashMap<String, Summary>();
+        result.put("standby", warm.summary());
+        result.put("cold", cold.summary());
+        return result;
+    }
+
+    private static final class Window {
+        private final long[] millis = new long[WINDOW];
+        private long count;
+
+        synchronized void record(long value) {
+            millis[(int) (count % WINDOW)] = value;
+            count++;
+        }
+
+        synchronized Summary summary() {
+            if (count == 0) {
+                return new Summary(0, 0, 0, 0, 0);
+            }
+
+            int size = (int) Math.min(count, WINDOW);
+            long last = millis[(int) ((count - 1) % WINDOW)];
+            long[] sorted = Arrays.copyOf(millis, size);
+            Arrays.sort(sorted);
+
+            return new Summary(count, last, percentile(sorted, 50), percentile(sorted, 95), sorted[size - 1]);
+        }
+
+        private static long percentile(long[] sorted, int percent) {
+            int index = (int) Math.ceil(percent / 100.0 * sorted.length) - 1;
+            return sorted[Math.max(0, index)];
+        }
+    }
+}
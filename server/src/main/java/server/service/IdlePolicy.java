@@ -0,0 +1,63 @@
+package server.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decides what happens to servers without players: after {@code pauseAfter}
+ * without players a running server is paused, and after {@code removeAfter}
+ * paused it is removed. Both clocks start at the first check that sees the
+ * server in that state, so a manager restart only ever delays a step.
+ */
+public class IdlePolicy {
+
+    public enum Action {
+        KEEP, PAUSE, REMOVE
+    }
+
+    private final Duration pauseAfter;
+    private final Duration removeAfter;
+
+    private final Map<UUID, Instant> idleSince = new ConcurrentHashMap<>();
+    private final Map<UUID, Instant> pausedSince = new ConcurrentHashMap<>();
+
+    public IdlePolicy(Duration pauseAfter, Duration removeAfter) {
+        this.pauseAfter = pauseAfter;
+        this.removeAfter = removeAfter;
+    }
+
+    public Action running(UUID serverId, boolean hasPlayers, Instant now) {
+        pausedSince.remove(serverId);
+
+        if (hasPlayers) {
+            idleSince.remove(serverId);
+            return Action.KEEP;
+        }
+
+        Instant since = idleSince.computeIfAbsent(serverId, id -> now);
+
+        return now.isBefore(since.plus(pauseAfter)) ? Action.KEEP : Action.PAUSE;
+    }
+
+    public Action paused(UUID serverId, Instant now) {
+        idleSince.remove(serverId);
+
+        Instant since = pausedSince.computeIfAbsent(serverId, id -> now);
+
+        return now.isBefore(since.plus(removeAfter)) ? Action.KEEP : Action.REMOVE;
+    }
+
+    public void resumed(UUID serverId) {
+        idleSince.remove(serverId);
+        pausedSince.remove(serverId);
+    }
+
+    public void retain(Set<UUID> serverIds) {
+        idleSince.keySet().retainAll(serverIds);
+        pausedSince.keySet().retainAll(serverIds);
+    }
+}
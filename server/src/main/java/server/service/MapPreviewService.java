@@ -0,0 +1,140 @@
+package server.service;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import arc.files.Fi;
+import server.utils.ApiError;
+import server.utils.MapRenderer;
+import server.utils.Utils;
+
+/**
+ * Map preview images rendered in process, without the remote api. Renders
+ * run on a small bounded pool, callers asking for the same map content at
+ * once share one render, and finished previews are cached by content hash,
+ * so a map copied between servers or uploaded again is not drawn twice.
+ */
+public class MapPreviewService implements AutoCloseable {
+
+    private static final int RENDER_THREADS = 2;
+    private static final int QUEUE_CAPACITY = 64;
+    private static final long CACHE_MAX_BYTES = 32L * 1024 * 1024;
+
+    private final Function<Fi, BufferedImage> renderer;
+    private final ThreadPoolExecutor executor;
+    private final RequestCoalescer<String> inFlight = new RequestCoalescer<>();
+    private final AtomicInteger renderCount = new AtomicInteger();
+
+    private final Cache<String, byte[]> previews = Caffeine.newBuilder()
+            .maximumWeight(CACHE_MAX_BYTES)
+            .weigher((String hash, byte[] png) -> png.length)
+            .build();
+
+    public MapPreviewService() {
+        this(MapRenderer::render, RENDER_THREADS, QUEUE_CAPACITY);
+    }
+
+    MapPreviewService(Function<Fi, BufferedImage> renderer, int threads, int queueCapacity) {
+        this.renderer = renderer;
+
+        AtomicInteger count = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "map-preview-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * PNG preview of {@code mapFile}, scaled down like the previews the
+     * dashboard lists.
+     *
+     * @return a future failing with {@link ApiError} 503 when too many
+     *         renders are already queued
+     */
+    public CompletableFuture<byte[]> preview(Fi mapFile) {
+        String hash;
+
+        try {
+            hash = hash(mapFile);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(new ApiError(404, "Can not read map: " + mapFile.name(), e));
+        }
+
+        byte[] cached = previews.getIfPresent(hash);
+
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        return inFlight.execute(hash, Duration.ZERO, () -> {
+            try {
+                return CompletableFuture.supplyAsync(() -> render(hash, mapFile), executor);
+            } catch (RejectedExecutionException e) {
+                throw new ApiError(503, "Too many map previews in progress");
+            }
+        });
+    }
+
+    public int renderCount() {
+        return renderCount.get();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private byte[] render(String hash, Fi mapFile) {
+        // Another caller may have finished the same content while this one was queued.
+        byte[] cached = previews.getIfPresent(hash);
+
+        if (cached != null) {
+            return cached;
+        }
+
+        renderCount.incrementAndGet();
+
+        byte[] png = Utils.toByteArray(Utils.toPreviewImage(renderer.apply(mapFile)));
+        previews.put(hash, png);
+        return png;
+    }
+
+    static String hash(Fi file) throws IOException {
+        try (InputStream input = file.read()) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+
+            while ((read = input.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest()) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        } catch (RuntimeException e) {
+            // Fi wraps a missing file in an ArcRuntimeException.
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package server.service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Lets concurrent callers of an identical request share one in-flight
+ * future instead of each making its own round trip. A successful result can
+ * additionally be reused for a short time; failures are never reused.
+ */
+public class RequestCoalescer<K> {
+
+    private static final class Slot {
+        private final CompletableFuture<Object> future = new CompletableFuture<>();
+
+        /** Nano time after which a completed result is no longer reused. */
+        private volatile long expiresAt = Long.MAX_VALUE;
+
+        private boolean reusable(long now) {
+            return !future.isDone() || (!future.isCompletedExceptionally() && now < expiresAt);
+        }
+    }
+
+    private final Map<K, Slot> slots = new ConcurrentHashMap<>();
+    private final LongSupplier nanoClock;
+
+    public RequestCoalescer() {
+        this(System::nanoTime);
+    }
+
+    RequestCoalescer(LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Joins the in-flight or still cached request for {@code key}, or starts
+     * one with {@code request}. Every caller gets its own copy of the future,
+     * so completing or cancelling it does not affect the others.
+     *
+     * @param ttl how long a successful result keeps being handed out after it
+     *            arrived; {@link Duration#ZERO} only shares in-flight requests
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> execute(K key, Duration ttl, Supplier<CompletableFuture<T>> request) {
+        long now = nanoClock.getAsLong();
+        Slot created = new Slot();
+        Slot slot = slots.compute(key, (k, existing) -> existing != null && existing.reusable(now) ? existing : created);
+
+        if (slot == created) {
+            sweep(now);
+            start(key, slot, ttl, request);
+        }
+
+        return (CompletableFuture<T>) slot.future.copy();
+    }
+
+    public int size() {
+        return slots.size();
+    }
+
+    private <T> void start(K key, Slot slot, Duration ttl, Supplier<CompletableFuture<T>> request) {
+        CompletableFuture<T> result;
+
+        try {
+            result = request.get();
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+
+        result.whenComplete((value, error) -> {
+            if (error != null || ttl.isZero() || ttl.isNegative()) {
+                slots.remove(key, slot);
+            } else {
+                slot.expiresAt = nanoClock.getAsLong() + ttl.toNanos();
+            }
+
+            if (error != null) {
+                slot.future.completeExceptionally(error);
+            } else {
+                slot.future.complete(value);
+            }
+        });
+    }
+
+    private void sweep(long now) {
+        slots.values().removeIf(slot -> !slot.reusable(now));
+    }
+}
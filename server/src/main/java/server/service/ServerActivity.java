@@ -0,0 +1,73 @@
+package server.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Optional;
+import java.util.UUID;
+
+import arc.files.Fi;
+import arc.util.Log;
+
+/**
+ * When each server was last in use, kept in a file next to its config
+ * folder so it survives manager restarts and is out of the container's
+ * reach. The manager stamps it when a server starts, stops, pauses or
+ * resumes, and on every check that finds the server up.
+ */
+public class ServerActivity {
+
+    static final String LAST_ACTIVE_FILE = "last-active";
+
+    private final Fi serverFolder;
+
+    public ServerActivity(Fi serverFolder) {
+        this.serverFolder = serverFolder;
+    }
+
+    public void touch(UUID serverId, Instant now) {
+        Fi folder = serverFolder.child(serverId.toString());
+
+        // A removed server must not come back as a folder with only this file in it.
+        if (!folder.exists()) {
+            return;
+        }
+
+        try {
+            folder.child(LAST_ACTIVE_FILE).writeString(now.toString());
+        } catch (Exception e) {
+            Log.err("Can not write last active time of server " + serverId, e);
+        }
+    }
+
+    public Optional<Instant> lastActive(UUID serverId) {
+        Fi file = serverFolder.child(serverId.toString()).child(LAST_ACTIVE_FILE);
+
+        if (!file.exists()) {
+            return Optional.empty();
+        }
+
+        try {
+            return Optional.of(Instant.parse(file.readString().trim()));
+        } catch (DateTimeParseException e) {
+            Log.warn("Invalid last active time of server @: @", serverId, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Whether the server has not been in use for {@code removeAfter}. A server
+     * without a usable record is stamped now instead, so servers from before
+     * the record existed get the full period.
+     */
+    public boolean isExpired(UUID serverId, Duration removeAfter, Instant now) {
+        var lastActive = lastActive(serverId);
+
+        if (lastActive.isEmpty()) {
+            touch(serverId, now);
+            return false;
+        }
+
+        return lastActive.get().plus(removeAfter).isBefore(now);
+    }
+}
@@ -1,29 +1,21 @@
 package server.service;
 
 import java.io.Closeable;
-import java.io.File;
-import java.nio.file.Files;
+import java.io.InputStream;
 import java.time.Duration;
 import java.time.Instant;
-import java.time.LocalDateTime;
-import java.time.ZoneOffset;
-import java.util.ArrayList;
-import java.util.EnumSet;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
-import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
-
-import com.github.benmanes.caffeine.cache.Caffeine;
-import com.github.benmanes.caffeine.cache.LoadingCache;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import arc.files.Fi;
 import arc.util.Log;
@@ -38,6 +30,11 @@ import dto.ServerStatus;
 import dto.StartServerDto;
 import events.BaseEvent;
 import events.ServerEvents.LogEvent;
+import events.ServerEvents.PauseEvent;
+import events.ServerEvents.ResumeEvent;
+import events.ServerEvents.ServerStateEvent;
+import events.ServerEvents.StartEvent;
+import events.ServerEvents.StopEvent;
 import enums.NodeRemoveReason;
 import server.types.data.NodeUsage;
 import server.types.data.ServerMisMatch;
@@ -60,17 +57,32 @@ public class ServerService {
     private final EnvConfig envConfig;
 
     private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
-    private final ConcurrentHashMap<UUID, EnumSet<ServerFlag>> serverFlags = new ConcurrentHashMap<>();
-    private final List<Consumer<BaseEvent>> eventListeners = new LinkedList<>();
-    private final ArrayList<BaseEvent> buffer = new ArrayList<>();
-
-    private final LoadingCache<String, ReentrantLock> locks = Caffeine.newBuilder()
-            .expireAfterAccess(Duration.ofMinutes(10))
-            .build(key -> new ReentrantLock());
-
-    private enum ServerFlag {
-        KILL, NOT_RESPONSE, RESTART
-    }
+    private final Map<Consumer<EventHistory.Entry>, EventQueue<EventHistory.Entry>> eventListeners = new ConcurrentHashMap<>();
+    private final EventHistory history = new EventHistory(EVENT_HISTORY_SIZE);
+    private final ServerStateCache stateCache = new ServerStateCache();
+    private final MapPreviewService mapPreviews = new MapPreviewService();
+    private final HostTimings hostTimings = new HostTimings();
+    private final IdlePolicy idlePolicy;
+    private final ServerActivity activity = new ServerActivity(Const.serverFolder);
+
+    /** Sequence of the newest event handed to a connected listener. Guarded by {@link #history}. */
+    private long deliveredSequence;
+
+    /** Host requests still waiting for their server, so a repeated request joins instead of starting again. */
+    private final Map<UUID, CompletableFuture<Void>> hosting = new ConcurrentHashMap<>();
+
+    private static final int EVENT_HISTORY_SIZE = 1000;
+    private static final int EVENT_LISTENER_CAPACITY = 4096;
+    private static final int USAGE_LISTENER_CAPACITY = 64;
+    private static final int STATE_TIMEOUT_SECONDS = 2;
+    private static final Duration IMAGE_TIMEOUT = Duration.ofSeconds(60);
+    private static final Duration REMOVE_OLD_SERVER_AFTER = Duration.ofDays(30);
+    private static final Duration GATEWAY_CONNECT_TIMEOUT = Duration.ofMinutes(2);
+    private static final Duration HOST_STATUS_TIMEOUT = Duration.ofMinutes(2);
+    private static final Duration HOST_POLL_INTERVAL = Duration.ofSeconds(1);
+
+    /** Upper bound of the {@link #host} steps together, for callers that wait on it. */
+    public static final Duration HOST_TIMEOUT = Duration.ofMinutes(5);
 
     public ServerService(GatewayService gatewayService, NodeManager nodeManager, EventBus eventBus,
             ApiService apiService, WsHandler wsHandler, EnvConfig envConfig) {
@@ -80,45 +92,50 @@ public class ServerService {
         this.apiService = apiService;
         this.wsHandler = wsHandler;
         this.envConfig = envConfig;
+        this.idlePolicy = new IdlePolicy(envConfig.serverConfig().idlePauseAfter(),
+                envConfig.serverConfig().idleRemoveAfter());
 
         init();
     }
 
     private void init() {
-        eventBus.on(event -> {
-            synchronized (buffer) {
-                if (eventListeners.isEmpty()) {
-                    buffer.add(event);
-                    if (buffer.size() > 1000) {
-                        buffer.remove(0);
-                    }
-                } else {
-                    eventListeners.forEach(listener -> listener.accept(event));
+        // Inline so every event gets its sequence in emit order and none slips past a connecting listener.
+        eventBus.onInline(event -> {
+            synchronized (history) {
+                EventHistory.Entry entry = history.append(event);
+
+                if (!eventListeners.isEmpty()) {
+                    deliveredSequence = entry.sequence();
+                    eventListeners.values().forEach(queue -> queue.offer(entry));
                 }
             }
         });
 
-        scheduler.scheduleWithFixedDelay(this::autoTurnOffCron, 5, 10, TimeUnit.MINUTES);
+        eventBus.onInline(this::updateStateCache);
+        eventBus.on(this::updateActivity);
+
+        scheduler.scheduleWithFixedDelay(this::autoTurnOffCron, 5, 1, TimeUnit.MINUTES);
         scheduler.scheduleWithFixedDelay(this::requestBackendConnection, 30, 30, TimeUnit.SECONDS);
         scheduler.scheduleWithFixedDelay(this::removeOldServer, 0, 24, TimeUnit.HOURS);
     }
 
     private void removeOldServer() {
-        int removeAfterDays = 30;
+        Instant now = Instant.now();
 
         for (Fi file : Const.serverFolder.list()) {
             if (file.isDirectory()) {
                 String serverId = file.name();
                 try {
-                    File previewFile = nodeManager.getFile(UUID.fromString(serverId), "map-preview-image.png").file();
+                    UUID id = UUID.fromString(serverId);
 
-                    Instant lastModifiedTime = previewFile.exists() ? Files.getLastModifiedTime(previewFile.toPath()).toInstant()
-                            : LocalDateTime.of(2026, 1, 1, 0, 0).toInstant(ZoneOffset.UTC);
-
-                    Instant canBeDeletedAt = lastModifiedTime.plus(Duration.ofDays(removeAfterDays));
+                    // Paused servers are not running but still in use.
+                    if (nodeManager.isRunning(id) || nodeManager.isPaused(id)) {
+                        activity.touch(id, now);
+                        continue;
+                    }
 
-                    if (canBeDeletedAt.isBefore(Instant.now())) {
-                        remove(UUID.fromString(serverId), NodeRemoveReason.OLD);
+                    if (activity.isExpired(id, REMOVE_OLD_SERVER_AFTER, now)) {
+                        remove(id, NodeRemoveReason.OLD);
                         file.deleteDirectory();
                         Log.info("Remove old server " + serverId);
                     }
@@ -135,18 +152,46 @@ public class ServerService {
         }
     }
 
-    public void addEventListener(Consumer<BaseEvent> listener) {
-        synchronized (buffer) {
-            ArrayList<BaseEvent> copy = new ArrayList<>(buffer);
-            buffer.clear();
-            copy.forEach(listener::accept);
-            eventListeners.add(listener);
+    /**
+     * Delivers missed and future events to {@code listener} on its own queue.
+     * With {@code lastEventId} only events after that sequence are replayed;
+     * without one (or with one from before a restart) the listener gets the
+     * events no listener has received yet. {@code onOverflow} runs when the
+     * listener falls more than {@value #EVENT_LISTENER_CAPACITY} events
+     * behind; the listener is already removed at that point.
+     */
+    public void addEventListener(Consumer<EventHistory.Entry> listener, Long lastEventId, Runnable onOverflow) {
+        synchronized (history) {
+            EventQueue<EventHistory.Entry> queue = eventBus
+                    .newQueue(listener, EVENT_LISTENER_CAPACITY, EventBus.OverflowPolicy.DISCONNECT)
+                    .onDisconnect(() -> {
+                        eventListeners.remove(listener);
+                        onOverflow.run();
+                    });
+
+            long after = deliveredSequence;
+
+            if (lastEventId != null && lastEventId <= history.lastSequence()) {
+                after = lastEventId;
+
+                if (!history.isRetained(after)) {
+                    Log.warn("Event stream resumed from @ but only the last @ events are kept",
+                            lastEventId, history.capacity());
+                }
+            }
+
+            history.since(after).forEach(queue::offer);
+
+            eventListeners.put(listener, queue);
+            deliveredSequence = history.lastSequence();
         }
     }
 
-    public void removeEventListener(Consumer<BaseEvent> listener) {
-        synchronized (buffer) {
-            eventListeners.remove(listener);
+    public void removeEventListener(Consumer<EventHistory.Entry> listener) {
+        EventQueue<EventHistory.Entry> queue = eventListeners.remove(listener);
+
+        if (queue != null) {
+            queue.close();
         }
     }
 
@@ -154,109 +199,199 @@ public class ServerService {
         gatewayService.terminate(serverId, reason);
     }
 
-    public boolean pause(UUID serverId) {
-        try {
-            return gatewayService.of(serverId).server().pause().get(10, TimeUnit.SECONDS);
-        } catch (InterruptedException | ExecutionException | TimeoutException e) {
-            throw new RuntimeException("Can not pause server", e);
+    public CompletableFuture<Boolean> pause(UUID serverId) {
+        return gatewayService.withTimeout(gatewayService.of(serverId).server().pause());
+    }
+
+    /**
+     * Completes once the server reports hosting. Container work runs on
+     * {@link Const#executorService} and the status polling is driven by the
+     * gateway timer, so no thread waits while the server boots. A request for
+     * a server that is already being hosted joins the one in flight.
+     */
+    public CompletableFuture<Void> host(ServerConfig request) {
+        UUID serverId = request.getId();
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        CompletableFuture<Void> running = hosting.putIfAbsent(serverId, result);
+
+        if (running != null) {
+            return running;
         }
+
+        CompletableFuture.supplyAsync(() -> prepareHost(request), Const.executorService)
+                .thenCompose(start -> start == null
+                        ? CompletableFuture.<Void>completedFuture(null)
+                        : startHost(request, start))
+                .whenComplete((ignored, error) -> {
+                    hosting.remove(serverId, result);
+
+                    if (error == null) {
+                        result.complete(null);
+                    } else {
+                        result.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                                ? error.getCause()
+                                : error);
+                    }
+                });
+
+        return result;
     }
 
-    public void host(ServerConfig request) {
-        ReentrantLock lock = locks.get(request.getId().toString());
+    private record HostStart(Instant startedAt, boolean standby) {
+    }
 
-        lock.lock();
+    /**
+     * The blocking container part of {@link #host}: resumes a paused server or
+     * writes the config and creates the container. Null when the server is
+     * already playable.
+     */
+    private HostStart prepareHost(ServerConfig request) {
+        UUID serverId = request.getId();
+
+        // Still loaded and hosting, so it is playable as soon as it is unfrozen.
+        if (nodeManager.unpauseContainer(serverId, "HOST")) {
+            eventBus.emit(LogEvent.info(serverId, "Server resumed"));
+            return null;
+        }
 
-        try {
-            UUID serverId = request.getId();
+        if (gatewayService.isHosting(serverId)) {
+            return null;
+        }
 
-            if (gatewayService.isHosting(serverId)) {
-                return;
-            }
+        Instant startedAt = Instant.now();
 
-            var unusedFiles = List.of("mindustry-tool-plugins", "mods/loader.jar", "WEBSOCKET.txt");
+        var unusedFiles = List.of("mindustry-tool-plugins", "mods/loader.jar", "WEBSOCKET.txt");
 
-            for (String file : unusedFiles) {
-                if (nodeManager.deleteFile(serverId, file)) {
-                    Log.info("Delete old file: " + file);
-                }
+        for (String file : unusedFiles) {
+            if (nodeManager.deleteFile(serverId, file)) {
+                Log.info("Delete old file: " + file);
             }
+        }
 
-            eventBus.emit(LogEvent.info(serverId, "Generate server config file"));
-            String jwt = wsHandler.generateServerJwt(serverId, envConfig.serverConfig().securityKey());
-            ServerConfigDto serverConfig = new ServerConfigDto()
-                    .setJwt(jwt)
-                    .setStartServer(new StartServerDto()
-                            .setHostCommand(request.getHostCommand())
-                            .setMode(request.getMode()));
-            try {
-                nodeManager.writeFile(serverId, "server.json", Utils.objectMapper.writeValueAsBytes(serverConfig));
-            } catch (JsonProcessingException e) {
-                throw new RuntimeException("Failed to serialize server config", e);
-            }
+        eventBus.emit(LogEvent.info(serverId, "Generate server config file"));
+        String jwt = wsHandler.generateServerJwt(serverId, envConfig.serverConfig().securityKey());
+        ServerConfigDto serverConfig = new ServerConfigDto()
+                .setServerId(serverId)
+                .setJwt(jwt)
+                .setStartServer(new StartServerDto()
+                        .setHostCommand(request.getHostCommand())
+                        .setMode(request.getMode()));
+        try {
+            nodeManager.writeFile(serverId, "server.json", Utils.objectMapper.writeValueAsBytes(serverConfig));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize server config", e);
+        }
 
-            nodeManager.create(request);
+        boolean standby = nodeManager.create(request);
 
-            eventBus.emit(LogEvent.info(serverId, "Connecting to gateway"));
-            GatewayClient gatewayClient = gatewayService.of(serverId);
+        return new HostStart(startedAt, standby);
+    }
 
-            try {
-                gatewayClient.server().isHosting().get(120, TimeUnit.SECONDS);
-            } catch (InterruptedException | ExecutionException | TimeoutException e) {
-                throw new ApiError(502, "Can not connect to gateway", e);
-            }
+    private CompletableFuture<Void> startHost(ServerConfig request, HostStart start) {
+        UUID serverId = request.getId();
 
-            eventBus.emit(LogEvent.info(serverId, "Waiting for server to start"));
+        eventBus.emit(LogEvent.info(serverId, "Connecting to gateway"));
+        GatewayClient gatewayClient = gatewayService.of(serverId);
 
-            String gamemode = request.getGamemode();
+        String gamemode = request.getGamemode();
 
-            if (gamemode == null || gamemode.isEmpty()) {
-                gamemode = request.getMode();
-            }
+        if (gamemode == null || gamemode.isEmpty()) {
+            gamemode = request.getMode();
+        }
+
+        String[] preHostCommand = {
+                // A standby loaded its maps before the server's maps were moved in.
+                start.standby() ? "reloadmaps" : "",
+                "config name %s".formatted(request.getName()),
+                request.getDescription().isEmpty() ? "" : "config desc %s".formatted(request.getDescription()),
+                "config port 6567",
+                "gamemode " + gamemode,
+                "version"
+        };
+
+        return gatewayService.withTimeout(gatewayClient.server().isHosting(), GATEWAY_CONNECT_TIMEOUT)
+                .handle((ignored, error) -> {
+                    if (error != null) {
+                        throw new ApiError(502, "Can not connect to gateway", error);
+                    }
 
-            String[] preHostCommand = {
-                    "config name %s".formatted(request.getName()),
-                    request.getDescription().isEmpty() ? "" : "config desc %s".formatted(request.getDescription()),
-                    "config port 6567",
-                    "gamemode " + gamemode,
-                    "version"
-            };
+                    eventBus.emit(LogEvent.info(serverId, "Waiting for server to start"));
+                    return null;
+                })
+                .thenCompose(ignored -> sendHostCommand(request, gatewayClient, preHostCommand))
+                .thenCompose(ignored -> {
+                    CompletableFuture<Void> hosted = new CompletableFuture<>();
+                    pollHosting(request, gatewayClient, start, Instant.now().plus(HOST_STATUS_TIMEOUT), hosted);
+                    return hosted;
+                });
+    }
 
-            try {
-                gatewayClient.server().sendCommand(preHostCommand).get(5, TimeUnit.SECONDS);
+    private CompletableFuture<Void> sendHostCommand(ServerConfig request, GatewayClient gatewayClient,
+            String[] preHostCommand) {
+        UUID serverId = request.getId();
+
+        return gatewayService.withTimeout(gatewayClient.server().sendCommand(preHostCommand), Duration.ofSeconds(5))
+                .thenCompose(ignored -> {
+                    eventBus.emit(LogEvent.info(serverId, "Host server"));
+
+                    return gatewayService.withTimeout(gatewayClient.server()
+                            .host(new StartServerDto()
+                                    .setHostCommand(request.getHostCommand())
+                                    .setMode(request.getMode())),
+                            Duration.ofSeconds(15));
+                })
+                .handle((ignored, error) -> {
+                    if (error != null) {
+                        throw new ApiError(500, "Fail to send host command", error);
+                    }
 
-                eventBus.emit(LogEvent.info(serverId, "Host server"));
+                    eventBus.emit(LogEvent.info(serverId, "Wait for server status"));
+                    return null;
+                });
+    }
 
-                gatewayClient.server()
-                        .host(new StartServerDto()
-                                .setHostCommand(request.getHostCommand())
-                                .setMode(request.getMode()))
-                        .get(15, TimeUnit.SECONDS);
+    /**
+     * Asks the server whether it is hosting, and asks again after
+     * {@link #HOST_POLL_INTERVAL} until it is or {@code deadline} passes.
+     */
+    private void pollHosting(ServerConfig request, GatewayClient gatewayClient, HostStart start, Instant deadline,
+            CompletableFuture<Void> hosted) {
+        UUID serverId = request.getId();
+
+        gatewayService.withTimeout(gatewayClient.server().isHosting(), HOST_POLL_INTERVAL)
+                .whenComplete((isHosting, error) -> {
+                    if (error != null) {
+                        Log.err("Can not check server status", error);
+                    }
 
-                eventBus.emit(LogEvent.info(serverId, "Wait for server status"));
-            } catch (Exception e) {
-                throw new ApiError(500, "Fail to send host command", e);
-            }
+                    if (Boolean.TRUE.equals(isHosting)) {
+                        Duration timeToPlayable = Duration.between(start.startedAt(), Instant.now());
+                        hostTimings.record(timeToPlayable, start.standby());
 
-            for (int i = 0; i < 120; i++) {
-                try {
-                    if (gatewayClient.server().isHosting().get(1000, TimeUnit.MILLISECONDS)) {
-                        eventBus.emit(LogEvent.info(serverId, "Server hosting"));
+                        eventBus.emit(LogEvent.info(serverId, "Server hosting after %.1fs%s".formatted(
+                                timeToPlayable.toMillis() / 1000.0,
+                                start.standby() ? " on a standby container" : "")));
+                        hosted.complete(null);
                         return;
                     }
-                } catch (InterruptedException | ExecutionException | TimeoutException e) {
-                    Log.err("Can not check server status", e);
-                }
-            }
 
-            Log.err("Server waiting for hosting status timeout, serverId " + serverId);
+                    if (Instant.now().isAfter(deadline)) {
+                        Log.err("Server waiting for hosting status timeout, serverId " + serverId);
 
-            throw new ApiError(503,
-                    "Server waiting for hosting status timeout, make sure host command is valid, current host command: "
-                            + request.getHostCommand());
-        } finally {
-            lock.unlock();
-        }
+                        hosted.completeExceptionally(new ApiError(503,
+                                "Server waiting for hosting status timeout, make sure host command is valid, current host command: "
+                                        + request.getHostCommand()));
+                        return;
+                    }
+
+                    gatewayService.schedule(() -> Const.executorService
+                            .execute(() -> pollHosting(request, gatewayClient, start, deadline, hosted)),
+                            HOST_POLL_INTERVAL);
+                });
+    }
+
+    public Map<String, HostTimings.Summary> hostTimings() {
+        return hostTimings.summary();
     }
 
     public List<ServerMisMatch> getMismatch(UUID serverId, ServerConfig config) {
@@ -284,7 +419,7 @@ public class ServerService {
     public Object getFiles(UUID serverId, String path) {
         if (path != null && path.endsWith(".msav.png") && !isFileExists(serverId, path)) {
             Fi mapFile = nodeManager.getFile(serverId, path.replace(".msav.png", ".msav"));
-            apiService.getMapPreview(mapFile.readBytes()).whenComplete((res, err) -> {
+            mapPreviews.preview(mapFile).whenComplete((res, err) -> {
                 if (res != null) {
                     nodeManager.writeFile(serverId, path, res);
                 }
@@ -302,16 +437,37 @@ public class ServerService {
         return nodeManager.getFile(serverId, path).exists();
     }
 
-    public void writeFile(UUID serverId, String path, byte[] bytes, String filename) {
-        nodeManager.writeFile(serverId, path, bytes);
+    public void writeFile(UUID serverId, String path, InputStream data, String filename) {
+        nodeManager.writeFile(serverId, path, data);
+        writePreview(serverId, path, filename);
+    }
+
+    public long getUploadOffset(UUID serverId, String path) {
+        return nodeManager.getUploadOffset(serverId, path);
+    }
+
+    public long appendUpload(UUID serverId, String path, long offset, InputStream data) {
+        return nodeManager.appendUpload(serverId, path, offset, data);
+    }
+
+    public void completeUpload(UUID serverId, String path, long size) {
+        nodeManager.completeUpload(serverId, path, size);
+        writePreview(serverId, path, path);
+    }
+
+    public boolean abortUpload(UUID serverId, String path) {
+        return nodeManager.abortUpload(serverId, path);
+    }
+
+    private void writePreview(UUID serverId, String path, String filename) {
         if (filename != null && filename.endsWith("msav")) {
-            CompletableFuture.runAsync(() -> {
-                try {
-                    byte[] image = apiService.getMapPreview(bytes).join();
-                    byte[] preview = Utils.toByteArray(Utils.toPreviewImage(Utils.fromBytes(image)));
-                    nodeManager.writeFile(serverId, path + ".png", preview);
-                } catch (Exception e) {
-                    Log.err(e);
+            mapPreviews.preview(nodeManager.getFile(serverId, path)).whenComplete((res, err) -> {
+                if (res != null) {
+                    nodeManager.writeFile(serverId, path + ".png", res);
+                }
+
+                if (err != null) {
+                    Log.err("Fail to generate map preview for file " + path, err);
                 }
             });
         }
@@ -325,68 +481,185 @@ public class ServerService {
         return nodeManager.deleteFile(serverId, path);
     }
 
+    /**
+     * Subscribes to the server's shared usage stream. Samples reach
+     * {@code onUsage} through a small queue, so a slow client never holds up
+     * the stream or the other subscribers.
+     */
     public Closeable getUsage(UUID serverId, Consumer<NodeUsage> onUsage, Consumer<Throwable> onError) {
-        return nodeManager.getNodeUsage(serverId, onUsage, onError);
+        EventQueue<NodeUsage> queue = eventBus.newQueue(onUsage, USAGE_LISTENER_CAPACITY,
+                EventBus.OverflowPolicy.DROP_OLDEST);
+
+        Closeable subscription;
+
+        try {
+            subscription = nodeManager.getNodeUsage(serverId, queue::offer, onError);
+        } catch (RuntimeException e) {
+            queue.close();
+            throw e;
+        }
+
+        return () -> {
+            queue.close();
+            subscription.close();
+        };
+    }
+
+    public List<NodeUsage> getUsageHistory(UUID serverId, Instant from, Instant to) {
+        if (from.isAfter(to)) {
+            throw new ApiError(400, "from must not be after to");
+        }
+
+        return nodeManager.getUsageHistory(serverId, from, to);
     }
 
+    /**
+     * The server's state from the cache while it is younger than the
+     * configured {@code STATE_MAX_AGE_SECONDS}, otherwise asked from the
+     * server itself.
+     */
     public ServerStateDto state(UUID serverId) {
-        try {
-            return gatewayService.of(serverId)
-                    .server()
-                    .getState()
-                    .get(2, TimeUnit.SECONDS);
-        } catch (Exception e) {
-            return new ServerStateDto().setServerId(serverId).setStatus(ServerStatus.DISCONNECT);
+        return stateAsync(serverId).join();
+    }
+
+    /**
+     * {@link #state(UUID)} without blocking the caller. Never fails: a server
+     * that does not answer within {@value #STATE_TIMEOUT_SECONDS} seconds is
+     * reported as disconnected, and a paused container is reported as paused
+     * without asking it.
+     */
+    public CompletableFuture<ServerStateDto> stateAsync(UUID serverId) {
+        if (nodeManager.isPaused(serverId)) {
+            return CompletableFuture.completedFuture(pausedState(serverId));
+        }
+
+        var cached = stateCache.fresh(serverId, envConfig.serverConfig().stateMaxAge());
+
+        if (cached.isPresent()) {
+            return CompletableFuture.completedFuture(cached.get().state());
         }
+
+        var request = gatewayService.of(serverId).server().getState();
+
+        return gatewayService.withTimeout(request, Duration.ofSeconds(STATE_TIMEOUT_SECONDS))
+                .thenApply(state -> {
+                    stateCache.update(serverId, state);
+                    return state;
+                })
+                .exceptionally(e -> disconnectedState(serverId));
     }
 
-    public byte[] getImage(UUID serverId) {
-        try {
-            if (!nodeManager.isRunning(serverId)) {
-                return new byte[0];
+    /**
+     * Every cached server state with the time it was received, newest first.
+     * Never contacts a server.
+     */
+    public List<ServerStateCache.Entry> states() {
+        return stateCache.all();
+    }
+
+    private void updateStateCache(BaseEvent event) {
+        UUID serverId = event.getServerId();
+
+        if (serverId == null) {
+            return;
+        }
+
+        if (event instanceof ServerStateEvent stateEvent) {
+            var states = stateEvent.getState();
+
+            if (states != null && !states.isEmpty() && states.get(0) != null) {
+                stateCache.update(serverId, states.get(0).setServerId(serverId));
             }
+        } else if (event instanceof StartEvent) {
+            // A fresh connection; whatever was cached belongs to the previous run.
+            stateCache.remove(serverId);
+        } else if (event instanceof StopEvent) {
+            stateCache.update(serverId, disconnectedState(serverId));
+        } else if (event instanceof PauseEvent) {
+            stateCache.update(serverId, pausedState(serverId));
+        } else if (event instanceof ResumeEvent) {
+            idlePolicy.resumed(serverId);
+            stateCache.remove(serverId);
+        }
+    }
+
+    private void updateActivity(BaseEvent event) {
+        if (event.getServerId() != null && (event instanceof StartEvent || event instanceof StopEvent
+                || event instanceof PauseEvent || event instanceof ResumeEvent)) {
+            activity.touch(event.getServerId(), Instant.now());
+        }
+    }
+
+    private static ServerStateDto disconnectedState(UUID serverId) {
+        return new ServerStateDto().setServerId(serverId).setStatus(ServerStatus.DISCONNECT);
+    }
+
+    private static ServerStateDto pausedState(UUID serverId) {
+        return new ServerStateDto().setServerId(serverId).setStatus(ServerStatus.PAUSED);
+    }
 
-            return gatewayService.of(serverId)
-                    .server()
-                    .getImage()
-                    .get(60, TimeUnit.SECONDS);
-        } catch (Exception e) {
-            throw new RuntimeException(e);
+    public CompletableFuture<byte[]> getImage(UUID serverId) {
+        if (!nodeManager.isRunning(serverId)) {
+            return CompletableFuture.completedFuture(new byte[0]);
         }
+
+        return gatewayService.withTimeout(gatewayService.of(serverId).server().getImage(), IMAGE_TIMEOUT);
     }
 
-    public List<PlayerDto> getPlayers(UUID serverId) {
-        return state(serverId).getPlayers();
+    public CompletableFuture<List<PlayerDto>> getPlayers(UUID serverId) {
+        return stateAsync(serverId).thenApply(ServerStateDto::getPlayers);
     }
 
-    public void updatePlayer(UUID serverId, String uuid, LoginDto payload) {
-        gatewayService.of(serverId)
-                .server()
-                .updatePlayer(uuid, payload)
-                .join();
+    public CompletableFuture<Void> updatePlayer(UUID serverId, String uuid, LoginDto payload) {
+        return gatewayService.withTimeout(gatewayService.of(serverId).server().updatePlayer(uuid, payload));
     }
 
     private void autoTurnOffCron() {
-        List<ServerConfig> servers = nodeManager.list().stream()
+        var nodes = nodeManager.list();
+
+        stateCache.retain(nodes.stream()
+                .flatMap(s -> s.meta().stream())
+                .map(meta -> meta.getConfig().getId())
+                .collect(Collectors.toSet()));
+
+        List<ServerConfig> servers = nodes.stream()
                 .filter(s -> s.meta().isPresent() && s.running())
                 .map(s -> s.meta().get().getConfig())
                 .toList();
 
-        var serversId = servers.stream().map(ServerConfig::getId).toList();
-        serverFlags.entrySet().removeIf(entry -> entry.getValue().isEmpty() || !serversId.contains(entry.getKey()));
+        List<ServerConfig> pausedServers = nodes.stream()
+                .filter(s -> s.meta().isPresent() && s.paused())
+                .map(s -> s.meta().get().getConfig())
+                .toList();
+
+        idlePolicy.retain(Stream.concat(servers.stream(), pausedServers.stream())
+                .map(ServerConfig::getId)
+                .collect(Collectors.toSet()));
 
         servers.forEach(config -> {
             try {
-                checkRunningServer(config, true);
+                checkRunningServer(config);
             } catch (Exception e) {
                 Log.err("Fail to check running server " + config.getId(), e);
             }
         });
+
+        pausedServers.forEach(config -> {
+            try {
+                checkPausedServer(config);
+            } catch (Exception e) {
+                Log.err("Fail to check paused server " + config.getId(), e);
+            }
+        });
     }
 
-    private void checkRunningServer(ServerConfig config, boolean shouldAutoTurnOff) {
+    /**
+     * An idle server is paused rather than shut down, so the next player
+     * does not wait for a cold start. It falls back to shutting down when the
+     * container can not be paused.
+     */
+    private void checkRunningServer(ServerConfig config) {
         var serverId = config.getId();
-        var flag = serverFlags.computeIfAbsent(serverId, (_ignore) -> EnumSet.noneOf(ServerFlag.class));
 
         if (!config.getIsAutoTurnOff()) {
             return;
@@ -394,19 +667,31 @@ public class ServerService {
 
         ServerStateDto state = state(serverId);
 
-        boolean shouldKill = state.getPlayers().isEmpty();
+        var action = idlePolicy.running(serverId, !state.getPlayers().isEmpty(), Instant.now());
 
-        if (shouldKill && shouldAutoTurnOff) {
-            if (flag.contains(ServerFlag.KILL)) {
-                flag.remove(ServerFlag.KILL);
-                eventBus.emit(LogEvent.info(serverId, "[red][Orchestrator] Auto shut down server"));
-                remove(serverId, NodeRemoveReason.NO_PLAYER);
-            } else {
-                flag.add(ServerFlag.KILL);
-                eventBus.emit(LogEvent.info(serverId, "[red][Orchestrator] No players, flag to kill"));
-            }
+        if (action != IdlePolicy.Action.PAUSE) {
+            return;
+        }
+
+        if (nodeManager.pauseContainer(serverId, NodeRemoveReason.NO_PLAYER.name())) {
+            idlePolicy.paused(serverId, Instant.now());
+            eventBus.emit(LogEvent.info(serverId, "[red][Orchestrator] No players, pause server"));
         } else {
-            flag.remove(ServerFlag.KILL);
+            eventBus.emit(LogEvent.info(serverId, "[red][Orchestrator] Auto shut down server"));
+            remove(serverId, NodeRemoveReason.NO_PLAYER);
+        }
+    }
+
+    private void checkPausedServer(ServerConfig config) {
+        var serverId = config.getId();
+
+        if (!config.getIsAutoTurnOff()) {
+            return;
+        }
+
+        if (idlePolicy.paused(serverId, Instant.now()) == IdlePolicy.Action.REMOVE) {
+            eventBus.emit(LogEvent.info(serverId, "[red][Orchestrator] Paused too long, shut down server"));
+            remove(serverId, NodeRemoveReason.NO_PLAYER);
         }
     }
 }
@@ -0,0 +1,76 @@
+package server.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import dto.ServerStateDto;
+
+/**
+ * Latest known state of every server, kept up to date by the
+ * {@code ServerStateEvent}s the plugin pushes. Each entry remembers when it was
+ * received, so callers can decide whether it is still recent enough or a live
+ * request is worth the round trip.
+ */
+public class ServerStateCache {
+
+    public record Entry(ServerStateDto state, Instant updatedAt) {
+        public Duration age(Instant now) {
+            return Duration.between(updatedAt, now);
+        }
+    }
+
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+    private final Clock clock;
+
+    public ServerStateCache() {
+        this(Clock.systemUTC());
+    }
+
+    public ServerStateCache(Clock clock) {
+        this.clock = clock;
+    }
+
+    public Entry update(UUID serverId, ServerStateDto state) {
+        Entry entry = new Entry(state, clock.instant());
+        entries.put(serverId, entry);
+        return entry;
+    }
+
+    public Optional<Entry> get(UUID serverId) {
+        return Optional.ofNullable(entries.get(serverId));
+    }
+
+    /** The cached entry when it is at most {@code maxAge} old. */
+    public Optional<Entry> fresh(UUID serverId, Duration maxAge) {
+        Instant now = clock.instant();
+
+        return get(serverId).filter(entry -> entry.age(now).compareTo(maxAge) <= 0);
+    }
+
+    public List<Entry> all() {
+        return entries.values().stream()
+                .sorted(Comparator.comparing(Entry::updatedAt).reversed())
+                .toList();
+    }
+
+    public void remove(UUID serverId) {
+        entries.remove(serverId);
+    }
+
+    /** Drops entries of servers that no longer exist. */
+    public void retain(Set<UUID> serverIds) {
+        entries.keySet().retainAll(serverIds);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+}
@@ -6,6 +6,7 @@ import java.util.UUID;
 
 import com.auth0.jwt.JWT;
 import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.DecodedJWT;
 import arc.files.Fi;
 import arc.util.Log;
 import dto.ServerConfigDto;
@@ -13,13 +14,15 @@ import io.javalin.websocket.WsConfig;
 import io.javalin.websocket.WsContext;
 import lombok.RequiredArgsConstructor;
 import server.EnvConfig;
-import server.config.Const;
 import server.manager.NodeManager;
+import server.types.data.GatewaySession;
 import server.utils.ApiError;
 import server.utils.Utils;
 
 @RequiredArgsConstructor
 public class WsHandler {
+    private static final String SESSION_ATTRIBUTE = "gateway-session";
+
     private final EnvConfig envConfig;
     private final GatewayService gatewayService;
     private final NodeManager nodeManager;
@@ -29,8 +32,9 @@ public class WsHandler {
 
         ws.onConnect(handler -> {
             try {
-                UUID serverId = parseServerJwt(handler, securityKey);
-                gatewayService.of(serverId).onOpen(handler);
+                GatewaySession session = parseServerJwt(handler, securityKey);
+                handler.attribute(SESSION_ATTRIBUTE, session);
+                gatewayService.of(session.serverId()).onOpen(handler, session);
             } catch (Exception e) {
                 Log.err("Error on connect", e);
                 handler.closeSession();
@@ -38,20 +42,38 @@ public class WsHandler {
         });
 
         ws.onMessage(handler -> {
-            Const.executorService.execute(() -> {
-                try {
-                    UUID serverId = parseServerJwt(handler, securityKey);
-                    gatewayService.of(serverId).onMessage(handler);
-                } catch (Exception e) {
-                    Log.err("Error on message", e);
-                }
-            });
+            GatewaySession session = handler.attribute(SESSION_ATTRIBUTE);
+
+            if (session == null) {
+                Log.warn("Message on unauthenticated gateway session: @", handler.sessionId());
+                handler.closeSession();
+                return;
+            }
+
+            gatewayService.of(session.serverId()).receive(handler);
+        });
+
+        ws.onBinaryMessage(handler -> {
+            GatewaySession session = handler.attribute(SESSION_ATTRIBUTE);
+
+            if (session == null) {
+                Log.warn("Message on unauthenticated gateway session: @", handler.sessionId());
+                handler.closeSession();
+                return;
+            }
+
+            gatewayService.of(session.serverId()).receiveBinary(handler);
         });
 
         ws.onClose(handler -> {
+            GatewaySession session = handler.attribute(SESSION_ATTRIBUTE);
+
+            if (session == null) {
+                return;
+            }
+
             try {
-                UUID serverId = parseServerJwt(handler, securityKey);
-                gatewayService.of(serverId).onClose(handler);
+                gatewayService.of(session.serverId()).onClose(handler);
             } catch (Exception e) {
                 Log.err("Error on close", e);
             }
@@ -62,7 +84,7 @@ public class WsHandler {
         });
     }
 
-    public UUID parseServerJwt(WsContext context, String securityKey) {
+    public GatewaySession parseServerJwt(WsContext context, String securityKey) {
         String jwtToken = context.header("Authorization");
         UUID serverId = UUID.fromString(context.header("X-SERVER-ID"));
 
@@ -71,13 +93,13 @@ public class WsHandler {
         }
 
         try {
-            var idString = JWT.require(Algorithm.HMAC256(securityKey))
+            DecodedJWT jwt = JWT.require(Algorithm.HMAC256(securityKey))
                     .withIssuer("MindustryTool")
                     .build()
-                    .verify(jwtToken)
-                    .getSubject();
+                    .verify(jwtToken);
 
-            return UUID.fromString(idString);
+            UUID id = UUID.fromString(jwt.getSubject());
+            return new GatewaySession(id, jwt.getExpiresAtAsInstant());
         } catch (Exception e) {
             ServerConfigDto serverConfig = new ServerConfigDto();
             try {
@@ -88,6 +110,7 @@ public class WsHandler {
             } catch (Exception ex) {
                 Log.warn("Failed to read server.json for @, creating fresh", serverId);
             }
+            serverConfig.setServerId(serverId);
             serverConfig.setJwt(generateServerJwt(serverId, securityKey));
             try {
                 nodeManager.writeFile(serverId, "server.json", Utils.objectMapper.writeValueAsBytes(serverConfig));
@@ -0,0 +1,11 @@
+package server.types.data;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record GatewaySession(UUID serverId, Instant expiresAt) {
+
+    public boolean isExpired(Instant now) {
+        return expiresAt != null && now.isAfter(expiresAt);
+    }
+}
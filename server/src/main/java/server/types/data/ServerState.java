@@ -10,5 +10,6 @@ import lombok.experimental.Accessors;
 @Accessors(chain = true, fluent = true)
 public class ServerState {
     public boolean running;
+    public boolean paused;
     public Optional<ServerMetadata> meta;
 }
@@ -0,0 +1,194 @@
+package server.utils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+import arc.files.Fi;
+import io.javalin.http.Context;
+import io.javalin.http.HttpStatus;
+
+/**
+ * Streams a file to the response straight from its {@link FileChannel}
+ * instead of reading it into heap. Supports a single byte range with
+ * {@code If-Range}, and {@code If-None-Match} against an ETag derived from
+ * size and modification time.
+ */
+public class FileDownload {
+
+    private static final DateTimeFormatter HTTP_DATE = DateTimeFormatter.RFC_1123_DATE_TIME;
+
+    public record Range(long start, long end) {
+        public long length() {
+            return end - start + 1;
+        }
+    }
+
+    public static void send(Context ctx, Fi file) throws IOException {
+        if (!file.exists()) {
+            throw new ApiError(404, "File not found: " + FileUtils.toRelativeToServer(file.absolutePath()));
+        }
+
+        if (file.isDirectory()) {
+            throw new ApiError(400, "Path is a directory: " + FileUtils.toRelativeToServer(file.absolutePath()));
+        }
+
+        long size = file.length();
+        long lastModified = file.lastModified();
+        String etag = etag(size, lastModified);
+
+        ctx.header("Accept-Ranges", "bytes");
+        ctx.header("ETag", etag);
+        ctx.header("Last-Modified", httpDate(lastModified));
+        ctx.header("Content-Disposition", "attachment; filename=\"" + file.name().replace("\"", "") + "\"");
+
+        if (etag.equals(ctx.header("If-None-Match"))) {
+            ctx.status(HttpStatus.NOT_MODIFIED);
+            return;
+        }
+
+        Range range = null;
+
+        if (ifRangeMatches(ctx.header("If-Range"), etag, lastModified)) {
+            try {
+                range = parseRange(ctx.header("Range"), size);
+            } catch (ApiError e) {
+                ctx.header("Content-Range", "bytes */" + size);
+                throw e;
+            }
+        }
+
+        if (range == null) {
+            range = new Range(0, size - 1);
+            ctx.status(HttpStatus.OK);
+        } else {
+            ctx.status(HttpStatus.PARTIAL_CONTENT);
+            ctx.header("Content-Range", "bytes " + range.start() + "-" + range.end() + "/" + size);
+        }
+
+        ctx.contentType("application/octet-stream");
+        ctx.header("Content-Length", String.valueOf(Math.max(0, range.length())));
+
+        if (size == 0) {
+            return;
+        }
+
+        // Written to the servlet stream directly so Javalin neither buffers nor compresses the body.
+        try (FileChannel channel = FileChannel.open(file.file().toPath(), StandardOpenOption.READ)) {
+            transfer(channel, range, ctx.res().getOutputStream());
+        }
+    }
+
+    public static String etag(long size, long lastModified) {
+        return "\"" + Long.toHexString(size) + "-" + Long.toHexString(lastModified) + "\"";
+    }
+
+    /**
+     * Parses a {@code Range} header against a file of {@code size} bytes.
+     * Returns {@code null} when the whole file should be sent, which includes
+     * a missing, malformed or multi-range header.
+     *
+     * @throws ApiError with status 416 when the range lies outside the file
+     */
+    public static Range parseRange(String header, long size) {
+        if (header == null || !header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return null;
+        }
+
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+
+        if (dash < 0) {
+            return null;
+        }
+
+        String first = spec.substring(0, dash).trim();
+        String last = spec.substring(dash + 1).trim();
+
+        long start;
+        long end;
+
+        try {
+            if (first.isEmpty()) {
+                // Suffix range: the last N bytes.
+                long suffix = Long.parseLong(last);
+
+                if (suffix <= 0 || size == 0) {
+                    throw new ApiError(416, "Range not satisfiable: " + header);
+                }
+
+                start = Math.max(0, size - suffix);
+                end = size - 1;
+            } else {
+                start = Long.parseLong(first);
+                end = last.isEmpty() ? size - 1 : Math.min(Long.parseLong(last), size - 1);
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+
+        if (start < 0 || start > end) {
+            if (start >= size) {
+                throw new ApiError(416, "Range not satisfiable: " + header);
+            }
+            return null;
+        }
+
+        return new Range(start, end);
+    }
+
+    /**
+     * A range is only honoured when {@code If-Range} is absent or still
+     * matches the file, otherwise the client gets the whole new file.
+     */
+    public static boolean ifRangeMatches(String ifRange, String etag, long lastModified) {
+        if (ifRange == null || ifRange.isBlank()) {
+            return true;
+        }
+
+        String value = ifRange.trim();
+
+        if (value.startsWith("\"") || value.startsWith("W/")) {
+            return value.equals(etag);
+        }
+
+        try {
+            long date = ZonedDateTime.parse(value, HTTP_DATE).toInstant().getEpochSecond();
+            return date == lastModified / 1000;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    static void transfer(FileChannel channel, Range range, OutputStream output) throws IOException {
+        WritableByteChannel target = Channels.newChannel(output);
+        long position = range.start();
+        long remaining = range.length();
+
+        while (remaining > 0) {
+            long written = channel.transferTo(position, remaining, target);
+
+            if (written <= 0) {
+                // The file shrank while it was being sent.
+                throw new IOException("Unexpected end of file at " + position);
+            }
+
+            position += written;
+            remaining -= written;
+        }
+
+        output.flush();
+    }
+
+    private static String httpDate(long millis) {
+        return HTTP_DATE.format(Instant.ofEpochMilli(millis).atZone(ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,259 @@
+package server.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Streams uploads into a temp file next to their target and renames it over
+ * the target once complete, so the old file stays in place until the new
+ * one is whole and a failed upload leaves nothing behind.
+ * <p>
+ * Chunked uploads append to a {@code .<name>.part} file. Its size is the
+ * resume offset, so an interrupted upload continues from there, even after a
+ * restart. Uploads nobody comes back for are removed by {@link #sweep}.
+ */
+public class FileUpload {
+
+    private static final String PART_SUFFIX = ".part";
+    private static final String TEMP_SUFFIX = ".upload";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Part files a request is working on. A chunk streams from the network
+     * for as long as the client takes, so another request for the same upload
+     * is turned away instead of waiting behind it, and other uploads never
+     * wait at all.
+     */
+    private static final Set<Path> busy = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Copies {@code data} to {@code target} in one go.
+     *
+     * @throws ApiError with status 413 when more than {@code maxSize} bytes
+     *                  arrive
+     */
+    public static long write(Path target, InputStream data, long maxSize) throws IOException {
+        prepare(target);
+
+        // Not Files.createTempFile: its owner-only permissions would survive the rename and hide the
+        // file from a game container running as another user. A plain file gets the umask like any other.
+        Path temp = target.resolveSibling("." + target.getFileName() + "." + UUID.randomUUID() + TEMP_SUFFIX);
+
+        try {
+            long written;
+
+            try (OutputStream output = Files.newOutputStream(temp, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.WRITE)) {
+                written = copy(data, output, maxSize);
+            }
+
+            move(temp, target);
+            return written;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /** Bytes of {@code target} received so far by a chunked upload. */
+    public static long offset(Path target) throws IOException {
+        Path part = partFile(target);
+        return Files.exists(part) ? Files.size(part) : 0;
+    }
+
+    /**
+     * Appends a chunk at {@code offset}, which must be the number of bytes
+     * received so far.
+     *
+     * @return the offset after this chunk
+     * @throws ApiError with status 409 when {@code offset} does not match, and
+     *                  413 when the upload would grow beyond {@code maxSize}
+     */
+    public static long append(Path target, long offset, InputStream data, long maxSize) throws IOException {
+        prepare(target);
+
+        Path part = claim(partFile(target));
+
+        try {
+            long current = Files.exists(part) ? Files.size(part) : 0;
+
+            if (offset != current) {
+                throw ApiError.conflict("Upload offset mismatch, expected " + current + " but got " + offset);
+            }
+
+            try (FileChannel channel = FileChannel.open(part, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                channel.position(current);
+
+                try {
+                    copy(data, Channels.newOutputStream(channel), maxSize - current);
+                } catch (IOException | RuntimeException e) {
+                    // Drop the partial chunk so the client can resend it from the same offset.
+                    channel.truncate(current);
+                    throw e;
+                }
+
+                return channel.size();
+            }
+        } finally {
+            busy.remove(part);
+        }
+    }
+
+    /**
+     * Moves a chunked upload over {@code target}.
+     *
+     * @throws ApiError with status 404 when there is no upload, and 409 when
+     *                  it does not hold exactly {@code size} bytes
+     */
+    public static void complete(Path target, long size) throws IOException {
+        Path part = claim(partFile(target));
+
+        try {
+            if (!Files.exists(part)) {
+                throw new ApiError(404, "No upload in progress: " + FileUtils.toRelativeToServer(target.toString()));
+            }
+
+            long received = Files.size(part);
+
+            if (received != size) {
+                throw ApiError.conflict("Upload incomplete, received " + received + " of " + size + " bytes");
+            }
+
+            move(part, target);
+        } finally {
+            busy.remove(part);
+        }
+    }
+
+    /** @return whether there was an upload to discard */
+    public static boolean abort(Path target) throws IOException {
+        Path part = claim(partFile(target));
+
+        try {
+            return Files.deleteIfExists(part);
+        } finally {
+            busy.remove(part);
+        }
+    }
+
+    /**
+     * Deletes chunked uploads and temp files under {@code root} that were not
+     * written to for {@code maxAge}: uploads the client gave up on, and temp
+     * files left behind by a crash.
+     *
+     * @return the number of files deleted
+     */
+    public static int sweep(Path root, Duration maxAge) throws IOException {
+        if (!Files.isDirectory(root)) {
+            return 0;
+        }
+
+        FileTime cutoff = FileTime.from(Instant.now().minus(maxAge));
+        List<Path> candidates;
+
+        try (Stream<Path> files = Files.walk(root)) {
+            candidates = files.filter(FileUpload::isUploadFile).toList();
+        }
+
+        int deleted = 0;
+
+        for (Path candidate : candidates) {
+            Path file = candidate.toAbsolutePath().normalize();
+
+            // An upload receiving a chunk right now is not abandoned.
+            if (!busy.add(file)) {
+                continue;
+            }
+
+            try {
+                if (Files.getLastModifiedTime(file).compareTo(cutoff) < 0 && Files.deleteIfExists(file)) {
+                    deleted++;
+                }
+            } catch (NoSuchFileException e) {
+                // Completed or aborted since the walk.
+            } finally {
+                busy.remove(file);
+            }
+        }
+
+        return deleted;
+    }
+
+    public static Path partFile(Path target) {
+        return target.resolveSibling("." + target.getFileName() + PART_SUFFIX);
+    }
+
+    static long copy(InputStream input, OutputStream output, long maxSize) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long total = 0;
+        int read;
+
+        while ((read = input.read(buffer)) != -1) {
+            total += read;
+
+            if (total > maxSize) {
+                throw new ApiError(413, "File size exceeds max limit");
+            }
+
+            output.write(buffer, 0, read);
+        }
+
+        output.flush();
+        return total;
+    }
+
+    private static boolean isUploadFile(Path file) {
+        String name = file.getFileName().toString();
+
+        return name.startsWith(".") && (name.endsWith(PART_SUFFIX) || name.endsWith(TEMP_SUFFIX))
+                && Files.isRegularFile(file);
+    }
+
+    private static void prepare(Path target) throws IOException {
+        if (Files.isDirectory(target)) {
+            throw new ApiError(400, "Path is a directory: " + FileUtils.toRelativeToServer(target.toString()));
+        }
+
+        Files.createDirectories(target.getParent());
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Marks {@code part} busy for the calling request, which removes it from
+     * {@link #busy} when done.
+     *
+     * @throws ApiError with status 409 when another request is working on it
+     */
+    private static Path claim(Path part) {
+        Path key = part.toAbsolutePath().normalize();
+
+        if (!busy.add(key)) {
+            throw ApiError.conflict("Upload is busy with another request, retry later");
+        }
+
+        return key;
+    }
+}
@@ -0,0 +1,247 @@
+package server.utils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+import arc.util.Log;
+
+/**
+ * One thread and one ring of buckets for any number of timeouts. Scheduling
+ * and cancelling are constant time, and a timeout fires within one tick after
+ * its deadline. Tasks run on the timer thread, so they must only do a
+ * few microseconds of work, like completing a future or handing off to an
+ * executor.
+ */
+public class HashedWheelTimer implements AutoCloseable {
+
+    public final class Timeout {
+        private final Runnable task;
+        private final long deadlineTick;
+        private final Bucket bucket;
+
+        // Linked into the bucket, guarded by the bucket's lock.
+        private Timeout previous;
+        private Timeout next;
+        private boolean linked;
+
+        private Timeout(Runnable task, long deadlineTick, Bucket bucket) {
+            this.task = task;
+            this.deadlineTick = deadlineTick;
+            this.bucket = bucket;
+        }
+
+        /** @return whether the timeout was still pending and will now never run */
+        public boolean cancel() {
+            synchronized (bucket) {
+                if (!linked) {
+                    return false;
+                }
+
+                bucket.unlink(this);
+            }
+
+            pending.decrementAndGet();
+            return true;
+        }
+
+        public boolean isPending() {
+            synchronized (bucket) {
+                return linked;
+            }
+        }
+    }
+
+    private static final class Bucket {
+        private Timeout head;
+
+        private void link(Timeout timeout) {
+            timeout.next = head;
+            if (head != null) {
+                head.previous = timeout;
+            }
+            head = timeout;
+            timeout.linked = true;
+        }
+
+        private void unlink(Timeout timeout) {
+            if (timeout.previous != null) {
+                timeout.previous.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+
+            if (timeout.next != null) {
+                timeout.next.previous = timeout.previous;
+            }
+
+            timeout.previous = null;
+            timeout.next = null;
+            timeout.linked = false;
+        }
+    }
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final long startTime = System.nanoTime();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Thread worker;
+
+    /**
+     * Next tick the worker expires. Only advanced while holding that tick's
+     * bucket lock, so a scheduler holding the same lock sees a stable value.
+     */
+    private volatile long tick;
+    private volatile boolean stopped;
+
+    /**
+     * @param tick      timer resolution; timeouts fire up to one tick late
+     * @param wheelSize number of buckets, rounded up to a power of two; a
+     *                  wheel spanning the usual delays keeps buckets short
+     */
+    public HashedWheelTimer(String name, Duration tick, int wheelSize) {
+        if (tick.isZero() || tick.isNegative()) {
+            throw new IllegalArgumentException("tick must be positive: " + tick);
+        }
+
+        if (wheelSize <= 0 || wheelSize > (1 << 30)) {
+            throw new IllegalArgumentException("wheelSize out of range: " + wheelSize);
+        }
+
+        int size = 1;
+        while (size < wheelSize) {
+            size <<= 1;
+        }
+
+        this.tickNanos = tick.toNanos();
+        this.wheel = new Bucket[size];
+        this.mask = size - 1;
+
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+
+        this.worker = new Thread(this::run, name);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    public Timeout schedule(Runnable task, Duration delay) {
+        if (stopped) {
+            throw new IllegalStateException("Timer is stopped");
+        }
+
+        long deadline = System.nanoTime() - startTime + Math.max(0, delay.toNanos());
+        // Round up so a timeout never fires before its delay has passed.
+        long deadlineTick = (deadline + tickNanos - 1) / tickNanos;
+
+        while (true) {
+            long target = Math.max(deadlineTick, tick);
+            Bucket bucket = wheel[(int) (target & mask)];
+
+            synchronized (bucket) {
+                if (target < tick) {
+                    // The worker moved past the target while we were waiting for the lock.
+                    continue;
+                }
+
+                Timeout timeout = new Timeout(task, target, bucket);
+                bucket.link(timeout);
+                pending.incrementAndGet();
+                return timeout;
+            }
+        }
+    }
+
+    /**
+     * A copy of {@code future} that fails with {@code error} when it has not
+     * completed within {@code timeout}. The copy completes off the thread that
+     * completes {@code future}, and failing it leaves {@code future} alone.
+     */
+    public <T> CompletableFuture<T> withTimeout(CompletableFuture<T> future, Duration timeout,
+            Supplier<? extends Throwable> error) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Timeout deadline = schedule(() -> result.completeExceptionally(error.get()), timeout);
+
+        future.whenCompleteAsync((value, failure) -> {
+            deadline.cancel();
+
+            if (failure != null) {
+                result.completeExceptionally(failure instanceof CompletionException && failure.getCause() != null
+                        ? failure.getCause()
+                        : failure);
+            } else {
+                result.complete(value);
+            }
+        });
+
+        return result;
+    }
+
+    /** Timeouts scheduled and neither fired nor cancelled yet. */
+    public int pending() {
+        return pending.get();
+    }
+
+    public Duration tickDuration() {
+        return Duration.ofNanos(tickNanos);
+    }
+
+    @Override
+    public void close() {
+        stopped = true;
+        worker.interrupt();
+    }
+
+    private void run() {
+        List<Timeout> expired = new ArrayList<>();
+
+        while (!stopped) {
+            long current = tick;
+            long wakeAt = startTime + current * tickNanos;
+            long sleep;
+
+            while ((sleep = wakeAt - System.nanoTime()) > 0 && !stopped) {
+                LockSupport.parkNanos(this, Math.min(sleep, TimeUnit.MILLISECONDS.toNanos(100)));
+            }
+
+            Bucket bucket = wheel[(int) (current & mask)];
+
+            synchronized (bucket) {
+                Timeout timeout = bucket.head;
+
+                while (timeout != null) {
+                    Timeout next = timeout.next;
+
+                    if (timeout.deadlineTick <= current) {
+                        bucket.unlink(timeout);
+                        expired.add(timeout);
+                    }
+
+                    timeout = next;
+                }
+
+                tick = current + 1;
+            }
+
+            for (Timeout timeout : expired) {
+                pending.decrementAndGet();
+
+                try {
+                    timeout.task.run();
+                } catch (Throwable e) {
+                    Log.err("Error running timeout task", e);
+                }
+            }
+
+            expired.clear();
+        }
+    }
+}
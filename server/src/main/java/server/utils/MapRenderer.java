@@ -0,0 +1,237 @@
+package server.utils;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.InflaterInputStream;
+
+import javax.imageio.ImageIO;
+
+import arc.Core;
+import arc.Settings;
+import arc.files.Fi;
+import arc.graphics.Color;
+import arc.struct.StringMap;
+import arc.util.I18NBundle;
+import arc.util.Log;
+import arc.util.io.CounterInputStream;
+import mindustry.Vars;
+import mindustry.content.Blocks;
+import mindustry.core.ContentLoader;
+import mindustry.core.World;
+import mindustry.game.Team;
+import mindustry.io.MapIO;
+import mindustry.io.SaveIO;
+import mindustry.io.SaveVersion;
+import mindustry.world.Block;
+import mindustry.world.CachedTile;
+import mindustry.world.Tile;
+import mindustry.world.WorldContext;
+
+/**
+ * Draws the top down view of a map file the way Mindustry's own
+ * {@link MapIO#generatePreview(mindustry.maps.Map)} does, the same image the
+ * game shows in its map list. The pixels go straight into a
+ * {@link BufferedImage}: arc's Pixmap allocates through the native library,
+ * which the manager never loads.
+ * <p>
+ * Reading a map swaps the global content id mapping, so only one map is
+ * rendered at a time. Callers run this on their own workers and do the
+ * scaling and encoding outside of it.
+ */
+public class MapRenderer {
+
+    private static final String BLOCK_COLORS = "sprites/block_colors.png";
+
+    private static final int BLACK = 255;
+    private static final int SHADE = Color.rgba8888(0f, 0f, 0f, 0.5f);
+
+    private static final Object lock = new Object();
+    private static boolean contentLoaded;
+    private static Throwable contentError;
+
+    public static BufferedImage render(Fi file) {
+        try {
+            synchronized (lock) {
+                loadContent();
+                return draw(file);
+            }
+        } catch (ApiError e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ApiError(422, "Can not render map: " + file.name(), e);
+        }
+    }
+
+    private static BufferedImage draw(Fi file) throws IOException {
+        try (InputStream input = new InflaterInputStream(file.read(Vars.bufferSize));
+                CounterInputStream counter = new CounterInputStream(input);
+                DataInputStream stream = new DataInputStream(counter)) {
+
+            SaveIO.readHeader(stream);
+            SaveVersion version = SaveIO.getSaveWriter(stream.readInt());
+
+            StringMap tags = new StringMap();
+            version.region("meta", stream, counter, in -> tags.putAll(version.readStringMap(in)));
+
+            int width = tags.getInt("width");
+            int height = tags.getInt("height");
+
+            if (width <= 0 || height <= 0) {
+                throw new IOException("Invalid map size " + width + "x" + height);
+            }
+
+            BufferedImage floors = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            BufferedImage walls = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+
+            CachedTile tile = new CachedTile() {
+                @Override
+                public void setBlock(Block type) {
+                    super.setBlock(type);
+
+                    int color = MapIO.colorFor(block(), Blocks.air, Blocks.air, team());
+
+                    if (color != BLACK) {
+                        walls.setRGB(x, height - 1 - y, toArgb(color));
+
+                        // Walls cast a shadow on the floor just below them.
+                        if (y > 0) {
+                            floors.setRGB(x, height - y, toArgb(SHADE));
+                        }
+                    }
+                }
+            };
+
+            version.region("content", stream, counter, version::readContentHeader);
+            version.region("preview_map", stream, counter, in -> version.readMap(in, new WorldContext() {
+                @Override
+                public void resize(int w, int h) {
+                }
+
+                @Override
+                public boolean isGenerating() {
+                    return false;
+                }
+
+                @Override
+                public void begin() {
+                    Vars.world.setGenerating(true);
+                }
+
+                @Override
+                public void end() {
+                    Vars.world.setGenerating(false);
+                }
+
+                @Override
+                public Tile tile(int index) {
+                    tile.x = (short) (index % width);
+                    tile.y = (short) (index / width);
+                    return tile;
+                }
+
+                @Override
+                public Tile create(int x, int y, int floorID, int overlayID, int wallID) {
+                    int color = overlayID != 0
+                            ? MapIO.colorFor(Blocks.air, Blocks.air, Vars.content.block(overlayID), Team.derelict)
+                            : MapIO.colorFor(Blocks.air, Vars.content.block(floorID), Blocks.air, Team.derelict);
+
+                    floors.setRGB(x, height - 1 - y, toArgb(color));
+                    return tile;
+                }
+            }));
+
+            Graphics2D graphics = floors.createGraphics();
+            graphics.setComposite(AlphaComposite.SrcOver);
+            graphics.drawImage(walls, 0, 0, null);
+            graphics.dispose();
+
+            return floors;
+        } finally {
+            Vars.content.setTemporaryMapper(null);
+        }
+    }
+
+    static int toArgb(int rgba) {
+        return (rgba >>> 8) | (rgba << 24);
+    }
+
+    /**
+     * The manager never boots the game, so the blocks and their map colors
+     * are created here once, with just enough of the globals set for the
+     * content constructors and tile reads. Colors come from the same sheet
+     * the game packs, read with {@link ImageIO}.
+     * <p>
+     * A failure is kept and thrown again on every later render: content
+     * registers itself by name, so creating it a second time over a half
+     * filled loader would only fail on duplicates.
+     */
+    private static void loadContent() {
+        if (contentLoaded) {
+            return;
+        }
+
+        if (contentError != null) {
+            throw new ApiError(500, "Map renderer failed to load game content", contentError);
+        }
+
+        try {
+            Vars.headless = true;
+
+            if (Core.settings == null) {
+                Core.settings = new Settings();
+            }
+
+            if (Core.bundle == null) {
+                Core.bundle = I18NBundle.createEmptyBundle();
+            }
+
+            if (Vars.world == null) {
+                Vars.world = new World();
+            }
+
+            if (Vars.content == null) {
+                Vars.content = new ContentLoader();
+            }
+
+            Vars.content.createBaseContent();
+        } catch (Throwable e) {
+            contentError = e;
+            Log.err("Can not load game content, map previews are disabled", e);
+            throw new ApiError(500, "Map renderer failed to load game content", e);
+        }
+
+        try (InputStream input = MapRenderer.class.getClassLoader().getResourceAsStream(BLOCK_COLORS)) {
+            if (input == null) {
+                Log.warn("@ not found, map previews will have no block colors", BLOCK_COLORS);
+            } else {
+                BufferedImage colors = ImageIO.read(input);
+
+                for (int i = 0; i < colors.getWidth() && i < Vars.content.blocks().size; i++) {
+                    int rgba = toRgba(colors.getRGB(i, 0));
+
+                    // Same rule as ContentLoader#loadColors: fully transparent or black means no color.
+                    if (rgba == 0 || rgba == 255) {
+                        continue;
+                    }
+
+                    Block block = Vars.content.block(i);
+                    block.mapColor.rgba8888(rgba);
+                    block.mapColor.a = 1f;
+                    block.hasColor = true;
+                }
+            }
+        } catch (Exception e) {
+            Log.err("Can not load block colors", e);
+        }
+
+        contentLoaded = true;
+    }
+
+    static int toRgba(int argb) {
+        return (argb << 8) | (argb >>> 24);
+    }
+}
@@ -28,6 +28,8 @@ import arc.util.serialization.Jval.Jformat;
 import dto.MapDto;
 import dto.ModDto;
 import dto.ModMetaDto;
+import dto.WsEnvelope;
+import dto.WsMessageCodec;
 import mindustry.core.Version;
 import mindustry.io.MapIO;
 import mindustry.mod.Mods.ModMeta;
@@ -40,6 +42,8 @@ public class Utils {
             .configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false)
             .findAndRegisterModules();
 
+    private static final WsMessageCodec wsMessageCodec = new WsMessageCodec(objectMapper);
+
     public static ObjectMapper getObjectMapper() {
         return objectMapper;
     }
@@ -78,6 +82,22 @@ public class Utils {
         }
     }
 
+    public static WsEnvelope readWsMessage(String data) {
+        try {
+            return wsMessageCodec.decode(data);
+        } catch (IOException e) {
+            throw new RuntimeException("Can not parse to json: " + e.getMessage(), e);
+        }
+    }
+
+    public static WsEnvelope readWsBinaryMessage(byte[] data, int offset, int length) {
+        try {
+            return wsMessageCodec.decodeBinary(data, offset, length);
+        } catch (IOException e) {
+            throw new RuntimeException("Can not read binary message: " + e.getMessage(), e);
+        }
+    }
+
     public static JsonNode readFile(File file) {
         try {
             return objectMapper.readTree(file);
@@ -0,0 +1,198 @@
+package server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import dto.WsMessage;
+import io.javalin.Javalin;
+import server.manager.NodeManager;
+import server.service.EventBus;
+import server.service.GatewayService;
+import server.service.WsHandler;
+import server.utils.ApiError;
+import server.utils.Utils;
+
+/**
+ * The gateway routes of {@link ServerMain} against a plugin that connects to
+ * the real gateway socket and never answers, unless told to.
+ */
+public class AsyncRouteTest {
+
+    private static final String SECURITY_KEY = "test-security-key";
+
+    private final UUID serverId = UUID.randomUUID();
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final List<WsMessage<?>> received = new CopyOnWriteArrayList<>();
+
+    /** Request types the fake plugin answers, with the payload it answers with. */
+    private final Map<String, Object> answers = Map.of("get-json", Map.of("map", "Frozen Forest"));
+
+    private Javalin app;
+    private WebSocket plugin;
+    private GatewayService gatewayService;
+
+    @BeforeEach
+    void start() throws Exception {
+        EnvConfig envConfig = new EnvConfig(
+                new EnvConfig.DockerEnv("image", null, null, null, "", 1024),
+                new EnvConfig.ServerConfig(false, null, SECURITY_KEY, null, null, Duration.ofSeconds(30),
+                        Duration.ofMinutes(10), Duration.ofMinutes(360), Duration.ofSeconds(2)));
+
+        NodeManager nodeManager = idleNodeManager();
+        gatewayService = new GatewayService(new EventBus(), envConfig, nodeManager);
+        WsHandler wsHandler = new WsHandler(envConfig, gatewayService, nodeManager);
+
+        app = Javalin.create(config -> config.showJavalinBanner = false);
+
+        app.exception(ApiError.class, (e, ctx) -> {
+            ctx.status(e.status);
+            ctx.result(e.getMessage());
+        });
+
+        ServerMain.registerGatewayRoutes(app, gatewayService);
+        app.get("/ping", ctx -> ctx.result("pong"));
+        app.ws("/gateway", wsHandler::configure);
+
+        app.start(0);
+
+        plugin = client.newWebSocketBuilder()
+                .header("Authorization", wsHandler.generateServerJwt(serverId, SECURITY_KEY))
+                .header("X-SERVER-ID", serverId.toString())
+                .buildAsync(URI.create("ws://localhost:" + app.port() + "/gateway"), new PluginListener())
+                .get(10, TimeUnit.SECONDS);
+    }
+
+    @AfterEach
+    void stop() {
+        plugin.abort();
+        app.stop();
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + app.port() + path))
+                .timeout(Duration.ofSeconds(30))
+                .build();
+    }
+
+    @Test
+    void hungServersDoNotStallOtherRoutes() throws Exception {
+        // More waiting requests than Jetty has threads; a blocking handler would hold one thread each.
+        int hung = 300;
+        List<CompletableFuture<HttpResponse<String>>> waiting = new ArrayList<>();
+
+        for (int i = 0; i < hung; i++) {
+            String path = i % 2 == 0
+                    ? "/api/v2/servers/" + serverId + "/commands"
+                    : "/api/v2/servers/" + serverId + "/player-infos?page=" + i;
+            waiting.add(client.sendAsync(get(path), HttpResponse.BodyHandlers.ofString()));
+        }
+
+        Thread.sleep(500);
+
+        long start = System.nanoTime();
+        HttpResponse<String> ping = client.send(get("/ping"), HttpResponse.BodyHandlers.ofString());
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals("pong", ping.body());
+        assertTrue(elapsedMs < 1_000, "ping took " + elapsedMs + "ms");
+
+        for (var response : waiting) {
+            assertEquals(504, response.get(30, TimeUnit.SECONDS).statusCode());
+        }
+
+        // The requests reached the plugin; it is the plugin that stayed silent.
+        assertTrue(received.stream().anyMatch(message -> "get-commands".equals(message.getType())));
+        assertTrue(received.stream().anyMatch(message -> "get-players-info".equals(message.getType())));
+    }
+
+    @Test
+    void answerBeforeTheTimeoutIsReturned() throws Exception {
+        HttpResponse<String> response = client.send(get("/api/v2/servers/" + serverId + "/json"),
+                HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        assertEquals("Frozen Forest", Utils.readString(response.body()).get("map").asText());
+    }
+
+    @Test
+    void handlerWaitingOnTheBackendDoesNotHoldBackReplies() throws Exception {
+        CompletableFuture<Object> backend = new CompletableFuture<>();
+        gatewayService.of(serverId).registerMessageHandler("slow", Void.class, ignored -> backend);
+
+        plugin.sendText(Utils.toJsonString(WsMessage.create("slow")), true).get(5, TimeUnit.SECONDS);
+
+        long start = System.nanoTime();
+        HttpResponse<String> response = client.send(get("/api/v2/servers/" + serverId + "/json"),
+                HttpResponse.BodyHandlers.ofString());
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(200, response.statusCode());
+        assertTrue(elapsedMs < 1_000, "reply took " + elapsedMs + "ms");
+
+        backend.complete("done");
+    }
+
+    private class PluginListener implements WebSocket.Listener {
+        private final StringBuilder text = new StringBuilder();
+
+        @Override
+        public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+            text.append(data);
+
+            if (last) {
+                WsMessage<?> message = Utils.readJsonAsClass(text.toString(), WsMessage.class);
+                text.setLength(0);
+                received.add(message);
+
+                if (answers.containsKey(message.getType())) {
+                    webSocket.sendText(Utils.toJsonString(message.response(answers.get(message.getType()))), true);
+                }
+            }
+
+            webSocket.request(1);
+            return null;
+        }
+    }
+
+    /** A node manager with no containers, enough for the gateway to run. */
+    private static NodeManager idleNodeManager() {
+        return (NodeManager) Proxy.newProxyInstance(AsyncRouteTest.class.getClassLoader(),
+                new Class<?>[] { NodeManager.class }, (proxy, method, args) -> {
+                    Class<?> type = method.getReturnType();
+
+                    if (type == boolean.class) {
+                        return false;
+                    }
+
+                    if (type == long.class) {
+                        return 0L;
+                    }
+
+                    if (type == List.class) {
+                        return List.of();
+                    }
+
+                    return null;
+                });
+    }
+}
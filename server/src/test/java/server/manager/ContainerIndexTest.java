@@ -0,0 +1,265 @@
+package server.manager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.command.ListContainersCmd;
+import com.github.dockerjava.api.model.Container;
+import com.github.dockerjava.api.model.Event;
+import com.github.dockerjava.api.model.EventType;
+
+import server.config.Const;
+
+class ContainerIndexTest {
+
+    private FakeDocker docker;
+    private ContainerIndex index;
+
+    @BeforeEach
+    void setUp() {
+        docker = new FakeDocker();
+        index = new ContainerIndex(docker.client());
+    }
+
+    @Test
+    void seedListsOnce() {
+        UUID serverId = UUID.randomUUID();
+        docker.put("c1", serverId, "running");
+        docker.put("other", null, "running");
+
+        index.seed();
+
+        assertEquals(1, docker.listCalls);
+        assertEquals(1, index.size());
+        assertTrue(index.findByServerId(serverId).orElseThrow().running());
+    }
+
+    @Test
+    void replayedLifecycleNeedsOnlyOneRefresh() {
+        UUID serverId = UUID.randomUUID();
+        index.seed();
+
+        docker.put("c1", serverId, "created");
+        index.apply(event("c1", "create"));
+        assertEquals(2, docker.listCalls);
+
+        index.apply(event("c1", "start"));
+        assertTrue(index.findByServerId(serverId).orElseThrow().running());
+
+        index.apply(event("c1", "pause"));
+        assertTrue(index.findByServerId(serverId).orElseThrow().paused());
+
+        index.apply(event("c1", "unpause"));
+        assertTrue(index.findByServerId(serverId).orElseThrow().running());
+
+        index.apply(event("c1", "exec_start: sh"));
+        index.apply(event("c1", "die"));
+        assertEquals("exited", index.findByServerId(serverId).orElseThrow().state());
+
+        for (int i = 0; i < 100; i++) {
+            index.findByServerId(serverId);
+            index.all();
+        }
+
+        assertEquals(2, docker.listCalls);
+
+        docker.containers.remove("c1");
+        assertTrue(index.apply(event("c1", "destroy")).isPresent());
+        assertTrue(index.findByServerId(serverId).isEmpty());
+        assertEquals(2, docker.listCalls);
+    }
+
+    @Test
+    void unknownContainerIsRefreshedOnStateChange() {
+        UUID serverId = UUID.randomUUID();
+        index.seed();
+
+        docker.put("c1", serverId, "running");
+
+        assertTrue(index.apply(event("c1", "start")).isPresent());
+        assertTrue(index.findByServerId(serverId).orElseThrow().running());
+        assertEquals(2, docker.listCalls);
+    }
+
+    @Test
+    void foreignContainersAreNotIndexed() {
+        index.seed();
+
+        docker.put("other", null, "running");
+
+        assertTrue(index.apply(event("other", "start")).isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void nonContainerEventsAreIgnored() {
+        UUID serverId = UUID.randomUUID();
+        docker.put("c1", serverId, "running");
+        index.seed();
+
+        var event = new Event("die", "c1", "image", 0L).withAction("die").withType(EventType.NETWORK);
+
+        assertTrue(index.apply(event).isEmpty());
+        assertTrue(index.findByServerId(serverId).orElseThrow().running());
+    }
+
+    @Test
+    void reconcileDropsMissedDestroy() {
+        UUID serverId = UUID.randomUUID();
+        docker.put("c1", serverId, "running");
+        index.seed();
+
+        docker.containers.remove("c1");
+        index.reconcile();
+
+        assertFalse(index.findByServerId(serverId).isPresent());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void eventDuringReconcileIsNotOverwritten() throws Exception {
+        UUID serverId = UUID.randomUUID();
+        docker.put("c1", serverId, "running");
+        index.seed();
+
+        Thread pause = new Thread(() -> index.apply(event("c1", "pause")));
+
+        // The listing below still says running; the pause lands while it is applied.
+        docker.afterList = () -> {
+            docker.afterList = null;
+            pause.start();
+
+            try {
+                pause.join(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        index.reconcile();
+        pause.join();
+
+        assertTrue(index.findByServerId(serverId).orElseThrow().paused());
+    }
+
+    @Test
+    void claimedStandbyIsFoundByItsNewName() {
+        UUID serverId = UUID.randomUUID();
+        docker.putStandby("s1", "standby-6600", 6600);
+        index.seed();
+
+        var standby = index.get("s1").orElseThrow();
+        assertTrue(standby.standby());
+        assertTrue(standby.serverId().isEmpty());
+        assertEquals(6600, standby.standbyPort().orElseThrow());
+
+        docker.putStandby("s1", serverId.toString(), 6600);
+        index.apply(event("s1", "rename"));
+
+        assertEquals("s1", index.findByServerId(serverId).orElseThrow().id());
+        assertEquals(1, index.size());
+    }
+
+    private static Event event(String containerId, String action) {
+        return new Event(action, containerId, "image", 0L)
+                .withAction(action)
+                .withType(EventType.CONTAINER);
+    }
+
+    private static class FakeDocker {
+        private static final ObjectMapper mapper = new ObjectMapper();
+
+        final Map<String, Container> containers = new LinkedHashMap<>();
+        int listCalls = 0;
+        volatile Runnable afterList;
+
+        void put(String id, UUID serverId, String state) {
+            Map<String, String> labels = new LinkedHashMap<>();
+
+            if (serverId != null) {
+                labels.put(Const.serverIdLabel, serverId.toString());
+            }
+
+            containers.put(id, mapper.convertValue(Map.of(
+                    "Id", id,
+                    "Names", List.of("/" + id),
+                    "State", state,
+                    "Labels", labels), Container.class));
+        }
+
+        void putStandby(String id, String name, int port) {
+            containers.put(id, mapper.convertValue(Map.of(
+                    "Id", id,
+                    "Names", List.of("/" + name),
+                    "State", "running",
+                    "Labels", Map.of(Const.serverIdLabel, "standby", Const.standbyLabel, String.valueOf(port))),
+                    Container.class));
+        }
+
+        DockerClient client() {
+            return (DockerClient) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[] { DockerClient.class }, (proxy, method, args) -> {
+                        if (method.getName().equals("listContainersCmd")) {
+                            return listCmd();
+                        }
+
+                        throw new UnsupportedOperationException(method.getName());
+                    });
+        }
+
+        @SuppressWarnings("unchecked")
+        private ListContainersCmd listCmd() {
+            List<String> labelFilter = new ArrayList<>();
+            List<String> idFilter = new ArrayList<>();
+
+            return (ListContainersCmd) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[] { ListContainersCmd.class }, (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "withShowAll":
+                                return proxy;
+                            case "withLabelFilter":
+                                if (args[0] instanceof Map<?, ?> map) {
+                                    labelFilter.addAll((Collection<String>) map.keySet());
+                                } else {
+                                    labelFilter.addAll((Collection<String>) args[0]);
+                                }
+                                return proxy;
+                            case "withIdFilter":
+                                idFilter.addAll((Collection<String>) args[0]);
+                                return proxy;
+                            case "exec":
+                                listCalls++;
+                                var listed = containers.values().stream()
+                                        .filter(c -> idFilter.isEmpty() || idFilter.contains(c.getId()))
+                                        .filter(c -> labelFilter.stream().allMatch(c.getLabels()::containsKey))
+                                        .toList();
+
+                                Runnable hook = afterList;
+                                if (hook != null) {
+                                    hook.run();
+                                }
+
+                                return listed;
+                            case "close":
+                                return null;
+                            default:
+                                throw new UnsupportedOperationException(method.getName());
+                        }
+                    });
+        }
+    }
+}
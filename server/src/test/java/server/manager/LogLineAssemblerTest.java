@@ -0,0 +1,161 @@
+package server.manager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.dockerjava.api.model.StreamType;
+
+public class LogLineAssemblerTest {
+
+    private final List<String> batches = new ArrayList<>();
+
+    private LogLineAssembler assembler(LogLineAssembler.Cursor cursor, int maxLines) {
+        return new LogLineAssembler(cursor, maxLines, 64 * 1024, Duration.ofMillis(100), null, batches::add);
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void linesSplitAcrossFramesAreJoined() {
+        LogLineAssembler assembler = assembler(new LogLineAssembler.Cursor(), 100);
+
+        assembler.accept(StreamType.STDOUT, bytes("2024-05-01T10:00:00.000000001Z Server sta"));
+        assembler.accept(StreamType.STDOUT, bytes("rted\n2024-05-01T10:00:00.000000002Z Map loaded\n2024-05-01T10:00"));
+        assembler.accept(StreamType.STDOUT, bytes(":00.000000003Z Player joined\n"));
+        assembler.flush();
+
+        assertEquals(List.of("Server started\nMap loaded\nPlayer joined"), batches);
+    }
+
+    @Test
+    void multiByteCharactersSplitAcrossFramesAreDecoded() {
+        LogLineAssembler assembler = assembler(new LogLineAssembler.Cursor(), 100);
+        byte[] line = bytes("2024-05-01T10:00:00.000000001Z Xin ch\u00e0o th\u1ebf gi\u1edbi \u2713\n");
+
+        // Cut inside the multi-byte sequence of the check mark.
+        int cut = line.length - 3;
+        assembler.accept(StreamType.STDOUT, Arrays.copyOfRange(line, 0, cut));
+        assembler.accept(StreamType.STDOUT, Arrays.copyOfRange(line, cut, line.length));
+        assembler.flush();
+
+        assertEquals(List.of("Xin ch\u00e0o th\u1ebf gi\u1edbi \u2713"), batches);
+    }
+
+    @Test
+    void streamsKeepSeparateTails() {
+        LogLineAssembler assembler = assembler(new LogLineAssembler.Cursor(), 100);
+
+        assembler.accept(StreamType.STDOUT, bytes("2024-05-01T10:00:00.000000001Z out "));
+        assembler.accept(StreamType.STDERR, bytes("2024-05-01T10:00:00.000000002Z err line\n"));
+        assembler.accept(StreamType.STDOUT, bytes("line\r\n"));
+        assembler.flush();
+
+        assertEquals(List.of("err line\nout line"), batches);
+    }
+
+    @Test
+    void batchIsEmittedWhenFull() {
+        LogLineAssembler assembler = assembler(new LogLineAssembler.Cursor(), 3);
+
+        StringBuilder frame = new StringBuilder();
+        for (int i = 1; i <= 7; i++) {
+            frame.append("2024-05-01T10:00:00.00000000").append(i).append("Z line ").append(i).append('\n');
+        }
+        assembler.accept(StreamType.STDOUT, bytes(frame.toString()));
+
+        assertEquals(List.of("line 1\nline 2\nline 3", "line 4\nline 5\nline 6"), batches);
+
+        assembler.flush();
+        assertEquals("line 7", batches.get(2));
+    }
+
+    @Test
+    void outputWithoutNewlinesIsEmittedOnceTheTailIsFull() {
+        LogLineAssembler assembler = new LogLineAssembler(new LogLineAssembler.Cursor(), 100, 16,
+                Duration.ofMillis(100), null, batches::add);
+
+        for (int i = 0; i < 10; i++) {
+            assembler.accept(StreamType.RAW, bytes("abcd"));
+        }
+
+        assertEquals(List.of("abcdabcdabcdabcd", "abcdabcdabcdabcd"), batches);
+
+        assembler.flush(true);
+        assertEquals("abcdabcd", batches.get(2));
+    }
+
+    @Test
+    void fullTailIsCutBeforeASplitCharacter() {
+        LogLineAssembler assembler = new LogLineAssembler(new LogLineAssembler.Cursor(), 100, 16,
+                Duration.ofMillis(100), null, batches::add);
+
+        assembler.accept(StreamType.RAW, bytes("abcdefghijklmno\u2713xyz"));
+        assembler.flush(true);
+
+        assertEquals(List.of("abcdefghijklmno", "\u2713xyz"), batches);
+    }
+
+    @Test
+    void replayedLinesAreSkippedAfterReattach() {
+        LogLineAssembler.Cursor cursor = new LogLineAssembler.Cursor();
+        LogLineAssembler first = assembler(cursor, 100);
+
+        first.accept(StreamType.STDOUT, bytes("""
+                2024-05-01T10:00:05.100000000Z one
+                2024-05-01T10:00:05.200000000Z two
+                2024-05-01T10:00:05.300000000Z three
+                """));
+        first.flush(true);
+
+        assertEquals(Instant.parse("2024-05-01T10:00:05.300000000Z"), cursor.last(StreamType.STDOUT));
+        assertEquals((int) Instant.parse("2024-05-01T10:00:05Z").getEpochSecond(), cursor.since());
+
+        // Docker replays the whole second on reattach.
+        LogLineAssembler second = assembler(cursor, 100);
+        second.accept(StreamType.STDOUT, bytes("""
+                2024-05-01T10:00:05.100000000Z one
+                2024-05-01T10:00:05.200000000Z two
+                2024-05-01T10:00:05.300000000Z three
+                2024-05-01T10:00:05.300000000Z three, same instant
+                2024-05-01T10:00:06.000000000Z four
+                """));
+        second.flush(true);
+
+        assertEquals(List.of("one\ntwo\nthree", "three, same instant\nfour"), batches);
+    }
+
+    @Test
+    void sinceUsesTheOldestStreamPosition() {
+        LogLineAssembler.Cursor cursor = new LogLineAssembler.Cursor();
+        LogLineAssembler assembler = assembler(cursor, 100);
+
+        assembler.accept(StreamType.STDOUT, bytes("2024-05-01T10:00:09.000000000Z late\n"));
+        assembler.accept(StreamType.STDERR, bytes("2024-05-01T10:00:03.000000000Z early\n"));
+        assembler.flush();
+
+        assertEquals((int) Instant.parse("2024-05-01T10:00:03Z").getEpochSecond(), cursor.since());
+        assertEquals(List.of("late\nearly"), batches);
+    }
+
+    @Test
+    void linesWithoutTimestampArePassedThrough() {
+        LogLineAssembler assembler = assembler(new LogLineAssembler.Cursor(), 100);
+
+        assembler.accept(StreamType.RAW, bytes("plain line\n\n   \npartial"));
+        assembler.flush(true);
+
+        assertEquals(1, batches.size());
+        assertTrue(batches.get(0).equals("plain line\npartial"));
+    }
+}
@@ -0,0 +1,139 @@
+package server.manager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import arc.files.Fi;
+
+public class MetadataCatalogTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final List<String> parsed = new ArrayList<>();
+
+    private Fi index;
+    private List<Fi> files;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        index = new Fi(tempDir.resolve("catalog").resolve("maps.json").toFile());
+        files = new ArrayList<>();
+
+        for (int i = 0; i < 10; i++) {
+            Path file = tempDir.resolve("maps").resolve("map-" + i + ".msav");
+            Files.createDirectories(file.getParent());
+            Files.writeString(file, "map " + i);
+            files.add(new Fi(file.toFile()));
+        }
+    }
+
+    private MetadataCatalog<String> catalog() {
+        return new MetadataCatalog<>(index, String.class, mapper, file -> {
+            parsed.add(file.name());
+            return file.readString();
+        });
+    }
+
+    private List<String> list(MetadataCatalog<String> catalog) {
+        List<String> result = new ArrayList<>();
+        for (Fi file : files) {
+            result.add(catalog.get(file));
+        }
+        catalog.retain(MetadataCatalog.paths(files));
+        catalog.save();
+        return result;
+    }
+
+    @Test
+    void secondListingAfterOneChangeParsesExactlyThatFile() throws Exception {
+        MetadataCatalog<String> catalog = catalog();
+
+        list(catalog);
+        assertEquals(10, catalog.parseCount());
+
+        Fi changed = files.get(3);
+        Files.writeString(changed.file().toPath(), "map 3, edited");
+        changed.file().setLastModified(changed.lastModified() + 2000);
+        parsed.clear();
+
+        List<String> result = list(catalog);
+
+        assertEquals(List.of("map-3.msav"), parsed);
+        assertEquals(11, catalog.parseCount());
+        assertEquals("map 3, edited", result.get(3));
+    }
+
+    @Test
+    void unchangedListingParsesNothing() {
+        MetadataCatalog<String> catalog = catalog();
+
+        list(catalog);
+        parsed.clear();
+        list(catalog);
+
+        assertTrue(parsed.isEmpty());
+    }
+
+    @Test
+    void indexSurvivesRestart() {
+        list(catalog());
+        parsed.clear();
+
+        MetadataCatalog<String> restarted = catalog();
+        List<String> result = list(restarted);
+
+        assertTrue(parsed.isEmpty());
+        assertEquals(0, restarted.parseCount());
+        assertEquals("map 0", result.get(0));
+    }
+
+    @Test
+    void touchedFileWithSameContentIsNotReparsed() {
+        MetadataCatalog<String> catalog = catalog();
+        list(catalog);
+        parsed.clear();
+
+        Fi touched = files.get(5);
+        touched.file().setLastModified(touched.lastModified() + 2000);
+
+        list(catalog);
+
+        assertTrue(parsed.isEmpty());
+    }
+
+    @Test
+    void removedFilesAreDropped() {
+        MetadataCatalog<String> catalog = catalog();
+        list(catalog);
+
+        catalog.retain(Set.of(files.get(0).absolutePath()));
+
+        assertEquals(1, catalog.size());
+    }
+
+    @Test
+    void corruptIndexIsRebuilt() throws Exception {
+        Files.createDirectories(index.file().toPath().getParent());
+        Files.writeString(index.file().toPath(), "{not json", StandardCharsets.UTF_8);
+
+        MetadataCatalog<String> catalog = catalog();
+        list(catalog);
+
+        assertEquals(10, catalog.parseCount());
+    }
+}
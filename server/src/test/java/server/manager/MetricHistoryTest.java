@@ -0,0 +1,98 @@
+package server.manager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import server.types.data.NodeUsage;
+
+public class MetricHistoryTest {
+
+    private static final Instant START = Instant.parse("2024-05-01T10:00:00Z");
+
+    private static MetricHistory history() {
+        return new MetricHistory(
+                new MetricHistory.Tier(Duration.ofSeconds(1), Duration.ofSeconds(10)),
+                new MetricHistory.Tier(Duration.ofMinutes(1), Duration.ofMinutes(5)));
+    }
+
+    private static NodeUsage sample(long millis, double cpu, long ram) {
+        return new NodeUsage(cpu, ram, START.plusMillis(millis));
+    }
+
+    @Test
+    void samplesInOneBucketAreAveraged() {
+        MetricHistory history = history();
+
+        history.record(sample(0, 10, 100));
+        history.record(sample(500, 30, 300));
+        history.record(sample(1000, 50, 500));
+
+        List<NodeUsage> result = history.query(START, START.plusSeconds(2));
+
+        assertEquals(2, result.size());
+        assertEquals(20, result.get(0).cpu(), 1e-9);
+        assertEquals(200, result.get(0).ram());
+        assertEquals(START, result.get(0).createdAt());
+        assertEquals(50, result.get(1).cpu(), 1e-9);
+        assertEquals(START.plusSeconds(1), result.get(1).createdAt());
+    }
+
+    @Test
+    void fineTierIsUsedWhileItReachesBack() {
+        MetricHistory history = history();
+
+        for (int second = 0; second < 8; second++) {
+            history.record(sample(second * 1000L, second, second));
+        }
+
+        List<NodeUsage> result = history.query(START.plusSeconds(2), START.plusSeconds(5));
+
+        assertEquals(List.of(2.0, 3.0, 4.0, 5.0), cpus(result));
+    }
+
+    @Test
+    void olderRangesFallBackToTheCoarseTier() {
+        MetricHistory history = history();
+
+        // Two minutes at one sample per second: the fine tier only keeps the last ten seconds.
+        for (int second = 0; second < 120; second++) {
+            history.record(sample(second * 1000L, second < 60 ? 10 : 30, 0));
+        }
+
+        List<NodeUsage> recent = history.query(START.plusSeconds(115), START.plusSeconds(119));
+        List<NodeUsage> older = history.query(START, START.plusSeconds(119));
+
+        assertEquals(5, recent.size());
+        assertEquals(List.of(10.0, 30.0), cpus(older));
+        assertEquals(START.plusSeconds(60), older.get(1).createdAt());
+    }
+
+    @Test
+    void ringKeepsOnlyItsSpan() {
+        MetricHistory history = new MetricHistory(new MetricHistory.Tier(Duration.ofSeconds(1), Duration.ofSeconds(3)));
+
+        for (int second = 0; second < 6; second++) {
+            history.record(sample(second * 1000L, second, 0));
+        }
+
+        // Too old for the ring by now, and must not overwrite a newer bucket.
+        history.record(sample(1000, 99, 0));
+
+        assertEquals(List.of(3.0, 4.0, 5.0), cpus(history.query(START, START.plusSeconds(10))));
+    }
+
+    @Test
+    void emptyHistoryReturnsNothing() {
+        assertTrue(history().query(START, START.plusSeconds(60)).isEmpty());
+    }
+
+    private static List<Double> cpus(List<NodeUsage> usages) {
+        return usages.stream().map(NodeUsage::cpu).toList();
+    }
+}
@@ -0,0 +1,167 @@
+package server.manager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import dto.ServerConfig;
+
+public class StandbyPoolTest {
+
+    private static final String IMAGE = "mindustry-server:latest";
+
+    @TempDir
+    Path tempDir;
+
+    private final StandbyPool pool = new StandbyPool("6600-6602, 6610", 1024, IMAGE);
+
+    private static ServerConfig request(int port) {
+        return new ServerConfig()
+                .setId(UUID.randomUUID())
+                .setPort(port)
+                .setEnv(Map.of())
+                .setCpu(2)
+                .setMemory(1024);
+    }
+
+    @Test
+    void portsAreParsedFromRangesAndLists() {
+        assertEquals(List.of(6600, 6601, 6602, 6610), pool.ports());
+        assertEquals(List.of(6601, 6610), pool.missing(Set.of(6600, 6602, 7000)));
+
+        assertEquals(List.of(), StandbyPool.parsePorts(null));
+        assertEquals(List.of(), StandbyPool.parsePorts(" "));
+        assertFalse(new StandbyPool("", 1024, IMAGE).enabled());
+
+        assertThrows(IllegalArgumentException.class, () -> StandbyPool.parsePorts("6600-abc"));
+        assertThrows(IllegalArgumentException.class, () -> StandbyPool.parsePorts("6602-6600"));
+    }
+
+    @Test
+    void onlyGenericServersOnAPoolPortCanClaim() throws Exception {
+        Path config = tempDir.resolve("config");
+
+        assertTrue(pool.canClaim(request(6600), config));
+        assertTrue(pool.canClaim(request(6601).setImage(IMAGE), config));
+
+        assertFalse(pool.canClaim(request(6603), config));
+        assertFalse(pool.canClaim(request(6600).setIsHub(true), config));
+        assertFalse(pool.canClaim(request(6600).setIsOfficial(true), config));
+        assertFalse(pool.canClaim(request(6600).setImage("other:latest"), config));
+        assertFalse(pool.canClaim(request(6600).setEnv(Map.of("KEY", "value")), config));
+        assertFalse(pool.canClaim(request(6600).setMemory(512), config));
+        // The standby JVM's heap cap is fixed at start, a bigger server would not get its memory.
+        assertFalse(pool.canClaim(request(6600).setMemory(2048), config));
+
+        Files.createDirectories(config.resolve("mods"));
+        assertTrue(pool.canClaim(request(6600), config));
+
+        Files.write(config.resolve("mods").resolve("mod.jar"), new byte[1]);
+        assertFalse(pool.canClaim(request(6600), config));
+    }
+
+    @Test
+    void handOverKeepsTheServerFiles() throws Exception {
+        Path standby = Files.createDirectories(tempDir.resolve("standby").resolve("6600").resolve("config"));
+        Files.createDirectories(standby.resolve("maps"));
+        Files.writeString(standby.resolve("maps").resolve("default.msav"), "standby");
+        Files.writeString(standby.resolve("settings.bin"), "standby");
+
+        Path server = Files.createDirectories(tempDir.resolve("servers").resolve("id").resolve("config"));
+        Files.createDirectories(server.resolve("maps"));
+        Files.writeString(server.resolve("maps").resolve("custom.msav"), "server");
+        Files.writeString(server.resolve("settings.bin"), "server");
+        Files.writeString(server.resolve(StandbyPool.SERVER_JSON), "{}");
+
+        StandbyPool.handOver(standby, server);
+
+        assertFalse(Files.exists(server.resolveSibling("config.previous")));
+        assertEquals("server", Files.readString(server.resolve("settings.bin")));
+        assertEquals("server", Files.readString(server.resolve("maps").resolve("custom.msav")));
+        assertEquals("standby", Files.readString(server.resolve("maps").resolve("default.msav")));
+        assertEquals("{}", Files.readString(server.resolve(StandbyPool.SERVER_JSON)));
+    }
+
+    @Test
+    void handOverCreatesTheServerFolder() throws Exception {
+        Path standby = Files.createDirectories(tempDir.resolve("standby").resolve("6600").resolve("config"));
+        Files.writeString(standby.resolve("settings.bin"), "standby");
+
+        Path server = tempDir.resolve("servers").resolve("id").resolve("config");
+
+        StandbyPool.handOver(standby, server);
+
+        assertEquals("standby", Files.readString(server.resolve("settings.bin")));
+    }
+
+    @Test
+    void standbyFolderLinksToTheServerAfterHandOver() throws Exception {
+        Path standbyFolder = tempDir.resolve("standby").resolve("6600");
+        Path standby = Files.createDirectories(standbyFolder.resolve("config"));
+
+        Path server = Files.createDirectories(tempDir.resolve("servers").resolve("id").resolve("config"));
+        Files.writeString(server.resolve(StandbyPool.SERVER_JSON), "{}");
+
+        StandbyPool.handOver(standby, server);
+
+        // The container's bind names the standby folder; a restart has to find the server's files there.
+        assertTrue(Files.isSymbolicLink(standby));
+        assertEquals(server.toRealPath(), standby.toRealPath());
+        assertEquals("{}", Files.readString(standby.resolve(StandbyPool.SERVER_JSON)));
+
+        StandbyPool.delete(standbyFolder);
+
+        assertFalse(Files.exists(standbyFolder));
+        assertEquals("{}", Files.readString(server.resolve(StandbyPool.SERVER_JSON)));
+    }
+
+    @Test
+    void failedHandOverLeavesTheServerFolder() throws Exception {
+        Path standby = tempDir.resolve("standby").resolve("6600").resolve("config");
+
+        Path server = Files.createDirectories(tempDir.resolve("servers").resolve("id").resolve("config"));
+        Files.writeString(server.resolve("settings.bin"), "server");
+
+        assertThrows(IOException.class, () -> StandbyPool.handOver(standby, server));
+
+        assertEquals("server", Files.readString(server.resolve("settings.bin")));
+        assertFalse(Files.exists(server.resolveSibling("config.previous")));
+    }
+
+    @Test
+    void recoverMergesTheFilesOfAnUnfinishedHandOver() throws Exception {
+        Path server = Files.createDirectories(tempDir.resolve("servers").resolve("id").resolve("config"));
+        Files.writeString(server.resolve("settings.bin"), "standby");
+        Files.writeString(server.resolve("log.txt"), "standby");
+
+        Path previous = Files.createDirectories(server.resolveSibling("config.previous"));
+        Files.createDirectories(previous.resolve("maps"));
+        Files.writeString(previous.resolve("maps").resolve("custom.msav"), "server");
+        Files.writeString(previous.resolve("settings.bin"), "server");
+        Files.writeString(previous.resolve(StandbyPool.SERVER_JSON), "{}");
+
+        StandbyPool.recover(server);
+
+        assertFalse(Files.exists(previous));
+        assertEquals("server", Files.readString(server.resolve("settings.bin")));
+        assertEquals("standby", Files.readString(server.resolve("log.txt")));
+        assertEquals("server", Files.readString(server.resolve("maps").resolve("custom.msav")));
+        assertEquals("{}", Files.readString(server.resolve(StandbyPool.SERVER_JSON)));
+
+        // Nothing set aside, nothing to do.
+        StandbyPool.recover(server);
+        assertEquals("server", Files.readString(server.resolve("settings.bin")));
+    }
+}
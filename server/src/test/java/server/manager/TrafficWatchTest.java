@@ -0,0 +1,49 @@
+package server.manager;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class TrafficWatchTest {
+
+    @Test
+    void joinWakes() {
+        TrafficWatch watch = new TrafficWatch(3, 64);
+
+        assertFalse(watch.accept(1000, 60_000));
+        // One ARP frame.
+        assertFalse(watch.accept(1001, 60_060));
+        // Handshake and connect packet.
+        assertTrue(watch.accept(1004, 60_060 + 74 + 66 + 180));
+    }
+
+    @Test
+    void pausedServerPingedByBrowsersStaysPaused() {
+        TrafficWatch watch = new TrafficWatch(3, 64);
+
+        watch.accept(1000, 60_000);
+
+        long packets = 1000;
+        long bytes = 60_000;
+
+        for (int sample = 0; sample < 60; sample++) {
+            // Dozens of server browsers pinging at once, each a minimum sized UDP frame.
+            packets += 40;
+            bytes += 40 * 60;
+
+            assertFalse(watch.accept(packets, bytes));
+        }
+    }
+
+    @Test
+    void counterResetIsNotTraffic() {
+        TrafficWatch watch = new TrafficWatch(3, 64);
+
+        watch.accept(1000, 60_000);
+
+        assertFalse(watch.accept(0, 0));
+        assertFalse(watch.accept(2, 120));
+        assertTrue(watch.accept(10, 2_000));
+    }
+}
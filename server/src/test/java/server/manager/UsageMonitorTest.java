@@ -0,0 +1,69 @@
+package server.manager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import server.types.data.NodeUsage;
+
+public class UsageMonitorTest {
+
+    private static final Instant START = Instant.parse("2024-05-01T10:00:00Z");
+
+    private static MetricHistory history() {
+        return new MetricHistory(new MetricHistory.Tier(Duration.ofSeconds(1), Duration.ofMinutes(1)));
+    }
+
+    private static NodeUsage sample(long millis, double cpu, long ram) {
+        return new NodeUsage(cpu, ram, START.plusMillis(millis));
+    }
+
+    @Test
+    void monitorFansOneSampleOutToEverySubscriber() throws Exception {
+        UsageMonitor monitor = new UsageMonitor(history());
+        List<NodeUsage> first = new ArrayList<>();
+        List<NodeUsage> second = new ArrayList<>();
+
+        var closeable = monitor.subscribe(first::add, error -> {
+        });
+        monitor.subscribe(second::add, error -> {
+        });
+
+        monitor.record(sample(0, 10, 100));
+        closeable.close();
+        monitor.record(sample(1000, 20, 200));
+
+        assertEquals(1, first.size());
+        assertEquals(2, second.size());
+        assertEquals(1, monitor.subscriberCount());
+        assertEquals(2, monitor.history(START, START.plusSeconds(5)).size());
+    }
+
+    @Test
+    void failureDropsSubscribersButKeepsHistory() {
+        UsageMonitor monitor = new UsageMonitor(history());
+        List<Throwable> errors = new ArrayList<>();
+
+        monitor.subscribe(usage -> {
+        }, errors::add);
+        monitor.record(sample(0, 10, 100));
+        monitor.fail(new IllegalStateException("gone"));
+
+        assertEquals(1, errors.size());
+        assertEquals(0, monitor.subscriberCount());
+        assertEquals(1, monitor.history(START, START.plusSeconds(5)).size());
+    }
+
+    @Test
+    void cpuPercentScalesWithCpuCountAndIsCapped() {
+        assertEquals(50, UsageMonitor.cpuPercent(50, 400, 4), 1e-9);
+        assertEquals(400, UsageMonitor.cpuPercent(900, 400, 4), 1e-9);
+        assertEquals(0, UsageMonitor.cpuPercent(-5, 400, 4), 1e-9);
+        assertEquals(0, UsageMonitor.cpuPercent(50, 0, 4), 1e-9);
+    }
+}
@@ -0,0 +1,181 @@
+package server.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import events.BaseEvent;
+import events.ServerEvents.LogEvent;
+import events.ServerEvents.StartEvent;
+
+public class EventBusTest {
+
+    private final UUID serverId = UUID.randomUUID();
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    void blockedSubscriberDoesNotSlowDownPublisherOrOtherSubscribers() throws Exception {
+        EventBus bus = new EventBus();
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch fastDone = new CountDownLatch(1);
+        int count = 20_000;
+
+        List<String> fast = new CopyOnWriteArrayList<>();
+        List<String> slow = new CopyOnWriteArrayList<>();
+
+        EventBus.Subscription blocked = bus.subscribe(event -> {
+            await(release);
+            slow.add(((LogEvent) event).getData());
+        }, 16, EventBus.OverflowPolicy.DROP_OLDEST);
+
+        bus.subscribe(event -> {
+            fast.add(((LogEvent) event).getData());
+            if (fast.size() == count) {
+                fastDone.countDown();
+            }
+        }, count, EventBus.OverflowPolicy.DROP_OLDEST);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            bus.emit(LogEvent.info(serverId, String.valueOf(i)));
+        }
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // The blocked subscriber never returns during the loop, so a synchronous bus would hang here.
+        assertTrue(elapsedMs < 5_000, "publishing took " + elapsedMs + "ms");
+
+        assertTrue(fastDone.await(10, TimeUnit.SECONDS));
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            expected.add(String.valueOf(i));
+        }
+        assertEquals(expected, fast);
+
+        assertTrue(blocked.dropped() > 0);
+        release.countDown();
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (blocked.queued() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(50);
+
+        assertTrue(slow.size() <= 17, "slow subscriber kept " + slow.size() + " events");
+        assertEquals(String.valueOf(count - 1), slow.get(slow.size() - 1));
+    }
+
+    @Test
+    void disconnectPolicyClosesSubscriptionOnce() throws Exception {
+        EventBus bus = new EventBus();
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch disconnected = new CountDownLatch(1);
+        List<Integer> disconnects = new CopyOnWriteArrayList<>();
+
+        EventBus.Subscription subscription = bus.subscribe(event -> await(release), 4,
+                EventBus.OverflowPolicy.DISCONNECT)
+                .onDisconnect(() -> {
+                    disconnects.add(1);
+                    disconnected.countDown();
+                });
+
+        for (int i = 0; i < 100; i++) {
+            bus.emit(LogEvent.info(serverId, "x"));
+        }
+
+        assertTrue(disconnected.await(10, TimeUnit.SECONDS));
+        release.countDown();
+        Thread.sleep(50);
+
+        assertTrue(subscription.isClosed());
+        assertEquals(1, disconnects.size());
+        assertEquals(0, bus.subscriberCount());
+    }
+
+    @Test
+    void coalescePolicyReplacesQueuedEventOfSameKind() throws Exception {
+        EventBus bus = new EventBus();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(3);
+        List<BaseEvent> received = new CopyOnWriteArrayList<>();
+
+        bus.subscribe(event -> {
+            started.countDown();
+            await(release);
+            received.add(event);
+            done.countDown();
+        }, 2, EventBus.OverflowPolicy.COALESCE);
+
+        bus.emit(LogEvent.info(serverId, "in flight"));
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        StartEvent start = new StartEvent(serverId);
+        bus.emit(start);
+        bus.emit(LogEvent.info(serverId, "first"));
+        bus.emit(LogEvent.info(serverId, "second"));
+
+        release.countDown();
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        Thread.sleep(50);
+
+        assertEquals(3, received.size());
+        assertEquals("in flight", ((LogEvent) received.get(0)).getData());
+        assertEquals(start, received.get(1));
+        assertEquals("second", ((LogEvent) received.get(2)).getData());
+    }
+
+    @Test
+    void preparedSubscriptionReceivesBacklogBeforeLiveEvents() throws Exception {
+        EventBus bus = new EventBus();
+        CountDownLatch done = new CountDownLatch(3);
+        List<String> received = new CopyOnWriteArrayList<>();
+
+        EventBus.Subscription subscription = bus.prepare(event -> {
+            received.add(((LogEvent) event).getData());
+            done.countDown();
+        }, 16, EventBus.OverflowPolicy.DROP_OLDEST);
+
+        bus.emit(LogEvent.info(serverId, "before start"));
+        subscription.offer(LogEvent.info(serverId, "backlog 1"));
+        subscription.offer(LogEvent.info(serverId, "backlog 2"));
+        subscription.start();
+        bus.emit(LogEvent.info(serverId, "live"));
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(List.of("backlog 1", "backlog 2", "live"), received);
+    }
+
+    @Test
+    void unsubscribeWhileEmittingIsSafe() throws Exception {
+        EventBus bus = new EventBus();
+        Thread emitter = new Thread(() -> {
+            for (int i = 0; i < 50_000; i++) {
+                bus.emit(LogEvent.info(serverId, "x"));
+            }
+        });
+
+        emitter.start();
+        for (int i = 0; i < 1_000; i++) {
+            bus.on(event -> {
+            }).run();
+        }
+        emitter.join();
+
+        assertEquals(0, bus.subscriberCount());
+    }
+}
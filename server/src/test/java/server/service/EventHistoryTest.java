@@ -0,0 +1,61 @@
+package server.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import events.ServerEvents.LogEvent;
+
+public class EventHistoryTest {
+
+    private final UUID serverId = UUID.randomUUID();
+
+    private static List<Long> sequences(List<EventHistory.Entry> entries) {
+        return entries.stream().map(EventHistory.Entry::sequence).toList();
+    }
+
+    @Test
+    void sequencesStartAtOneAndIncrease() {
+        EventHistory history = new EventHistory(4);
+
+        assertEquals(1, history.append(LogEvent.info(serverId, "a")).sequence());
+        assertEquals(2, history.append(LogEvent.info(serverId, "b")).sequence());
+        assertEquals(2, history.lastSequence());
+        assertEquals(2, history.size());
+    }
+
+    @Test
+    void sinceReturnsOnlyMissedEvents() {
+        EventHistory history = new EventHistory(8);
+        for (int i = 0; i < 5; i++) {
+            history.append(LogEvent.info(serverId, String.valueOf(i)));
+        }
+
+        assertEquals(List.of(4L, 5L), sequences(history.since(3)));
+        assertEquals(List.of(), sequences(history.since(5)));
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), sequences(history.since(0)));
+        assertEquals("3", ((LogEvent) history.since(3).get(0).event()).getData());
+    }
+
+    @Test
+    void oldestEventsAreOverwrittenOnceFull() {
+        EventHistory history = new EventHistory(3);
+        for (int i = 0; i < 10; i++) {
+            history.append(LogEvent.info(serverId, String.valueOf(i)));
+        }
+
+        assertEquals(3, history.size());
+        assertEquals(List.of(8L, 9L, 10L), sequences(history.since(0)));
+        assertEquals(List.of(9L, 10L), sequences(history.since(8)));
+
+        assertTrue(history.isRetained(7));
+        assertTrue(history.isRetained(10));
+        assertFalse(history.isRetained(6));
+        assertFalse(history.isRetained(11));
+    }
+}
@@ -0,0 +1,122 @@
+package server.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import server.service.EventBus.OverflowPolicy;
+
+public class EventQueueTest {
+
+    @Test
+    void eachQueueKeepsItsOrderOnASharedFixedPool() throws Exception {
+        int servers = 50;
+        int messages = 2_000;
+        int threads = 4;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        Set<Thread> used = ConcurrentHashMap.newKeySet();
+        CountDownLatch done = new CountDownLatch(servers * messages);
+
+        try {
+            List<List<Integer>> received = new ArrayList<>();
+            List<EventQueue<Runnable>> queues = new ArrayList<>();
+
+            for (int s = 0; s < servers; s++) {
+                received.add(Collections.synchronizedList(new ArrayList<>()));
+                queues.add(new EventQueue<>(pool, Runnable::run, messages, OverflowPolicy.REJECT, null));
+            }
+
+            // Several producers per queue would make the order ambiguous, so each server has one, like a socket.
+            List<Thread> producers = new ArrayList<>();
+            for (int s = 0; s < servers; s++) {
+                int server = s;
+                Thread producer = new Thread(() -> {
+                    for (int i = 0; i < messages; i++) {
+                        int message = i;
+                        assertTrue(queues.get(server).offer(() -> {
+                            used.add(Thread.currentThread());
+                            received.get(server).add(message);
+                            done.countDown();
+                        }));
+                    }
+                });
+                producers.add(producer);
+                producer.start();
+            }
+
+            for (Thread producer : producers) {
+                producer.join();
+            }
+
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < messages; i++) {
+                expected.add(i);
+            }
+
+            for (List<Integer> messagesOfServer : received) {
+                assertEquals(expected, messagesOfServer);
+            }
+
+            assertTrue(used.size() <= threads, "used " + used.size() + " threads");
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void rejectPolicyRefusesNewItemsAndKeepsQueuedOnes() throws Exception {
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        CountDownLatch release = new CountDownLatch(1);
+        List<Integer> handled = Collections.synchronizedList(new ArrayList<>());
+
+        try {
+            EventQueue<Integer> queue = new EventQueue<>(pool, item -> {
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                handled.add(item);
+            }, 2, OverflowPolicy.REJECT, null);
+
+            assertTrue(queue.offer(1));
+
+            // Wait until the first item is taken, so the queue is empty again.
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (queue.queued() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+
+            assertTrue(queue.offer(2));
+            assertTrue(queue.offer(3));
+            assertFalse(queue.offer(4));
+            assertEquals(1, queue.dropped());
+
+            release.countDown();
+
+            deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (handled.size() < 3 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+
+            assertEquals(List.of(1, 2, 3), handled);
+            assertFalse(queue.isClosed());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
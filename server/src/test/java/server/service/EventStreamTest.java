@@ -0,0 +1,111 @@
+package server.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+
+import events.ServerEvents.LogEvent;
+
+public class EventStreamTest {
+
+    private final UUID serverId = UUID.randomUUID();
+
+    @Test
+    void frameIsEncodedOnceAndShared() {
+        EventHistory.Entry entry = new EventHistory(4).append(LogEvent.info(serverId, "hello"));
+
+        byte[] first = entry.frame();
+
+        assertSame(first, entry.frame());
+
+        String text = new String(first, StandardCharsets.UTF_8);
+        assertTrue(text.startsWith("id: 1\nevent: message\ndata: {"));
+        assertTrue(text.contains("\"data\":\"hello\""));
+        assertTrue(text.endsWith("\n\n"));
+    }
+
+    @Test
+    void plainStreamWritesFramesAsIs() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        EventStream stream = new EventStream(output, false);
+        EventHistory history = new EventHistory(4);
+
+        EventHistory.Entry first = history.append(LogEvent.info(serverId, "a"));
+        EventHistory.Entry second = history.append(LogEvent.info(serverId, "b"));
+        stream.accept(first);
+        stream.accept(second);
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        expected.write(first.frame());
+        expected.write(second.frame());
+        assertArrayEquals(expected.toByteArray(), output.toByteArray());
+    }
+
+    @Test
+    void gzipStreamIsReadableAfterEveryFlush() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        EventStream stream = new EventStream(output, true);
+        EventHistory.Entry entry = new EventHistory(4).append(LogEvent.info(serverId, "compressed"));
+
+        stream.accept(entry);
+
+        // Not closed yet: the sync flush alone must make the frame decodable.
+        byte[] decoded = new byte[entry.frame().length];
+        try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(output.toByteArray()))) {
+            int read = 0;
+            while (read < decoded.length) {
+                int n = input.read(decoded, read, decoded.length - read);
+                if (n < 0) {
+                    break;
+                }
+                read += n;
+            }
+            assertEquals(decoded.length, read);
+        }
+        assertArrayEquals(entry.frame(), decoded);
+    }
+
+    @Test
+    void failedWriteClosesStreamOnce() throws IOException {
+        OutputStream broken = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("client went away");
+            }
+        };
+        EventStream stream = new EventStream(broken, false);
+        AtomicInteger closes = new AtomicInteger();
+        stream.onClose(closes::incrementAndGet);
+
+        stream.ping();
+        stream.ping();
+        stream.close();
+
+        assertTrue(stream.isClosed());
+        assertTrue(stream.closed().isDone());
+        assertEquals(1, closes.get());
+    }
+
+    @Test
+    void gzipIsNegotiatedFromAcceptEncoding() {
+        assertTrue(EventStream.acceptsGzip("gzip, deflate, br"));
+        assertTrue(EventStream.acceptsGzip("br;q=1.0, GZIP;q=0.5"));
+        assertFalse(EventStream.acceptsGzip(null));
+        assertFalse(EventStream.acceptsGzip("identity"));
+        assertFalse(EventStream.acceptsGzip("gzip;q=0"));
+        assertFalse(EventStream.acceptsGzip("gzip; q=0.000"));
+    }
+}
@@ -0,0 +1,147 @@
+package server.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.Test;
+
+import enums.NodeRemoveReason;
+import events.ServerEvents.ResumeEvent;
+import server.EnvConfig;
+import server.manager.NodeManager;
+
+public class GatewayServiceTest {
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2024-05-01T10:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+
+    private final UUID serverId = UUID.randomUUID();
+    private final MutableClock clock = new MutableClock();
+    private final EventBus eventBus = new EventBus();
+    private final List<NodeRemoveReason> removed = new CopyOnWriteArrayList<>();
+
+    private volatile boolean paused;
+
+    private final GatewayService service = new GatewayService(eventBus, envConfig(), nodeManager(), clock);
+
+    @Test
+    void silentServerIsTerminated() {
+        var client = service.of(serverId);
+
+        clock.advance(Duration.ofMinutes(2));
+        service.sweep();
+        assertFalse(client.isTerminated());
+
+        clock.advance(Duration.ofMinutes(2));
+        service.sweep();
+        assertTrue(client.isTerminated());
+        assertEquals(List.of(NodeRemoveReason.NOT_CONNECTED), removed);
+    }
+
+    @Test
+    void resumedServerGetsTheFullGracePeriod() {
+        var client = service.of(serverId);
+
+        // Frozen for longer than the grace period, without a sweep in between.
+        paused = true;
+        clock.advance(Duration.ofMinutes(10));
+
+        paused = false;
+        eventBus.emit(new ResumeEvent(serverId, "HOST"));
+        service.sweep();
+
+        assertFalse(client.isTerminated());
+        assertTrue(removed.isEmpty());
+
+        clock.advance(Duration.ofMinutes(4));
+        service.sweep();
+        assertTrue(client.isTerminated());
+    }
+
+    @Test
+    void sweepBeforeTheResumeEventKeepsTheServer() {
+        var client = service.of(serverId);
+
+        paused = true;
+        clock.advance(Duration.ofMinutes(10));
+        service.sweep();
+        assertFalse(client.isTerminated());
+
+        // Unpaused, but docker has not reported it yet.
+        paused = false;
+        clock.advance(Duration.ofSeconds(15));
+        service.sweep();
+
+        assertFalse(client.isTerminated());
+        assertTrue(removed.isEmpty());
+    }
+
+    private static EnvConfig envConfig() {
+        return new EnvConfig(
+                new EnvConfig.DockerEnv("image", null, null, null, "", 1024),
+                new EnvConfig.ServerConfig(false, null, "test-security-key", null, null, Duration.ofSeconds(30),
+                        Duration.ofMinutes(10), Duration.ofMinutes(360), Duration.ofSeconds(2)));
+    }
+
+    private NodeManager nodeManager() {
+        return (NodeManager) Proxy.newProxyInstance(GatewayServiceTest.class.getClassLoader(),
+                new Class<?>[] { NodeManager.class }, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "isPaused":
+                            return paused;
+                        case "remove":
+                            removed.add((NodeRemoveReason) args[1]);
+                            return true;
+                        default:
+                            break;
+                    }
+
+                    Class<?> type = method.getReturnType();
+
+                    if (type == boolean.class) {
+                        return false;
+                    }
+
+                    if (type == long.class) {
+                        return 0L;
+                    }
+
+                    if (type == List.class) {
+                        return List.of();
+                    }
+
+                    return null;
+                });
+    }
+}
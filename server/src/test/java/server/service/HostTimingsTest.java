@@ -0,0 +1,48 @@
+package server.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+public class HostTimingsTest {
+
+    @Test
+    void standbyAndColdStartsAreKeptApart() {
+        HostTimings timings = new HostTimings();
+
+        for (int i = 1; i <= 20; i++) {
+            timings.record(Duration.ofSeconds(i), false);
+        }
+
+        timings.record(Duration.ofMillis(2500), true);
+
+        var cold = timings.summary().get("cold");
+        assertEquals(20, cold.count());
+        assertEquals(20_000, cold.lastMillis());
+        assertEquals(10_000, cold.p50Millis());
+        assertEquals(19_000, cold.p95Millis());
+        assertEquals(20_000, cold.maxMillis());
+
+        var standby = timings.summary().get("standby");
+        assertEquals(1, standby.count());
+        assertEquals(2500, standby.p95Millis());
+    }
+
+    @Test
+    void onlyRecentStartsCount() {
+        HostTimings timings = new HostTimings();
+
+        timings.record(Duration.ofMinutes(10), false);
+
+        for (int i = 0; i < 100; i++) {
+            timings.record(Duration.ofSeconds(1), false);
+        }
+
+        var cold = timings.summary().get("cold");
+        assertEquals(101, cold.count());
+        assertEquals(1000, cold.maxMillis());
+        assertEquals(0, timings.summary().get("standby").count());
+    }
+}
@@ -0,0 +1,62 @@
+package server.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import server.service.IdlePolicy.Action;
+
+public class IdlePolicyTest {
+
+    private final IdlePolicy policy = new IdlePolicy(Duration.ofMinutes(10), Duration.ofHours(6));
+    private final UUID serverId = UUID.randomUUID();
+    private final Instant start = Instant.parse("2026-01-01T00:00:00Z");
+
+    private Instant at(Duration offset) {
+        return start.plus(offset);
+    }
+
+    @Test
+    void idleServerIsPausedThenRemoved() {
+        assertEquals(Action.KEEP, policy.running(serverId, false, start));
+        assertEquals(Action.KEEP, policy.running(serverId, false, at(Duration.ofMinutes(9))));
+        assertEquals(Action.PAUSE, policy.running(serverId, false, at(Duration.ofMinutes(10))));
+
+        assertEquals(Action.KEEP, policy.paused(serverId, at(Duration.ofMinutes(10))));
+        assertEquals(Action.KEEP, policy.paused(serverId, at(Duration.ofHours(6))));
+        assertEquals(Action.REMOVE, policy.paused(serverId, at(Duration.ofMinutes(370))));
+    }
+
+    @Test
+    void playersResetTheIdleClock() {
+        policy.running(serverId, false, start);
+
+        assertEquals(Action.KEEP, policy.running(serverId, true, at(Duration.ofMinutes(9))));
+        assertEquals(Action.KEEP, policy.running(serverId, false, at(Duration.ofMinutes(12))));
+        assertEquals(Action.PAUSE, policy.running(serverId, false, at(Duration.ofMinutes(22))));
+    }
+
+    @Test
+    void resumedServerStartsOver() {
+        policy.running(serverId, false, start);
+        policy.paused(serverId, at(Duration.ofMinutes(10)));
+
+        policy.resumed(serverId);
+
+        assertEquals(Action.KEEP, policy.running(serverId, false, at(Duration.ofHours(7))));
+        assertEquals(Action.KEEP, policy.paused(serverId, at(Duration.ofHours(8))));
+    }
+
+    @Test
+    void forgottenServersStartOver() {
+        policy.running(serverId, false, start);
+        policy.retain(Set.of());
+
+        assertEquals(Action.KEEP, policy.running(serverId, false, at(Duration.ofMinutes(10))));
+    }
+}
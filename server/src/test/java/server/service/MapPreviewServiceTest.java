@@ -0,0 +1,138 @@
+package server.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import arc.files.Fi;
+import server.utils.ApiError;
+
+public class MapPreviewServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger started = new AtomicInteger();
+
+    /** Stands in for MapIO: an image as wide as the map file, held until released. */
+    private final MapPreviewService service = new MapPreviewService(file -> {
+        started.incrementAndGet();
+        try {
+            release.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return new BufferedImage((int) file.length(), 10, BufferedImage.TYPE_INT_ARGB);
+    }, 1, 1);
+
+    @AfterEach
+    void close() {
+        release.countDown();
+        service.close();
+    }
+
+    private Fi map(String name, int size) throws Exception {
+        Path file = tempDir.resolve(name);
+        Files.write(file, new byte[size]);
+        return new Fi(file.toFile());
+    }
+
+    @Test
+    void concurrentRequestsForOneMapShareARender() throws Exception {
+        Fi map = map("a.msav", 720);
+        List<CompletableFuture<byte[]>> previews = new ArrayList<>();
+
+        for (int i = 0; i < 20; i++) {
+            previews.add(service.preview(map));
+        }
+
+        release.countDown();
+
+        byte[] first = previews.get(0).get(5, TimeUnit.SECONDS);
+        for (var preview : previews) {
+            assertArrayEquals(first, preview.get(5, TimeUnit.SECONDS));
+        }
+
+        assertEquals(1, service.renderCount());
+
+        // Scaled to fit the 360 pixel preview box.
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(first));
+        assertEquals(360, image.getWidth());
+        assertEquals(5, image.getHeight());
+    }
+
+    @Test
+    void identicalContentIsServedFromTheCache() throws Exception {
+        release.countDown();
+
+        byte[] first = service.preview(map("a.msav", 400)).get(5, TimeUnit.SECONDS);
+        byte[] copy = service.preview(map("copy-of-a.msav", 400)).get(5, TimeUnit.SECONDS);
+
+        assertArrayEquals(first, copy);
+        assertEquals(1, service.renderCount());
+
+        service.preview(map("b.msav", 200)).get(5, TimeUnit.SECONDS);
+        assertEquals(2, service.renderCount());
+    }
+
+    @Test
+    void changedContentIsRenderedAgain() throws Exception {
+        release.countDown();
+        Fi map = map("a.msav", 400);
+
+        byte[] before = service.preview(map).get(5, TimeUnit.SECONDS);
+        Files.write(map.file().toPath(), new byte[200]);
+        byte[] after = service.preview(map).get(5, TimeUnit.SECONDS);
+
+        assertEquals(2, service.renderCount());
+        assertEquals(9, ImageIO.read(new ByteArrayInputStream(before)).getHeight());
+        assertEquals(18, ImageIO.read(new ByteArrayInputStream(after)).getHeight());
+    }
+
+    @Test
+    void fullQueueRejectsNewRenders() throws Exception {
+        // One render running and one queued fill the pool.
+        service.preview(map("a.msav", 100));
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (started.get() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+
+        service.preview(map("b.msav", 200));
+
+        var rejected = service.preview(map("c.msav", 300));
+        var error = assertThrows(ExecutionException.class, () -> rejected.get(5, TimeUnit.SECONDS));
+
+        assertInstanceOf(ApiError.class, error.getCause());
+        assertEquals(503, ((ApiError) error.getCause()).status);
+    }
+
+    @Test
+    void missingMapFails() {
+        var missing = service.preview(new Fi(tempDir.resolve("missing.msav").toFile()));
+        var error = assertThrows(ExecutionException.class, () -> missing.get(5, TimeUnit.SECONDS));
+
+        assertEquals(404, ((ApiError) error.getCause()).status);
+    }
+}
@@ -0,0 +1,98 @@
+package server.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+public class RequestCoalescerTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final RequestCoalescer<String> coalescer = new RequestCoalescer<>(now::get);
+    private final AtomicInteger sent = new AtomicInteger();
+    private final List<CompletableFuture<String>> inFlight = new ArrayList<>();
+
+    private CompletableFuture<String> send() {
+        sent.incrementAndGet();
+        CompletableFuture<String> future = new CompletableFuture<>();
+        inFlight.add(future);
+        return future;
+    }
+
+    @Test
+    void concurrentCallersShareOneRequest() throws Exception {
+        List<CompletableFuture<String>> callers = new ArrayList<>();
+
+        for (int i = 0; i < 10; i++) {
+            callers.add(coalescer.execute("get-state", Duration.ZERO, this::send));
+        }
+
+        inFlight.get(0).complete("state");
+
+        assertEquals(1, sent.get());
+        for (var caller : callers) {
+            assertEquals("state", caller.get());
+        }
+        assertEquals(0, coalescer.size());
+    }
+
+    @Test
+    void differentKeysAreSentSeparately() {
+        coalescer.execute("get-state", Duration.ZERO, this::send);
+        coalescer.execute("get-players-info:1", Duration.ZERO, this::send);
+        coalescer.execute("get-players-info:2", Duration.ZERO, this::send);
+
+        assertEquals(3, sent.get());
+    }
+
+    @Test
+    void resultIsReusedUntilItsTtlRunsOut() throws Exception {
+        coalescer.execute("get-state", Duration.ofSeconds(1), this::send);
+        inFlight.get(0).complete("first");
+
+        now.addAndGet(Duration.ofMillis(999).toNanos());
+        assertEquals("first", coalescer.execute("get-state", Duration.ofSeconds(1), this::send).get());
+        assertEquals(1, sent.get());
+
+        now.addAndGet(Duration.ofMillis(1).toNanos());
+        var next = coalescer.execute("get-state", Duration.ofSeconds(1), this::send);
+        inFlight.get(1).complete("second");
+
+        assertEquals(2, sent.get());
+        assertEquals("second", next.get());
+    }
+
+    @Test
+    void failuresAreSharedButNotReused() {
+        var first = coalescer.execute("get-state", Duration.ofSeconds(10), this::send);
+        var second = coalescer.execute("get-state", Duration.ofSeconds(10), this::send);
+        inFlight.get(0).completeExceptionally(new IllegalStateException("timeout"));
+
+        assertThrows(ExecutionException.class, first::get);
+        assertThrows(ExecutionException.class, second::get);
+
+        coalescer.execute("get-state", Duration.ofSeconds(10), this::send);
+        assertEquals(2, sent.get());
+    }
+
+    @Test
+    void cancellingOneCallerLeavesTheOthersWaiting() throws Exception {
+        var first = coalescer.execute("get-state", Duration.ZERO, this::send);
+        var second = coalescer.execute("get-state", Duration.ZERO, this::send);
+
+        first.cancel(true);
+        inFlight.get(0).complete("state");
+
+        assertTrue(first.isCancelled());
+        assertEquals("state", second.get());
+    }
+}
@@ -0,0 +1,72 @@
+package server.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import arc.files.Fi;
+
+public class ServerActivityTest {
+
+    private static final Duration REMOVE_AFTER = Duration.ofDays(30);
+
+    @TempDir
+    Path tempDir;
+
+    private final UUID serverId = UUID.randomUUID();
+    private final Instant start = Instant.parse("2026-03-01T10:00:00Z");
+
+    private ServerActivity activity;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Files.createDirectories(tempDir.resolve(serverId.toString()).resolve("config"));
+        activity = new ServerActivity(new Fi(tempDir.toFile()));
+    }
+
+    @Test
+    void serverWithoutRecordGetsTheFullPeriod() {
+        assertFalse(activity.isExpired(serverId, REMOVE_AFTER, start));
+        assertEquals(Optional.of(start), activity.lastActive(serverId));
+
+        assertFalse(activity.isExpired(serverId, REMOVE_AFTER, start.plus(Duration.ofDays(29))));
+        assertTrue(activity.isExpired(serverId, REMOVE_AFTER, start.plus(Duration.ofDays(31))));
+    }
+
+    @Test
+    void useRestartsThePeriod() {
+        activity.touch(serverId, start);
+        activity.touch(serverId, start.plus(Duration.ofDays(20)));
+
+        assertFalse(activity.isExpired(serverId, REMOVE_AFTER, start.plus(Duration.ofDays(40))));
+        assertTrue(activity.isExpired(serverId, REMOVE_AFTER, start.plus(Duration.ofDays(51))));
+    }
+
+    @Test
+    void removedServerIsNotRecreated() {
+        UUID removed = UUID.randomUUID();
+
+        activity.touch(removed, start);
+
+        assertFalse(Files.exists(tempDir.resolve(removed.toString())));
+    }
+
+    @Test
+    void unreadableRecordIsReplaced() throws Exception {
+        Files.writeString(tempDir.resolve(serverId.toString()).resolve(ServerActivity.LAST_ACTIVE_FILE), "yesterday");
+
+        assertFalse(activity.isExpired(serverId, REMOVE_AFTER, start));
+        assertEquals(Optional.of(start), activity.lastActive(serverId));
+    }
+}
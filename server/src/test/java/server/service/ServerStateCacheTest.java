@@ -0,0 +1,96 @@
+package server.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import dto.ServerStateDto;
+import dto.ServerStatus;
+
+public class ServerStateCacheTest {
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2024-05-01T10:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+
+    private final MutableClock clock = new MutableClock();
+    private final ServerStateCache cache = new ServerStateCache(clock);
+
+    private static ServerStateDto state(UUID serverId, String mapName) {
+        return new ServerStateDto().setServerId(serverId).setMapName(mapName).setStatus(ServerStatus.ONLINE);
+    }
+
+    @Test
+    void entryIsFreshUntilItIsOlderThanTheBound() {
+        UUID serverId = UUID.randomUUID();
+        cache.update(serverId, state(serverId, "Ground Zero"));
+
+        clock.advance(Duration.ofSeconds(30));
+        assertEquals("Ground Zero", cache.fresh(serverId, Duration.ofSeconds(30)).orElseThrow().state().getMapName());
+
+        clock.advance(Duration.ofMillis(1));
+        assertTrue(cache.fresh(serverId, Duration.ofSeconds(30)).isEmpty());
+        assertTrue(cache.get(serverId).isPresent());
+    }
+
+    @Test
+    void updateReplacesTheEntryAndResetsItsAge() {
+        UUID serverId = UUID.randomUUID();
+        cache.update(serverId, state(serverId, "Ground Zero"));
+        clock.advance(Duration.ofMinutes(5));
+        cache.update(serverId, state(serverId, "Frozen Forest"));
+
+        var entry = cache.fresh(serverId, Duration.ofSeconds(1)).orElseThrow();
+
+        assertEquals("Frozen Forest", entry.state().getMapName());
+        assertEquals(Duration.ZERO, entry.age(clock.instant()));
+    }
+
+    @Test
+    void allListsNewestFirstAndRetainDropsUnknownServers() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+
+        cache.update(first, state(first, "Ground Zero"));
+        clock.advance(Duration.ofSeconds(1));
+        cache.update(second, state(second, "Frozen Forest"));
+
+        List<ServerStateCache.Entry> all = cache.all();
+        assertEquals(second, all.get(0).state().getServerId());
+        assertEquals(first, all.get(1).state().getServerId());
+
+        cache.retain(Set.of(first));
+
+        assertEquals(1, cache.size());
+        assertTrue(cache.get(second).isEmpty());
+    }
+}
@@ -0,0 +1,88 @@
+package server.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class FileDownloadTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void missingOrMalformedRangeSendsWholeFile() {
+        assertNull(FileDownload.parseRange(null, 100));
+        assertNull(FileDownload.parseRange("items=0-10", 100));
+        assertNull(FileDownload.parseRange("bytes=abc-", 100));
+        assertNull(FileDownload.parseRange("bytes=0-10,20-30", 100));
+        assertNull(FileDownload.parseRange("bytes=50-10", 100));
+    }
+
+    @Test
+    void parsesClosedOpenAndSuffixRanges() {
+        assertEquals(new FileDownload.Range(0, 9), FileDownload.parseRange("bytes=0-9", 100));
+        assertEquals(new FileDownload.Range(40, 99), FileDownload.parseRange("bytes=40-", 100));
+        assertEquals(new FileDownload.Range(90, 99), FileDownload.parseRange("bytes=-10", 100));
+        assertEquals(new FileDownload.Range(0, 99), FileDownload.parseRange("bytes=-500", 100));
+        assertEquals(new FileDownload.Range(95, 99), FileDownload.parseRange("bytes=95-200", 100));
+    }
+
+    @Test
+    void rangePastEndIsNotSatisfiable() {
+        ApiError error = assertThrows(ApiError.class, () -> FileDownload.parseRange("bytes=100-", 100));
+        assertEquals(416, error.status);
+
+        assertEquals(416, assertThrows(ApiError.class, () -> FileDownload.parseRange("bytes=-0", 100)).status);
+    }
+
+    @Test
+    void ifRangeMustMatchCurrentFile() {
+        long modified = 1_700_000_000_000L;
+        String etag = FileDownload.etag(100, modified);
+
+        assertTrue(FileDownload.ifRangeMatches(null, etag, modified));
+        assertTrue(FileDownload.ifRangeMatches(etag, etag, modified));
+        assertFalse(FileDownload.ifRangeMatches(FileDownload.etag(101, modified), etag, modified));
+        assertTrue(FileDownload.ifRangeMatches("Tue, 14 Nov 2023 22:13:20 GMT", etag, modified));
+        assertFalse(FileDownload.ifRangeMatches("Tue, 14 Nov 2023 22:13:21 GMT", etag, modified));
+        assertFalse(FileDownload.ifRangeMatches("not a date", etag, modified));
+    }
+
+    @Test
+    void etagChangesWithSizeAndModificationTime() {
+        assertEquals(FileDownload.etag(10, 20), FileDownload.etag(10, 20));
+        assertFalse(FileDownload.etag(10, 20).equals(FileDownload.etag(11, 20)));
+        assertFalse(FileDownload.etag(10, 20).equals(FileDownload.etag(10, 21)));
+    }
+
+    @Test
+    void transferWritesOnlyTheRequestedRange() throws Exception {
+        byte[] data = new byte[1 << 20];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+
+        Path file = tempDir.resolve("world.msav");
+        Files.write(file, data);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            FileDownload.transfer(channel, new FileDownload.Range(1000, 300_999), output);
+        }
+
+        assertArrayEquals(Arrays.copyOfRange(data, 1000, 301_000), output.toByteArray());
+    }
+}
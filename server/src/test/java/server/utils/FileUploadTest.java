@@ -0,0 +1,264 @@
+package server.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class FileUploadTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static byte[] bytes(int size) {
+        byte[] data = new byte[size];
+        for (int i = 0; i < size; i++) {
+            data[i] = (byte) i;
+        }
+        return data;
+    }
+
+    /** Yields {@code size} bytes, then fails like a dropped connection. */
+    private static InputStream breaksAfter(int size) {
+        return new InputStream() {
+            private int read;
+
+            @Override
+            public int read() throws IOException {
+                if (read == size) {
+                    throw new IOException("Connection reset");
+                }
+                return read++ & 0xff;
+            }
+        };
+    }
+
+    private long tempFiles() throws IOException {
+        try (var files = Files.walk(tempDir)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".upload")).count();
+        }
+    }
+
+    @Test
+    void writeReplacesTheTargetOnlyWhenComplete() throws Exception {
+        Path target = tempDir.resolve("maps").resolve("map.msav");
+        byte[] data = bytes(200_000);
+
+        assertEquals(data.length, FileUpload.write(target, new ByteArrayInputStream(data), 1_000_000));
+        assertArrayEquals(data, Files.readAllBytes(target));
+
+        assertThrows(IOException.class, () -> FileUpload.write(target, breaksAfter(1000), 1_000_000));
+
+        assertArrayEquals(data, Files.readAllBytes(target));
+        assertEquals(0, tempFiles());
+    }
+
+    @Test
+    void writeStopsAtTheSizeLimit() throws Exception {
+        Path target = tempDir.resolve("mod.jar");
+        Files.write(target, bytes(10));
+
+        ApiError error = assertThrows(ApiError.class,
+                () -> FileUpload.write(target, new ByteArrayInputStream(bytes(101)), 100));
+
+        assertEquals(413, error.status);
+        assertArrayEquals(bytes(10), Files.readAllBytes(target));
+        assertEquals(0, tempFiles());
+    }
+
+    @Test
+    void writeRejectsDirectories() throws Exception {
+        Path target = Files.createDirectory(tempDir.resolve("maps"));
+
+        assertEquals(400, assertThrows(ApiError.class,
+                () -> FileUpload.write(target, new ByteArrayInputStream(bytes(1)), 100)).status);
+    }
+
+    @Test
+    void chunkedUploadResumesFromTheReceivedOffset() throws Exception {
+        Path target = tempDir.resolve("mod.jar");
+        byte[] data = bytes(3000);
+        Files.write(target, bytes(5));
+
+        assertEquals(0, FileUpload.offset(target));
+        assertEquals(1000, FileUpload.append(target, 0, new ByteArrayInputStream(data, 0, 1000), 10_000));
+
+        // The connection drops halfway through the second chunk, which is discarded.
+        assertThrows(IOException.class, () -> FileUpload.append(target, 1000, breaksAfter(500), 10_000));
+        assertEquals(1000, FileUpload.offset(target));
+
+        assertEquals(3000, FileUpload.append(target, 1000, new ByteArrayInputStream(data, 1000, 2000), 10_000));
+
+        // The old file is untouched until the upload completes.
+        assertArrayEquals(bytes(5), Files.readAllBytes(target));
+
+        FileUpload.complete(target, 3000);
+
+        assertArrayEquals(data, Files.readAllBytes(target));
+        assertFalse(Files.exists(FileUpload.partFile(target)));
+        assertEquals(0, FileUpload.offset(target));
+    }
+
+    @Test
+    void chunkAtTheWrongOffsetIsRejected() throws Exception {
+        Path target = tempDir.resolve("mod.jar");
+        FileUpload.append(target, 0, new ByteArrayInputStream(bytes(100)), 10_000);
+
+        ApiError error = assertThrows(ApiError.class,
+                () -> FileUpload.append(target, 50, new ByteArrayInputStream(bytes(100)), 10_000));
+
+        assertEquals(409, error.status);
+        assertEquals(100, FileUpload.offset(target));
+    }
+
+    @Test
+    void stalledChunkOnlyHoldsUpItsOwnUpload() throws Exception {
+        Path stalled = tempDir.resolve("stalled.jar");
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        InputStream slowClient = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                reading.countDown();
+
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+
+                return -1;
+            }
+        };
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            Future<Long> chunk = executor.submit(() -> FileUpload.append(stalled, 0, slowClient, 10_000));
+            assertTrue(reading.await(5, TimeUnit.SECONDS));
+
+            // Another upload, and the sweep, go ahead while the slow chunk streams.
+            Path other = tempDir.resolve("other.jar");
+            assertEquals(100, FileUpload.append(other, 0, new ByteArrayInputStream(bytes(100)), 10_000));
+            FileUpload.complete(other, 100);
+
+            Files.setLastModifiedTime(FileUpload.partFile(stalled), FileTime.from(Instant.now().minus(Duration.ofDays(2))));
+            assertEquals(0, FileUpload.sweep(tempDir, Duration.ofDays(1)));
+
+            // The same upload is turned away instead of waiting.
+            assertEquals(409, assertThrows(ApiError.class,
+                    () -> FileUpload.append(stalled, 0, new ByteArrayInputStream(bytes(10)), 10_000)).status);
+            assertEquals(409, assertThrows(ApiError.class, () -> FileUpload.abort(stalled)).status);
+
+            release.countDown();
+            assertEquals(0, (long) chunk.get(5, TimeUnit.SECONDS));
+            assertTrue(FileUpload.abort(stalled));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void chunkedUploadStopsAtTheSizeLimit() throws Exception {
+        Path target = tempDir.resolve("mod.jar");
+        FileUpload.append(target, 0, new ByteArrayInputStream(bytes(80)), 100);
+
+        ApiError error = assertThrows(ApiError.class,
+                () -> FileUpload.append(target, 80, new ByteArrayInputStream(bytes(30)), 100));
+
+        assertEquals(413, error.status);
+        assertEquals(80, FileUpload.offset(target));
+    }
+
+    @Test
+    void completeChecksTheSize() throws Exception {
+        Path target = tempDir.resolve("mod.jar");
+
+        assertEquals(404, assertThrows(ApiError.class, () -> FileUpload.complete(target, 0)).status);
+
+        FileUpload.append(target, 0, new ByteArrayInputStream(bytes(100)), 10_000);
+
+        assertEquals(409, assertThrows(ApiError.class, () -> FileUpload.complete(target, 200)).status);
+        assertFalse(Files.exists(target));
+    }
+
+    @Test
+    void abortDiscardsTheUpload() throws Exception {
+        Path target = tempDir.resolve("mod.jar");
+        FileUpload.append(target, 0, new ByteArrayInputStream(bytes(100)), 10_000);
+
+        assertTrue(FileUpload.abort(target));
+        assertFalse(FileUpload.abort(target));
+        assertEquals(0, FileUpload.offset(target));
+        assertFalse(Files.exists(target));
+    }
+
+    @Test
+    void writtenFilesGetTheUsualPermissions() throws Exception {
+        assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+
+        Path reference = Files.createFile(tempDir.resolve("reference"));
+        Path target = tempDir.resolve("map.msav");
+
+        FileUpload.write(target, new ByteArrayInputStream(bytes(10)), 100);
+
+        assertEquals(Files.getPosixFilePermissions(reference), Files.getPosixFilePermissions(target));
+    }
+
+    @Test
+    void sweepDeletesOnlyAbandonedUploads() throws Exception {
+        FileTime old = FileTime.from(Instant.now().minus(Duration.ofDays(2)));
+
+        Path abandoned = tempDir.resolve("a").resolve("mod.jar");
+        FileUpload.append(abandoned, 0, new ByteArrayInputStream(bytes(100)), 10_000);
+        Files.setLastModifiedTime(FileUpload.partFile(abandoned), old);
+
+        Path active = tempDir.resolve("b").resolve("mod.jar");
+        FileUpload.append(active, 0, new ByteArrayInputStream(bytes(100)), 10_000);
+
+        Path crashed = Files.write(tempDir.resolve(".map.msav.1234.upload"), bytes(10));
+        Files.setLastModifiedTime(crashed, old);
+
+        Path map = Files.write(tempDir.resolve("map.msav"), bytes(10));
+        Files.setLastModifiedTime(map, old);
+
+        assertEquals(2, FileUpload.sweep(tempDir, Duration.ofDays(1)));
+
+        assertEquals(0, FileUpload.offset(abandoned));
+        assertEquals(100, FileUpload.offset(active));
+        assertFalse(Files.exists(crashed));
+        assertTrue(Files.exists(map));
+    }
+
+    @Test
+    void copyCountsEveryByte() throws Exception {
+        var output = new ByteArrayOutputStream();
+        byte[] data = bytes(150_000);
+
+        assertEquals(data.length, FileUpload.copy(new ByteArrayInputStream(data), output, data.length));
+        assertArrayEquals(data, output.toByteArray());
+    }
+}
@@ -0,0 +1,134 @@
+package server.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class HashedWheelTimerTest {
+
+    private final HashedWheelTimer timer = new HashedWheelTimer("test-timer", Duration.ofMillis(10), 64);
+
+    @AfterEach
+    void close() {
+        timer.close();
+    }
+
+    @Test
+    void timeoutFiresAfterItsDelay() throws Exception {
+        CountDownLatch fired = new CountDownLatch(1);
+        long start = System.nanoTime();
+
+        timer.schedule(fired::countDown, Duration.ofMillis(50));
+
+        assertTrue(fired.await(2, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+        assertEquals(0, timer.pending());
+    }
+
+    @Test
+    void cancelledTimeoutNeverFires() throws Exception {
+        AtomicInteger fired = new AtomicInteger();
+        var timeout = timer.schedule(fired::incrementAndGet, Duration.ofMillis(30));
+
+        assertTrue(timeout.cancel());
+        assertFalse(timeout.cancel());
+        assertFalse(timeout.isPending());
+
+        Thread.sleep(100);
+
+        assertEquals(0, fired.get());
+        assertEquals(0, timer.pending());
+    }
+
+    @Test
+    void delaysLongerThanOneTurnOfTheWheelWaitTheirRounds() throws Exception {
+        CountDownLatch fired = new CountDownLatch(1);
+        long start = System.nanoTime();
+
+        // 64 buckets of 10 ms make one turn 640 ms.
+        timer.schedule(fired::countDown, Duration.ofMillis(900));
+
+        assertTrue(fired.await(3, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(900));
+    }
+
+    @Test
+    void fiftyThousandConcurrentRequests() throws Exception {
+        int requests = 50_000;
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        AtomicInteger timedOut = new AtomicInteger();
+        AtomicLong early = new AtomicLong();
+        List<CompletableFuture<String>> answered = new ArrayList<>();
+
+        try {
+            List<Future<List<CompletableFuture<String>>>> batches = new ArrayList<>();
+
+            for (int t = 0; t < threads; t++) {
+                batches.add(executor.submit(() -> {
+                    List<CompletableFuture<String>> mine = new ArrayList<>();
+
+                    for (int i = 0; i < requests / threads; i++) {
+                        // Like a gateway request: a future with a timeout that is cancelled when the response arrives.
+                        CompletableFuture<String> request = new CompletableFuture<>();
+                        Duration delay = Duration.ofMillis(2000 + i % 500);
+                        long scheduledAt = System.nanoTime();
+
+                        var timeout = timer.schedule(() -> {
+                            if (System.nanoTime() - scheduledAt < delay.toNanos()) {
+                                early.incrementAndGet();
+                            }
+                            if (request.completeExceptionally(new TimeoutException())) {
+                                timedOut.incrementAndGet();
+                            }
+                        }, delay);
+
+                        request.whenComplete((res, err) -> timeout.cancel());
+
+                        if (i % 2 == 0) {
+                            mine.add(request);
+                        }
+                    }
+
+                    return mine;
+                }));
+            }
+
+            for (var batch : batches) {
+                answered.addAll(batch.get());
+            }
+
+            // Half of the requests get their response before the deadline.
+            answered.forEach(request -> request.complete("ok"));
+
+            assertEquals(requests / 2, timer.pending());
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while ((timer.pending() > 0 || timedOut.get() < requests / 2) && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+
+            assertEquals(0, timer.pending());
+            assertEquals(requests / 2, timedOut.get());
+            assertEquals(0, early.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package server.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import arc.files.Fi;
+
+public class MapRendererTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * A 4x3 stone map with a stone wall down the right column and one copper
+     * ore at the top left.
+     */
+    private Fi fixture() throws Exception {
+        Path map = tempDir.resolve("walled.msav");
+
+        try (var input = MapRendererTest.class.getResourceAsStream("/maps/walled.msav")) {
+            Files.copy(input, map);
+        }
+
+        return new Fi(map.toFile());
+    }
+
+    @Test
+    void rendersFloorsOresAndWalls() throws Exception {
+        BufferedImage image = MapRenderer.render(fixture());
+
+        assertEquals(4, image.getWidth());
+        assertEquals(3, image.getHeight());
+
+        int stone = image.getRGB(1, 1);
+        int ore = image.getRGB(0, 0);
+        int wall = image.getRGB(3, 1);
+
+        for (int y = 0; y < 3; y++) {
+            for (int x = 0; x < 4; x++) {
+                assertEquals(0xFF, image.getRGB(x, y) >>> 24, "pixel " + x + "," + y + " is not opaque");
+            }
+
+            assertEquals(wall, image.getRGB(3, y));
+        }
+
+        assertEquals(stone, image.getRGB(2, 2));
+        assertNotEquals(stone, wall);
+        assertNotEquals(stone, ore);
+        assertNotEquals(0xFF000000, stone);
+    }
+
+    @Test
+    void rendersAgainWithoutReloadingContent() throws Exception {
+        Fi map = fixture();
+        BufferedImage first = MapRenderer.render(map);
+        BufferedImage second = MapRenderer.render(map);
+
+        for (int y = 0; y < 3; y++) {
+            for (int x = 0; x < 4; x++) {
+                assertEquals(first.getRGB(x, y), second.getRGB(x, y));
+            }
+        }
+    }
+
+    @Test
+    void brokenMapIsRejected() throws Exception {
+        Path broken = tempDir.resolve("broken.msav");
+        Files.write(broken, new byte[] { 1, 2, 3, 4 });
+
+        assertEquals(422, assertThrows(ApiError.class, () -> MapRenderer.render(new Fi(broken.toFile()))).status);
+    }
+
+    @Test
+    void convertsRgbaToArgb() {
+        assertEquals(0xFF112233, MapRenderer.toArgb(0x112233FF));
+        assertEquals(0x80000000, MapRenderer.toArgb(0x00000080));
+        assertEquals(0x112233FF, MapRenderer.toRgba(MapRenderer.toArgb(0x112233FF)));
+    }
+}